@@ -0,0 +1,379 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.Collection;
+import java.util.Map;
+
+import de.fhdw.gaming.othello.core.domain.OthelloBoard;
+import de.fhdw.gaming.othello.core.domain.OthelloField;
+import de.fhdw.gaming.othello.core.domain.OthelloFieldState;
+import de.fhdw.gaming.othello.core.domain.OthelloPosition;
+
+/**
+ * Describes the geometry of an Othello board whose fields fit into a single {@code long}, and implements the rules of
+ * the game on such bit boards.
+ * <p>
+ * A set of fields is represented by a {@code long} where the field at row {@code r} and column {@code c} corresponds
+ * to bit {@code r * 8 + c}. This layout is used for every supported board size, so boards smaller than 8x8 simply
+ * leave the bits outside of {@link #getValidSquares()} unused. A position is given by two disjoint sets of fields: the
+ * ones occupied by the player to move and the ones occupied by the opponent.
+ * <p>
+ * Objects of this class are immutable and hence may be shared between threads.
+ */
+public final class OthelloBitBoard {
+
+    /**
+     * The largest number of rows (and columns) a bit board can represent.
+     */
+    public static final int MAXIMUM_SIZE = 8;
+    /**
+     * The distance between two vertically adjacent fields in the bit layout.
+     */
+    public static final int STRIDE = 8;
+    /**
+     * The square returned for a skip move.
+     */
+    public static final int PASS = -1;
+    /**
+     * The number of directions {@link #shift(long, int)} accepts.
+     */
+    public static final int DIRECTION_COUNT = 8;
+
+    /**
+     * All fields except the ones in the first column.
+     */
+    private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+    /**
+     * All fields except the ones in the last column of an 8x8 board.
+     */
+    private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+    /**
+     * The multiplier spreading the board size over the bits of a hash.
+     */
+    private static final long SIZE_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    /**
+     * The shift amounts of the eight directions (E, W, S, N, SE, SW, NE, NW).
+     */
+    private static final int[] SHIFTS = { 1, -1, OthelloBitBoard.STRIDE, -OthelloBitBoard.STRIDE,
+        OthelloBitBoard.STRIDE + 1, OthelloBitBoard.STRIDE - 1, -OthelloBitBoard.STRIDE + 1,
+        -OthelloBitBoard.STRIDE - 1 };
+    /**
+     * The supported bit boards, indexed by half of their size.
+     */
+    private static final OthelloBitBoard[] BOARDS = { null, null, new OthelloBitBoard(4),
+        new OthelloBitBoard(6), new OthelloBitBoard(8) };
+
+    /**
+     * The number of rows (and columns).
+     */
+    private final int size;
+    /**
+     * The fields belonging to the board.
+     */
+    private final long validSquares;
+    /**
+     * The four corners of the board.
+     */
+    private final long cornerSquares;
+    /**
+     * The fields on the edges of the board, except the corners.
+     */
+    private final long edgeSquares;
+    /**
+     * The masks to apply after shifting in the direction with the same index in {@link #SHIFTS}.
+     */
+    private final long[] masks;
+
+    /**
+     * Creates a bit board geometry.
+     *
+     * @param size The number of rows (and columns).
+     */
+    private OthelloBitBoard(final int size) {
+        this.size = size;
+        long valid = 0L;
+        for (int row = 0; row < size; ++row) {
+            for (int column = 0; column < size; ++column) {
+                valid |= 1L << OthelloBitBoard.square(row, column);
+            }
+        }
+        this.validSquares = valid;
+        final int last = size - 1;
+        this.cornerSquares = 1L << OthelloBitBoard.square(0, 0) | 1L << OthelloBitBoard.square(0, last)
+                | 1L << OthelloBitBoard.square(last, 0) | 1L << OthelloBitBoard.square(last, last);
+        long edges = 0L;
+        for (int index = 0; index < size; ++index) {
+            edges |= 1L << OthelloBitBoard.square(0, index) | 1L << OthelloBitBoard.square(last, index)
+                    | 1L << OthelloBitBoard.square(index, 0) | 1L << OthelloBitBoard.square(index, last);
+        }
+        this.edgeSquares = edges & ~this.cornerSquares;
+        final long east = valid & OthelloBitBoard.NOT_FIRST_COLUMN;
+        final long west = valid & OthelloBitBoard.NOT_LAST_COLUMN;
+        this.masks = new long[] { east, west, valid, valid, east, west, east, west };
+    }
+
+    /**
+     * Checks whether boards of the given size can be represented as bit boards.
+     *
+     * @param size The number of rows (and columns).
+     * @return {@code true} if {@link #forSize(int)} accepts this size, else {@code false}.
+     */
+    public static boolean supports(final int size) {
+        return size > 0 && size <= OthelloBitBoard.MAXIMUM_SIZE && size % 2 == 0
+                && OthelloBitBoard.BOARDS[size / 2] != null;
+    }
+
+    /**
+     * Returns the bit board geometry for a given board size.
+     *
+     * @param size The number of rows (and columns).
+     * @return The bit board geometry.
+     * @throws IllegalArgumentException if the size is not supported.
+     */
+    public static OthelloBitBoard forSize(final int size) throws IllegalArgumentException {
+        if (!OthelloBitBoard.supports(size)) {
+            throw new IllegalArgumentException(
+                    String.format("The board size %d cannot be represented as a bit board.", size));
+        }
+        return OthelloBitBoard.BOARDS[size / 2];
+    }
+
+    /**
+     * Returns the square of a given row and column.
+     *
+     * @param row    The row number (zero-based).
+     * @param column The column number (zero-based).
+     */
+    public static int square(final int row, final int column) {
+        return row * OthelloBitBoard.STRIDE + column;
+    }
+
+    /**
+     * Returns the square of a given position.
+     *
+     * @param position The position.
+     */
+    public static int square(final OthelloPosition position) {
+        return OthelloBitBoard.square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * Returns the zero-based row number of a square.
+     *
+     * @param square The square.
+     */
+    public static int row(final int square) {
+        return square / OthelloBitBoard.STRIDE;
+    }
+
+    /**
+     * Returns the zero-based column number of a square.
+     *
+     * @param square The square.
+     */
+    public static int column(final int square) {
+        return square % OthelloBitBoard.STRIDE;
+    }
+
+    /**
+     * Returns the position of a square.
+     *
+     * @param square The square.
+     */
+    public static OthelloPosition toPosition(final int square) {
+        return OthelloPosition.of(OthelloBitBoard.row(square), OthelloBitBoard.column(square));
+    }
+
+    /**
+     * Returns a collection of positions as a bit set.
+     *
+     * @param positions The positions. They must lie on a board whose size is {@link #supports(int) supported}.
+     * @return The fields.
+     */
+    public static long squares(final Collection<OthelloPosition> positions) {
+        long squares = 0L;
+        for (final OthelloPosition position : positions) {
+            squares |= 1L << OthelloBitBoard.square(position);
+        }
+        return squares;
+    }
+
+    /**
+     * Returns the fields of an {@link OthelloBoard} being in a given state as a bit set.
+     *
+     * @param board      The board. Its size must be {@link #supports(int) supported}.
+     * @param fieldState The state of the fields to return.
+     * @return The fields.
+     */
+    public static long squaresBeing(final OthelloBoard board, final OthelloFieldState fieldState) {
+        long squares = 0L;
+        for (final Map.Entry<OthelloPosition, ? extends OthelloField> entry : board.getFieldsBeing(fieldState)
+                .entrySet()) {
+            squares |= 1L << OthelloBitBoard.square(entry.getKey());
+        }
+        return squares;
+    }
+
+    /**
+     * Returns the number of rows (and columns).
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Computes the hash of a position on this board, e.g. for looking it up in a table. The size of the board is
+     * mixed into the hash, so tables shared by games on boards of different sizes keep their positions apart.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @return The hash.
+     */
+    public long hash(final long player, final long opponent) {
+        long hash = player * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(opponent * 0xC2B2AE3D27D4EB4FL, 31);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33 ^ this.size * OthelloBitBoard.SIZE_MULTIPLIER;
+    }
+
+    /**
+     * Returns the fields belonging to the board.
+     */
+    public long getValidSquares() {
+        return this.validSquares;
+    }
+
+    /**
+     * Returns the four corners of the board.
+     */
+    public long getCornerSquares() {
+        return this.cornerSquares;
+    }
+
+    /**
+     * Returns the fields on the edges of the board, except the corners.
+     */
+    public long getEdgeSquares() {
+        return this.edgeSquares;
+    }
+
+    /**
+     * Returns the fields occupied by black or white tokens at the start of a game.
+     *
+     * @param black {@code true} for the black tokens, {@code false} for the white tokens.
+     */
+    public long getInitialSquares(final boolean black) {
+        final int start = this.size / 2 - 1;
+        if (black) {
+            return 1L << OthelloBitBoard.square(start, start + 1) | 1L << OthelloBitBoard.square(start + 1, start);
+        } else {
+            return 1L << OthelloBitBoard.square(start, start) | 1L << OthelloBitBoard.square(start + 1, start + 1);
+        }
+    }
+
+    /**
+     * Returns the empty fields of a position.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    public long emptySquares(final long player, final long opponent) {
+        return this.validSquares & ~(player | opponent);
+    }
+
+    /**
+     * Shifts a set of fields by one step in a direction, dropping fields which leave the board.
+     *
+     * @param squares   The fields.
+     * @param direction The index of the direction.
+     * @return The shifted fields.
+     */
+    public long shift(final long squares, final int direction) {
+        final int amount = OthelloBitBoard.SHIFTS[direction];
+        return (amount > 0 ? squares << amount : squares >>> -amount) & this.masks[direction];
+    }
+
+    /**
+     * Returns the fields adjacent to a set of fields in any direction. The set itself is included only where its fields
+     * are adjacent to each other.
+     *
+     * @param squares The fields.
+     * @return The adjacent fields.
+     */
+    public long neighbours(final long squares) {
+        long neighbours = 0L;
+        for (int direction = 0; direction < OthelloBitBoard.DIRECTION_COUNT; ++direction) {
+            neighbours |= this.shift(squares, direction);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Returns all fields on which the player to move may place a token.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @return The active fields.
+     */
+    public long legalMoves(final long player, final long opponent) {
+        final long empty = this.emptySquares(player, opponent);
+        long moves = 0L;
+        for (int direction = 0; direction < OthelloBitBoard.SHIFTS.length; ++direction) {
+            long line = this.shift(player, direction) & opponent;
+            for (int step = 3; step < this.size; ++step) {
+                line |= this.shift(line, direction) & opponent;
+            }
+            moves |= this.shift(line, direction) & empty;
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the opponent's tokens which are flipped if the player to move places a token on a field.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param square   The field to place the token on.
+     * @return The flipped tokens. It is empty iff the move is not allowed.
+     */
+    public long flips(final long player, final long opponent, final int square) {
+        final long origin = 1L << square;
+        long flipped = 0L;
+        for (int direction = 0; direction < OthelloBitBoard.SHIFTS.length; ++direction) {
+            long line = 0L;
+            long next = this.shift(origin, direction);
+            while ((next & opponent) != 0L) {
+                line |= next;
+                next = this.shift(next, direction);
+            }
+            if ((next & player) != 0L) {
+                flipped |= line;
+            }
+        }
+        return flipped;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloBitBoard[size=%d]", this.size);
+    }
+}
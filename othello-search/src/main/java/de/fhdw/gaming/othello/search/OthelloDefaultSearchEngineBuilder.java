@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import de.fhdw.gaming.othello.search.evaluation.OthelloCachingEvaluator;
+import de.fhdw.gaming.othello.search.impl.OthelloEndgameSolvingEngine;
+import de.fhdw.gaming.othello.search.impl.OthelloLazySmpEngine;
+import de.fhdw.gaming.othello.search.impl.OthelloMonteCarloEngine;
+import de.fhdw.gaming.othello.search.impl.OthelloPonderingEngine;
+import de.fhdw.gaming.othello.search.impl.OthelloYoungBrothersWaitEngine;
+
+/**
+ * Implements {@link OthelloSearchEngineBuilder}.
+ */
+public final class OthelloDefaultSearchEngineBuilder implements OthelloSearchEngineBuilder {
+
+    /**
+     * The largest allowed binary logarithm of the number of transposition table entries.
+     */
+    private static final int MAX_TRANSPOSITION_TABLE_BITS = 30;
+
+    /**
+     * The number of threads searching in parallel.
+     */
+    private int threadCount;
+    /**
+     * The budget the threads of a search are leased from.
+     */
+    private OthelloThreadBudget threadBudget;
+    /**
+     * The computation time per move in milliseconds.
+     */
+    private long searchTimeMillis;
+    /**
+     * The maximum depth of the iterative deepening.
+     */
+    private int maximumDepth;
+    /**
+     * The binary logarithm of the number of transposition table entries.
+     */
+    private int transpositionTableBits;
+    /**
+     * The binary logarithm of the number of evaluation cache slots, or zero if there is no cache.
+     */
+    private int evaluationCacheBits;
+    /**
+     * The parallel search algorithm.
+     */
+    private OthelloSearchAlgorithm algorithm;
+    /**
+     * The largest number of empty squares for which positions are solved.
+     */
+    private int endgameEmpties;
+    /**
+     * The parameters of the selective search.
+     */
+    private OthelloProbCutParameters probCutParameters;
+    /**
+     * {@code true} if the engine thinks while the opponent is thinking.
+     */
+    private boolean pondering;
+    /**
+     * The evaluator.
+     */
+    private Optional<OthelloEvaluator> evaluator;
+
+    /**
+     * Creates a builder using the default parameters.
+     */
+    public OthelloDefaultSearchEngineBuilder() {
+        this.threadCount = OthelloSearchEngineBuilder.DEFAULT_THREAD_COUNT;
+        this.threadBudget = OthelloThreadBudget.getShared();
+        this.searchTimeMillis = OthelloSearchEngineBuilder.DEFAULT_SEARCH_TIME_MILLIS;
+        this.maximumDepth = OthelloSearchEngineBuilder.DEFAULT_MAXIMUM_DEPTH;
+        this.transpositionTableBits = OthelloSearchEngineBuilder.DEFAULT_TRANSPOSITION_TABLE_BITS;
+        this.evaluationCacheBits = OthelloSearchEngineBuilder.DEFAULT_EVALUATION_CACHE_BITS;
+        this.algorithm = OthelloSearchEngineBuilder.DEFAULT_ALGORITHM;
+        this.endgameEmpties = OthelloSearchEngineBuilder.DEFAULT_ENDGAME_EMPTIES;
+        this.probCutParameters = OthelloSearchEngineBuilder.DEFAULT_PROB_CUT_PARAMETERS;
+        this.pondering = OthelloSearchEngineBuilder.DEFAULT_PONDERING;
+        this.evaluator = Optional.empty();
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeThreadCount(final int newThreadCount) {
+        if (newThreadCount < 1) {
+            throw new IllegalArgumentException(String.format("Invalid thread count %d.", newThreadCount));
+        }
+        this.threadCount = newThreadCount;
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeThreadBudget(final OthelloThreadBudget newThreadBudget) {
+        this.threadBudget = Objects.requireNonNull(newThreadBudget, "newThreadBudget");
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeSearchTimeMillis(final long newSearchTimeMillis) {
+        if (newSearchTimeMillis < 1L) {
+            throw new IllegalArgumentException(String.format("Invalid search time %d ms.", newSearchTimeMillis));
+        }
+        this.searchTimeMillis = newSearchTimeMillis;
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeMaximumDepth(final int newMaximumDepth) {
+        if (newMaximumDepth < 1) {
+            throw new IllegalArgumentException(String.format("Invalid maximum depth %d.", newMaximumDepth));
+        }
+        this.maximumDepth = newMaximumDepth;
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeTranspositionTableBits(final int newTranspositionTableBits) {
+        if (newTranspositionTableBits < 1
+                || newTranspositionTableBits > OthelloDefaultSearchEngineBuilder.MAX_TRANSPOSITION_TABLE_BITS) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid transposition table size 2^%d.", newTranspositionTableBits));
+        }
+        this.transpositionTableBits = newTranspositionTableBits;
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeEvaluationCacheBits(final int newEvaluationCacheBits) {
+        if (newEvaluationCacheBits < 0 || newEvaluationCacheBits > OthelloEvaluationCache.MAX_BITS) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid evaluation cache size 2^%d.", newEvaluationCacheBits));
+        }
+        this.evaluationCacheBits = newEvaluationCacheBits;
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeAlgorithm(final OthelloSearchAlgorithm newAlgorithm) {
+        this.algorithm = Objects.requireNonNull(newAlgorithm, "newAlgorithm");
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeEndgameEmpties(final int newEndgameEmpties) {
+        if (newEndgameEmpties < 0 || newEndgameEmpties > OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid number of endgame empties %d.", newEndgameEmpties));
+        }
+        this.endgameEmpties = newEndgameEmpties;
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeProbCutParameters(
+            final OthelloProbCutParameters newProbCutParameters) {
+        this.probCutParameters = Objects.requireNonNull(newProbCutParameters, "newProbCutParameters");
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changePondering(final boolean newPondering) {
+        this.pondering = newPondering;
+        return this;
+    }
+
+    @Override
+    public OthelloDefaultSearchEngineBuilder changeEvaluator(final OthelloEvaluator newEvaluator) {
+        this.evaluator = Optional.of(Objects.requireNonNull(newEvaluator, "newEvaluator"));
+        return this;
+    }
+
+    @Override
+    public OthelloSearchEngine build() throws IllegalStateException {
+        if (this.evaluator.isEmpty() && this.algorithm != OthelloSearchAlgorithm.MONTE_CARLO_TREE_SEARCH) {
+            throw new IllegalStateException(
+                    String.format("An evaluator is required for building a search engine using %s.", this.algorithm));
+        }
+        final OthelloSearchEngine midgameEngine = this.buildMidgameEngine();
+        final OthelloSearchEngine engine = this.endgameEmpties == 0 ? midgameEngine
+                : new OthelloEndgameSolvingEngine(
+                        midgameEngine,
+                        this.endgameEmpties,
+                        this.searchTimeMillis,
+                        this.transpositionTableBits);
+        return this.pondering ? new OthelloPonderingEngine(engine) : engine;
+    }
+
+    /**
+     * Returns the evaluator used at the leaves, looking up evaluations in a new cache unless the cache is disabled or
+     * the evaluator brings its own.
+     */
+    private OthelloEvaluator buildEvaluator() {
+        final OthelloEvaluator leafEvaluator = this.evaluator.get();
+        if (this.evaluationCacheBits == 0 || leafEvaluator instanceof OthelloCachingEvaluator) {
+            return leafEvaluator;
+        }
+        return new OthelloCachingEvaluator(leafEvaluator, new OthelloEvaluationCache(this.evaluationCacheBits));
+    }
+
+    /**
+     * Creates the engine running the parallel search algorithm.
+     */
+    private OthelloSearchEngine buildMidgameEngine() {
+        switch (this.algorithm) {
+        case MONTE_CARLO_TREE_SEARCH:
+            return new OthelloMonteCarloEngine(
+                    this.threadCount,
+                    this.searchTimeMillis,
+                    1 << this.transpositionTableBits,
+                    this.threadBudget);
+        case YOUNG_BROTHERS_WAIT:
+            return new OthelloYoungBrothersWaitEngine(
+                    this.buildEvaluator(),
+                    this.threadCount,
+                    this.searchTimeMillis,
+                    this.maximumDepth,
+                    this.threadBudget);
+        case LAZY_SMP:
+        default:
+            return new OthelloLazySmpEngine(
+                    this.buildEvaluator(),
+                    this.threadCount,
+                    this.searchTimeMillis,
+                    this.maximumDepth,
+                    this.transpositionTableBits,
+                    this.probCutParameters,
+                    this.threadBudget);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A bounded, lock-free cache of evaluations, shared by all threads of a search engine and kept from one search to the
+ * next. As many leaves of a search tree are reached by different move orders, and iterative deepening evaluates the
+ * leaves of one iteration again as inner nodes of the next, a large share of the evaluations can be looked up instead
+ * of computed.
+ * <p>
+ * The cache is direct-mapped: each position has a single slot, and a new evaluation replaces whatever the slot held.
+ * As in the {@link OthelloTranspositionTable}, each slot consists of two {@code long}s, the key XOR-ed with the data,
+ * and the data itself, so that a slot torn by concurrent writers does not match and is treated as a miss. The keys
+ * include the size of the board, as the same fields evaluate differently on boards of different sizes.
+ * <p>
+ * The numbers of hits and misses are counted over the whole lifetime of the cache. Objects of this class are
+ * thread-safe.
+ */
+public final class OthelloEvaluationCache {
+
+    /**
+     * The value returned by {@link #probe(long)} if the position is not cached.
+     */
+    public static final long MISS = Long.MIN_VALUE;
+    /**
+     * The largest allowed binary logarithm of the number of slots.
+     */
+    public static final int MAX_BITS = 30;
+
+    /**
+     * The number of {@code long}s per slot.
+     */
+    private static final int SLOT_LENGTH = 2;
+    /**
+     * The bit marking the data of a used slot, so that used slots never hold zero data.
+     */
+    private static final long USED = 1L << 32;
+
+    /**
+     * The slots.
+     */
+    private final long[] slots;
+    /**
+     * The mask selecting a slot from a key.
+     */
+    private final int slotMask;
+    /**
+     * The number of successful lookups.
+     */
+    private final LongAdder hits;
+    /**
+     * The number of failed lookups.
+     */
+    private final LongAdder misses;
+
+    /**
+     * Creates an evaluation cache.
+     *
+     * @param bits The binary logarithm of the number of slots of 16 bytes each. Must be between 1 and
+     *             {@link #MAX_BITS}.
+     * @throws IllegalArgumentException if the number of bits is invalid.
+     */
+    public OthelloEvaluationCache(final int bits) throws IllegalArgumentException {
+        if (bits < 1 || bits > OthelloEvaluationCache.MAX_BITS) {
+            throw new IllegalArgumentException(String.format("Invalid evaluation cache size 2^%d.", bits));
+        }
+        this.slots = new long[(1 << bits) * OthelloEvaluationCache.SLOT_LENGTH];
+        this.slotMask = (1 << bits) - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Computes the key of a position.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @return The key.
+     */
+    public static long key(final OthelloBitBoard board, final long player, final long opponent) {
+        return board.hash(player, opponent);
+    }
+
+    /**
+     * Looks up the evaluation of a position and counts the lookup as a hit or a miss.
+     *
+     * @param key The {@link #key(OthelloBitBoard, long, long) key} of the position.
+     * @return The evaluation, or {@link #MISS}.
+     */
+    public long probe(final long key) {
+        final int index = this.slotIndex(key);
+        final long data = this.slots[index + 1];
+        if ((this.slots[index] ^ data) == key && data != 0L) {
+            this.hits.increment();
+            return (int) data;
+        }
+        this.misses.increment();
+        return OthelloEvaluationCache.MISS;
+    }
+
+    /**
+     * Stores the evaluation of a position.
+     *
+     * @param key   The {@link #key(OthelloBitBoard, long, long) key} of the position.
+     * @param score The evaluation.
+     */
+    public void store(final long key, final int score) {
+        final int index = this.slotIndex(key);
+        final long data = score & 0xFFFFFFFFL | OthelloEvaluationCache.USED;
+        this.slots[index] = key ^ data;
+        this.slots[index + 1] = data;
+    }
+
+    /**
+     * Removes all evaluations. The counters are kept.
+     */
+    public void clear() {
+        Arrays.fill(this.slots, 0L);
+    }
+
+    /**
+     * Returns the number of slots.
+     */
+    public int getSize() {
+        return this.slotMask + 1;
+    }
+
+    /**
+     * Returns the number of successful lookups so far.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of failed lookups so far.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloEvaluationCache[size=%d, hits=%d, misses=%d]",
+                this.getSize(),
+                this.getHits(),
+                this.getMisses());
+    }
+
+    /**
+     * Returns the index of the slot of a key.
+     *
+     * @param key The key.
+     */
+    private int slotIndex(final long key) {
+        return ((int) key & this.slotMask) * OthelloEvaluationCache.SLOT_LENGTH;
+    }
+}
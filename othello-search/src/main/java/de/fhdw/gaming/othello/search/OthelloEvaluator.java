@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+/**
+ * Assigns a heuristic value to a position which is not (or not yet known to be) the end of the game.
+ * <p>
+ * Implementations are shared by all threads of a search engine and hence need to be thread-safe. Stateless
+ * implementations trivially are.
+ */
+public interface OthelloEvaluator {
+
+    /**
+     * The score of a won game without any tokens of advantage. Evaluations must stay strictly between
+     * {@code -WIN_SCORE} and {@code WIN_SCORE}, so that proven results always dominate heuristic ones.
+     */
+    int WIN_SCORE = 1000000;
+
+    /**
+     * Evaluates a position from the point of view of the player to move.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @return The evaluation. Positive values are good for the player to move, negative values are good for the
+     *         opponent.
+     */
+    int evaluate(OthelloBitBoard board, long player, long opponent);
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the games written by {@link OthelloGameWriter} one after the other. The moves of the current game are kept in
+ * a buffer which is reused for the next game, so no objects are created per game.
+ */
+public final class OthelloGameReader implements Closeable {
+
+    /**
+     * The file.
+     */
+    private final Path file;
+    /**
+     * The stream reading from the file.
+     */
+    private final DataInputStream input;
+    /**
+     * The squares of the moves of the current game.
+     */
+    private final int[] moves;
+    /**
+     * The number of rows (and columns) of the board of the current game.
+     */
+    private int size;
+    /**
+     * The number of moves of the current game.
+     */
+    private int moveCount;
+    /**
+     * The final disc differential of the current game from the point of view of the first player.
+     */
+    private int result;
+
+    /**
+     * Opens a file of games.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public OthelloGameReader(final Path file) throws IOException {
+        this.file = file;
+        this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        this.moves = new int[OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE];
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return {@code true} if a game has been read, {@code false} at the end of the file.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not contain a valid record.
+     */
+    public boolean next() throws IOException, IllegalArgumentException {
+        final int nextSize = this.input.read();
+        if (nextSize == -1) {
+            return false;
+        }
+        try {
+            final int nextMoveCount = this.input.readUnsignedByte();
+            if (!OthelloBitBoard.supports(nextSize) || nextMoveCount > nextSize * nextSize) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                "Invalid game of %d moves on a %dx%d board in %s.",
+                                nextMoveCount,
+                                nextSize,
+                                nextSize,
+                                this.file));
+            }
+            for (int move = 0; move < nextMoveCount; ++move) {
+                this.moves[move] = this.input.readUnsignedByte();
+            }
+            this.result = this.input.readByte();
+            this.size = nextSize;
+            this.moveCount = nextMoveCount;
+            return true;
+        } catch (final EOFException e) {
+            throw new IllegalArgumentException(String.format("Incomplete game at the end of %s.", this.file), e);
+        }
+    }
+
+    /**
+     * Returns the number of rows (and columns) of the board of the current game.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of moves of the current game, not including passes.
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Returns a move of the current game.
+     *
+     * @param move The number of the move, starting with zero.
+     * @return The {@link OthelloBitBoard#square(int, int) square} of the move.
+     */
+    public int getMove(final int move) {
+        return this.moves[move];
+    }
+
+    /**
+     * Returns the final disc differential of the current game from the point of view of the first player.
+     */
+    public int getResult() {
+        return this.result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the moves and results of games to a file. The file is created if it does not exist. Games may be appended
+ * by several threads at the same time; the records of different games never mix.
+ * <p>
+ * The file consists of a record per game without any header, so that the files of several runs can simply be
+ * concatenated. A record consists of the size of the board, the number of moves, the {@link OthelloBitBoard#square(int,
+ * int) squares} of the moves and the final disc differential from the point of view of the first player, each as a
+ * single byte. Passes are not recorded, as a player passes if and only if they have no legal move. The records are
+ * read by {@link OthelloGameReader}.
+ */
+public final class OthelloGameWriter implements Closeable {
+
+    /**
+     * The stream writing to the file.
+     */
+    private final DataOutputStream output;
+
+    /**
+     * Opens a file for appending games.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public OthelloGameWriter(final Path file) throws IOException {
+        this.output = new DataOutputStream(
+                new BufferedOutputStream(
+                        Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * Appends a game.
+     *
+     * @param size      The number of rows (and columns) of the board.
+     * @param moves     The squares of the moves, not including passes.
+     * @param moveCount The number of moves.
+     * @param result    The final disc differential from the point of view of the first player.
+     * @throws IOException              if the game cannot be written.
+     * @throws IllegalArgumentException if the board is not supported by {@link OthelloBitBoard}, or a move or the
+     *                                  result do not fit into a byte.
+     */
+    public synchronized void append(final int size, final int[] moves, final int moveCount, final int result)
+            throws IOException, IllegalArgumentException {
+        if (!OthelloBitBoard.supports(size) || moveCount > size * size
+                || result < -size * size || result > size * size) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Invalid game of %d moves with result %d on a %dx%d board.",
+                            moveCount,
+                            result,
+                            size,
+                            size));
+        }
+        this.output.writeByte(size);
+        this.output.writeByte(moveCount);
+        for (int move = 0; move < moveCount; ++move) {
+            this.output.writeByte(moves[move]);
+        }
+        this.output.writeByte(result);
+    }
+
+    /**
+     * Writes all buffered games to the file.
+     *
+     * @throws IOException if the games cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        this.output.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.output.close();
+    }
+}
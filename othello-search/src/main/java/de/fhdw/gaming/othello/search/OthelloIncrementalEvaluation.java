@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+/**
+ * The state of an {@link OthelloIncrementalEvaluator} following a search on a single thread. Objects of this class are
+ * not thread-safe.
+ * <p>
+ * Moves have to be taken back in the reverse order they have been made, with the same arguments.
+ */
+public interface OthelloIncrementalEvaluation {
+
+    /**
+     * Starts following a search at a position.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    void setUp(long player, long opponent);
+
+    /**
+     * Makes a move of the player to move, after which the opponent is to move.
+     *
+     * @param move    The field the token is placed on, or {@link OthelloBitBoard#PASS}.
+     * @param flipped The fields whose tokens are flipped by the move.
+     */
+    void makeMove(int move, long flipped);
+
+    /**
+     * Takes back the last move made.
+     *
+     * @param move    The field the token has been placed on, or {@link OthelloBitBoard#PASS}.
+     * @param flipped The fields whose tokens have been flipped by the move.
+     */
+    void unmakeMove(int move, long flipped);
+
+    /**
+     * Evaluates the current position like {@link OthelloEvaluator#evaluate(OthelloBitBoard, long, long)}.
+     *
+     * @param player   The fields occupied by the player to move, which have to match the moves made.
+     * @param opponent The fields occupied by the opponent, which have to match the moves made.
+     * @return The evaluation from the point of view of the player to move.
+     */
+    int evaluate(long player, long opponent);
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+/**
+ * An {@link OthelloEvaluator} which can follow a search from position to position. Instead of analysing every leaf
+ * from scratch, it keeps what it needs in an {@link OthelloIncrementalEvaluation} which is updated by the moves made
+ * and taken back by the search.
+ * <p>
+ * Searches running on a single thread use an evaluation of their own. The stateless
+ * {@link #evaluate(OthelloBitBoard, long, long)} remains available for all other uses and must return the same
+ * scores.
+ */
+public interface OthelloIncrementalEvaluator extends OthelloEvaluator {
+
+    /**
+     * Creates an evaluation to be used by a single thread.
+     *
+     * @param board The geometry of the board.
+     * @return The evaluation, which has to be {@link OthelloIncrementalEvaluation#setUp(long, long) set up} before
+     *         use.
+     */
+    OthelloIncrementalEvaluation newEvaluation(OthelloBitBoard board);
+}
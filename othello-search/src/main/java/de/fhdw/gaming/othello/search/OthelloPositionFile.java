@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file of positions with the outcomes of the games they were taken from, mapped into memory for reading.
+ * <p>
+ * The file consists of records of {@value #RECORD_LENGTH} bytes without any header: the fields of the player to move
+ * and the fields of the opponent as big-endian {@code long}s, followed by the final disc differential of the game
+ * from the point of view of the player to move as a signed byte. Files are written by {@link OthelloPositionWriter},
+ * which appends records, so that the files of several runs can simply be concatenated.
+ * <p>
+ * The positions are read directly from the mapped file, without copying them or creating any objects per position.
+ * Files larger than the largest buffer are mapped in several segments. Objects of this class may be read by several
+ * threads at the same time.
+ */
+public final class OthelloPositionFile {
+
+    /**
+     * The number of bytes of a record.
+     */
+    public static final int RECORD_LENGTH = 2 * Long.BYTES + 1;
+
+    /**
+     * The number of records of a segment. A segment is as large as possible while fitting into a single buffer.
+     */
+    private static final int SEGMENT_RECORDS = Integer.MAX_VALUE / OthelloPositionFile.RECORD_LENGTH;
+    /**
+     * The offset of the fields of the opponent within a record.
+     */
+    private static final int OPPONENT_OFFSET = Long.BYTES;
+    /**
+     * The offset of the result within a record.
+     */
+    private static final int RESULT_OFFSET = 2 * Long.BYTES;
+
+    /**
+     * The mapped segments of the file. Only absolute reads are used, so the buffers can be shared between threads.
+     */
+    private final ByteBuffer[] segments;
+    /**
+     * The number of positions.
+     */
+    private final long positionCount;
+
+    /**
+     * Creates a position file.
+     *
+     * @param segments      The mapped segments of the file.
+     * @param positionCount The number of positions.
+     */
+    private OthelloPositionFile(final ByteBuffer[] segments, final long positionCount) {
+        this.segments = segments;
+        this.positionCount = positionCount;
+    }
+
+    /**
+     * Maps a file of positions into memory.
+     *
+     * @param file The file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the length of the file is not a multiple of the length of a record.
+     */
+    public static OthelloPositionFile map(final Path file) throws IOException, IllegalArgumentException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long length = channel.size();
+            if (length % OthelloPositionFile.RECORD_LENGTH != 0L) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                "The length %d of position file %s is not a multiple of %d.",
+                                length,
+                                file,
+                                OthelloPositionFile.RECORD_LENGTH));
+            }
+            final long positionCount = length / OthelloPositionFile.RECORD_LENGTH;
+            final int segmentCount = (int) ((positionCount + OthelloPositionFile.SEGMENT_RECORDS - 1)
+                    / OthelloPositionFile.SEGMENT_RECORDS);
+            final ByteBuffer[] segments = new ByteBuffer[segmentCount];
+            for (int segment = 0; segment < segmentCount; ++segment) {
+                final long start = (long) segment * OthelloPositionFile.SEGMENT_RECORDS
+                        * OthelloPositionFile.RECORD_LENGTH;
+                // the mapping stays valid after the channel has been closed
+                segments[segment] = channel
+                        .map(FileChannel.MapMode.READ_ONLY, start, Math.min(length - start, Integer.MAX_VALUE));
+            }
+            return new OthelloPositionFile(segments, positionCount);
+        }
+    }
+
+    /**
+     * Returns the number of positions.
+     */
+    public long getPositionCount() {
+        return this.positionCount;
+    }
+
+    /**
+     * Returns the fields of the player to move.
+     *
+     * @param position The number of the position, starting with zero.
+     */
+    public long getPlayer(final long position) {
+        return this.getSegment(position).getLong(OthelloPositionFile.getOffset(position));
+    }
+
+    /**
+     * Returns the fields of the opponent of the player to move.
+     *
+     * @param position The number of the position, starting with zero.
+     */
+    public long getOpponent(final long position) {
+        return this.getSegment(position)
+                .getLong(OthelloPositionFile.getOffset(position) + OthelloPositionFile.OPPONENT_OFFSET);
+    }
+
+    /**
+     * Returns the final disc differential of the game from the point of view of the player to move.
+     *
+     * @param position The number of the position, starting with zero.
+     */
+    public int getResult(final long position) {
+        return this.getSegment(position)
+                .get(OthelloPositionFile.getOffset(position) + OthelloPositionFile.RESULT_OFFSET);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloPositionFile[positions=%d]", this.positionCount);
+    }
+
+    /**
+     * Returns the segment containing a position.
+     *
+     * @param position The number of the position.
+     * @throws IllegalArgumentException if there is no such position.
+     */
+    private ByteBuffer getSegment(final long position) throws IllegalArgumentException {
+        if (position < 0L || position >= this.positionCount) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid position %d of %d.", position, this.positionCount));
+        }
+        return this.segments[(int) (position / OthelloPositionFile.SEGMENT_RECORDS)];
+    }
+
+    /**
+     * Returns the offset of the record of a position within its segment.
+     *
+     * @param position The number of the position.
+     */
+    private static int getOffset(final long position) {
+        return (int) (position % OthelloPositionFile.SEGMENT_RECORDS) * OthelloPositionFile.RECORD_LENGTH;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends positions with the outcomes of the games they were taken from to a file in the format read by
+ * {@link OthelloPositionFile}. The file is created if it does not exist. Positions may be appended by several threads
+ * at the same time.
+ */
+public final class OthelloPositionWriter implements Closeable {
+
+    /**
+     * The stream writing to the file.
+     */
+    private final DataOutputStream output;
+
+    /**
+     * Opens a file for appending positions.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public OthelloPositionWriter(final Path file) throws IOException {
+        this.output = new DataOutputStream(
+                new BufferedOutputStream(
+                        Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * Appends a position.
+     *
+     * @param player   The fields of the player to move.
+     * @param opponent The fields of the opponent.
+     * @param result   The final disc differential of the game from the point of view of the player to move.
+     * @throws IOException              if the position cannot be written.
+     * @throws IllegalArgumentException if the result does not fit into a byte.
+     */
+    public synchronized void append(final long player, final long opponent, final int result)
+            throws IOException, IllegalArgumentException {
+        if (result < Byte.MIN_VALUE || result > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Invalid result %d.", result));
+        }
+        this.output.writeLong(player);
+        this.output.writeLong(opponent);
+        this.output.writeByte(result);
+    }
+
+    /**
+     * Writes all buffered positions to the file.
+     *
+     * @throws IOException if the positions cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        this.output.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.output.close();
+    }
+}
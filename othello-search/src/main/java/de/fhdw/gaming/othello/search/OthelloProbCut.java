@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.Objects;
+
+/**
+ * A ProbCut check: the result of a deep search is predicted by a shallow search as
+ * {@code deep = slope * shallow + intercept}, with normally distributed errors of a given standard deviation. Objects
+ * of this class are immutable.
+ */
+public final class OthelloProbCut {
+
+    /**
+     * The depth of the search whose result is predicted.
+     */
+    private final int deepDepth;
+    /**
+     * The depth of the search predicting the result.
+     */
+    private final int shallowDepth;
+    /**
+     * The slope of the regression line.
+     */
+    private final double slope;
+    /**
+     * The intercept of the regression line.
+     */
+    private final double intercept;
+    /**
+     * The standard deviation of the prediction errors.
+     */
+    private final double deviation;
+
+    /**
+     * Creates a ProbCut check.
+     *
+     * @param deepDepth    The depth of the search whose result is predicted. Must be positive.
+     * @param shallowDepth The depth of the search predicting the result. Must be smaller than {@code deepDepth}, but
+     *                     not negative.
+     * @param slope        The slope of the regression line. Must be positive.
+     * @param intercept    The intercept of the regression line.
+     * @param deviation    The standard deviation of the prediction errors. Must not be negative.
+     * @throws IllegalArgumentException if a parameter is invalid.
+     */
+    public OthelloProbCut(final int deepDepth, final int shallowDepth, final double slope, final double intercept,
+            final double deviation) throws IllegalArgumentException {
+        if (shallowDepth < 0 || shallowDepth >= deepDepth) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid depths %d and %d of a ProbCut check.", deepDepth, shallowDepth));
+        }
+        if (!(slope > 0.0) || !(deviation >= 0.0) || Double.isInfinite(slope) || Double.isInfinite(deviation)
+                || Double.isNaN(intercept) || Double.isInfinite(intercept)) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Invalid regression parameters %s, %s and %s of a ProbCut check.",
+                            slope,
+                            intercept,
+                            deviation));
+        }
+        this.deepDepth = deepDepth;
+        this.shallowDepth = shallowDepth;
+        this.slope = slope;
+        this.intercept = intercept;
+        this.deviation = deviation;
+    }
+
+    /**
+     * Returns the depth of the search whose result is predicted.
+     */
+    public int getDeepDepth() {
+        return this.deepDepth;
+    }
+
+    /**
+     * Returns the depth of the search predicting the result.
+     */
+    public int getShallowDepth() {
+        return this.shallowDepth;
+    }
+
+    /**
+     * Returns the slope of the regression line.
+     */
+    public double getSlope() {
+        return this.slope;
+    }
+
+    /**
+     * Returns the intercept of the regression line.
+     */
+    public double getIntercept() {
+        return this.intercept;
+    }
+
+    /**
+     * Returns the standard deviation of the prediction errors.
+     */
+    public double getDeviation() {
+        return this.deviation;
+    }
+
+    /**
+     * Returns the smallest result of the shallow search which predicts a deep result of at least {@code beta} with the
+     * given confidence.
+     *
+     * @param beta      The bound of the deep result.
+     * @param threshold The number of standard deviations by which the prediction has to exceed the bound.
+     */
+    public int getShallowLowerBound(final int beta, final double threshold) {
+        return (int) Math.ceil((beta + threshold * this.deviation - this.intercept) / this.slope);
+    }
+
+    /**
+     * Returns the largest result of the shallow search which predicts a deep result of at most {@code alpha} with the
+     * given confidence.
+     *
+     * @param alpha     The bound of the deep result.
+     * @param threshold The number of standard deviations by which the prediction has to fall below the bound.
+     */
+    public int getShallowUpperBound(final int alpha, final double threshold) {
+        return (int) Math.floor((alpha - threshold * this.deviation - this.intercept) / this.slope);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof OthelloProbCut) {
+            final OthelloProbCut other = (OthelloProbCut) obj;
+            return this.deepDepth == other.deepDepth && this.shallowDepth == other.shallowDepth
+                    && Double.compare(this.slope, other.slope) == 0
+                    && Double.compare(this.intercept, other.intercept) == 0
+                    && Double.compare(this.deviation, other.deviation) == 0;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.deepDepth, this.shallowDepth, this.slope, this.intercept, this.deviation);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloProbCut[deepDepth=%d, shallowDepth=%d, slope=%s, intercept=%s, deviation=%s]",
+                this.deepDepth,
+                this.shallowDepth,
+                this.slope,
+                this.intercept,
+                this.deviation);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The parameters of a Multi-ProbCut search: a set of {@link OthelloProbCut ProbCut checks} per search depth, and the
+ * number of standard deviations by which a prediction has to lie outside the window for a node to be pruned. Objects
+ * of this class are immutable.
+ * <p>
+ * The parameters depend on the evaluator and are fitted by {@code OthelloProbCutFitter}. They are stored in a text
+ * file with one setting per line: {@code threshold <standard deviations>} and
+ * {@code cut <deep depth> <shallow depth> <slope> <intercept> <deviation>}. Empty lines and lines starting with
+ * {@code #} are ignored.
+ */
+public final class OthelloProbCutParameters {
+
+    /**
+     * Parameters which never prune.
+     */
+    public static final OthelloProbCutParameters DISABLED = new OthelloProbCutParameters(0.0, List.of());
+
+    /**
+     * The keyword of the line containing the threshold.
+     */
+    private static final String THRESHOLD = "threshold";
+    /**
+     * The keyword of a line containing a ProbCut check.
+     */
+    private static final String CUT = "cut";
+
+    /**
+     * The number of standard deviations by which a prediction has to lie outside the window.
+     */
+    private final double threshold;
+    /**
+     * The ProbCut checks indexed by the depth of the search whose result they predict.
+     */
+    private final List<List<OthelloProbCut>> cutsByDepth;
+
+    /**
+     * Creates Multi-ProbCut parameters.
+     *
+     * @param threshold The number of standard deviations by which a prediction has to lie outside the window for a
+     *                  node to be pruned. Must not be negative.
+     * @param cuts      The ProbCut checks. The checks for the same depth are tried in the given order.
+     * @throws IllegalArgumentException if the threshold is negative.
+     */
+    public OthelloProbCutParameters(final double threshold, final List<OthelloProbCut> cuts)
+            throws IllegalArgumentException {
+        if (!(threshold >= 0.0) || Double.isInfinite(threshold)) {
+            throw new IllegalArgumentException(String.format("Invalid ProbCut threshold %s.", threshold));
+        }
+        this.threshold = threshold;
+        final int maximumDepth = cuts.stream().mapToInt(OthelloProbCut::getDeepDepth).max().orElse(-1);
+        final List<List<OthelloProbCut>> byDepth = new ArrayList<>(maximumDepth + 1);
+        for (int depth = 0; depth <= maximumDepth; ++depth) {
+            final int deepDepth = depth;
+            byDepth.add(
+                    cuts.stream().filter((final OthelloProbCut cut) -> cut.getDeepDepth() == deepDepth)
+                            .collect(Collectors.toUnmodifiableList()));
+        }
+        this.cutsByDepth = Collections.unmodifiableList(byDepth);
+    }
+
+    /**
+     * Returns the number of standard deviations by which a prediction has to lie outside the window for a node to be
+     * pruned.
+     */
+    public double getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Returns {@code true} if there is at least one ProbCut check.
+     */
+    public boolean isEnabled() {
+        return !this.cutsByDepth.isEmpty();
+    }
+
+    /**
+     * Returns the ProbCut checks predicting the result of a search of a given depth.
+     *
+     * @param depth The depth of the search.
+     */
+    public List<OthelloProbCut> getCuts(final int depth) {
+        if (depth < 0 || depth >= this.cutsByDepth.size()) {
+            return List.of();
+        }
+        return this.cutsByDepth.get(depth);
+    }
+
+    /**
+     * Returns all ProbCut checks ordered by the depth of the search whose result they predict.
+     */
+    public List<OthelloProbCut> getCuts() {
+        final List<OthelloProbCut> cuts = new ArrayList<>();
+        this.cutsByDepth.forEach(cuts::addAll);
+        return Collections.unmodifiableList(cuts);
+    }
+
+    /**
+     * Reads parameters from a file.
+     *
+     * @param file The file.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not contain valid parameters.
+     */
+    public static OthelloProbCutParameters read(final Path file) throws IOException, IllegalArgumentException {
+        double threshold = 0.0;
+        final List<OthelloProbCut> cuts = new ArrayList<>();
+        final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int lineNumber = 1; lineNumber <= lines.size(); ++lineNumber) {
+            final String line = lines.get(lineNumber - 1).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] words = line.split("\\s+");
+            try {
+                if (words[0].equals(OthelloProbCutParameters.THRESHOLD) && words.length == 2) {
+                    threshold = Double.parseDouble(words[1]);
+                } else if (words[0].equals(OthelloProbCutParameters.CUT) && words.length == 6) {
+                    cuts.add(
+                            new OthelloProbCut(
+                                    Integer.parseInt(words[1]),
+                                    Integer.parseInt(words[2]),
+                                    Double.parseDouble(words[3]),
+                                    Double.parseDouble(words[4]),
+                                    Double.parseDouble(words[5])));
+                } else {
+                    throw new IllegalArgumentException(String.format("Unknown setting '%s'.", line));
+                }
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid line %d of ProbCut parameters %s: %s", lineNumber, file, e.getMessage()),
+                        e);
+            }
+        }
+        return new OthelloProbCutParameters(threshold, cuts);
+    }
+
+    /**
+     * Writes the parameters to a file in the format understood by {@link #read(Path)}.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(final Path file) throws IOException {
+        Files.write(file, this.toLines(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the parameters in the format understood by {@link #read(Path)}.
+     */
+    public List<String> toLines() {
+        final List<String> lines = new ArrayList<>();
+        lines.add("# cut <deep depth> <shallow depth> <slope> <intercept> <deviation>");
+        lines.add(String.format(Locale.ROOT, "%s %s", OthelloProbCutParameters.THRESHOLD, this.threshold));
+        for (final OthelloProbCut cut : this.getCuts()) {
+            lines.add(
+                    String.format(
+                            Locale.ROOT,
+                            "%s %d %d %s %s %s",
+                            OthelloProbCutParameters.CUT,
+                            cut.getDeepDepth(),
+                            cut.getShallowDepth(),
+                            cut.getSlope(),
+                            cut.getIntercept(),
+                            cut.getDeviation()));
+        }
+        return lines;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof OthelloProbCutParameters) {
+            final OthelloProbCutParameters other = (OthelloProbCutParameters) obj;
+            return Double.compare(this.threshold, other.threshold) == 0 && this.cutsByDepth.equals(other.cutsByDepth);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.threshold, this.cutsByDepth);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloProbCutParameters[threshold=%s, cuts=%s]", this.threshold, this.getCuts());
+    }
+}
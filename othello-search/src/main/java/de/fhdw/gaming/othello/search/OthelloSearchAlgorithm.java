@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+/**
+ * The search algorithms an {@link OthelloSearchEngine} can use.
+ */
+public enum OthelloSearchAlgorithm {
+
+    /**
+     * All threads run the same iterative deepening search and share a transposition table ("Lazy SMP"). Fast, but the
+     * result may depend on the timing of the threads.
+     */
+    LAZY_SMP,
+
+    /**
+     * The siblings of a node are searched in parallel after its first child has been searched ("Young Brothers Wait
+     * Concept") on a dedicated fork/join pool. At equal depth, the result is identical to a sequential search.
+     */
+    YOUNG_BROTHERS_WAIT,
+
+    /**
+     * A Monte Carlo tree search with the UCT rule and random playouts, which needs no evaluator. Its scores are the
+     * winning chances of the best move rather than evaluations, and its statistics count playouts instead of
+     * positions.
+     */
+    MONTE_CARLO_TREE_SEARCH
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+/**
+ * Searches for the best move in a position.
+ * <p>
+ * A search engine may be used by several games at once. Each game is identified by the game ID which is passed to the
+ * strategy, so that aborting the search of one game does not affect the others.
+ */
+public interface OthelloSearchEngine {
+
+    /**
+     * Searches for the best move of the player to move.
+     *
+     * @param gameId   The ID of the game the position belongs to.
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @return The result of the search. Its best move is {@link OthelloBitBoard#PASS} iff the player to move has to
+     *         skip.
+     */
+    OthelloSearchResult search(int gameId, OthelloBitBoard board, long player, long opponent);
+
+    /**
+     * Searches for the best move of the player to move, evaluating positions by the given evaluator instead of the one
+     * of the engine. This lets a strategy whose evaluation depends on the position searched share a single engine
+     * between all its searches. Engines which do not evaluate positions ignore the evaluator.
+     *
+     * @param gameId    The ID of the game the position belongs to.
+     * @param board     The geometry of the board.
+     * @param player    The fields occupied by the player to move.
+     * @param opponent  The fields occupied by the opponent.
+     * @param evaluator The evaluator used for this search. Searches with equal evaluators share what the engine keeps
+     *                  from one search to the next.
+     * @return The result of the search. Its best move is {@link OthelloBitBoard#PASS} iff the player to move has to
+     *         skip.
+     */
+    OthelloSearchResult search(int gameId, OthelloBitBoard board, long player, long opponent,
+            OthelloEvaluator evaluator);
+
+    /**
+     * Stops a running search of the given game as soon as possible. The search returns the best move found so far.
+     *
+     * @param gameId The ID of the game.
+     */
+    void abortRequested(int gameId);
+
+    /**
+     * Forgets everything learned by previous searches. Called before a new game starts.
+     */
+    void reset();
+}
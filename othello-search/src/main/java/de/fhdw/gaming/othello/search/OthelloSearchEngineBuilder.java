@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+/**
+ * A builder which allows to create an {@link OthelloSearchEngine}.
+ * <p>
+ * Each strategy creates its own engine, so all parameters can be chosen per strategy.
+ */
+public interface OthelloSearchEngineBuilder {
+
+    /**
+     * The default number of threads searching in parallel.
+     */
+    int DEFAULT_THREAD_COUNT = 1;
+    /**
+     * The default computation time per move in milliseconds.
+     */
+    long DEFAULT_SEARCH_TIME_MILLIS = 1000L;
+    /**
+     * The default maximum depth of the iterative deepening.
+     */
+    int DEFAULT_MAXIMUM_DEPTH = 64;
+    /**
+     * The default binary logarithm of the number of transposition table entries.
+     */
+    int DEFAULT_TRANSPOSITION_TABLE_BITS = 20;
+    /**
+     * The default binary logarithm of the number of evaluation cache slots.
+     */
+    int DEFAULT_EVALUATION_CACHE_BITS = 16;
+    /**
+     * The default parallel search algorithm.
+     */
+    OthelloSearchAlgorithm DEFAULT_ALGORITHM = OthelloSearchAlgorithm.LAZY_SMP;
+    /**
+     * The default largest number of empty squares for which positions are solved. Positions with that many empty
+     * squares are usually solved for win, loss or draw within a fraction of a second, but not exactly.
+     */
+    int DEFAULT_ENDGAME_EMPTIES = 18;
+    /**
+     * The default parameters of the selective search, which disable it.
+     */
+    OthelloProbCutParameters DEFAULT_PROB_CUT_PARAMETERS = OthelloProbCutParameters.DISABLED;
+    /**
+     * By default, the engine does not think while the opponent is thinking.
+     */
+    boolean DEFAULT_PONDERING = false;
+
+    /**
+     * Changes the number of threads searching in parallel. How the threads cooperate depends on the
+     * {@link #changeAlgorithm(OthelloSearchAlgorithm) algorithm}.
+     * <p>
+     * If not called, {@link #DEFAULT_THREAD_COUNT} threads are used.
+     *
+     * @param newThreadCount The new number of threads. Must be positive.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeThreadCount(int newThreadCount);
+
+    /**
+     * Changes the budget the threads of each search are leased from. The thread count is an upper limit: while other
+     * searches hold threads of the same budget, a search may be granted fewer of them.
+     * <p>
+     * If not called, the {@link OthelloThreadBudget#getShared() shared} budget of the host is used.
+     *
+     * @param newThreadBudget The new thread budget.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeThreadBudget(OthelloThreadBudget newThreadBudget);
+
+    /**
+     * Changes the computation time per move.
+     * <p>
+     * If not called, {@link #DEFAULT_SEARCH_TIME_MILLIS} milliseconds are used.
+     *
+     * @param newSearchTimeMillis The new computation time per move in milliseconds. Must be positive.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeSearchTimeMillis(long newSearchTimeMillis);
+
+    /**
+     * Changes the maximum depth of the iterative deepening.
+     * <p>
+     * If not called, {@link #DEFAULT_MAXIMUM_DEPTH} is used.
+     *
+     * @param newMaximumDepth The new maximum depth. Must be positive.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeMaximumDepth(int newMaximumDepth);
+
+    /**
+     * Changes the size of the transposition table to {@code 2^newTranspositionTableBits} entries of 16 bytes each. The
+     * {@link OthelloSearchAlgorithm#MONTE_CARLO_TREE_SEARCH} algorithm has no transposition table, but uses the
+     * setting as the capacity of its tree, whose nodes take 14 bytes each.
+     * <p>
+     * If not called, {@link #DEFAULT_TRANSPOSITION_TABLE_BITS} is used.
+     *
+     * @param newTranspositionTableBits The new binary logarithm of the number of entries. Must be between 1 and 30.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeTranspositionTableBits(int newTranspositionTableBits);
+
+    /**
+     * Changes the size of the {@link OthelloEvaluationCache evaluation cache} to {@code 2^newEvaluationCacheBits}
+     * slots of 16 bytes each. The cache is shared by all threads of the engine and kept from one search to the next. It
+     * is not used if the {@link #changeEvaluator(OthelloEvaluator) evaluator} already is an
+     * {@link de.fhdw.gaming.othello.search.evaluation.OthelloCachingEvaluator}, which allows to choose the cache, e.g.
+     * for observing its hits and misses.
+     * <p>
+     * If not called, {@link #DEFAULT_EVALUATION_CACHE_BITS} is used.
+     *
+     * @param newEvaluationCacheBits The new binary logarithm of the number of slots. Must be between 0 and
+     *                               {@link OthelloEvaluationCache#MAX_BITS}. Zero disables the cache.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeEvaluationCacheBits(int newEvaluationCacheBits);
+
+    /**
+     * Changes the parallel search algorithm.
+     * <p>
+     * If not called, {@link #DEFAULT_ALGORITHM} is used.
+     *
+     * @param newAlgorithm The new algorithm.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeAlgorithm(OthelloSearchAlgorithm newAlgorithm);
+
+    /**
+     * Changes the largest number of empty squares for which positions are solved, i.e. searched to the end of the game.
+     * Such positions are solved for win, loss or draw first and then exactly if time remains. Positions with more empty
+     * squares, or which cannot be solved within half of the computation time, are searched by the parallel search
+     * algorithm.
+     * <p>
+     * If not called, {@link #DEFAULT_ENDGAME_EMPTIES} is used.
+     *
+     * @param newEndgameEmpties The new number of empty squares. Zero disables the endgame solver.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeEndgameEmpties(int newEndgameEmpties);
+
+    /**
+     * Changes the parameters of the Multi-ProbCut selective search, which prunes nodes whose deep search result is
+     * predicted by shallow searches to lie outside the window. The parameters have to be fitted to the
+     * {@link #changeEvaluator(OthelloEvaluator) evaluator}. The {@link OthelloSearchAlgorithm#YOUNG_BROTHERS_WAIT}
+     * algorithm ignores them, as its results have to be identical to those of a full-width search.
+     * <p>
+     * If not called, {@link #DEFAULT_PROB_CUT_PARAMETERS} are used.
+     *
+     * @param newProbCutParameters The new parameters. {@link OthelloProbCutParameters#DISABLED} disables the
+     *                             selective search.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeProbCutParameters(OthelloProbCutParameters newProbCutParameters);
+
+    /**
+     * Changes whether the engine keeps thinking on a background thread after a move has been found, searching the
+     * position after the predicted reply of the opponent. If the opponent replies as predicted, the next search
+     * continues the background search, otherwise the background search is discarded. As the background search runs
+     * while the opponent is thinking, it competes with the opponent for the processors.
+     * <p>
+     * If not called, {@link #DEFAULT_PONDERING} is used.
+     *
+     * @param newPondering {@code true} if the engine shall think while the opponent is thinking.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changePondering(boolean newPondering);
+
+    /**
+     * Changes the evaluator used at the leaves of the search. Not needed by the
+     * {@link OthelloSearchAlgorithm#MONTE_CARLO_TREE_SEARCH} algorithm.
+     *
+     * @param newEvaluator The new evaluator.
+     * @return {@code this}
+     */
+    OthelloSearchEngineBuilder changeEvaluator(OthelloEvaluator newEvaluator);
+
+    /**
+     * Creates the search engine.
+     *
+     * @throws IllegalStateException if no evaluator has been set although the algorithm needs one.
+     */
+    OthelloSearchEngine build() throws IllegalStateException;
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+/**
+ * The outcome of a game which an endgame search has proven for the player to move.
+ */
+public enum OthelloSearchOutcome {
+
+    /**
+     * The player to move wins.
+     */
+    WIN,
+
+    /**
+     * The game ends in a draw.
+     */
+    DRAW,
+
+    /**
+     * The player to move loses.
+     */
+    LOSS;
+
+    /**
+     * Returns the outcome of a game ending with a given disc differential.
+     *
+     * @param discDifference The disc differential from the point of view of the player to move.
+     */
+    public static OthelloSearchOutcome of(final int discDifference) {
+        if (discDifference > 0) {
+            return WIN;
+        } else if (discDifference < 0) {
+            return LOSS;
+        } else {
+            return DRAW;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.OptionalInt;
+
+/**
+ * The outcome of a search. Objects of this class are immutable.
+ */
+public final class OthelloSearchResult {
+
+    /**
+     * The best move found, or {@link OthelloBitBoard#PASS}.
+     */
+    private final int bestMove;
+    /**
+     * The score of the best move from the point of view of the player to move.
+     */
+    private final int score;
+    /**
+     * The statistics of the search.
+     */
+    private final OthelloSearchStatistics statistics;
+    /**
+     * The reply of the opponent to the best move expected by the search, if any.
+     */
+    private final OptionalInt predictedReply;
+
+    /**
+     * Creates a search result without a predicted reply.
+     *
+     * @param bestMove   The best move found, or {@link OthelloBitBoard#PASS}.
+     * @param score      The score of the best move from the point of view of the player to move.
+     * @param statistics The statistics of the search.
+     */
+    public OthelloSearchResult(final int bestMove, final int score, final OthelloSearchStatistics statistics) {
+        this(bestMove, score, statistics, OptionalInt.empty());
+    }
+
+    /**
+     * Creates a search result.
+     *
+     * @param bestMove       The best move found, or {@link OthelloBitBoard#PASS}.
+     * @param score          The score of the best move from the point of view of the player to move.
+     * @param statistics     The statistics of the search.
+     * @param predictedReply The reply of the opponent to the best move expected by the search, or
+     *                       {@link OthelloBitBoard#PASS}, if any.
+     */
+    public OthelloSearchResult(final int bestMove, final int score, final OthelloSearchStatistics statistics,
+            final OptionalInt predictedReply) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.statistics = statistics;
+        this.predictedReply = predictedReply;
+    }
+
+    /**
+     * Returns the square of the best move found, or {@link OthelloBitBoard#PASS} if the player has to skip.
+     */
+    public int getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * Returns {@code true} if the player has to skip, else {@code false}.
+     */
+    public boolean isPass() {
+        return this.bestMove == OthelloBitBoard.PASS;
+    }
+
+    /**
+     * Returns the score of the best move from the point of view of the player to move.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Returns the statistics of the search.
+     */
+    public OthelloSearchStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Returns the reply of the opponent to the best move expected by the search, or {@link OthelloBitBoard#PASS} if
+     * the opponent is expected to skip. Empty if the search does not know.
+     */
+    public OptionalInt getPredictedReply() {
+        return this.predictedReply;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloSearchResult[bestMove=%s, score=%d, statistics=%s]",
+                this.isPass() ? "pass" : OthelloBitBoard.toPosition(this.bestMove),
+                this.score,
+                this.statistics);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes the effort spent by a search. Objects of this class are immutable.
+ */
+public final class OthelloSearchStatistics {
+
+    /**
+     * The statistics of a search which did not have to look at any position.
+     */
+    public static final OthelloSearchStatistics EMPTY = new OthelloSearchStatistics(0, 0L, 0L, 0L, 0);
+
+    /**
+     * The deepest completed iteration.
+     */
+    private final int depth;
+    /**
+     * The number of positions visited by all threads.
+     */
+    private final long nodes;
+    /**
+     * The number of successful transposition table lookups.
+     */
+    private final long transpositionHits;
+    /**
+     * The wall-clock time of the search in nanoseconds.
+     */
+    private final long elapsedNanos;
+    /**
+     * The number of threads which took part in the search.
+     */
+    private final int threads;
+    /**
+     * The proven outcome of the game, if the search has solved the position at least for win, loss or draw.
+     */
+    private final Optional<OthelloSearchOutcome> outcome;
+    /**
+     * The proven final disc differential, if the search has solved the position exactly.
+     */
+    private final OptionalInt discDifference;
+
+    /**
+     * Creates search statistics of a search which has not solved the position.
+     *
+     * @param depth             The deepest completed iteration.
+     * @param nodes             The number of positions visited by all threads.
+     * @param transpositionHits The number of successful transposition table lookups.
+     * @param elapsedNanos      The wall-clock time of the search in nanoseconds.
+     * @param threads           The number of threads which took part in the search.
+     */
+    public OthelloSearchStatistics(final int depth, final long nodes, final long transpositionHits,
+            final long elapsedNanos, final int threads) {
+        this(depth, nodes, transpositionHits, elapsedNanos, threads, Optional.empty(), OptionalInt.empty());
+    }
+
+    /**
+     * Creates search statistics.
+     *
+     * @param depth             The deepest completed iteration.
+     * @param nodes             The number of positions visited by all threads.
+     * @param transpositionHits The number of successful transposition table lookups.
+     * @param elapsedNanos      The wall-clock time of the search in nanoseconds.
+     * @param threads           The number of threads which took part in the search.
+     * @param outcome           The proven outcome of the game, if any.
+     * @param discDifference    The proven final disc differential, if any. Must match the outcome.
+     */
+    public OthelloSearchStatistics(final int depth, final long nodes, final long transpositionHits,
+            final long elapsedNanos, final int threads, final Optional<OthelloSearchOutcome> outcome,
+            final OptionalInt discDifference) {
+        if (discDifference.isPresent()
+                && !outcome.equals(Optional.of(OthelloSearchOutcome.of(discDifference.getAsInt())))) {
+            throw new IllegalArgumentException(
+                    String.format("Outcome %s does not match disc differential %s.", outcome, discDifference));
+        }
+        this.depth = depth;
+        this.nodes = nodes;
+        this.transpositionHits = transpositionHits;
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+        this.outcome = outcome;
+        this.discDifference = discDifference;
+    }
+
+    /**
+     * Returns the deepest completed iteration.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Returns the number of positions visited by all threads.
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Returns the number of successful transposition table lookups.
+     */
+    public long getTranspositionHits() {
+        return this.transpositionHits;
+    }
+
+    /**
+     * Returns the wall-clock time of the search in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns the number of threads which took part in the search.
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Returns the proven outcome of the game for the player to move. Empty if the search has not solved the position.
+     */
+    public Optional<OthelloSearchOutcome> getOutcome() {
+        return this.outcome;
+    }
+
+    /**
+     * Returns the proven final disc differential from the point of view of the player to move. Empty if the search has
+     * not solved the position exactly, even if it has proven the {@link #getOutcome() outcome}.
+     */
+    public OptionalInt getDiscDifference() {
+        return this.discDifference;
+    }
+
+    /**
+     * Returns the number of positions visited per second of wall-clock time.
+     */
+    public long getNodesPerSecond() {
+        if (this.elapsedNanos <= 0L) {
+            return 0L;
+        }
+        return (long) (this.nodes * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloSearchStatistics[depth=%d, nodes=%d, nodesPerSecond=%d, transpositionHits=%d, threads=%d, "
+                        + "outcome=%s, discDifference=%s]",
+                this.depth,
+                this.nodes,
+                this.getNodesPerSecond(),
+                this.transpositionHits,
+                this.threads,
+                this.outcome.map(OthelloSearchOutcome::toString).orElse("unknown"),
+                this.discDifference.isPresent() ? Integer.toString(this.discDifference.getAsInt()) : "unknown");
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Limits the number of threads used by searches running at the same time, and divides them fairly between the
+ * searches.
+ * <p>
+ * A search acquires a {@link Lease} for the number of threads it would like to use, including its calling thread,
+ * and releases it when done. A lease never grants more than the fair share of the budget, i.e. the number of threads
+ * divided by the number of searches running at the same time, or by the number of searches expected to run at the
+ * same time if that is larger, nor more threads than are currently unused. It always grants at least the calling
+ * thread, which does not need to be created, so a search never waits for a lease. As several games are usually
+ * computed at the same time by different threads, each of them running a search, this divides the processors fairly
+ * between the games instead of letting every search start as many threads as it likes. Expecting several searches
+ * keeps the first of them from taking all threads, which the searches starting shortly after it would miss until it
+ * has finished.
+ * <p>
+ * Besides the leases used by the search engines with their own threads, the budget offers a parallel loop on a
+ * shared executor of named daemon threads, which replaces parallel streams on the JVM-wide common pool.
+ * <p>
+ * There is usually a single {@link #getShared() shared} budget per process, whose size is given by the system
+ * property {@value #THREAD_COUNT_PROPERTY} and defaults to the number of available processors. It expects the number
+ * of searches given by the system property {@value #EXPECTED_SEARCHES_PROPERTY}, which defaults to
+ * {@value #DEFAULT_EXPECTED_SEARCHES}: the player to move and the opponent thinking ahead on its time. Objects of this
+ * class are thread-safe.
+ */
+public final class OthelloThreadBudget {
+
+    /**
+     * The system property giving the number of threads of the shared budget.
+     */
+    public static final String THREAD_COUNT_PROPERTY = "de.fhdw.gaming.othello.search.threads";
+    /**
+     * The system property giving the number of searches the shared budget expects to run at the same time.
+     */
+    public static final String EXPECTED_SEARCHES_PROPERTY = "de.fhdw.gaming.othello.search.expectedSearches";
+    /**
+     * The number of searches the shared budget expects to run at the same time unless configured otherwise.
+     */
+    public static final int DEFAULT_EXPECTED_SEARCHES = 2;
+
+    /**
+     * The number of chunks the iterations of a parallel loop are split into per thread, so that threads finishing
+     * early can take over work of the others.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /**
+     * The number used for naming the next thread of any budget.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    /**
+     * The shared budget. Created on first use.
+     */
+    private static OthelloThreadBudget shared;
+
+    /**
+     * The number of threads.
+     */
+    private final int threadCount;
+    /**
+     * The number of searches expected to run at the same time.
+     */
+    private final int expectedSearches;
+    /**
+     * The number of leases not yet released.
+     */
+    private int activeLeases;
+    /**
+     * The number of threads granted by the leases not yet released.
+     */
+    private int usedThreads;
+    /**
+     * The executor running the helpers of the parallel loops. Created on first use.
+     */
+    private ExecutorService workers;
+
+    /**
+     * Creates a thread budget which expects a single search at a time, so a search running alone may use all threads.
+     *
+     * @param threadCount The number of threads. Must be positive.
+     */
+    public OthelloThreadBudget(final int threadCount) {
+        this(threadCount, 1);
+    }
+
+    /**
+     * Creates a thread budget.
+     *
+     * @param threadCount      The number of threads. Must be positive.
+     * @param expectedSearches The number of searches expected to run at the same time. Must be positive.
+     */
+    public OthelloThreadBudget(final int threadCount, final int expectedSearches) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(String.format("Invalid thread count %d.", threadCount));
+        }
+        if (expectedSearches < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of searches %d.", expectedSearches));
+        }
+        this.threadCount = threadCount;
+        this.expectedSearches = expectedSearches;
+    }
+
+    /**
+     * Returns the budget shared by all searches of this process.
+     *
+     * @throws IllegalArgumentException if the system property {@value #THREAD_COUNT_PROPERTY} or
+     *                                  {@value #EXPECTED_SEARCHES_PROPERTY} is not a positive number.
+     */
+    public static synchronized OthelloThreadBudget getShared() throws IllegalArgumentException {
+        if (OthelloThreadBudget.shared == null) {
+            OthelloThreadBudget.shared = new OthelloThreadBudget(
+                    OthelloThreadBudget.getProperty(
+                            OthelloThreadBudget.THREAD_COUNT_PROPERTY,
+                            Runtime.getRuntime().availableProcessors()),
+                    OthelloThreadBudget.getProperty(
+                            OthelloThreadBudget.EXPECTED_SEARCHES_PROPERTY,
+                            OthelloThreadBudget.DEFAULT_EXPECTED_SEARCHES));
+        }
+        return OthelloThreadBudget.shared;
+    }
+
+    /**
+     * Returns the number of threads.
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    /**
+     * Returns the number of searches expected to run at the same time.
+     */
+    public int getExpectedSearches() {
+        return this.expectedSearches;
+    }
+
+    /**
+     * Returns the number of threads granted by the leases not yet released.
+     */
+    public synchronized int getUsedThreads() {
+        return this.usedThreads;
+    }
+
+    /**
+     * Acquires a lease for some threads, which have to be released by {@link Lease#close()}.
+     *
+     * @param requestedThreads The number of threads the search would like to use, including the calling thread. Must
+     *                         be positive.
+     * @return The lease, granting between one and {@code requestedThreads} threads.
+     */
+    public synchronized Lease acquire(final int requestedThreads) {
+        if (requestedThreads < 1) {
+            throw new IllegalArgumentException(String.format("Invalid thread count %d.", requestedThreads));
+        }
+        final int fairShare = this.threadCount / Math.max(this.activeLeases + 1, this.expectedSearches);
+        final int grantedThreads = Math.max(
+                1,
+                Math.min(requestedThreads, Math.min(fairShare, this.threadCount - this.usedThreads)));
+        ++this.activeLeases;
+        this.usedThreads += grantedThreads;
+        return new Lease(grantedThreads);
+    }
+
+    /**
+     * Performs an action for all numbers from zero (inclusive) to some count (exclusive) in parallel. The calling
+     * thread takes part in the loop, the other threads granted by a lease are taken from a shared executor. The
+     * numbers are handed out in chunks, so the action should be a task of at least a few microseconds. Writes of the
+     * action are visible to the calling thread when this method returns.
+     *
+     * @param count            The number of iterations.
+     * @param requestedThreads The number of threads the loop would like to use, including the calling thread. Must be
+     *                         positive.
+     * @param action           The action, which may be performed concurrently for different numbers.
+     * @throws IllegalStateException if the action failed with a checked exception in another thread. Unchecked
+     *                               exceptions and errors are rethrown as they are.
+     */
+    public void forEach(final int count, final int requestedThreads, final IntConsumer action)
+            throws IllegalStateException {
+        if (count <= 0) {
+            return;
+        }
+        try (Lease lease = this.acquire(Math.max(1, Math.min(requestedThreads, count)))) {
+            final int chunkSize = Math.max(1, count / (lease.getThreadCount() * OthelloThreadBudget.CHUNKS_PER_THREAD));
+            final AtomicInteger nextChunk = new AtomicInteger();
+            final Runnable loop = () -> {
+                int first = nextChunk.getAndAdd(chunkSize);
+                while (first < count) {
+                    final int last = Math.min(count, first + chunkSize);
+                    for (int i = first; i < last; ++i) {
+                        action.accept(i);
+                    }
+                    first = nextChunk.getAndAdd(chunkSize);
+                }
+            };
+            final List<Future<?>> futures = new ArrayList<>(lease.getThreadCount() - 1);
+            for (int helper = 1; helper < lease.getThreadCount(); ++helper) {
+                futures.add(this.getWorkers().submit(loop));
+            }
+            try {
+                loop.run();
+            } finally {
+                // helpers starting late find no chunks left and return at once
+                OthelloThreadBudget.await(futures);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloThreadBudget[threads=%d, expectedSearches=%d]",
+                this.threadCount,
+                this.expectedSearches);
+    }
+
+    /**
+     * Returns the value of a system property giving a number.
+     *
+     * @param name         The name of the property.
+     * @param defaultValue The value if the property is not set.
+     * @throws IllegalArgumentException if the property is set, but not a number.
+     */
+    private static int getProperty(final String name, final int defaultValue) throws IllegalArgumentException {
+        final String property = System.getProperty(name);
+        try {
+            return property == null ? defaultValue : Integer.parseInt(property);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid value '%s' of %s.", property, name), e);
+        }
+    }
+
+    /**
+     * Returns the threads of a lease to the budget.
+     *
+     * @param grantedThreads The number of threads granted by the lease.
+     */
+    private synchronized void release(final int grantedThreads) {
+        --this.activeLeases;
+        this.usedThreads -= grantedThreads;
+    }
+
+    /**
+     * Returns the executor running the helpers of the parallel loops, creating it if necessary. It never needs more
+     * threads than the budget, as the calling threads of the loops count against the budget as well.
+     */
+    private synchronized ExecutorService getWorkers() {
+        if (this.workers == null) {
+            final ThreadFactory threadFactory = (final Runnable runnable) -> {
+                final Thread thread = new Thread(
+                        runnable,
+                        "othello-search-pool-" + OthelloThreadBudget.THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.workers = Executors.newFixedThreadPool(this.threadCount, threadFactory);
+        }
+        return this.workers;
+    }
+
+    /**
+     * Waits until all helpers of a parallel loop have finished, and rethrows the first failure.
+     *
+     * @param futures The futures of the helpers.
+     */
+    private static void await(final List<Future<?>> futures) {
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (final Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("A thread of a parallel loop failed.", failure);
+        }
+    }
+
+    /**
+     * A number of threads granted to a search. Releasing it more than once has no effect.
+     */
+    public final class Lease implements AutoCloseable {
+
+        /**
+         * The number of threads granted, including the calling thread.
+         */
+        private final int threadCount;
+        /**
+         * Whether the lease has been released.
+         */
+        private final AtomicBoolean released;
+
+        /**
+         * Creates a lease.
+         *
+         * @param threadCount The number of threads granted, including the calling thread.
+         */
+        Lease(final int threadCount) {
+            this.threadCount = threadCount;
+            this.released = new AtomicBoolean();
+        }
+
+        /**
+         * Returns the number of threads granted, including the calling thread.
+         */
+        public int getThreadCount() {
+            return this.threadCount;
+        }
+
+        /**
+         * Returns the threads to the budget.
+         */
+        @Override
+        public void close() {
+            if (this.released.compareAndSet(false, true)) {
+                OthelloThreadBudget.this.release(this.threadCount);
+            }
+        }
+    }
+}
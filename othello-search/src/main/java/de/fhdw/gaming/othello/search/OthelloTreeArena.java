@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import java.util.Arrays;
+
+/**
+ * A search tree stored as parallel {@code int} arrays ("struct of arrays") without any per-node objects.
+ * <p>
+ * A node is an index into the arrays, the root being {@link #ROOT}. Every node stores its parent, its first child,
+ * its next sibling, its depth, a score and the index of the move leading to it. The meaning of the move index is up
+ * to the user of the tree, e.g. the index of the move in the list of legal moves of the parent position.
+ * <p>
+ * The children of a node have to be added one after another without adding other nodes in between, so that siblings
+ * occupy consecutive indices. A tree built layer by layer hence stores each layer in a contiguous range of indices
+ * following the range of the layer above. The arrays grow as needed and are kept by {@link #clear()}, so a tree
+ * reused from one move to the next does not allocate any memory once it has reached its working size.
+ * <p>
+ * This class is not thread-safe. Distinct nodes may however be scored by different threads, provided that the
+ * threads are synchronised with the one building the tree.
+ */
+public final class OthelloTreeArena {
+
+    /**
+     * The index of the root node.
+     */
+    public static final int ROOT = 0;
+    /**
+     * The index denoting a missing node, e.g. the parent of the root or the first child of a leaf.
+     */
+    public static final int NONE = -1;
+    /**
+     * The move index denoting a skip move (and the move index of the root).
+     */
+    public static final int PASS = -1;
+    /**
+     * The number of nodes a tree can store without growing if no capacity is given.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The parent of each node, or {@link #NONE} for the root.
+     */
+    private int[] parent;
+    /**
+     * The first child of each node, or {@link #NONE} for a leaf.
+     */
+    private int[] firstChild;
+    /**
+     * The next sibling of each node, or {@link #NONE} for the last child of its parent.
+     */
+    private int[] nextSibling;
+    /**
+     * The distance of each node from the root.
+     */
+    private int[] depth;
+    /**
+     * The score of each node.
+     */
+    private int[] score;
+    /**
+     * The index of the move leading to each node, or {@link #PASS}.
+     */
+    private int[] move;
+    /**
+     * The number of nodes in use.
+     */
+    private int size;
+
+    /**
+     * Creates a tree consisting of the root only, using the default initial capacity.
+     */
+    public OthelloTreeArena() {
+        this(OthelloTreeArena.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a tree consisting of the root only.
+     *
+     * @param initialCapacity The number of nodes the tree can store without growing.
+     */
+    public OthelloTreeArena(final int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException(String.format("Invalid capacity %d.", initialCapacity));
+        }
+        this.parent = new int[initialCapacity];
+        this.firstChild = new int[initialCapacity];
+        this.nextSibling = new int[initialCapacity];
+        this.depth = new int[initialCapacity];
+        this.score = new int[initialCapacity];
+        this.move = new int[initialCapacity];
+        this.clear();
+    }
+
+    /**
+     * Removes all nodes but the root, and resets the score of the root. The arrays are kept, and only the root is
+     * initialised, as nodes are always initialised when they are added.
+     */
+    public void clear() {
+        this.size = 1;
+        this.parent[OthelloTreeArena.ROOT] = OthelloTreeArena.NONE;
+        this.firstChild[OthelloTreeArena.ROOT] = OthelloTreeArena.NONE;
+        this.nextSibling[OthelloTreeArena.ROOT] = OthelloTreeArena.NONE;
+        this.depth[OthelloTreeArena.ROOT] = 0;
+        this.score[OthelloTreeArena.ROOT] = 0;
+        this.move[OthelloTreeArena.ROOT] = OthelloTreeArena.PASS;
+    }
+
+    /**
+     * Adds a leaf with a score of zero as the last child of a node.
+     *
+     * @param parentNode The node.
+     * @param moveIndex  The index of the move leading to the new node, or {@link #PASS}.
+     * @return The new node.
+     * @throws IllegalStateException if the node already has children and other nodes have been added after its last
+     *                               child.
+     */
+    public int addChild(final int parentNode, final int moveIndex) throws IllegalStateException {
+        this.checkNode(parentNode);
+        final int node = this.size;
+        if (this.firstChild[parentNode] == OthelloTreeArena.NONE) {
+            this.firstChild[parentNode] = node;
+        } else if (this.parent[node - 1] == parentNode) {
+            this.nextSibling[node - 1] = node;
+        } else {
+            throw new IllegalStateException(
+                    String.format("The children of node %d have not been added consecutively.", parentNode));
+        }
+        if (node == this.parent.length) {
+            this.grow();
+        }
+        this.parent[node] = parentNode;
+        this.firstChild[node] = OthelloTreeArena.NONE;
+        this.nextSibling[node] = OthelloTreeArena.NONE;
+        this.depth[node] = this.depth[parentNode] + 1;
+        this.score[node] = 0;
+        this.move[node] = moveIndex;
+        this.size = node + 1;
+        return node;
+    }
+
+    /**
+     * Returns the number of nodes, including the root. The nodes are the indices from {@link #ROOT} (inclusive) to the
+     * size (exclusive).
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the parent of a node, or {@link #NONE} for the root.
+     *
+     * @param node The node.
+     */
+    public int getParent(final int node) {
+        this.checkNode(node);
+        return this.parent[node];
+    }
+
+    /**
+     * Returns the first child of a node, or {@link #NONE} if the node is a leaf.
+     *
+     * @param node The node.
+     */
+    public int getFirstChild(final int node) {
+        this.checkNode(node);
+        return this.firstChild[node];
+    }
+
+    /**
+     * Returns the next sibling of a node, or {@link #NONE} if the node is the last child of its parent.
+     *
+     * @param node The node.
+     */
+    public int getNextSibling(final int node) {
+        this.checkNode(node);
+        return this.nextSibling[node];
+    }
+
+    /**
+     * Returns the distance of a node from the root.
+     *
+     * @param node The node.
+     */
+    public int getDepth(final int node) {
+        this.checkNode(node);
+        return this.depth[node];
+    }
+
+    /**
+     * Returns the score of a node.
+     *
+     * @param node The node.
+     */
+    public int getScore(final int node) {
+        this.checkNode(node);
+        return this.score[node];
+    }
+
+    /**
+     * Changes the score of a node.
+     *
+     * @param node     The node.
+     * @param newScore The new score.
+     */
+    public void setScore(final int node, final int newScore) {
+        this.checkNode(node);
+        this.score[node] = newScore;
+    }
+
+    /**
+     * Returns the index of the move leading to a node, or {@link #PASS}.
+     *
+     * @param node The node.
+     */
+    public int getMove(final int node) {
+        this.checkNode(node);
+        return this.move[node];
+    }
+
+    /**
+     * Replaces the score of every inner node by its minimax value, computed from the scores of the leaves, and returns
+     * the best child of the root. The players alternate from one depth to the next; a skip is just a node with a
+     * single child.
+     * <p>
+     * As every node follows its parent, the nodes are visited once in reverse order, so all children of a node have
+     * been visited and hold their final scores when the node itself is visited. Each node is folded into its parent:
+     * the last child, being visited first, initialises the score of the parent, and every other child replaces it if
+     * it is at least as good. Hence, of several children with the same score the first one is preferred. The links
+     * between the nodes are left untouched, so the tree can be backed up again, e.g. after rescoring some leaves.
+     *
+     * @param maximizingAtRoot {@code true} if the player to move at the root prefers higher scores, {@code false} if
+     *                         the player prefers lower scores.
+     * @return The best child of the root, or {@link #NONE} if the root is a leaf.
+     */
+    public int backUp(final boolean maximizingAtRoot) {
+        int bestChild = OthelloTreeArena.NONE;
+        for (int node = this.size - 1; node > OthelloTreeArena.ROOT; node--) {
+            final int parentNode = this.parent[node];
+            final boolean maximizing = maximizingAtRoot == (this.depth[parentNode] % 2 == 0);
+            if (this.nextSibling[node] == OthelloTreeArena.NONE
+                    || (maximizing ? this.score[node] >= this.score[parentNode]
+                            : this.score[node] <= this.score[parentNode])) {
+                this.score[parentNode] = this.score[node];
+                if (parentNode == OthelloTreeArena.ROOT) {
+                    bestChild = node;
+                }
+            }
+        }
+        return bestChild;
+    }
+
+    /**
+     * Checks that a node belongs to the tree.
+     *
+     * @param node The node.
+     * @throws IllegalArgumentException if the node does not belong to the tree.
+     */
+    private void checkNode(final int node) throws IllegalArgumentException {
+        if (node < OthelloTreeArena.ROOT || node >= this.size) {
+            throw new IllegalArgumentException(String.format("Invalid node %d.", node));
+        }
+    }
+
+    /**
+     * Doubles the capacity of the arrays.
+     */
+    private void grow() {
+        final int capacity = this.parent.length * 2;
+        this.parent = Arrays.copyOf(this.parent, capacity);
+        this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+        this.nextSibling = Arrays.copyOf(this.nextSibling, capacity);
+        this.depth = Arrays.copyOf(this.depth, capacity);
+        this.score = Arrays.copyOf(this.score, capacity);
+        this.move = Arrays.copyOf(this.move, capacity);
+    }
+}
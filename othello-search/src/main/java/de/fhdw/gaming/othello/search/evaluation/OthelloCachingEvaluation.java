@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluationCache;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+
+/**
+ * Implements {@link OthelloIncrementalEvaluation} for the {@link OthelloCachingEvaluator}. The moves are passed on to
+ * the incremental evaluation of the other evaluator, if there is one, even if the positions reached are found in the
+ * cache, so that it is always up to date.
+ */
+final class OthelloCachingEvaluation implements OthelloIncrementalEvaluation {
+
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * The evaluator computing the evaluations not found in the cache.
+     */
+    private final OthelloEvaluator evaluator;
+    /**
+     * The incremental evaluation of that evaluator, or {@code null} if it is not incremental.
+     */
+    private final OthelloIncrementalEvaluation evaluation;
+    /**
+     * The cache.
+     */
+    private final OthelloEvaluationCache cache;
+
+    /**
+     * Creates an evaluation.
+     *
+     * @param board      The geometry of the board.
+     * @param evaluator  The evaluator computing the evaluations not found in the cache.
+     * @param evaluation The incremental evaluation of that evaluator, or {@code null} if it is not incremental.
+     * @param cache      The cache.
+     */
+    OthelloCachingEvaluation(final OthelloBitBoard board, final OthelloEvaluator evaluator,
+            final OthelloIncrementalEvaluation evaluation, final OthelloEvaluationCache cache) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.evaluation = evaluation;
+        this.cache = cache;
+    }
+
+    @Override
+    public void setUp(final long player, final long opponent) {
+        if (this.evaluation != null) {
+            this.evaluation.setUp(player, opponent);
+        }
+    }
+
+    @Override
+    public void makeMove(final int move, final long flipped) {
+        if (this.evaluation != null) {
+            this.evaluation.makeMove(move, flipped);
+        }
+    }
+
+    @Override
+    public void unmakeMove(final int move, final long flipped) {
+        if (this.evaluation != null) {
+            this.evaluation.unmakeMove(move, flipped);
+        }
+    }
+
+    @Override
+    public int evaluate(final long player, final long opponent) {
+        final long key = OthelloEvaluationCache.key(this.board, player, opponent);
+        final long cached = this.cache.probe(key);
+        if (cached != OthelloEvaluationCache.MISS) {
+            return (int) cached;
+        }
+        final int score = this.evaluation != null ? this.evaluation.evaluate(player, opponent)
+                : this.evaluator.evaluate(this.board, player, opponent);
+        this.cache.store(key, score);
+        return score;
+    }
+}
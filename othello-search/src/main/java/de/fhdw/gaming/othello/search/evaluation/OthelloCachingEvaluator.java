@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluationCache;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluator;
+
+/**
+ * Implements {@link OthelloEvaluator} by looking up evaluations in an {@link OthelloEvaluationCache} and asking
+ * another evaluator for those not found.
+ * <p>
+ * If the other evaluator is an {@link OthelloIncrementalEvaluator}, so is this one: its evaluations follow the moves
+ * of a search and compute the positions not found incrementally. Otherwise, they compute them from scratch.
+ */
+public final class OthelloCachingEvaluator implements OthelloIncrementalEvaluator {
+
+    /**
+     * The evaluator computing the evaluations not found in the cache.
+     */
+    private final OthelloEvaluator evaluator;
+    /**
+     * The cache.
+     */
+    private final OthelloEvaluationCache cache;
+
+    /**
+     * Creates a caching evaluator.
+     *
+     * @param evaluator The evaluator computing the evaluations not found in the cache.
+     * @param cache     The cache. It must not be shared with evaluators computing other evaluations.
+     */
+    public OthelloCachingEvaluator(final OthelloEvaluator evaluator, final OthelloEvaluationCache cache) {
+        this.evaluator = evaluator;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the evaluator computing the evaluations not found in the cache.
+     */
+    public OthelloEvaluator getEvaluator() {
+        return this.evaluator;
+    }
+
+    /**
+     * Returns the cache.
+     */
+    public OthelloEvaluationCache getCache() {
+        return this.cache;
+    }
+
+    @Override
+    public int evaluate(final OthelloBitBoard board, final long player, final long opponent) {
+        final long key = OthelloEvaluationCache.key(board, player, opponent);
+        final long cached = this.cache.probe(key);
+        if (cached != OthelloEvaluationCache.MISS) {
+            return (int) cached;
+        }
+        final int score = this.evaluator.evaluate(board, player, opponent);
+        this.cache.store(key, score);
+        return score;
+    }
+
+    @Override
+    public OthelloIncrementalEvaluation newEvaluation(final OthelloBitBoard board) {
+        return new OthelloCachingEvaluation(
+                board,
+                this.evaluator,
+                this.evaluator instanceof OthelloIncrementalEvaluator
+                        ? ((OthelloIncrementalEvaluator) this.evaluator).newEvaluation(board)
+                        : null,
+                this.cache);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloCachingEvaluator[evaluator=%s, cache=%s]", this.evaluator, this.cache);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+/**
+ * Divides a game into phases by the number of empty fields. The phases are anchored at equally spaced numbers of
+ * empty fields, from phase zero at the end of the game to the last phase at an empty board. A position between two
+ * anchors belongs to both neighbouring phases, with shares depending linearly on its distance to the anchors, so that
+ * an evaluation interpolating between phases changes smoothly rather than in steps as the game proceeds.
+ * <p>
+ * Everything is computed from the number of empty fields by a few arithmetic operations. Objects of this class are
+ * immutable.
+ */
+public final class OthelloGamePhase {
+
+    /**
+     * The sum of the shares of the two phases of a position.
+     */
+    public static final int SHARE_SCALE = 256;
+
+    /**
+     * The number of fields of the board.
+     */
+    private final int fieldCount;
+    /**
+     * The number of phases.
+     */
+    private final int phaseCount;
+
+    /**
+     * Creates a division into phases.
+     *
+     * @param fieldCount The number of fields of the board.
+     * @param phaseCount The number of phases.
+     * @throws IllegalArgumentException if a number is not positive.
+     */
+    public OthelloGamePhase(final int fieldCount, final int phaseCount) throws IllegalArgumentException {
+        if (fieldCount < 1 || phaseCount < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid division of %d fields into %d phases.", fieldCount, phaseCount));
+        }
+        this.fieldCount = fieldCount;
+        this.phaseCount = phaseCount;
+    }
+
+    /**
+     * Returns the number of fields of the board.
+     */
+    public int getFieldCount() {
+        return this.fieldCount;
+    }
+
+    /**
+     * Returns the number of phases.
+     */
+    public int getPhaseCount() {
+        return this.phaseCount;
+    }
+
+    /**
+     * Returns the later of the two phases of a position, i.e. the one with fewer empty fields.
+     *
+     * @param empties The number of empty fields, between zero and the number of fields.
+     */
+    public int getLowerPhase(final int empties) {
+        return this.scale(empties) / OthelloGamePhase.SHARE_SCALE;
+    }
+
+    /**
+     * Returns the earlier of the two phases of a position, i.e. the one with more empty fields.
+     *
+     * @param empties The number of empty fields, between zero and the number of fields.
+     */
+    public int getUpperPhase(final int empties) {
+        return Math.min(this.getLowerPhase(empties) + 1, this.phaseCount - 1);
+    }
+
+    /**
+     * Returns the share of the {@link #getUpperPhase(int) upper phase} of a position, from zero at the anchor of the
+     * lower phase to just below {@link #SHARE_SCALE} next to the anchor of the upper phase. The lower phase gets the
+     * rest.
+     *
+     * @param empties The number of empty fields, between zero and the number of fields.
+     */
+    public int getUpperShare(final int empties) {
+        return this.scale(empties) % OthelloGamePhase.SHARE_SCALE;
+    }
+
+    /**
+     * Interpolates between the values of the two phases of a position. The result is rounded towards zero, so values
+     * of opposite sign yield results of opposite sign.
+     *
+     * @param empties    The number of empty fields, between zero and the number of fields.
+     * @param lowerValue The value in the {@link #getLowerPhase(int) lower phase}.
+     * @param upperValue The value in the {@link #getUpperPhase(int) upper phase}.
+     */
+    public int interpolate(final int empties, final int lowerValue, final int upperValue) {
+        final int share = this.getUpperShare(empties);
+        return (int) (((long) lowerValue * (OthelloGamePhase.SHARE_SCALE - share) + (long) upperValue * share)
+                / OthelloGamePhase.SHARE_SCALE);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloGamePhase[fields=%d, phases=%d]", this.fieldCount, this.phaseCount);
+    }
+
+    /**
+     * Returns the position of a number of empty fields between the anchors in units of 1/{@link #SHARE_SCALE} phase.
+     *
+     * @param empties The number of empty fields.
+     */
+    private int scale(final int empties) {
+        return empties * (this.phaseCount - 1) * OthelloGamePhase.SHARE_SCALE / this.fieldCount;
+    }
+}
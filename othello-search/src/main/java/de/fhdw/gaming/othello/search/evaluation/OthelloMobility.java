@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * Computes mobility terms of an evaluation from the sets of fields of a position, each by a few shifts and
+ * {@link Long#bitCount(long) population counts} instead of collecting the fields one by one.
+ * <ul>
+ * <li>The mobility of a player is the number of its active fields.</li>
+ * <li>The weighted mobility counts active fields on corners and edges with extra weights, as a move there is worth
+ * more (or less) than one in the interior.</li>
+ * <li>The potential mobility of a player is the number of empty fields adjacent to tokens of the opponent, on which
+ * the player might be able to place a token later.</li>
+ * <li>The frontier of a player consists of its tokens adjacent to empty fields; they give the opponent potential
+ * mobility.</li>
+ * </ul>
+ */
+public final class OthelloMobility {
+
+    /**
+     * Prevents instantiation.
+     */
+    private OthelloMobility() {
+    }
+
+    /**
+     * Returns the mobility of the player to move.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    public static int mobility(final OthelloBitBoard board, final long player, final long opponent) {
+        return Long.bitCount(board.legalMoves(player, opponent));
+    }
+
+    /**
+     * Returns the weighted mobility of a set of active fields.
+     *
+     * @param board        The geometry of the board.
+     * @param moves        The active fields.
+     * @param cornerWeight The weight added for an active field on a corner.
+     * @param edgeWeight   The weight added for an active field on an edge, except the corners.
+     */
+    public static int weightedMobility(final OthelloBitBoard board, final long moves, final int cornerWeight,
+            final int edgeWeight) {
+        return Long.bitCount(moves) + cornerWeight * Long.bitCount(moves & board.getCornerSquares())
+                + edgeWeight * Long.bitCount(moves & board.getEdgeSquares());
+    }
+
+    /**
+     * Returns the potential mobility of the player to move.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    public static int potentialMobility(final OthelloBitBoard board, final long player, final long opponent) {
+        return Long.bitCount(board.neighbours(opponent) & board.emptySquares(player, opponent));
+    }
+
+    /**
+     * Returns the frontier of a player.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player.
+     * @param opponent The fields occupied by the other player.
+     */
+    public static long frontier(final OthelloBitBoard board, final long player, final long opponent) {
+        return player & board.neighbours(board.emptySquares(player, opponent));
+    }
+
+    /**
+     * Counts the empty fields adjacent to each token of a player and sums them up, i.e. an empty field adjacent to
+     * several tokens is counted several times.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player.
+     * @param opponent The fields occupied by the other player.
+     */
+    public static int emptyNeighbours(final OthelloBitBoard board, final long player, final long opponent) {
+        final long empty = board.emptySquares(player, opponent);
+        int count = 0;
+        for (int direction = 0; direction < OthelloBitBoard.DIRECTION_COUNT; ++direction) {
+            count += Long.bitCount(board.shift(empty, direction) & player);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+
+/**
+ * Implements {@link OthelloIncrementalEvaluation} for the {@link OthelloNetworkEvaluator} by keeping the accumulators
+ * of both players. The player to move at {@link #setUp(long, long) set-up} is player 0 for the whole search. A move
+ * activates the input of its field in the accumulators of both players, and moves the inputs of the flipped fields
+ * from the opponent of the player moving to the player moving.
+ */
+final class OthelloNetworkEvaluation implements OthelloIncrementalEvaluation {
+
+    /**
+     * The evaluator.
+     */
+    private final OthelloNetworkEvaluator evaluator;
+    /**
+     * The accumulators of player 0 and player 1 following each other.
+     */
+    private final int[] accumulators;
+    /**
+     * The number of the player to move, either 0 or 1.
+     */
+    private int mover;
+
+    /**
+     * Creates an evaluation.
+     *
+     * @param evaluator The evaluator.
+     */
+    OthelloNetworkEvaluation(final OthelloNetworkEvaluator evaluator) {
+        this.evaluator = evaluator;
+        this.accumulators = new int[2 * OthelloNetworkWeights.HIDDEN_SIZE];
+    }
+
+    @Override
+    public void setUp(final long player, final long opponent) {
+        this.evaluator.accumulate(player, opponent, this.accumulators, 0);
+        this.evaluator.accumulate(opponent, player, this.accumulators, OthelloNetworkWeights.HIDDEN_SIZE);
+        this.mover = 0;
+    }
+
+    @Override
+    public void makeMove(final int move, final long flipped) {
+        if (move != OthelloBitBoard.PASS) {
+            this.update(move, flipped, 1);
+        }
+        this.mover = 1 - this.mover;
+    }
+
+    @Override
+    public void unmakeMove(final int move, final long flipped) {
+        this.mover = 1 - this.mover;
+        if (move != OthelloBitBoard.PASS) {
+            this.update(move, flipped, -1);
+        }
+    }
+
+    @Override
+    public int evaluate(final long player, final long opponent) {
+        return this.evaluator.output(this.accumulators, this.mover * OthelloNetworkWeights.HIDDEN_SIZE);
+    }
+
+    /**
+     * Applies or takes back the changes of the inputs by a move of the player to move.
+     *
+     * @param move      The field the token is placed on.
+     * @param flipped   The fields whose tokens are flipped.
+     * @param direction 1 for making the move, -1 for taking it back.
+     */
+    private void update(final int move, final long flipped, final int direction) {
+        final int moverOffset = this.mover * OthelloNetworkWeights.HIDDEN_SIZE;
+        final int otherOffset = (1 - this.mover) * OthelloNetworkWeights.HIDDEN_SIZE;
+        this.evaluator.move(move, flipped, direction, this.accumulators, moverOffset, otherOffset);
+    }
+}
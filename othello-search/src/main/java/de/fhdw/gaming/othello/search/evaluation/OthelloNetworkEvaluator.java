@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluator;
+
+/**
+ * Implements {@link OthelloEvaluator} by a small neural network with one hidden layer and quantized
+ * {@link OthelloNetworkWeights weights}, running on integer arithmetic only.
+ * <p>
+ * The sums of the inputs of the hidden units, the accumulator, are the costly part of the network. Searches following
+ * the moves by an {@link OthelloIncrementalEvaluation} keep the accumulators of both players up to date by the fields
+ * changed by each move, so evaluating a leaf takes a pass over the hidden units only. The inputs describe the fields
+ * of a board of up to 8x8 fields; the default weights are meant for 8x8 boards.
+ */
+public final class OthelloNetworkEvaluator implements OthelloIncrementalEvaluator {
+
+    /**
+     * The weights.
+     */
+    private final OthelloNetworkWeights weights;
+    /**
+     * The input weights widened to {@code int}s, which the loops over the hidden units process faster than
+     * {@code short}s as no conversion is needed.
+     */
+    private final int[] inputWeights;
+    /**
+     * The biases of the hidden units widened to {@code int}s.
+     */
+    private final int[] hiddenBiases;
+    /**
+     * The output weights widened to {@code int}s.
+     */
+    private final int[] outputWeights;
+
+    /**
+     * Creates a network evaluator using the {@link OthelloNetworkWeights#getDefault() default weights}.
+     */
+    public OthelloNetworkEvaluator() {
+        this(OthelloNetworkWeights.getDefault());
+    }
+
+    /**
+     * Creates a network evaluator.
+     *
+     * @param weights The weights.
+     */
+    public OthelloNetworkEvaluator(final OthelloNetworkWeights weights) {
+        this.weights = weights;
+        this.inputWeights = OthelloNetworkEvaluator.widen(weights.getInputWeights());
+        this.hiddenBiases = OthelloNetworkEvaluator.widen(weights.getHiddenBiases());
+        this.outputWeights = OthelloNetworkEvaluator.widen(weights.getOutputWeights());
+    }
+
+    @Override
+    public int evaluate(final OthelloBitBoard board, final long player, final long opponent) {
+        final int[] accumulator = new int[OthelloNetworkWeights.HIDDEN_SIZE];
+        this.accumulate(player, opponent, accumulator, 0);
+        return this.output(accumulator, 0);
+    }
+
+    @Override
+    public OthelloIncrementalEvaluation newEvaluation(final OthelloBitBoard board) {
+        return new OthelloNetworkEvaluation(this);
+    }
+
+    /**
+     * Computes the accumulator of a player from scratch.
+     *
+     * @param player      The fields occupied by the player whose point of view is taken.
+     * @param opponent    The fields occupied by their opponent.
+     * @param accumulator The array receiving the accumulator.
+     * @param offset      The position of the first hidden unit in the array.
+     */
+    void accumulate(final long player, final long opponent, final int[] accumulator, final int offset) {
+        System.arraycopy(this.hiddenBiases, 0, accumulator, offset, OthelloNetworkWeights.HIDDEN_SIZE);
+        for (long remaining = player; remaining != 0L; remaining &= remaining - 1L) {
+            this.add(
+                    OthelloNetworkWeights.getInputOffset(true, Long.numberOfTrailingZeros(remaining)),
+                    1,
+                    accumulator,
+                    offset);
+        }
+        for (long remaining = opponent; remaining != 0L; remaining &= remaining - 1L) {
+            this.add(
+                    OthelloNetworkWeights.getInputOffset(false, Long.numberOfTrailingZeros(remaining)),
+                    1,
+                    accumulator,
+                    offset);
+        }
+    }
+
+    /**
+     * Adds a multiple of the weights of an input to an accumulator.
+     *
+     * @param input       The position of the weights of the input, see
+     *                    {@link OthelloNetworkWeights#getInputOffset(boolean, int)}.
+     * @param factor      The multiple, 1 for an input becoming active and -1 for an input becoming inactive.
+     * @param accumulator The array holding the accumulator.
+     * @param offset      The position of the first hidden unit in the array.
+     */
+    void add(final int input, final int factor, final int[] accumulator, final int offset) {
+        final int[] weightsOfInputs = this.inputWeights;
+        for (int unit = 0; unit < OthelloNetworkWeights.HIDDEN_SIZE; ++unit) {
+            accumulator[offset + unit] += factor * weightsOfInputs[input + unit];
+        }
+    }
+
+    /**
+     * Applies or takes back the changes of the inputs by a move in the accumulators of both players. A flipped field
+     * moves from the opponent to the player moving in the accumulator of the player moving, and the other way round
+     * in the accumulator of the opponent.
+     *
+     * @param square       The field the token is placed on.
+     * @param flipped      The fields whose tokens are flipped.
+     * @param direction    1 for making the move, -1 for taking it back.
+     * @param accumulators The array holding the accumulators.
+     * @param moverOffset  The position of the accumulator of the player moving in the array.
+     * @param otherOffset  The position of the accumulator of the opponent in the array.
+     */
+    void move(final int square, final long flipped, final int direction, final int[] accumulators,
+            final int moverOffset, final int otherOffset) {
+        this.add(OthelloNetworkWeights.getInputOffset(true, square), direction, accumulators, moverOffset);
+        this.add(OthelloNetworkWeights.getInputOffset(false, square), direction, accumulators, otherOffset);
+        for (long remaining = flipped; remaining != 0L; remaining &= remaining - 1L) {
+            final int flippedSquare = Long.numberOfTrailingZeros(remaining);
+            final int own = OthelloNetworkWeights.getInputOffset(true, flippedSquare);
+            final int opponent = OthelloNetworkWeights.getInputOffset(false, flippedSquare);
+            // one loop per accumulator, as loops storing into a single array are easier to vectorize
+            this.flip(own, opponent, direction, accumulators, moverOffset);
+            this.flip(own, opponent, -direction, accumulators, otherOffset);
+        }
+    }
+
+    /**
+     * Moves a multiple of a field from one input to another in an accumulator.
+     *
+     * @param to          The position of the weights of the input the field moves to.
+     * @param from        The position of the weights of the input the field moves from.
+     * @param factor      The multiple.
+     * @param accumulator The array holding the accumulator.
+     * @param offset      The position of the first hidden unit in the array.
+     */
+    private void flip(final int to, final int from, final int factor, final int[] accumulator, final int offset) {
+        final int[] weightsOfInputs = this.inputWeights;
+        for (int unit = 0; unit < OthelloNetworkWeights.HIDDEN_SIZE; ++unit) {
+            accumulator[offset + unit] += factor * (weightsOfInputs[to + unit] - weightsOfInputs[from + unit]);
+        }
+    }
+
+    /**
+     * Computes the output of the network.
+     *
+     * @param accumulator The array holding the accumulator.
+     * @param offset      The position of the first hidden unit in the array.
+     * @return The evaluation from the point of view of the player whose accumulator is given.
+     */
+    int output(final int[] accumulator, final int offset) {
+        final int[] weightsOfOutput = this.outputWeights;
+        int sum = this.weights.getOutputBias();
+        for (int unit = 0; unit < OthelloNetworkWeights.HIDDEN_SIZE; ++unit) {
+            final int value = Math.max(0, Math.min(OthelloNetworkWeights.ACTIVATION_LIMIT, accumulator[offset + unit]));
+            sum += value * weightsOfOutput[unit];
+        }
+        return sum / (OthelloNetworkWeights.HIDDEN_SCALE * OthelloNetworkWeights.OUTPUT_SCALE);
+    }
+
+    /**
+     * Widens 16-bit integers to {@code int}s.
+     *
+     * @param values The integers.
+     */
+    private static int[] widen(final short[] values) {
+        final int[] widened = new int[values.length];
+        for (int value = 0; value < values.length; ++value) {
+            widened[value] = values[value];
+        }
+        return widened;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloNetworkEvaluator[weights=%s]", this.weights);
+    }
+}
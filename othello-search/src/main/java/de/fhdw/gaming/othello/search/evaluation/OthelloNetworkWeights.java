@@ -0,0 +1,301 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * The quantized weights of the network of an {@link OthelloNetworkEvaluator}.
+ * <p>
+ * The network has an input for every field and player: the input of a field is 1 for the player whose point of view
+ * is taken if they own the field, and likewise for their opponent. The inputs feed {@value #HIDDEN_SIZE} hidden units,
+ * whose values are clipped to the range from zero to {@value #ACTIVATION_LIMIT}, and the hidden units feed the single
+ * output, which is the evaluation. All weights are 16-bit integers: the input weights and the hidden biases are given
+ * in units of 1/{@value #HIDDEN_SCALE} point, the output weights in units of 1/{@value #OUTPUT_SCALE}. The activation
+ * limit keeps the output sum within the range of an {@code int}.
+ * <p>
+ * Weights are stored in a compact binary file: the magic number {@code ONNW}, the version of the format and the
+ * number of hidden units as big-endian {@code int}s, followed by the input weights (the weights of each input to all
+ * hidden units following each other), the hidden biases and the output weights as big-endian {@code short}s, and the
+ * output bias as an {@code int}. Objects of this class are immutable.
+ */
+public final class OthelloNetworkWeights {
+
+    /**
+     * The number of hidden units.
+     */
+    public static final int HIDDEN_SIZE = 32;
+    /**
+     * The number of inputs: one per field for either player.
+     */
+    public static final int INPUT_COUNT = 2 * OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE;
+    /**
+     * The number of units of the hidden values per point of the evaluation.
+     */
+    public static final int HIDDEN_SCALE = 4;
+    /**
+     * The largest value of a hidden unit.
+     */
+    public static final int ACTIVATION_LIMIT = 2032;
+    /**
+     * The number of units of the output weights per 1.
+     */
+    public static final int OUTPUT_SCALE = 16;
+    /**
+     * The system property giving the file the {@link #getDefault() default weights} are read from.
+     */
+    public static final String WEIGHTS_FILE_PROPERTY = "de.fhdw.gaming.othello.search.networkWeights";
+
+    /**
+     * The first four bytes of a weight file.
+     */
+    private static final int MAGIC = 0x4F4E4E57;
+    /**
+     * The version of the format of the weight files.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The default weights. Created on first use.
+     */
+    private static OthelloNetworkWeights defaultWeights;
+
+    /**
+     * The weights of the inputs to the hidden units, the weights of each input following each other.
+     */
+    private final short[] inputWeights;
+    /**
+     * The biases of the hidden units.
+     */
+    private final short[] hiddenBiases;
+    /**
+     * The weights of the hidden units to the output.
+     */
+    private final short[] outputWeights;
+    /**
+     * The bias of the output.
+     */
+    private final int outputBias;
+
+    /**
+     * Creates network weights.
+     *
+     * @param inputWeights  The weights of the inputs to the hidden units, the weights of each input following each
+     *                      other. Not copied.
+     * @param hiddenBiases  The biases of the hidden units. Not copied.
+     * @param outputWeights The weights of the hidden units to the output. Not copied.
+     * @param outputBias    The bias of the output.
+     */
+    OthelloNetworkWeights(final short[] inputWeights, final short[] hiddenBiases, final short[] outputWeights,
+            final int outputBias) {
+        this.inputWeights = inputWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Returns the default weights. If the system property {@value #WEIGHTS_FILE_PROPERTY} is set, they are
+     * {@link #read(Path) read} from the file it names. Otherwise, the network reproduces the
+     * {@link OthelloWeightTable weight table} of the 8x8 board plus one point per token by a pair of hidden units for
+     * the positive and the negative part of the sum, leaving the other units unused. The sum is limited to
+     * {@value #ACTIVATION_LIMIT}/{@value #HIDDEN_SCALE} points either way, which is reached in lopsided positions only.
+     *
+     * @throws IllegalArgumentException if the file named by the system property cannot be read or does not contain
+     *                                  valid weights.
+     */
+    public static synchronized OthelloNetworkWeights getDefault() throws IllegalArgumentException {
+        if (OthelloNetworkWeights.defaultWeights == null) {
+            final String property = System.getProperty(OthelloNetworkWeights.WEIGHTS_FILE_PROPERTY);
+            if (property == null) {
+                OthelloNetworkWeights.defaultWeights = OthelloNetworkWeights
+                        .fromSquareWeights(OthelloWeightTable.forSize(OthelloBitBoard.MAXIMUM_SIZE).toSquareWeights());
+            } else {
+                try {
+                    OthelloNetworkWeights.defaultWeights = OthelloNetworkWeights.read(Paths.get(property));
+                } catch (final IOException e) {
+                    throw new IllegalArgumentException(
+                            String.format(
+                                    "Cannot read network weights '%s' given by %s.",
+                                    property,
+                                    OthelloNetworkWeights.WEIGHTS_FILE_PROPERTY),
+                            e);
+                }
+            }
+        }
+        return OthelloNetworkWeights.defaultWeights;
+    }
+
+    /**
+     * Reads weights from a file.
+     *
+     * @param file The file.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not contain valid weights.
+     */
+    public static OthelloNetworkWeights read(final Path file) throws IOException, IllegalArgumentException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final int magic = input.readInt();
+            final int version = input.readInt();
+            if (magic != OthelloNetworkWeights.MAGIC || version != OthelloNetworkWeights.VERSION) {
+                throw new IllegalArgumentException(
+                        String.format("File %s does not contain network weights of version %d.", file, version));
+            }
+            final int hiddenSize = input.readInt();
+            if (hiddenSize != OthelloNetworkWeights.HIDDEN_SIZE) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid number of hidden units %d in %s.", hiddenSize, file));
+            }
+            final short[] inputWeights = OthelloNetworkWeights
+                    .readShorts(input, OthelloNetworkWeights.INPUT_COUNT * hiddenSize);
+            final short[] hiddenBiases = OthelloNetworkWeights.readShorts(input, hiddenSize);
+            final short[] outputWeights = OthelloNetworkWeights.readShorts(input, hiddenSize);
+            final int outputBias = input.readInt();
+            if (input.read() != -1) {
+                throw new IllegalArgumentException(String.format("Unexpected data after the weights in %s.", file));
+            }
+            return new OthelloNetworkWeights(inputWeights, hiddenBiases, outputWeights, outputBias);
+        }
+    }
+
+    /**
+     * Writes the weights to a file in the format understood by {@link #read(Path)}.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(final Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(OthelloNetworkWeights.MAGIC);
+            output.writeInt(OthelloNetworkWeights.VERSION);
+            output.writeInt(OthelloNetworkWeights.HIDDEN_SIZE);
+            OthelloNetworkWeights.writeShorts(output, this.inputWeights);
+            OthelloNetworkWeights.writeShorts(output, this.hiddenBiases);
+            OthelloNetworkWeights.writeShorts(output, this.outputWeights);
+            output.writeInt(this.outputBias);
+        }
+    }
+
+    /**
+     * Returns the position of the weights of an input to the hidden units.
+     *
+     * @param own    {@code true} for the input of a field owned by the player whose point of view is taken,
+     *               {@code false} for a field owned by their opponent.
+     * @param square The {@link OthelloBitBoard#square(int, int) square} of the field.
+     * @return The position of the weight to the first hidden unit in {@link #getInputWeights()}.
+     */
+    static int getInputOffset(final boolean own, final int square) {
+        final int input = own ? square : OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE + square;
+        return input * OthelloNetworkWeights.HIDDEN_SIZE;
+    }
+
+    /**
+     * Returns the weights of the inputs to the hidden units, the weights of each input following each other. Must not
+     * be modified.
+     */
+    short[] getInputWeights() {
+        return this.inputWeights;
+    }
+
+    /**
+     * Returns the biases of the hidden units. Must not be modified.
+     */
+    short[] getHiddenBiases() {
+        return this.hiddenBiases;
+    }
+
+    /**
+     * Returns the weights of the hidden units to the output. Must not be modified.
+     */
+    short[] getOutputWeights() {
+        return this.outputWeights;
+    }
+
+    /**
+     * Returns the bias of the output.
+     */
+    int getOutputBias() {
+        return this.outputBias;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloNetworkWeights[hidden=%d]", OthelloNetworkWeights.HIDDEN_SIZE);
+    }
+
+    /**
+     * Derives network weights from square weights.
+     *
+     * @param squareWeights The weights of the fields indexed by {@link OthelloBitBoard#square(int, int) square}.
+     */
+    private static OthelloNetworkWeights fromSquareWeights(final int[] squareWeights) {
+        final int hiddenSize = OthelloNetworkWeights.HIDDEN_SIZE;
+        final short[] inputWeights = new short[OthelloNetworkWeights.INPUT_COUNT * hiddenSize];
+        for (int square = 0; square < squareWeights.length; ++square) {
+            final int weight = (squareWeights[square] + 1) * OthelloNetworkWeights.HIDDEN_SCALE;
+            final int own = OthelloNetworkWeights.getInputOffset(true, square);
+            final int opponent = OthelloNetworkWeights.getInputOffset(false, square);
+            inputWeights[own] = (short) weight;
+            inputWeights[opponent] = (short) -weight;
+            inputWeights[own + 1] = (short) -weight;
+            inputWeights[opponent + 1] = (short) weight;
+        }
+        final short[] outputWeights = new short[hiddenSize];
+        outputWeights[0] = OthelloNetworkWeights.OUTPUT_SCALE;
+        outputWeights[1] = -OthelloNetworkWeights.OUTPUT_SCALE;
+        return new OthelloNetworkWeights(inputWeights, new short[hiddenSize], outputWeights, 0);
+    }
+
+    /**
+     * Reads 16-bit integers.
+     *
+     * @param input The stream.
+     * @param count The number of integers.
+     * @throws IOException if the integers cannot be read.
+     */
+    private static short[] readShorts(final DataInputStream input, final int count) throws IOException {
+        final short[] values = new short[count];
+        for (int value = 0; value < count; ++value) {
+            values[value] = input.readShort();
+        }
+        return values;
+    }
+
+    /**
+     * Writes 16-bit integers.
+     *
+     * @param output The stream.
+     * @param values The integers.
+     * @throws IOException if the integers cannot be written.
+     */
+    private static void writeShorts(final DataOutputStream output, final short[] values) throws IOException {
+        for (final short value : values) {
+            output.writeShort(value);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+
+/**
+ * Implements {@link OthelloIncrementalEvaluation} for the {@link OthelloPatternEvaluator} by keeping the index of
+ * every pattern. The tokens of the player to move at {@link #setUp(long, long) set-up} count as digit 1 for the whole
+ * search, so a move changes the digit of its field from 0 to that of the player moving, and the digits of the flipped
+ * fields from that of the opponent to that of the player moving.
+ */
+final class OthelloPatternEvaluation implements OthelloIncrementalEvaluation {
+
+    /**
+     * The evaluator.
+     */
+    private final OthelloPatternEvaluator evaluator;
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * The index of each pattern.
+     */
+    private final int[] indices;
+    /**
+     * The digit of the tokens of the player to move, either 1 or 2.
+     */
+    private int moverDigit;
+
+    /**
+     * Creates an evaluation.
+     *
+     * @param evaluator The evaluator.
+     * @param board     The geometry of the board.
+     */
+    OthelloPatternEvaluation(final OthelloPatternEvaluator evaluator, final OthelloBitBoard board) {
+        this.evaluator = evaluator;
+        this.board = board;
+        this.indices = new int[OthelloPatterns.getInstanceCount()];
+        this.moverDigit = 1;
+    }
+
+    @Override
+    public void setUp(final long player, final long opponent) {
+        OthelloPatterns.computeIndices(player, opponent, this.indices);
+        this.moverDigit = 1;
+    }
+
+    @Override
+    public void makeMove(final int move, final long flipped) {
+        if (move != OthelloBitBoard.PASS) {
+            this.update(move, flipped, 1);
+        }
+        this.moverDigit = 3 - this.moverDigit;
+    }
+
+    @Override
+    public void unmakeMove(final int move, final long flipped) {
+        this.moverDigit = 3 - this.moverDigit;
+        if (move != OthelloBitBoard.PASS) {
+            this.update(move, flipped, -1);
+        }
+    }
+
+    @Override
+    public int evaluate(final long player, final long opponent) {
+        final int score = this.evaluator.score(this.indices, Long.bitCount(this.board.emptySquares(player, opponent)));
+        return this.moverDigit == 1 ? score : -score;
+    }
+
+    /**
+     * Applies or takes back the changes of the digits by a move of the player to move.
+     *
+     * @param move      The field the token is placed on.
+     * @param flipped   The fields whose tokens are flipped.
+     * @param direction 1 for making the move, -1 for taking it back.
+     */
+    private void update(final int move, final long flipped, final int direction) {
+        OthelloPatterns.addToIndices(move, direction * this.moverDigit, this.indices);
+        // the digit of a flipped field changes from 3 - moverDigit to moverDigit
+        final int change = direction * (2 * this.moverDigit - 3);
+        for (long remaining = flipped; remaining != 0L; remaining &= remaining - 1L) {
+            OthelloPatterns.addToIndices(Long.numberOfTrailingZeros(remaining), change, this.indices);
+        }
+    }
+}
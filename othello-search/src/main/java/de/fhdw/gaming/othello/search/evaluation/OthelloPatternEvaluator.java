@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluator;
+
+/**
+ * Implements {@link OthelloEvaluator} by looking up the value of each {@link OthelloPatterns pattern} of fields in a
+ * table of {@link OthelloPatternWeights weights} for the current game phase, and summing them up.
+ * <p>
+ * Searches following the moves by an {@link OthelloIncrementalEvaluation} keep the index of every pattern up to date
+ * by the fields changed by each move, so evaluating a leaf takes a table lookup per pattern in each of the two
+ * {@link OthelloGamePhase phases} of the position. The patterns describe an 8x8 board.
+ */
+public final class OthelloPatternEvaluator implements OthelloIncrementalEvaluator {
+
+    /**
+     * The weights.
+     */
+    private final OthelloPatternWeights weights;
+
+    /**
+     * Creates a pattern evaluator using the {@link OthelloPatternWeights#getDefault() default weights}.
+     */
+    public OthelloPatternEvaluator() {
+        this(OthelloPatternWeights.getDefault());
+    }
+
+    /**
+     * Creates a pattern evaluator.
+     *
+     * @param weights The weights.
+     */
+    public OthelloPatternEvaluator(final OthelloPatternWeights weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public int evaluate(final OthelloBitBoard board, final long player, final long opponent) {
+        final int[] indices = new int[OthelloPatterns.getInstanceCount()];
+        OthelloPatterns.computeIndices(player, opponent, indices);
+        return this.score(indices, Long.bitCount(board.emptySquares(player, opponent)));
+    }
+
+    @Override
+    public OthelloIncrementalEvaluation newEvaluation(final OthelloBitBoard board) {
+        return new OthelloPatternEvaluation(this, board);
+    }
+
+    /**
+     * Sums up the values of all patterns, interpolating between the tables of the two phases of the position.
+     *
+     * @param indices The indices of the patterns.
+     * @param empties The number of empty fields.
+     * @return The evaluation from the point of view of the player whose tokens count as digit 1.
+     */
+    int score(final int[] indices, final int empties) {
+        final OthelloGamePhase phase = this.weights.getPhase();
+        final int lower = OthelloPatternEvaluator.sum(indices, this.weights.getTables(phase.getLowerPhase(empties)));
+        if (phase.getUpperShare(empties) == 0) {
+            return lower / OthelloPatternWeights.SCALE;
+        }
+        final int upper = OthelloPatternEvaluator.sum(indices, this.weights.getTables(phase.getUpperPhase(empties)));
+        return phase.interpolate(empties, lower, upper) / OthelloPatternWeights.SCALE;
+    }
+
+    /**
+     * Sums up the values of all patterns in the tables of a phase.
+     *
+     * @param indices The indices of the patterns.
+     * @param tables  The tables indexed by pattern type and pattern index.
+     */
+    private static int sum(final int[] indices, final short[][] tables) {
+        int sum = 0;
+        for (int instance = 0; instance < indices.length; ++instance) {
+            sum += tables[OthelloPatterns.getType(instance)][indices[instance]];
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloPatternEvaluator[weights=%s]", this.weights);
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import de.fhdw.gaming.othello.search.OthelloPositionFile;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+
+/**
+ * Fits the {@link OthelloPatternWeights weights} of an {@link OthelloPatternEvaluator} to the outcomes of games by
+ * linear regression: the evaluation of each position of an {@link OthelloPositionFile} should predict the final disc
+ * differential of its game. The weights are corrected by mini-batch gradient descent, starting with some initial
+ * weights.
+ * <p>
+ * Each mini-batch is processed in two parallel steps. First, the positions of the batch are split among the threads,
+ * which compute the indices of the patterns of each position, the phases it belongs to, and the error of its current
+ * evaluation. Then the pattern types are split among the threads: each thread owns the weights of its types, sums up
+ * the errors of the positions using them, and moves every weight by the average error of the positions it appears in.
+ * Neither step needs any locking. As a position of one player is the negated position of the other, the index seen
+ * from the other player is always corrected in the opposite direction, which keeps the weights antisymmetric.
+ * <p>
+ * Objects of this class are not thread-safe: a trainer runs one batch at a time, using the threads of its budget.
+ */
+public final class OthelloPatternTrainer {
+
+    /**
+     * The number added to the sum of the shares of the positions using a weight before averaging their errors, so
+     * that weights seen in few positions move more slowly.
+     */
+    private static final float SMOOTHING = 4.0f;
+
+    /**
+     * The budget the threads are leased from.
+     */
+    private final OthelloThreadBudget threadBudget;
+    /**
+     * The number of threads training in parallel.
+     */
+    private final int threadCount;
+    /**
+     * The division of the game into the phases of the weights.
+     */
+    private final OthelloGamePhase phase;
+    /**
+     * The numbers of the patterns of each type.
+     */
+    private final int[][] typeInstances;
+    /**
+     * The indices seen from the other player, indexed by pattern type and pattern index.
+     */
+    private final int[][] swappedIndices;
+    /**
+     * The weights in points of the evaluation indexed by phase, pattern type and pattern index.
+     */
+    private final float[][][] values;
+    /**
+     * The sums of the errors weighted by the phase shares, indexed like {@link #values}.
+     */
+    private final float[][][] gradients;
+    /**
+     * The sums of the phase shares of the positions using a weight, indexed like {@link #values}.
+     */
+    private final float[][][] shares;
+
+    /**
+     * Creates a trainer.
+     *
+     * @param initialWeights The weights the training starts with.
+     * @param threadCount    The number of threads training in parallel.
+     * @param threadBudget   The budget the threads are leased from.
+     */
+    public OthelloPatternTrainer(final OthelloPatternWeights initialWeights, final int threadCount,
+            final OthelloThreadBudget threadBudget) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(String.format("Invalid thread count %d.", threadCount));
+        }
+        this.threadBudget = threadBudget;
+        this.threadCount = threadCount;
+        this.phase = initialWeights.getPhase();
+        this.values = initialWeights.toValues();
+        this.gradients = new float[this.values.length][OthelloPatterns.TYPE_COUNT][];
+        this.shares = new float[this.values.length][OthelloPatterns.TYPE_COUNT][];
+        this.typeInstances = new int[OthelloPatterns.TYPE_COUNT][];
+        this.swappedIndices = new int[OthelloPatterns.TYPE_COUNT][];
+        for (int type = 0; type < OthelloPatterns.TYPE_COUNT; ++type) {
+            final int currentType = type;
+            this.typeInstances[type] = IntStream.range(0, OthelloPatterns.getInstanceCount())
+                    .filter((final int instance) -> OthelloPatterns.getType(instance) == currentType).toArray();
+            this.swappedIndices[type] = new int[OthelloPatterns.getIndexCount(type)];
+            for (int index = 0; index < this.swappedIndices[type].length; ++index) {
+                this.swappedIndices[type][index] = OthelloPatterns.swapPlayers(type, index);
+            }
+        }
+        for (int phaseIndex = 0; phaseIndex < this.values.length; ++phaseIndex) {
+            for (int type = 0; type < OthelloPatterns.TYPE_COUNT; ++type) {
+                this.gradients[phaseIndex][type] = new float[OthelloPatterns.getIndexCount(type)];
+                this.shares[phaseIndex][type] = new float[OthelloPatterns.getIndexCount(type)];
+            }
+        }
+    }
+
+    /**
+     * Runs one pass over all positions of a file. The positions are taken in batches of consecutive positions, the
+     * batches in random order.
+     *
+     * @param positions    The positions, which have to be 8x8 positions.
+     * @param batchSize    The number of positions per batch.
+     * @param learningRate The fraction of the average error of the positions using a weight by which it is corrected.
+     * @param random       The source of the order of the batches.
+     * @return The mean squared error of the evaluations of the positions before they were trained on.
+     */
+    public double trainEpoch(final OthelloPositionFile positions, final int batchSize, final float learningRate,
+            final Random random) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid batch size %d.", batchSize));
+        }
+        final long batchCount = (positions.getPositionCount() + batchSize - 1) / batchSize;
+        if (batchCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Too many batches of size %d.", batchSize));
+        }
+        final int[] order = new int[(int) batchCount];
+        for (int batch = 0; batch < order.length; ++batch) {
+            final int other = random.nextInt(batch + 1);
+            order[batch] = order[other];
+            order[other] = batch;
+        }
+
+        final Batch buffer = new Batch(batchSize);
+        double squaredError = 0.0;
+        for (final int batch : order) {
+            final long first = (long) batch * batchSize;
+            final int size = (int) Math.min(batchSize, positions.getPositionCount() - first);
+            squaredError += this.trainBatch(positions, first, size, learningRate, buffer);
+        }
+        return positions.getPositionCount() == 0L ? 0.0 : squaredError / positions.getPositionCount();
+    }
+
+    /**
+     * Returns the mean squared error of the evaluations of all positions of a file, without changing the weights.
+     *
+     * @param positions The positions, which have to be 8x8 positions.
+     */
+    public double getMeanSquaredError(final OthelloPositionFile positions) {
+        final int batchSize = 1 << 16;
+        final Batch buffer = new Batch(batchSize);
+        double squaredError = 0.0;
+        for (long first = 0L; first < positions.getPositionCount(); first += batchSize) {
+            final int size = (int) Math.min(batchSize, positions.getPositionCount() - first);
+            squaredError += this.evaluateBatch(positions, first, size, buffer);
+        }
+        return positions.getPositionCount() == 0L ? 0.0 : squaredError / positions.getPositionCount();
+    }
+
+    /**
+     * Returns the current weights.
+     */
+    public OthelloPatternWeights getWeights() {
+        return OthelloPatternWeights.fromValues(this.values);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloPatternTrainer[threads=%d, phases=%d]", this.threadCount, this.values.length);
+    }
+
+    /**
+     * Trains on a batch of positions.
+     *
+     * @param positions    The positions.
+     * @param first        The number of the first position of the batch.
+     * @param size         The number of positions of the batch.
+     * @param learningRate The fraction of the average error by which the weights are corrected.
+     * @param batch        The buffer of the batch.
+     * @return The sum of the squared errors of the positions before the correction.
+     */
+    private double trainBatch(final OthelloPositionFile positions, final long first, final int size,
+            final float learningRate, final Batch batch) {
+        final double squaredError = this.evaluateBatch(positions, first, size, batch);
+        this.threadBudget.forEach(
+                OthelloPatterns.TYPE_COUNT,
+                this.threadCount,
+                (final int type) -> this.correct(type, size, learningRate, batch));
+        return squaredError;
+    }
+
+    /**
+     * Evaluates a batch of positions, filling the buffer of the batch.
+     *
+     * @param positions The positions.
+     * @param first     The number of the first position of the batch.
+     * @param size      The number of positions of the batch.
+     * @param batch     The buffer of the batch.
+     * @return The sum of the squared errors of the positions.
+     */
+    private double evaluateBatch(final OthelloPositionFile positions, final long first, final int size,
+            final Batch batch) {
+        this.threadBudget.forEach(size, this.threadCount, (final int position) -> {
+            final long player = positions.getPlayer(first + position);
+            final long opponent = positions.getOpponent(first + position);
+            final int offset = position * batch.instanceCount;
+            OthelloPatterns.computeIndices(player, opponent, batch.indices, offset);
+            final int empties = OthelloPatterns.SQUARE_COUNT - Long.bitCount(player | opponent);
+            final int lowerPhase = this.phase.getLowerPhase(empties);
+            final int upperPhase = this.phase.getUpperPhase(empties);
+            final float upperShare = (float) this.phase.getUpperShare(empties) / OthelloGamePhase.SHARE_SCALE;
+            float lower = 0.0f;
+            float upper = 0.0f;
+            for (int instance = 0; instance < batch.instanceCount; ++instance) {
+                final int type = OthelloPatterns.getType(instance);
+                final int index = batch.indices[offset + instance];
+                lower += this.values[lowerPhase][type][index];
+                upper += this.values[upperPhase][type][index];
+            }
+            batch.lowerPhases[position] = lowerPhase;
+            batch.upperShares[position] = upperShare;
+            batch.errors[position] = positions.getResult(first + position)
+                    - (lower * (1.0f - upperShare) + upper * upperShare);
+        });
+        double squaredError = 0.0;
+        for (int position = 0; position < size; ++position) {
+            squaredError += (double) batch.errors[position] * batch.errors[position];
+        }
+        return squaredError;
+    }
+
+    /**
+     * Corrects the weights of a pattern type by the errors of a batch. Only the weights of the type are read or
+     * written, so the types can be corrected in parallel.
+     *
+     * @param type         The pattern type.
+     * @param size         The number of positions of the batch.
+     * @param learningRate The fraction of the average error by which the weights are corrected.
+     * @param batch        The buffer of the batch.
+     */
+    private void correct(final int type, final int size, final float learningRate, final Batch batch) {
+        for (int position = 0; position < size; ++position) {
+            final int lowerPhase = batch.lowerPhases[position];
+            final int upperPhase = Math.min(lowerPhase + 1, this.values.length - 1);
+            final float upperShare = batch.upperShares[position];
+            final float error = batch.errors[position];
+            final int offset = position * batch.instanceCount;
+            for (final int instance : this.typeInstances[type]) {
+                final int index = batch.indices[offset + instance];
+                this.accumulate(lowerPhase, type, index, error, 1.0f - upperShare);
+                if (upperShare > 0.0f) {
+                    this.accumulate(upperPhase, type, index, error, upperShare);
+                }
+            }
+        }
+        // every weight used by the batch is corrected once, and its sums are cleared for the next batch
+        for (int position = 0; position < size; ++position) {
+            final int lowerPhase = batch.lowerPhases[position];
+            final int upperPhase = Math.min(lowerPhase + 1, this.values.length - 1);
+            final int offset = position * batch.instanceCount;
+            for (final int instance : this.typeInstances[type]) {
+                final int index = batch.indices[offset + instance];
+                final int swapped = this.swappedIndices[type][index];
+                this.apply(lowerPhase, type, index, learningRate);
+                this.apply(lowerPhase, type, swapped, learningRate);
+                this.apply(upperPhase, type, index, learningRate);
+                this.apply(upperPhase, type, swapped, learningRate);
+            }
+        }
+    }
+
+    /**
+     * Adds the error of a position to the sums of a weight, and the negated error to the sums of the weight of the
+     * index seen from the other player.
+     *
+     * @param phaseIndex The phase of the weight.
+     * @param type       The pattern type.
+     * @param index      The pattern index.
+     * @param error      The error of the position.
+     * @param share      The share of the phase in the evaluation of the position.
+     */
+    private void accumulate(final int phaseIndex, final int type, final int index, final float error,
+            final float share) {
+        final int swapped = this.swappedIndices[type][index];
+        this.gradients[phaseIndex][type][index] += error * share;
+        this.shares[phaseIndex][type][index] += share;
+        this.gradients[phaseIndex][type][swapped] -= error * share;
+        this.shares[phaseIndex][type][swapped] += share;
+    }
+
+    /**
+     * Corrects a weight by the average error of the positions using it, unless it has already been corrected.
+     *
+     * @param phaseIndex   The phase of the weight.
+     * @param type         The pattern type.
+     * @param index        The pattern index.
+     * @param learningRate The fraction of the average error by which the weight is corrected.
+     */
+    private void apply(final int phaseIndex, final int type, final int index, final float learningRate) {
+        final float share = this.shares[phaseIndex][type][index];
+        if (share != 0.0f) {
+            this.values[phaseIndex][type][index] += learningRate * this.gradients[phaseIndex][type][index]
+                    / (share + OthelloPatternTrainer.SMOOTHING);
+            this.gradients[phaseIndex][type][index] = 0.0f;
+            this.shares[phaseIndex][type][index] = 0.0f;
+        }
+    }
+
+    /**
+     * The data of the positions of a batch, shared by the steps of its processing.
+     */
+    private static final class Batch {
+
+        /**
+         * The number of patterns of a position.
+         */
+        private final int instanceCount;
+        /**
+         * The indices of the patterns of the positions, the indices of each position following each other.
+         */
+        private final int[] indices;
+        /**
+         * The lower phases of the positions.
+         */
+        private final int[] lowerPhases;
+        /**
+         * The shares of the upper phases in the evaluations of the positions.
+         */
+        private final float[] upperShares;
+        /**
+         * The differences between the results and the evaluations of the positions.
+         */
+        private final float[] errors;
+
+        /**
+         * Creates the buffer of a batch.
+         *
+         * @param batchSize The largest number of positions of the batch.
+         */
+        Batch(final int batchSize) {
+            this.instanceCount = OthelloPatterns.getInstanceCount();
+            this.indices = new int[batchSize * this.instanceCount];
+            this.lowerPhases = new int[batchSize];
+            this.upperShares = new float[batchSize];
+            this.errors = new float[batchSize];
+        }
+    }
+}
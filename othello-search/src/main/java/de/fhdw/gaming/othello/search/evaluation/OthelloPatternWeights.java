@@ -0,0 +1,305 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * The weight tables of the {@link OthelloPatternEvaluator}: for each game phase and each pattern type, the value of
+ * every index of the pattern from the point of view of the player whose tokens count as digit 1. The tables of a
+ * phase hold the values at its {@link OthelloGamePhase anchor}; positions in between are evaluated by interpolating
+ * between the tables of the two neighbouring phases.
+ * <p>
+ * The values are stored in units of 1/{@link #SCALE} of a point of the evaluation, so that small weights shared by
+ * several patterns do not get lost by rounding. Objects of this class are immutable.
+ * <p>
+ * Weights are stored in a compact binary file: the magic number {@code OPTW}, the version of the format, the number
+ * of phases and the number of pattern types as big-endian {@code int}s, followed by the tables of every phase, each
+ * table being the number of its entries as an {@code int} and the entries as big-endian {@code short}s.
+ */
+public final class OthelloPatternWeights {
+
+    /**
+     * The number of table units per point of the evaluation.
+     */
+    public static final int SCALE = 16;
+    /**
+     * The number of game phases of the default weights.
+     */
+    public static final int DEFAULT_PHASE_COUNT = 8;
+    /**
+     * The system property giving the file the {@link #getDefault() default weights} are read from.
+     */
+    public static final String WEIGHTS_FILE_PROPERTY = "de.fhdw.gaming.othello.search.patternWeights";
+
+    /**
+     * The first four bytes of a weight file.
+     */
+    private static final int MAGIC = 0x4F505457;
+    /**
+     * The version of the format of the weight files.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The default weights. Created on first use, as the tables take a while to fill.
+     */
+    private static OthelloPatternWeights defaultWeights;
+
+    /**
+     * The weight tables indexed by phase, pattern type and pattern index.
+     */
+    private final short[][][] tables;
+    /**
+     * The division of the game into the phases of the tables.
+     */
+    private final OthelloGamePhase phase;
+
+    /**
+     * Creates pattern weights.
+     *
+     * @param tables The weight tables indexed by phase, pattern type and pattern index. Not copied.
+     */
+    OthelloPatternWeights(final short[][][] tables) {
+        this.tables = tables;
+        this.phase = new OthelloGamePhase(OthelloPatterns.SQUARE_COUNT, tables.length);
+    }
+
+    /**
+     * Returns the default weights. If the system property {@value #WEIGHTS_FILE_PROPERTY} is set, they are
+     * {@link #read(Path) read} from the file it names, which is usually written by a tuning run. Otherwise, they are
+     * derived from the {@link OthelloWeightTable weight table} of the 8x8 board: each pattern contributes its share of
+     * the weights of its fields, which fade out towards the end of the game until only the number of tokens counts.
+     *
+     * @throws IllegalArgumentException if the file named by the system property cannot be read or does not contain
+     *                                  valid weights.
+     */
+    public static synchronized OthelloPatternWeights getDefault() throws IllegalArgumentException {
+        if (OthelloPatternWeights.defaultWeights == null) {
+            final String property = System.getProperty(OthelloPatternWeights.WEIGHTS_FILE_PROPERTY);
+            if (property == null) {
+                OthelloPatternWeights.defaultWeights = OthelloPatternWeights
+                        .fromSquareWeights(OthelloWeightTable.forSize(OthelloPatterns.SIZE).toSquareWeights());
+            } else {
+                try {
+                    OthelloPatternWeights.defaultWeights = OthelloPatternWeights.read(Paths.get(property));
+                } catch (final IOException e) {
+                    throw new IllegalArgumentException(
+                            String.format(
+                                    "Cannot read pattern weights '%s' given by %s.",
+                                    property,
+                                    OthelloPatternWeights.WEIGHTS_FILE_PROPERTY),
+                            e);
+                }
+            }
+        }
+        return OthelloPatternWeights.defaultWeights;
+    }
+
+    /**
+     * Reads weights from a file.
+     *
+     * @param file The file.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not contain valid weights.
+     */
+    public static OthelloPatternWeights read(final Path file) throws IOException, IllegalArgumentException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final int magic = input.readInt();
+            final int version = input.readInt();
+            if (magic != OthelloPatternWeights.MAGIC || version != OthelloPatternWeights.VERSION) {
+                throw new IllegalArgumentException(
+                        String.format("File %s does not contain pattern weights of version %d.", file, version));
+            }
+            final int phaseCount = input.readInt();
+            final int typeCount = input.readInt();
+            if (phaseCount < 1 || typeCount != OthelloPatterns.TYPE_COUNT) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                "Invalid number of phases %d or pattern types %d in %s.",
+                                phaseCount,
+                                typeCount,
+                                file));
+            }
+            final short[][][] tables = new short[phaseCount][typeCount][];
+            for (int phase = 0; phase < phaseCount; ++phase) {
+                for (int type = 0; type < typeCount; ++type) {
+                    final int length = input.readInt();
+                    if (length != OthelloPatterns.getIndexCount(type)) {
+                        throw new IllegalArgumentException(
+                                String.format(
+                                        "Invalid length %d of the table of pattern type %d in phase %d of %s.",
+                                        length,
+                                        type,
+                                        phase,
+                                        file));
+                    }
+                    final short[] table = new short[length];
+                    for (int index = 0; index < length; ++index) {
+                        table[index] = input.readShort();
+                    }
+                    tables[phase][type] = table;
+                }
+            }
+            if (input.read() != -1) {
+                throw new IllegalArgumentException(String.format("Unexpected data after the weights in %s.", file));
+            }
+            return new OthelloPatternWeights(tables);
+        }
+    }
+
+    /**
+     * Writes the weights to a file in the format understood by {@link #read(Path)}.
+     *
+     * @param file The file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(final Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(OthelloPatternWeights.MAGIC);
+            output.writeInt(OthelloPatternWeights.VERSION);
+            output.writeInt(this.tables.length);
+            output.writeInt(OthelloPatterns.TYPE_COUNT);
+            for (final short[][] phaseTables : this.tables) {
+                for (final short[] table : phaseTables) {
+                    output.writeInt(table.length);
+                    for (final short value : table) {
+                        output.writeShort(value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates pattern weights from values in points of the evaluation. The values are made antisymmetric in the
+     * players by averaging each index with the negated index seen from the other player, and are rounded and limited
+     * to the range of the tables.
+     *
+     * @param values The values indexed by phase, pattern type and pattern index.
+     */
+    static OthelloPatternWeights fromValues(final float[][][] values) {
+        final short[][][] tables = new short[values.length][OthelloPatterns.TYPE_COUNT][];
+        for (int phase = 0; phase < values.length; ++phase) {
+            for (int type = 0; type < OthelloPatterns.TYPE_COUNT; ++type) {
+                final float[] typeValues = values[phase][type];
+                final short[] table = new short[typeValues.length];
+                for (int index = 0; index < table.length; ++index) {
+                    final double value = (typeValues[index] - typeValues[OthelloPatterns.swapPlayers(type, index)])
+                            / 2.0 * OthelloPatternWeights.SCALE;
+                    final long rounded = (long) Math.signum(value) * Math.round(Math.abs(value));
+                    table[index] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, rounded));
+                }
+                tables[phase][type] = table;
+            }
+        }
+        return new OthelloPatternWeights(tables);
+    }
+
+    /**
+     * Returns the values of the weights in points of the evaluation.
+     *
+     * @return The values indexed by phase, pattern type and pattern index.
+     */
+    float[][][] toValues() {
+        final float[][][] values = new float[this.tables.length][OthelloPatterns.TYPE_COUNT][];
+        for (int phase = 0; phase < this.tables.length; ++phase) {
+            for (int type = 0; type < OthelloPatterns.TYPE_COUNT; ++type) {
+                final short[] table = this.tables[phase][type];
+                final float[] typeValues = new float[table.length];
+                for (int index = 0; index < table.length; ++index) {
+                    typeValues[index] = (float) table[index] / OthelloPatternWeights.SCALE;
+                }
+                values[phase][type] = typeValues;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the number of game phases.
+     */
+    public int getPhaseCount() {
+        return this.tables.length;
+    }
+
+    /**
+     * Returns the division of the game into the phases of the tables.
+     */
+    public OthelloGamePhase getPhase() {
+        return this.phase;
+    }
+
+    /**
+     * Returns the weight tables of a phase.
+     *
+     * @param phase The phase.
+     * @return The tables indexed by pattern type and pattern index. Must not be modified.
+     */
+    short[][] getTables(final int phase) {
+        return this.tables[phase];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloPatternWeights[phases=%d]", this.tables.length);
+    }
+
+    /**
+     * Derives pattern weights from square weights.
+     *
+     * @param squareWeights The weights of the fields indexed by {@link OthelloBitBoard#square(int, int) square}.
+     */
+    private static OthelloPatternWeights fromSquareWeights(final int[] squareWeights) {
+        final int phaseCount = OthelloPatternWeights.DEFAULT_PHASE_COUNT;
+        final short[][][] tables = new short[phaseCount][OthelloPatterns.TYPE_COUNT][];
+        for (int phase = 0; phase < phaseCount; ++phase) {
+            for (int type = 0; type < OthelloPatterns.TYPE_COUNT; ++type) {
+                final int length = OthelloPatterns.getLength(type);
+                final double[] shares = new double[length];
+                for (int field = 0; field < length; ++field) {
+                    final int square = OthelloPatterns.getBaseSquare(type, field);
+                    final double weight = 1.0 + (double) squareWeights[square] * phase / (phaseCount - 1);
+                    shares[field] = OthelloPatternWeights.SCALE * weight / OthelloPatterns.getCoverage(square);
+                }
+                final short[] table = new short[OthelloPatterns.getIndexCount(type)];
+                for (int index = 0; index < table.length; ++index) {
+                    double value = 0.0;
+                    int digits = index;
+                    for (int field = 0; field < length; ++field, digits /= 3) {
+                        value += digits % 3 == 1 ? shares[field] : digits % 3 == 2 ? -shares[field] : 0.0;
+                    }
+                    // rounding half away from zero keeps the tables antisymmetric in the players
+                    table[index] = (short) (Math.signum(value) * Math.round(Math.abs(value)));
+                }
+                tables[phase][type] = table;
+            }
+        }
+        return new OthelloPatternWeights(tables);
+    }
+}
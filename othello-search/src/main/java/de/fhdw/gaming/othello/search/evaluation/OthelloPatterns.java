@@ -0,0 +1,334 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * The patterns of fields looked at by the {@link OthelloPatternEvaluator} on an 8x8 board.
+ * <p>
+ * There are eleven types of patterns: the edge together with both X-squares next to it, the 3x3 and the 2x5 fields in
+ * a corner, the diagonals of four to eight fields, and the second, third and fourth row. Each type occurs several
+ * times on the board, once for each way a symmetry of the board maps it to a different set of fields. The tokens on
+ * the fields of a pattern are combined into a base-3 index (0 for an empty field, 1 and 2 for the tokens of either
+ * player), the first field of the pattern being the least significant digit.
+ */
+final class OthelloPatterns {
+
+    /**
+     * The type of the edge pattern, including both X-squares.
+     */
+    static final int EDGE_2X = 0;
+    /**
+     * The type of the 3x3 corner pattern.
+     */
+    static final int CORNER_3X3 = 1;
+    /**
+     * The type of the 2x5 corner pattern.
+     */
+    static final int CORNER_2X5 = 2;
+    /**
+     * The type of the diagonal of four fields.
+     */
+    static final int DIAGONAL_4 = 3;
+    /**
+     * The type of the diagonal of five fields.
+     */
+    static final int DIAGONAL_5 = 4;
+    /**
+     * The type of the diagonal of six fields.
+     */
+    static final int DIAGONAL_6 = 5;
+    /**
+     * The type of the diagonal of seven fields.
+     */
+    static final int DIAGONAL_7 = 6;
+    /**
+     * The type of the diagonal of eight fields.
+     */
+    static final int DIAGONAL_8 = 7;
+    /**
+     * The type of the second row.
+     */
+    static final int LINE_2 = 8;
+    /**
+     * The type of the third row.
+     */
+    static final int LINE_3 = 9;
+    /**
+     * The type of the fourth row.
+     */
+    static final int LINE_4 = 10;
+    /**
+     * The number of pattern types.
+     */
+    static final int TYPE_COUNT = 11;
+
+    /**
+     * The number of rows (and columns) of the board.
+     */
+    static final int SIZE = OthelloBitBoard.MAXIMUM_SIZE;
+    /**
+     * The number of fields of the board.
+     */
+    static final int SQUARE_COUNT = OthelloPatterns.SIZE * OthelloPatterns.SIZE;
+
+    /**
+     * The fields of each pattern type near the upper left corner, as pairs of row and column.
+     */
+    private static final int[][][] BASE_PATTERNS = {
+            { { 0, 0 }, { 0, 1 }, { 0, 2 }, { 0, 3 }, { 0, 4 }, { 0, 5 }, { 0, 6 }, { 0, 7 }, { 1, 1 }, { 1, 6 } },
+            { { 0, 0 }, { 0, 1 }, { 0, 2 }, { 1, 0 }, { 1, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 }, { 2, 2 } },
+            { { 0, 0 }, { 0, 1 }, { 0, 2 }, { 0, 3 }, { 0, 4 }, { 1, 0 }, { 1, 1 }, { 1, 2 }, { 1, 3 }, { 1, 4 } },
+            { { 0, 3 }, { 1, 2 }, { 2, 1 }, { 3, 0 } },
+            { { 0, 4 }, { 1, 3 }, { 2, 2 }, { 3, 1 }, { 4, 0 } },
+            { { 0, 5 }, { 1, 4 }, { 2, 3 }, { 3, 2 }, { 4, 1 }, { 5, 0 } },
+            { { 0, 6 }, { 1, 5 }, { 2, 4 }, { 3, 3 }, { 4, 2 }, { 5, 1 }, { 6, 0 } },
+            { { 0, 0 }, { 1, 1 }, { 2, 2 }, { 3, 3 }, { 4, 4 }, { 5, 5 }, { 6, 6 }, { 7, 7 } },
+            { { 1, 0 }, { 1, 1 }, { 1, 2 }, { 1, 3 }, { 1, 4 }, { 1, 5 }, { 1, 6 }, { 1, 7 } },
+            { { 2, 0 }, { 2, 1 }, { 2, 2 }, { 2, 3 }, { 2, 4 }, { 2, 5 }, { 2, 6 }, { 2, 7 } },
+            { { 3, 0 }, { 3, 1 }, { 3, 2 }, { 3, 3 }, { 3, 4 }, { 3, 5 }, { 3, 6 }, { 3, 7 } } };
+
+    /**
+     * The number of symmetries of the board.
+     */
+    private static final int SYMMETRY_COUNT = 8;
+
+    /**
+     * The type of each pattern.
+     */
+    private static final int[] INSTANCE_TYPES;
+    /**
+     * The fields of each pattern, indexed by {@link OthelloBitBoard#square(int, int) square}.
+     */
+    private static final int[][] INSTANCE_SQUARES;
+    /**
+     * For each square, the position of its first entry in {@link #SQUARE_INSTANCES} and {@link #SQUARE_POWERS}. The
+     * entries of a square end where those of the next square start.
+     */
+    private static final int[] SQUARE_OFFSETS;
+    /**
+     * The patterns each square belongs to.
+     */
+    private static final int[] SQUARE_INSTANCES;
+    /**
+     * The power of three each square is worth in the index of the pattern at the same position in
+     * {@link #SQUARE_INSTANCES}.
+     */
+    private static final int[] SQUARE_POWERS;
+
+    static {
+        final List<Integer> types = new ArrayList<>();
+        final List<int[]> instances = new ArrayList<>();
+        for (int type = 0; type < OthelloPatterns.TYPE_COUNT; ++type) {
+            final List<Long> seen = new ArrayList<>();
+            for (int symmetry = 0; symmetry < OthelloPatterns.SYMMETRY_COUNT; ++symmetry) {
+                final int[] squares = OthelloPatterns.transform(OthelloPatterns.BASE_PATTERNS[type], symmetry);
+                long set = 0L;
+                for (final int square : squares) {
+                    set |= 1L << square;
+                }
+                if (!seen.contains(set)) {
+                    seen.add(set);
+                    types.add(type);
+                    instances.add(squares);
+                }
+            }
+        }
+        INSTANCE_TYPES = types.stream().mapToInt(Integer::intValue).toArray();
+        INSTANCE_SQUARES = instances.toArray(new int[0][]);
+
+        final int squareCount = OthelloPatterns.SQUARE_COUNT;
+        SQUARE_OFFSETS = new int[squareCount + 1];
+        for (final int[] squares : OthelloPatterns.INSTANCE_SQUARES) {
+            for (final int square : squares) {
+                ++OthelloPatterns.SQUARE_OFFSETS[square + 1];
+            }
+        }
+        for (int square = 0; square < squareCount; ++square) {
+            OthelloPatterns.SQUARE_OFFSETS[square + 1] += OthelloPatterns.SQUARE_OFFSETS[square];
+        }
+        SQUARE_INSTANCES = new int[OthelloPatterns.SQUARE_OFFSETS[squareCount]];
+        SQUARE_POWERS = new int[OthelloPatterns.SQUARE_INSTANCES.length];
+        final int[] next = OthelloPatterns.SQUARE_OFFSETS.clone();
+        for (int instance = 0; instance < OthelloPatterns.INSTANCE_SQUARES.length; ++instance) {
+            int power = 1;
+            for (final int square : OthelloPatterns.INSTANCE_SQUARES[instance]) {
+                OthelloPatterns.SQUARE_INSTANCES[next[square]] = instance;
+                OthelloPatterns.SQUARE_POWERS[next[square]] = power;
+                ++next[square];
+                power *= 3;
+            }
+        }
+    }
+
+    /**
+     * Prevents instantiation.
+     */
+    private OthelloPatterns() {
+    }
+
+    /**
+     * Returns the number of patterns on the board.
+     */
+    static int getInstanceCount() {
+        return OthelloPatterns.INSTANCE_TYPES.length;
+    }
+
+    /**
+     * Returns the type of a pattern.
+     *
+     * @param instance The pattern.
+     */
+    static int getType(final int instance) {
+        return OthelloPatterns.INSTANCE_TYPES[instance];
+    }
+
+    /**
+     * Returns the number of fields of a pattern type.
+     *
+     * @param type The pattern type.
+     */
+    static int getLength(final int type) {
+        return OthelloPatterns.BASE_PATTERNS[type].length;
+    }
+
+    /**
+     * Returns the number of different indices of a pattern type.
+     *
+     * @param type The pattern type.
+     */
+    static int getIndexCount(final int type) {
+        int count = 1;
+        for (int field = 0; field < OthelloPatterns.getLength(type); ++field) {
+            count *= 3;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a field of the first pattern of a type, which is the one near the upper left corner.
+     *
+     * @param type  The pattern type.
+     * @param field The number of the field within the pattern.
+     * @return The square of the field.
+     */
+    static int getBaseSquare(final int type, final int field) {
+        final int[] rowAndColumn = OthelloPatterns.BASE_PATTERNS[type][field];
+        return OthelloBitBoard.square(rowAndColumn[0], rowAndColumn[1]);
+    }
+
+    /**
+     * Returns the number of patterns a square belongs to.
+     *
+     * @param square The square.
+     */
+    static int getCoverage(final int square) {
+        return OthelloPatterns.SQUARE_OFFSETS[square + 1] - OthelloPatterns.SQUARE_OFFSETS[square];
+    }
+
+    /**
+     * Computes the indices of all patterns from scratch.
+     *
+     * @param first   The fields occupied by the player whose tokens count as digit 1.
+     * @param second  The fields occupied by the player whose tokens count as digit 2.
+     * @param indices The array receiving the index of each pattern.
+     */
+    static void computeIndices(final long first, final long second, final int[] indices) {
+        OthelloPatterns.computeIndices(first, second, indices, 0);
+    }
+
+    /**
+     * Computes the indices of all patterns from scratch into a part of a larger array.
+     *
+     * @param first   The fields occupied by the player whose tokens count as digit 1.
+     * @param second  The fields occupied by the player whose tokens count as digit 2.
+     * @param indices The array receiving the index of each pattern.
+     * @param offset  The position of the index of the first pattern in the array.
+     */
+    static void computeIndices(final long first, final long second, final int[] indices, final int offset) {
+        for (int instance = 0; instance < OthelloPatterns.INSTANCE_SQUARES.length; ++instance) {
+            final int[] squares = OthelloPatterns.INSTANCE_SQUARES[instance];
+            int index = 0;
+            for (int field = squares.length - 1; field >= 0; --field) {
+                final long bit = 1L << squares[field];
+                index = index * 3 + ((first & bit) != 0L ? 1 : (second & bit) != 0L ? 2 : 0);
+            }
+            indices[offset + instance] = index;
+        }
+    }
+
+    /**
+     * Adds a multiple of the value of a square to the indices of all patterns it belongs to.
+     *
+     * @param square  The square.
+     * @param digits  The change of the digit of the square.
+     * @param indices The indices of the patterns.
+     */
+    static void addToIndices(final int square, final int digits, final int[] indices) {
+        for (int entry = OthelloPatterns.SQUARE_OFFSETS[square]; entry < OthelloPatterns.SQUARE_OFFSETS[square + 1];
+                ++entry) {
+            indices[OthelloPatterns.SQUARE_INSTANCES[entry]] += digits * OthelloPatterns.SQUARE_POWERS[entry];
+        }
+    }
+
+    /**
+     * Returns the index of a pattern seen from the other player, which swaps the digits 1 and 2.
+     *
+     * @param type  The pattern type.
+     * @param index The index.
+     */
+    static int swapPlayers(final int type, final int index) {
+        int swapped = 0;
+        int power = 1;
+        for (int field = 0, digits = index; field < OthelloPatterns.getLength(type); ++field, digits /= 3) {
+            final int digit = digits % 3;
+            swapped += (digit == 0 ? 0 : 3 - digit) * power;
+            power *= 3;
+        }
+        return swapped;
+    }
+
+    /**
+     * Maps the fields of a pattern by a symmetry of the board.
+     *
+     * @param pattern  The fields as pairs of row and column.
+     * @param symmetry The symmetry. Bit 0 swaps rows and columns, bit 1 mirrors the rows, bit 2 the columns.
+     * @return The squares of the mapped fields, in the same order.
+     */
+    private static int[] transform(final int[][] pattern, final int symmetry) {
+        final int last = OthelloPatterns.SIZE - 1;
+        final int[] squares = new int[pattern.length];
+        for (int field = 0; field < pattern.length; ++field) {
+            int row = (symmetry & 1) == 0 ? pattern[field][0] : pattern[field][1];
+            int column = (symmetry & 1) == 0 ? pattern[field][1] : pattern[field][0];
+            if ((symmetry & 2) != 0) {
+                row = last - row;
+            }
+            if ((symmetry & 4) != 0) {
+                column = last - column;
+            }
+            squares[field] = OthelloBitBoard.square(row, column);
+        }
+        return squares;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import java.util.Arrays;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+
+/**
+ * Implements {@link OthelloEvaluator} by summing up a fixed weight per occupied field, adding the number of tokens and
+ * the difference in mobility (the number of active fields of both players).
+ */
+public final class OthelloSquareWeightEvaluator implements OthelloEvaluator {
+
+    /**
+     * The weights indexed by {@link OthelloBitBoard#square(int, int) square}.
+     */
+    private final int[] weights;
+    /**
+     * The value of a single active field.
+     */
+    private final int mobilityWeight;
+
+    /**
+     * Creates a square weight evaluator.
+     *
+     * @param weights        The weights indexed by {@link OthelloBitBoard#square(int, int) square}. The array is
+     *                       copied.
+     * @param mobilityWeight The value of a single active field.
+     */
+    public OthelloSquareWeightEvaluator(final int[] weights, final int mobilityWeight) {
+        this.weights = Arrays.copyOf(weights, OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE);
+        this.mobilityWeight = mobilityWeight;
+    }
+
+    @Override
+    public int evaluate(final OthelloBitBoard board, final long player, final long opponent) {
+        final int mobility = Long.bitCount(board.legalMoves(player, opponent))
+                - Long.bitCount(board.legalMoves(opponent, player));
+        return this.sumWeights(player) - this.sumWeights(opponent) + Long.bitCount(player) - Long.bitCount(opponent)
+                + this.mobilityWeight * mobility;
+    }
+
+    /**
+     * Sums up the weights of a set of fields.
+     *
+     * @param squares The fields.
+     */
+    private int sumWeights(final long squares) {
+        int sum = 0;
+        for (long remaining = squares; remaining != 0L; remaining &= remaining - 1L) {
+            sum += this.weights[Long.numberOfTrailingZeros(remaining)];
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloSquareWeightEvaluator[mobilityWeight=%d]", this.mobilityWeight);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.fhdw.gaming.othello.core.domain.OthelloBoard;
+import de.fhdw.gaming.othello.core.domain.OthelloFieldState;
+import de.fhdw.gaming.othello.core.domain.OthelloPosition;
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * The weights of the fields of a board of any even size, from the point of view of the owner of a token.
+ * <p>
+ * The weights are derived from the role of a field rather than listed per field: corners are valuable, the X-squares
+ * diagonally next to a corner and the C-squares next to it on an edge are dangerous as they give the corner away, the
+ * A-squares two fields away from a corner on an edge are good, the remaining edge fields are slightly good, and the
+ * four fields in the centre are slightly good as well. On an 8x8 board, this is the classic weight table used by the
+ * MinMax strategies.
+ * <p>
+ * A table is generated once per board size on first use and shared afterwards, so looking up a weight costs the same
+ * on any size. Objects of this class are immutable.
+ */
+public final class OthelloWeightTable {
+
+    /**
+     * The smallest number of rows (and columns) of a board.
+     */
+    private static final int MINIMUM_SIZE = 4;
+    /**
+     * The weight of a corner.
+     */
+    private static final int CORNER_WEIGHT = 100;
+    /**
+     * The weight of a field diagonally next to a corner.
+     */
+    private static final int X_SQUARE_WEIGHT = -50;
+    /**
+     * The weight of a field next to a corner on an edge.
+     */
+    private static final int C_SQUARE_WEIGHT = -30;
+    /**
+     * The weight of a field two fields away from a corner on an edge.
+     */
+    private static final int A_SQUARE_WEIGHT = 6;
+    /**
+     * The weight of any other field on an edge.
+     */
+    private static final int EDGE_WEIGHT = 2;
+    /**
+     * The weight of one of the four fields in the centre.
+     */
+    private static final int CENTRE_WEIGHT = 3;
+    /**
+     * The tables generated so far by board size.
+     */
+    private static final ConcurrentMap<Integer, OthelloWeightTable> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * The number of rows (and columns).
+     */
+    private final int size;
+    /**
+     * The weights indexed by {@code row * size + column}.
+     */
+    private final int[] weights;
+
+    /**
+     * Generates the weight table of a board size.
+     *
+     * @param size The number of rows (and columns).
+     */
+    private OthelloWeightTable(final int size) {
+        this.size = size;
+        this.weights = new int[size * size];
+        for (int row = 0; row < size; ++row) {
+            for (int column = 0; column < size; ++column) {
+                this.weights[row * size + column] = this.generateWeight(row, column);
+            }
+        }
+    }
+
+    /**
+     * Returns the weight table of a board size, generating it if necessary.
+     *
+     * @param size The number of rows (and columns). Must be even and at least four.
+     * @throws IllegalArgumentException if the size is invalid.
+     */
+    public static OthelloWeightTable forSize(final int size) throws IllegalArgumentException {
+        if (size < OthelloWeightTable.MINIMUM_SIZE || size % 2 != 0) {
+            throw new IllegalArgumentException(String.format("Invalid board size %d.", size));
+        }
+        return OthelloWeightTable.TABLES.computeIfAbsent(size, OthelloWeightTable::new);
+    }
+
+    /**
+     * Returns the number of rows (and columns).
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the weight of a field.
+     *
+     * @param row    The zero-based row number, less than {@link #getSize()}.
+     * @param column The zero-based column number, less than {@link #getSize()}.
+     */
+    public int getWeight(final int row, final int column) {
+        return this.weights[row * this.size + column];
+    }
+
+    /**
+     * Returns the weight of a field.
+     *
+     * @param position The position of the field, which has to be on the board.
+     */
+    public int getWeight(final OthelloPosition position) {
+        return this.getWeight(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * Returns the weight of a token on a field of a board, taking the corners into account: the fields next to a
+     * corner are worth nothing instead of their negative weight if the corner is owned by the owner of the token, as
+     * they can no longer give the corner away.
+     *
+     * @param board    The board, whose size has to be {@link #getSize()}.
+     * @param position The position of the field.
+     * @param state    The colour of the token on the field.
+     */
+    public int getWeight(final OthelloBoard board, final OthelloPosition position, final OthelloFieldState state) {
+        final int row = position.getRow();
+        final int column = position.getColumn();
+        final int last = this.size - 1;
+        final int cornerRow = row <= 1 ? 0 : row >= last - 1 ? last : -1;
+        final int cornerColumn = column <= 1 ? 0 : column >= last - 1 ? last : -1;
+        if (cornerRow >= 0 && cornerColumn >= 0 && (row != cornerRow || column != cornerColumn)
+                && board.getFieldAt(OthelloPosition.of(cornerRow, cornerColumn)).getState().equals(state)) {
+            return 0;
+        }
+        return this.getWeight(row, column);
+    }
+
+    /**
+     * Returns the weights indexed by {@link OthelloBitBoard#square(int, int) square}, e.g. for an
+     * {@link OthelloSquareWeightEvaluator}.
+     *
+     * @return A new array holding the weights.
+     * @throws IllegalStateException if the board size is not {@link OthelloBitBoard#supports(int) supported} by
+     *                               bitboards.
+     */
+    public int[] toSquareWeights() throws IllegalStateException {
+        if (!OthelloBitBoard.supports(this.size)) {
+            throw new IllegalStateException(String.format("Board size %d is not supported by bitboards.", this.size));
+        }
+        final int[] result = new int[OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE];
+        for (int row = 0; row < this.size; ++row) {
+            for (int column = 0; column < this.size; ++column) {
+                result[OthelloBitBoard.square(row, column)] = this.getWeight(row, column);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloWeightTable[size=%d]", this.size);
+    }
+
+    /**
+     * Derives the weight of a field from its distances to the nearest edges.
+     *
+     * @param row    The zero-based row number.
+     * @param column The zero-based column number.
+     */
+    private int generateWeight(final int row, final int column) {
+        final int last = this.size - 1;
+        final int rowDistance = Math.min(row, last - row);
+        final int columnDistance = Math.min(column, last - column);
+        final int nearer = Math.min(rowDistance, columnDistance);
+        final int farther = Math.max(rowDistance, columnDistance);
+        if (farther == 0) {
+            return OthelloWeightTable.CORNER_WEIGHT;
+        }
+        if (nearer == 1 && farther == 1) {
+            return OthelloWeightTable.X_SQUARE_WEIGHT;
+        }
+        if (nearer == 0) {
+            return farther == 1 ? OthelloWeightTable.C_SQUARE_WEIGHT
+                    : farther == 2 ? OthelloWeightTable.A_SQUARE_WEIGHT : OthelloWeightTable.EDGE_WEIGHT;
+        }
+        if (nearer == this.size / 2 - 1) {
+            return OthelloWeightTable.CENTRE_WEIGHT;
+        }
+        return 0;
+    }
+}
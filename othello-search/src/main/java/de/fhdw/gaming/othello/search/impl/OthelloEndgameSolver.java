@@ -0,0 +1,496 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+
+/**
+ * Solves endgames exactly by searching to the end of the game, using the final disc differential as score.
+ * <p>
+ * Moves are ordered "fastest first", i.e. moves leaving the opponent fewer replies are searched first, and among
+ * those, moves into quadrants with an odd number of empty squares are preferred, as the player filling the last square
+ * of a region usually gains from it ("parity"). The last four empty squares are solved by dedicated code which tries
+ * the empty squares directly instead of generating the legal moves.
+ * <p>
+ * A solver is used for exactly one search on a single thread.
+ */
+final class OthelloEndgameSolver {
+
+    /**
+     * The smallest number of empty squares for which the transposition table is used. Closer to the end, looking up a
+     * position costs more than searching it.
+     */
+    private static final int TABLE_EMPTIES = 7;
+    /**
+     * The smallest number of empty squares for which the moves are sorted by the mobility of the opponent.
+     */
+    private static final int FASTEST_FIRST_EMPTIES = 6;
+    /**
+     * The number of empty squares solved by dedicated code.
+     */
+    private static final int FEW_EMPTIES = 4;
+    /**
+     * The number of nodes between two checks of the stop flag and the clock (minus one).
+     */
+    private static final long CHECK_MASK = 4095L;
+
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * The transposition table storing disc differentials.
+     */
+    private final OthelloTranspositionTable table;
+    /**
+     * The flag which stops the search.
+     */
+    private final AtomicBoolean stop;
+    /**
+     * The value of {@link System#nanoTime()} at which the search has to stop.
+     */
+    private final long deadline;
+    /**
+     * The valid squares of each quadrant of the board.
+     */
+    private final long[] quadrants;
+
+    /**
+     * The number of positions visited.
+     */
+    private long nodes;
+    /**
+     * The number of successful transposition table lookups.
+     */
+    private long transpositionHits;
+    /**
+     * {@code true} if the search has been aborted.
+     */
+    private boolean aborted;
+    /**
+     * The best move found by the last search of the root, or {@link OthelloBitBoard#PASS} if it failed low.
+     */
+    private int bestMove;
+
+    /**
+     * Creates a solver.
+     *
+     * @param board    The geometry of the board.
+     * @param table    The transposition table storing disc differentials. It must not be shared with searches storing
+     *                 other scores.
+     * @param stop     The flag which stops the search.
+     * @param deadline The value of {@link System#nanoTime()} at which the search has to stop.
+     */
+    OthelloEndgameSolver(final OthelloBitBoard board, final OthelloTranspositionTable table, final AtomicBoolean stop,
+            final long deadline) {
+        this.board = board;
+        this.table = table;
+        this.stop = stop;
+        this.deadline = deadline;
+        this.quadrants = OthelloEndgameSolver.createQuadrants(board);
+        this.bestMove = OthelloBitBoard.PASS;
+    }
+
+    /**
+     * Returns the valid squares of each quadrant of a board.
+     *
+     * @param board The geometry of the board.
+     */
+    private static long[] createQuadrants(final OthelloBitBoard board) {
+        final int half = board.getSize() / 2;
+        final long[] quadrants = new long[4];
+        for (int row = 0; row < board.getSize(); ++row) {
+            for (int column = 0; column < board.getSize(); ++column) {
+                quadrants[(row / half) * 2 + column / half] |= 1L << OthelloBitBoard.square(row, column);
+            }
+        }
+        return quadrants;
+    }
+
+    /**
+     * Solves the root position within a window. The player to move has to have a legal move. The best move is only
+     * recorded for a score above the lower bound of the window: if all moves fail low, their scores are mere upper
+     * bounds, which do not tell which move is best.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @return The final disc differential from the point of view of the player to move if it lies within the window,
+     *         otherwise a bound. Meaningless if the search has been aborted.
+     */
+    int solveRoot(final long player, final long opponent, final int alpha, final int beta) {
+        ++this.nodes;
+        final int[] moves = this.orderMoves(player, opponent, this.board.legalMoves(player, opponent), true);
+        int localAlpha = alpha;
+        int bestScore = -OthelloNegamaxSearcher.INFINITY;
+        this.bestMove = OthelloBitBoard.PASS;
+        for (int index = 0; index < moves.length; ++index) {
+            final int score = this.searchMove(player, opponent, moves[index], localAlpha, beta, index == 0);
+            if (this.aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > localAlpha) {
+                    this.bestMove = moves[index];
+                    localAlpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches a move by principal variation search.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param move     The move.
+     * @param alpha    The lower bound of the window of the node.
+     * @param beta     The upper bound of the window of the node.
+     * @param first    {@code true} if this is the first move searched at the node.
+     * @return The score of the move from the point of view of the player to move.
+     */
+    private int searchMove(final long player, final long opponent, final int move, final int alpha, final int beta,
+            final boolean first) {
+        final long flipped = this.board.flips(player, opponent, move);
+        final long newPlayer = opponent & ~flipped;
+        final long newOpponent = player | flipped | 1L << move;
+        if (first) {
+            return -this.solve(newPlayer, newOpponent, -beta, -alpha);
+        }
+        final int score = -this.solve(newPlayer, newOpponent, -alpha - 1, -alpha);
+        if (score > alpha && score < beta && beta - alpha > 1 && !this.aborted) {
+            return -this.solve(newPlayer, newOpponent, -beta, -score);
+        }
+        return score;
+    }
+
+    /**
+     * Solves a position below the root.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @return The final disc differential from the point of view of the player to move if it lies within the window,
+     *         otherwise a bound. Meaningless if the search has been aborted.
+     */
+    private int solve(final long player, final long opponent, final int alpha, final int beta) {
+        if ((++this.nodes & OthelloEndgameSolver.CHECK_MASK) == 0L && this.shouldStop()) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return 0;
+        }
+
+        final long empty = this.board.emptySquares(player, opponent);
+        final int empties = Long.bitCount(empty);
+        if (empties <= OthelloEndgameSolver.FEW_EMPTIES) {
+            return this.solveFew(player, opponent, empty, alpha, beta, false);
+        }
+
+        final long legal = this.board.legalMoves(player, opponent);
+        if (legal == 0L) {
+            if (this.board.legalMoves(opponent, player) == 0L) {
+                return OthelloEndgameSolver.discDifference(player, opponent);
+            }
+            return -this.solve(opponent, player, -beta, -alpha);
+        }
+
+        long hash = 0L;
+        int tableMove = OthelloBitBoard.PASS;
+        if (empties >= OthelloEndgameSolver.TABLE_EMPTIES) {
+            hash = this.board.hash(player, opponent);
+            final long entry = this.table.probe(hash);
+            if (entry != OthelloTranspositionTable.MISS) {
+                ++this.transpositionHits;
+                tableMove = OthelloTranspositionTable.move(entry);
+                final int score = OthelloTranspositionTable.score(entry);
+                final int bound = OthelloTranspositionTable.bound(entry);
+                if (bound == OthelloTranspositionTable.BOUND_EXACT
+                        || bound == OthelloTranspositionTable.BOUND_LOWER && score >= beta
+                        || bound == OthelloTranspositionTable.BOUND_UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        final int[] moves = this
+                .orderMoves(player, opponent, legal, empties >= OthelloEndgameSolver.FASTEST_FIRST_EMPTIES);
+        if (tableMove >= 0 && (legal & 1L << tableMove) != 0L) {
+            OthelloEndgameSolver.moveToFront(moves, tableMove);
+        }
+        int localAlpha = alpha;
+        int bestScore = -OthelloNegamaxSearcher.INFINITY;
+        int bestMoveHere = moves[0];
+        for (int index = 0; index < moves.length; ++index) {
+            final int score = this.searchMove(player, opponent, moves[index], localAlpha, beta, index == 0);
+            if (this.aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMoveHere = moves[index];
+                if (score > localAlpha) {
+                    localAlpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (empties >= OthelloEndgameSolver.TABLE_EMPTIES) {
+            final int bound;
+            if (bestScore >= beta) {
+                bound = OthelloTranspositionTable.BOUND_LOWER;
+            } else if (bestScore > alpha) {
+                bound = OthelloTranspositionTable.BOUND_EXACT;
+            } else {
+                bound = OthelloTranspositionTable.BOUND_UPPER;
+            }
+            this.table.store(hash, empties, bound, bestScore, bestMoveHere);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Solves a position with at most {@link #FEW_EMPTIES} empty squares by trying to place a token on each of them.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param empty    The empty squares.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @param passed   {@code true} if the opponent has just passed.
+     * @return The final disc differential from the point of view of the player to move if it lies within the window,
+     *         otherwise a bound.
+     */
+    private int solveFew(final long player, final long opponent, final long empty, final int alpha, final int beta,
+            final boolean passed) {
+        if (empty == 0L) {
+            return OthelloEndgameSolver.discDifference(player, opponent);
+        }
+        if ((empty & empty - 1L) == 0L) {
+            return this.solveLast(player, opponent, Long.numberOfTrailingZeros(empty));
+        }
+
+        // empty squares in odd quadrants first
+        long odd = 0L;
+        for (final long quadrant : this.quadrants) {
+            if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+                odd |= empty & quadrant;
+            }
+        }
+        int localAlpha = alpha;
+        int bestScore = -OthelloNegamaxSearcher.INFINITY;
+        for (long remaining = odd, others = empty & ~odd; remaining != 0L || others != 0L;) {
+            final int square;
+            if (remaining != 0L) {
+                square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1L;
+            } else {
+                square = Long.numberOfTrailingZeros(others);
+                others &= others - 1L;
+            }
+            final long flipped = this.board.flips(player, opponent, square);
+            if (flipped == 0L) {
+                continue;
+            }
+            ++this.nodes;
+            final int score = -this.solveFew(
+                    opponent & ~flipped,
+                    player | flipped | 1L << square,
+                    empty & ~(1L << square),
+                    -beta,
+                    -localAlpha,
+                    false);
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > localAlpha) {
+                    localAlpha = score;
+                    if (score >= beta) {
+                        return score;
+                    }
+                }
+            }
+        }
+        if (bestScore > -OthelloNegamaxSearcher.INFINITY) {
+            return bestScore;
+        }
+        if (passed) {
+            return OthelloEndgameSolver.discDifference(player, opponent);
+        }
+        return -this.solveFew(opponent, player, empty, -beta, -alpha, true);
+    }
+
+    /**
+     * Solves a position with a single empty square.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param square   The empty square.
+     * @return The final disc differential from the point of view of the player to move.
+     */
+    private int solveLast(final long player, final long opponent, final int square) {
+        ++this.nodes;
+        final int difference = Long.bitCount(player) - Long.bitCount(opponent);
+        final int flipped = Long.bitCount(this.board.flips(player, opponent, square));
+        if (flipped > 0) {
+            return difference + 2 * flipped + 1;
+        }
+        final int opponentFlipped = Long.bitCount(this.board.flips(opponent, player, square));
+        if (opponentFlipped > 0) {
+            return difference - 2 * opponentFlipped - 1;
+        }
+        return difference;
+    }
+
+    /**
+     * Returns the legal moves of a position in search order.
+     *
+     * @param player       The fields occupied by the player to move.
+     * @param opponent     The fields occupied by the opponent.
+     * @param legal        The legal moves. Must not be empty.
+     * @param fastestFirst {@code true} if the moves are to be sorted by the mobility of the opponent, otherwise only
+     *                     parity is considered.
+     * @return The moves.
+     */
+    private int[] orderMoves(final long player, final long opponent, final long legal, final boolean fastestFirst) {
+        final long empty = this.board.emptySquares(player, opponent);
+        long odd = 0L;
+        for (final long quadrant : this.quadrants) {
+            if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+
+        final int[] moves = new int[Long.bitCount(legal)];
+        final int[] keys = new int[moves.length];
+        long remaining = legal;
+        for (int count = 0; count < moves.length; ++count) {
+            final int move = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1L;
+            int key = (odd & 1L << move) != 0L ? 0 : 1;
+            if (fastestFirst) {
+                final long flipped = this.board.flips(player, opponent, move);
+                key += 2 * Long.bitCount(this.board.legalMoves(opponent & ~flipped, player | flipped | 1L << move));
+            }
+            int index = count;
+            while (index > 0 && keys[index - 1] > key) {
+                moves[index] = moves[index - 1];
+                keys[index] = keys[index - 1];
+                --index;
+            }
+            moves[index] = move;
+            keys[index] = key;
+        }
+        return moves;
+    }
+
+    /**
+     * Moves a move to the front of an array of moves, keeping the order of the others.
+     *
+     * @param moves The moves.
+     * @param move  The move. Must be contained in the array.
+     */
+    private static void moveToFront(final int[] moves, final int move) {
+        int index = 0;
+        while (moves[index] != move) {
+            ++index;
+        }
+        System.arraycopy(moves, 0, moves, 1, index);
+        moves[0] = move;
+    }
+
+    /**
+     * Returns the disc differential from the point of view of the player to move.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    static int discDifference(final long player, final long opponent) {
+        return Long.bitCount(player) - Long.bitCount(opponent);
+    }
+
+    /**
+     * Converts a final disc differential into the score of a search, which ranks every win above every evaluation.
+     *
+     * @param discDifference The final disc differential.
+     */
+    static int toEngineScore(final int discDifference) {
+        if (discDifference > 0) {
+            return OthelloEvaluator.WIN_SCORE + discDifference;
+        } else if (discDifference < 0) {
+            return -OthelloEvaluator.WIN_SCORE + discDifference;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Checks whether the search has to stop.
+     */
+    private boolean shouldStop() {
+        if (this.stop.get()) {
+            return true;
+        }
+        if (System.nanoTime() - this.deadline > 0L) {
+            this.stop.set(true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the search has been aborted.
+     */
+    boolean isAborted() {
+        return this.aborted;
+    }
+
+    /**
+     * Returns the best move found by the last search of the root, or {@link OthelloBitBoard#PASS} if it failed low.
+     */
+    int getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * Returns the number of positions visited.
+     */
+    long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Returns the number of successful transposition table lookups.
+     */
+    long getTranspositionHits() {
+        return this.transpositionHits;
+    }
+}
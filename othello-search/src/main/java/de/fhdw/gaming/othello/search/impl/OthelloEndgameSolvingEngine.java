@@ -0,0 +1,290 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchOutcome;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.OthelloSearchStatistics;
+
+/**
+ * Implements {@link OthelloSearchEngine} by solving positions with few empty squares using an
+ * {@link OthelloEndgameSolver} and leaving all other positions to another engine.
+ * <p>
+ * A position is first solved for win, loss or draw only, which takes a fraction of the time of an exact solution. If
+ * time remains, the final disc differential is computed on the proven side of zero. Both results are reported through
+ * the {@link OthelloSearchStatistics search statistics}.
+ * <p>
+ * The solver may use half of the computation time. A proven win is played even if the disc differential is not known.
+ * Otherwise, if the solver does not finish in time, the position is searched by the other engine, so that a move takes
+ * at most one and a half times the computation time.
+ */
+public final class OthelloEndgameSolvingEngine implements OthelloSearchEngine {
+
+    /**
+     * The engine searching positions which are not solved.
+     */
+    private final OthelloSearchEngine midgameEngine;
+    /**
+     * The largest number of empty squares for which positions are solved.
+     */
+    private final int endgameEmpties;
+    /**
+     * The computation time per move in milliseconds.
+     */
+    private final long searchTimeMillis;
+    /**
+     * The binary logarithm of the number of transposition table entries.
+     */
+    private final int transpositionTableBits;
+    /**
+     * The stop flags of the running searches by game ID.
+     */
+    private final Map<Integer, AtomicBoolean> stopFlags;
+    /**
+     * The transposition table storing disc differentials. Created on first use.
+     */
+    private OthelloTranspositionTable table;
+
+    /**
+     * Creates an endgame solving engine.
+     *
+     * @param midgameEngine          The engine searching positions which are not solved.
+     * @param endgameEmpties         The largest number of empty squares for which positions are solved.
+     * @param searchTimeMillis       The computation time per move in milliseconds.
+     * @param transpositionTableBits The binary logarithm of the number of transposition table entries.
+     */
+    public OthelloEndgameSolvingEngine(final OthelloSearchEngine midgameEngine, final int endgameEmpties,
+            final long searchTimeMillis, final int transpositionTableBits) {
+        this.midgameEngine = midgameEngine;
+        this.endgameEmpties = endgameEmpties;
+        this.searchTimeMillis = searchTimeMillis;
+        this.transpositionTableBits = transpositionTableBits;
+        this.stopFlags = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent) {
+        return this.search(gameId, board, player, opponent, Optional.empty());
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final OthelloEvaluator evaluator) {
+        return this.search(gameId, board, player, opponent, Optional.of(evaluator));
+    }
+
+    @Override
+    public void abortRequested(final int gameId) {
+        final AtomicBoolean stop = this.stopFlags.get(gameId);
+        if (stop != null) {
+            stop.set(true);
+        }
+        this.midgameEngine.abortRequested(gameId);
+    }
+
+    @Override
+    public synchronized void reset() {
+        if (this.table != null) {
+            this.table.clear();
+        }
+        this.midgameEngine.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloEndgameSolvingEngine[endgameEmpties=%d, midgameEngine=%s]",
+                this.endgameEmpties,
+                this.midgameEngine);
+    }
+
+    /**
+     * Solves a position with few empty squares, or searches it by the other engine.
+     *
+     * @param gameId    The ID of the game the position belongs to.
+     * @param board     The geometry of the board.
+     * @param player    The fields occupied by the player to move.
+     * @param opponent  The fields occupied by the opponent.
+     * @param evaluator The evaluator the other engine uses for this search, if not its own.
+     * @return The result of the search.
+     */
+    private OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final Optional<OthelloEvaluator> evaluator) {
+        final long startTime = System.nanoTime();
+        final long legal = board.legalMoves(player, opponent);
+        final int empties = Long.bitCount(board.emptySquares(player, opponent));
+        if (empties > this.endgameEmpties || Long.bitCount(legal) < 2) {
+            return this.searchMidgame(gameId, board, player, opponent, evaluator);
+        }
+
+        final OthelloTranspositionTable sharedTable = this.getTable();
+        sharedTable.newSearch();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(this.searchTimeMillis) / 2;
+        this.stopFlags.put(gameId, stop);
+        final OthelloEndgameSolver solver = new OthelloEndgameSolver(board, sharedTable, stop, deadline);
+        try {
+            // win/loss/draw first: the (-1, 1) window cuts off far more than a full window
+            final int winLossDraw = Integer.signum(solver.solveRoot(player, opponent, -1, 1));
+            if (!solver.isAborted()) {
+                final OthelloSearchOutcome outcome = OthelloSearchOutcome.of(winLossDraw);
+                // only a win or a draw names a move, as a loss fails low on the window
+                final int winLossDrawMove = solver.getBestMove();
+                if (outcome == OthelloSearchOutcome.DRAW) {
+                    return this.createResult(
+                            board,
+                            player,
+                            opponent,
+                            solver,
+                            winLossDrawMove,
+                            outcome,
+                            OptionalInt.of(0),
+                            empties,
+                            startTime);
+                }
+
+                // refine within the side of zero proven above, reusing the bounds stored in the table
+                final int discDifference = outcome == OthelloSearchOutcome.WIN
+                        ? solver.solveRoot(player, opponent, 0, OthelloNegamaxSearcher.INFINITY)
+                        : solver.solveRoot(player, opponent, -OthelloNegamaxSearcher.INFINITY, 0);
+                if (!solver.isAborted()) {
+                    return this.createResult(
+                            board,
+                            player,
+                            opponent,
+                            solver,
+                            solver.getBestMove(),
+                            outcome,
+                            OptionalInt.of(discDifference),
+                            empties,
+                            startTime);
+                }
+                if (outcome == OthelloSearchOutcome.WIN) {
+                    // any move preserving the win is good enough
+                    return this.createResult(
+                            board,
+                            player,
+                            opponent,
+                            solver,
+                            winLossDrawMove,
+                            outcome,
+                            OptionalInt.empty(),
+                            empties,
+                            startTime);
+                }
+                if (System.nanoTime() - deadline >= 0L) {
+                    // every move loses, so let the other engine pick the one which is hardest to refute
+                    final OthelloSearchResult result = this
+                            .searchMidgame(gameId, board, player, opponent, evaluator);
+                    final OthelloSearchStatistics statistics = result.getStatistics();
+                    return new OthelloSearchResult(
+                            result.getBestMove(),
+                            result.getScore(),
+                            new OthelloSearchStatistics(
+                                    statistics.getDepth(),
+                                    statistics.getNodes() + solver.getNodes(),
+                                    statistics.getTranspositionHits() + solver.getTranspositionHits(),
+                                    System.nanoTime() - startTime,
+                                    statistics.getThreads(),
+                                    Optional.of(outcome),
+                                    OptionalInt.empty()),
+                            result.getPredictedReply());
+                }
+            }
+        } finally {
+            this.stopFlags.remove(gameId, stop);
+        }
+        if (System.nanoTime() - deadline < 0L) {
+            // the search has been aborted on request, so any legal move will do
+            return new OthelloSearchResult(Long.numberOfTrailingZeros(legal), 0, OthelloSearchStatistics.EMPTY);
+        }
+        return this.searchMidgame(gameId, board, player, opponent, evaluator);
+    }
+
+    /**
+     * Searches a position by the other engine.
+     *
+     * @param gameId    The ID of the game the position belongs to.
+     * @param board     The geometry of the board.
+     * @param player    The fields occupied by the player to move.
+     * @param opponent  The fields occupied by the opponent.
+     * @param evaluator The evaluator the other engine uses for this search, if not its own.
+     * @return The result of the search.
+     */
+    private OthelloSearchResult searchMidgame(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final Optional<OthelloEvaluator> evaluator) {
+        return evaluator.isPresent() ? this.midgameEngine.search(gameId, board, player, opponent, evaluator.get())
+                : this.midgameEngine.search(gameId, board, player, opponent);
+    }
+
+    /**
+     * Creates the result of a solved position. Without a proven disc differential, the score is the smallest one
+     * consistent with the outcome.
+     *
+     * @param board          The geometry of the board.
+     * @param player         The fields occupied by the player to move.
+     * @param opponent       The fields occupied by the opponent.
+     * @param solver         The solver.
+     * @param bestMove       The best move.
+     * @param outcome        The proven outcome of the game.
+     * @param discDifference The proven final disc differential, if any.
+     * @param empties        The number of empty squares.
+     * @param startTime      The value of {@link System#nanoTime()} when the search started.
+     */
+    private OthelloSearchResult createResult(final OthelloBitBoard board, final long player, final long opponent,
+            final OthelloEndgameSolver solver, final int bestMove, final OthelloSearchOutcome outcome,
+            final OptionalInt discDifference, final int empties, final long startTime) {
+        final int score = discDifference.isPresent()
+                ? discDifference.getAsInt()
+                : outcome == OthelloSearchOutcome.WIN ? 1 : -1;
+        return new OthelloSearchResult(
+                bestMove,
+                OthelloEndgameSolver.toEngineScore(score),
+                new OthelloSearchStatistics(
+                        empties,
+                        solver.getNodes(),
+                        solver.getTranspositionHits(),
+                        System.nanoTime() - startTime,
+                        1,
+                        Optional.of(outcome),
+                        discDifference),
+                this.getTable().probeReply(board, player, opponent, bestMove));
+    }
+
+    /**
+     * Returns the transposition table, creating it if necessary.
+     */
+    private synchronized OthelloTranspositionTable getTable() {
+        if (this.table == null) {
+            this.table = new OthelloTranspositionTable(this.transpositionTableBits);
+        }
+        return this.table;
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloProbCutParameters;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.OthelloSearchStatistics;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+
+/**
+ * Implements {@link OthelloSearchEngine} by a "Lazy SMP" search.
+ * <p>
+ * The calling thread and {@code threadCount - 1} helper threads run the same iterative deepening search on the same
+ * position. They share nothing but the lock-free {@link OthelloTranspositionTable}: results found by one thread cut
+ * off subtrees for the others. Helpers start at alternating depths and search the root moves in a perturbed order,
+ * so that they tend to work on different parts of the tree. With a single thread, this is a plain sequential
+ * iterative deepening search.
+ * <p>
+ * The number of threads is an upper limit: each search leases its threads from an {@link OthelloThreadBudget}, which
+ * may grant fewer of them while other searches are running.
+ */
+public final class OthelloLazySmpEngine implements OthelloSearchEngine {
+
+    /**
+     * The number used for naming the next helper thread.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * The evaluator used at the leaves unless a search brings its own.
+     */
+    private final OthelloEvaluator evaluator;
+    /**
+     * The maximum number of threads searching in parallel.
+     */
+    private final int threadCount;
+    /**
+     * The budget the threads of a search are leased from.
+     */
+    private final OthelloThreadBudget threadBudget;
+    /**
+     * The computation time per move in milliseconds.
+     */
+    private final long searchTimeMillis;
+    /**
+     * The maximum depth of the iterative deepening.
+     */
+    private final int maximumDepth;
+    /**
+     * The binary logarithm of the number of transposition table entries.
+     */
+    private final int transpositionTableBits;
+    /**
+     * The parameters of the selective search.
+     */
+    private final OthelloProbCutParameters probCut;
+    /**
+     * The stop flags of the running searches by game ID.
+     */
+    private final Map<Integer, AtomicBoolean> stopFlags;
+    /**
+     * The transposition table. Created on first use, as strategies are instantiated long before they play.
+     */
+    private OthelloTranspositionTable table;
+    /**
+     * The executor running the helper threads of all searches. Created on first use.
+     */
+    private ExecutorService helpers;
+
+    /**
+     * Creates a Lazy SMP engine.
+     *
+     * @param evaluator              The evaluator used at the leaves.
+     * @param threadCount            The maximum number of threads searching in parallel.
+     * @param searchTimeMillis       The computation time per move in milliseconds.
+     * @param maximumDepth           The maximum depth of the iterative deepening.
+     * @param transpositionTableBits The binary logarithm of the number of transposition table entries.
+     */
+    public OthelloLazySmpEngine(final OthelloEvaluator evaluator, final int threadCount, final long searchTimeMillis,
+            final int maximumDepth, final int transpositionTableBits) {
+        this(
+                evaluator,
+                threadCount,
+                searchTimeMillis,
+                maximumDepth,
+                transpositionTableBits,
+                OthelloProbCutParameters.DISABLED);
+    }
+
+    /**
+     * Creates a Lazy SMP engine with a selective search, leasing its threads from the
+     * {@link OthelloThreadBudget#getShared() shared} budget.
+     *
+     * @param evaluator              The evaluator used at the leaves.
+     * @param threadCount            The maximum number of threads searching in parallel.
+     * @param searchTimeMillis       The computation time per move in milliseconds.
+     * @param maximumDepth           The maximum depth of the iterative deepening.
+     * @param transpositionTableBits The binary logarithm of the number of transposition table entries.
+     * @param probCut                The parameters of the selective search.
+     */
+    public OthelloLazySmpEngine(final OthelloEvaluator evaluator, final int threadCount, final long searchTimeMillis,
+            final int maximumDepth, final int transpositionTableBits, final OthelloProbCutParameters probCut) {
+        this(
+                evaluator,
+                threadCount,
+                searchTimeMillis,
+                maximumDepth,
+                transpositionTableBits,
+                probCut,
+                OthelloThreadBudget.getShared());
+    }
+
+    /**
+     * Creates a Lazy SMP engine with a selective search.
+     *
+     * @param evaluator              The evaluator used at the leaves.
+     * @param threadCount            The maximum number of threads searching in parallel.
+     * @param searchTimeMillis       The computation time per move in milliseconds.
+     * @param maximumDepth           The maximum depth of the iterative deepening.
+     * @param transpositionTableBits The binary logarithm of the number of transposition table entries.
+     * @param probCut                The parameters of the selective search.
+     * @param threadBudget           The budget the threads of a search are leased from.
+     */
+    public OthelloLazySmpEngine(final OthelloEvaluator evaluator, final int threadCount, final long searchTimeMillis,
+            final int maximumDepth, final int transpositionTableBits, final OthelloProbCutParameters probCut,
+            final OthelloThreadBudget threadBudget) {
+        this.evaluator = evaluator;
+        this.threadCount = threadCount;
+        this.threadBudget = threadBudget;
+        this.searchTimeMillis = searchTimeMillis;
+        this.maximumDepth = maximumDepth;
+        this.transpositionTableBits = transpositionTableBits;
+        this.probCut = probCut;
+        this.stopFlags = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent) {
+        return this.search(gameId, board, player, opponent, this.evaluator);
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final OthelloEvaluator searchEvaluator) {
+        final long startTime = System.nanoTime();
+        final long legal = board.legalMoves(player, opponent);
+        if (legal == 0L) {
+            return new OthelloSearchResult(OthelloBitBoard.PASS, 0, OthelloSearchStatistics.EMPTY);
+        }
+        if (Long.bitCount(legal) == 1) {
+            return new OthelloSearchResult(Long.numberOfTrailingZeros(legal), 0, OthelloSearchStatistics.EMPTY);
+        }
+
+        final OthelloTranspositionTable sharedTable = this.getTable();
+        sharedTable.newSearch();
+        // searches by other evaluators share the table, but not its entries
+        final long salt = searchEvaluator == this.evaluator ? 0L : OthelloTranspositionTable.salt(searchEvaluator);
+        final AtomicBoolean stop = new AtomicBoolean();
+        this.stopFlags.put(gameId, stop);
+        try (OthelloThreadBudget.Lease lease = this.threadBudget.acquire(this.threadCount)) {
+            final int threads = lease.getThreadCount();
+            final long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(this.searchTimeMillis);
+            final List<OthelloNegamaxSearcher> searchers = new ArrayList<>(threads);
+            final List<Future<?>> futures = new ArrayList<>(threads - 1);
+            for (int helper = 1; helper < threads; ++helper) {
+                final OthelloNegamaxSearcher searcher = new OthelloNegamaxSearcher(
+                        board,
+                        searchEvaluator,
+                        sharedTable,
+                        salt,
+                        stop,
+                        startTime,
+                        deadline,
+                        helper,
+                        this.probCut);
+                final int firstDepth = 1 + helper % 2;
+                searchers.add(searcher);
+                futures.add(
+                        this.getHelpers().submit(
+                                () -> searcher
+                                        .iterativeDeepening(player, opponent, firstDepth, this.maximumDepth, false)));
+            }
+
+            final OthelloNegamaxSearcher main = new OthelloNegamaxSearcher(
+                    board,
+                    searchEvaluator,
+                    sharedTable,
+                    salt,
+                    stop,
+                    startTime,
+                    deadline,
+                    0,
+                    this.probCut);
+            main.iterativeDeepening(player, opponent, 1, this.maximumDepth, true);
+            OthelloLazySmpEngine.awaitHelpers(futures);
+
+            OthelloNegamaxSearcher best = main;
+            long nodes = main.getNodes();
+            long transpositionHits = main.getTranspositionHits();
+            for (final OthelloNegamaxSearcher searcher : searchers) {
+                nodes += searcher.getNodes();
+                transpositionHits += searcher.getTranspositionHits();
+                // a proven outcome beats a deeper heuristic score, even if found by a shallower iteration
+                if (searcher.getCompletedDepth() > best.getCompletedDepth()
+                        && (Math.abs(best.getBestScore()) < OthelloEvaluator.WIN_SCORE
+                                || Math.abs(searcher.getBestScore()) >= OthelloEvaluator.WIN_SCORE)) {
+                    best = searcher;
+                }
+            }
+
+            final OthelloSearchStatistics statistics = new OthelloSearchStatistics(
+                    best.getCompletedDepth(),
+                    nodes,
+                    transpositionHits,
+                    System.nanoTime() - startTime,
+                    threads);
+            if (best.getCompletedDepth() == 0) {
+                // not even the first iteration has been completed, so any legal move is as good as another
+                return new OthelloSearchResult(Long.numberOfTrailingZeros(legal), 0, statistics);
+            }
+            return new OthelloSearchResult(
+                    best.getBestMove(),
+                    best.getBestScore(),
+                    statistics,
+                    sharedTable.probeReply(board, player, opponent, best.getBestMove(), salt));
+        } finally {
+            this.stopFlags.remove(gameId, stop);
+        }
+    }
+
+    @Override
+    public void abortRequested(final int gameId) {
+        final AtomicBoolean stop = this.stopFlags.get(gameId);
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        if (this.table != null) {
+            this.table.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloLazySmpEngine[threads=%d, searchTime=%d ms, evaluator=%s, probCut=%s]",
+                this.threadCount,
+                this.searchTimeMillis,
+                this.evaluator,
+                this.probCut.isEnabled());
+    }
+
+    /**
+     * Returns the transposition table, creating it if necessary.
+     */
+    private synchronized OthelloTranspositionTable getTable() {
+        if (this.table == null) {
+            this.table = new OthelloTranspositionTable(this.transpositionTableBits);
+        }
+        return this.table;
+    }
+
+    /**
+     * Returns the executor running the helper threads, creating it if necessary. Its threads are bounded by the thread
+     * budget rather than by a fixed pool size, so the helpers of searches running at the same time never wait for each
+     * other.
+     */
+    private synchronized ExecutorService getHelpers() {
+        if (this.helpers == null) {
+            final ThreadFactory threadFactory = (final Runnable runnable) -> {
+                final Thread thread = new Thread(
+                        runnable,
+                        "othello-search-helper-" + OthelloLazySmpEngine.THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.helpers = Executors.newCachedThreadPool(threadFactory);
+        }
+        return this.helpers;
+    }
+
+    /**
+     * Waits until all helper threads have finished.
+     *
+     * @param futures The futures of the helper threads.
+     */
+    private static void awaitHelpers(final List<Future<?>> futures) {
+        boolean interrupted = false;
+        for (final Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    throw new IllegalStateException("A helper thread of the search failed.", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
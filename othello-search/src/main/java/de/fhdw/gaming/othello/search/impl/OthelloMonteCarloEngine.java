@@ -0,0 +1,379 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.OthelloSearchStatistics;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+
+/**
+ * Implements {@link OthelloSearchEngine} by a Monte Carlo tree search with the UCT rule and random playouts on
+ * bitboards. It needs no evaluator and runs as many playouts as the computation time allows.
+ * <p>
+ * The best move is the move with the most playouts. The score is the share of half points won by that move in per
+ * mille, minus 500, so that it ranges from -500 (every playout lost) to 500 (every playout won). In the
+ * {@link OthelloSearchStatistics search statistics}, the number of nodes is the number of playouts and the depth is
+ * the length of the longest path through the tree.
+ * <p>
+ * The trees are stored in {@link OthelloMonteCarloTree arenas} of fixed capacity, which are reused by later searches
+ * instead of being allocated per move. After a search, the tree is kept for its game. When the next search of the
+ * game starts, the node of the new position is looked up in that tree, and its subtree is copied to the root of a free
+ * arena, so that the search continues with the playouts made for that position during the previous searches. The
+ * nodes which are no longer reachable are dropped with the old arena. Only the trees of the
+ * {@value #MAXIMUM_RETAINED_TREES} games searched most recently are kept.
+ * <p>
+ * With several threads, the search is tree-parallel: the calling thread and {@code threadCount - 1} workers run
+ * playouts on the same tree, using atomic counters, lock-free expansion and virtual losses. The number of threads is
+ * an upper limit: each search leases its threads from an {@link OthelloThreadBudget}, which may grant fewer of them
+ * while other searches are running.
+ */
+public final class OthelloMonteCarloEngine implements OthelloSearchEngine {
+
+    /**
+     * The number of playouts between two checks of the stop flag and the clock (minus one).
+     */
+    private static final long CHECK_MASK = 15L;
+    /**
+     * The largest score, given to a move winning every playout.
+     */
+    private static final int MAXIMUM_SCORE = 500;
+    /**
+     * The maximum number of games whose trees are kept for their next search.
+     */
+    private static final int MAXIMUM_RETAINED_TREES = 4;
+    /**
+     * The number used for naming the next worker thread.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * The maximum number of threads running playouts in parallel.
+     */
+    private final int threadCount;
+    /**
+     * The budget the threads of a search are leased from.
+     */
+    private final OthelloThreadBudget threadBudget;
+    /**
+     * The computation time per move in milliseconds.
+     */
+    private final long searchTimeMillis;
+    /**
+     * The maximum number of nodes of a tree.
+     */
+    private final int nodeCapacity;
+    /**
+     * The stop flags of the running searches by game ID.
+     */
+    private final Map<Integer, AtomicBoolean> stopFlags;
+    /**
+     * The trees not used by a running search.
+     */
+    private final Queue<OthelloMonteCarloTree> freeTrees;
+    /**
+     * The trees kept for the next search by game ID, in the order of the searches which built them.
+     */
+    private final Map<Integer, OthelloMonteCarloTree> retainedTrees;
+    /**
+     * The executor running the worker threads of all searches. Created on first use.
+     */
+    private ExecutorService workers;
+
+    /**
+     * Creates a Monte Carlo tree search engine leasing its threads from the {@link OthelloThreadBudget#getShared()
+     * shared} budget.
+     *
+     * @param threadCount      The maximum number of threads running playouts in parallel.
+     * @param searchTimeMillis The computation time per move in milliseconds.
+     * @param nodeCapacity     The maximum number of nodes of a tree.
+     */
+    public OthelloMonteCarloEngine(final int threadCount, final long searchTimeMillis, final int nodeCapacity) {
+        this(threadCount, searchTimeMillis, nodeCapacity, OthelloThreadBudget.getShared());
+    }
+
+    /**
+     * Creates a Monte Carlo tree search engine.
+     *
+     * @param threadCount      The maximum number of threads running playouts in parallel.
+     * @param searchTimeMillis The computation time per move in milliseconds.
+     * @param nodeCapacity     The maximum number of nodes of a tree.
+     * @param threadBudget     The budget the threads of a search are leased from.
+     */
+    public OthelloMonteCarloEngine(final int threadCount, final long searchTimeMillis, final int nodeCapacity,
+            final OthelloThreadBudget threadBudget) {
+        this.threadCount = threadCount;
+        this.threadBudget = threadBudget;
+        this.searchTimeMillis = searchTimeMillis;
+        this.nodeCapacity = nodeCapacity;
+        this.stopFlags = new ConcurrentHashMap<>();
+        this.freeTrees = new ConcurrentLinkedQueue<>();
+        this.retainedTrees = new LinkedHashMap<>();
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent) {
+        final long startTime = System.nanoTime();
+        final long legal = board.legalMoves(player, opponent);
+        if (legal == 0L) {
+            return new OthelloSearchResult(OthelloBitBoard.PASS, 0, OthelloSearchStatistics.EMPTY);
+        }
+        if (Long.bitCount(legal) == 1) {
+            return new OthelloSearchResult(Long.numberOfTrailingZeros(legal), 0, OthelloSearchStatistics.EMPTY);
+        }
+
+        final AtomicBoolean stop = new AtomicBoolean();
+        final long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(this.searchTimeMillis);
+        final OthelloMonteCarloTree tree = this.takeTree(gameId, board, player, opponent);
+        this.stopFlags.put(gameId, stop);
+        try (OthelloThreadBudget.Lease lease = this.threadBudget.acquire(this.threadCount)) {
+            final int threads = lease.getThreadCount();
+            final long seed = startTime ^ player * 31L ^ opponent;
+            final List<OthelloMonteCarloSearcher> searchers = new ArrayList<>(threads);
+            final List<Future<?>> futures = new ArrayList<>(threads - 1);
+            for (int worker = 1; worker < threads; ++worker) {
+                final OthelloMonteCarloSearcher searcher = new OthelloMonteCarloSearcher(
+                        board,
+                        tree,
+                        player,
+                        opponent,
+                        seed + worker * 0x9E3779B97F4A7C15L,
+                        OthelloMonteCarloSearcher.VIRTUAL_LOSS);
+                searchers.add(searcher);
+                futures.add(this.getWorkers().submit(() -> OthelloMonteCarloEngine.runPlayouts(searcher, stop)));
+            }
+            final OthelloMonteCarloSearcher main = new OthelloMonteCarloSearcher(
+                    board,
+                    tree,
+                    player,
+                    opponent,
+                    seed,
+                    threads > 1 ? OthelloMonteCarloSearcher.VIRTUAL_LOSS : 0);
+            do {
+                main.playout();
+            } while (((main.getPlayouts() & OthelloMonteCarloEngine.CHECK_MASK) != 0L
+                    || !stop.get() && System.nanoTime() - deadline < 0L));
+            stop.set(true);
+            OthelloMonteCarloEngine.awaitWorkers(futures);
+
+            long playouts = main.getPlayouts();
+            int maximumDepth = main.getMaximumDepth();
+            for (final OthelloMonteCarloSearcher searcher : searchers) {
+                playouts += searcher.getPlayouts();
+                maximumDepth = Math.max(maximumDepth, searcher.getMaximumDepth());
+            }
+            final int best = tree.getMostVisitedChild(OthelloMonteCarloTree.ROOT);
+            final int reply = tree.getMostVisitedChild(best);
+            return new OthelloSearchResult(
+                    tree.getMove(best),
+                    OthelloMonteCarloEngine.toScore(tree.getWins(best), tree.getVisits(best)),
+                    new OthelloSearchStatistics(
+                            maximumDepth,
+                            playouts,
+                            0L,
+                            System.nanoTime() - startTime,
+                            threads),
+                    reply == OthelloMonteCarloTree.UNEXPANDED ? OptionalInt.empty()
+                            : OptionalInt.of(tree.getMove(reply)));
+        } finally {
+            this.stopFlags.remove(gameId, stop);
+            this.retainTree(gameId, tree);
+        }
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final OthelloEvaluator evaluator) {
+        // the playouts run to the end of the game, so there is nothing to evaluate
+        return this.search(gameId, board, player, opponent);
+    }
+
+    @Override
+    public void abortRequested(final int gameId) {
+        final AtomicBoolean stop = this.stopFlags.get(gameId);
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    @Override
+    public void reset() {
+        synchronized (this.retainedTrees) {
+            this.retainedTrees.clear();
+        }
+        this.freeTrees.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloMonteCarloEngine[threads=%d, searchTime=%d ms, nodeCapacity=%d]",
+                this.threadCount,
+                this.searchTimeMillis,
+                this.nodeCapacity);
+    }
+
+    /**
+     * Returns the tree for searching a position. The tree continues the tree kept for the game if the position can be
+     * reached in it, and is empty otherwise.
+     *
+     * @param gameId   The ID of the game.
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    private OthelloMonteCarloTree takeTree(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent) {
+        final OthelloMonteCarloTree retained;
+        synchronized (this.retainedTrees) {
+            retained = this.retainedTrees.remove(gameId);
+        }
+        final int node = retained == null ? OthelloMonteCarloTree.UNEXPANDED
+                : retained.findNode(board, player, opponent);
+        if (node == OthelloMonteCarloTree.ROOT) {
+            return retained;
+        }
+
+        OthelloMonteCarloTree tree = this.freeTrees.poll();
+        if (tree == null) {
+            tree = new OthelloMonteCarloTree(this.nodeCapacity);
+        }
+        if (node == OthelloMonteCarloTree.UNEXPANDED) {
+            tree.clear();
+        } else {
+            tree.copySubtree(retained, node);
+        }
+        tree.setRootPosition(board, player, opponent);
+        if (retained != null) {
+            this.freeTrees.add(retained);
+        }
+        return tree;
+    }
+
+    /**
+     * Keeps the tree of a game for its next search. If too many trees are kept, the tree of the game searched least
+     * recently is dropped.
+     *
+     * @param gameId The ID of the game.
+     * @param tree   The tree.
+     */
+    private void retainTree(final int gameId, final OthelloMonteCarloTree tree) {
+        synchronized (this.retainedTrees) {
+            final OthelloMonteCarloTree previous = this.retainedTrees.put(gameId, tree);
+            if (previous != null) {
+                // another search of the same game has finished in the meantime
+                this.freeTrees.add(previous);
+            }
+            final Iterator<OthelloMonteCarloTree> iterator = this.retainedTrees.values().iterator();
+            while (this.retainedTrees.size() > OthelloMonteCarloEngine.MAXIMUM_RETAINED_TREES) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs playouts until the search is stopped.
+     *
+     * @param searcher The searcher.
+     * @param stop     The flag stopping the search.
+     */
+    private static void runPlayouts(final OthelloMonteCarloSearcher searcher, final AtomicBoolean stop) {
+        do {
+            searcher.playout();
+        } while ((searcher.getPlayouts() & OthelloMonteCarloEngine.CHECK_MASK) != 0L || !stop.get());
+    }
+
+    /**
+     * Returns the executor running the worker threads, creating it if necessary. Its threads are bounded by the thread
+     * budget rather than by a fixed pool size, so the workers of searches running at the same time never wait for each
+     * other.
+     */
+    private synchronized ExecutorService getWorkers() {
+        if (this.workers == null) {
+            final ThreadFactory threadFactory = (final Runnable runnable) -> {
+                final Thread thread = new Thread(
+                        runnable,
+                        "othello-mcts-worker-" + OthelloMonteCarloEngine.THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.workers = Executors.newCachedThreadPool(threadFactory);
+        }
+        return this.workers;
+    }
+
+    /**
+     * Waits until all worker threads have finished.
+     *
+     * @param futures The futures of the worker threads.
+     */
+    private static void awaitWorkers(final List<Future<?>> futures) {
+        boolean interrupted = false;
+        for (final Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    throw new IllegalStateException("A worker thread of the search failed.", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Converts the statistics of a move into a score.
+     *
+     * @param halfPoints The half points won by the move.
+     * @param visits     The number of playouts of the move.
+     */
+    private static int toScore(final int halfPoints, final int visits) {
+        if (visits == 0) {
+            return 0;
+        }
+        return (int) Math.round(OthelloMonteCarloEngine.MAXIMUM_SCORE * (halfPoints - (double) visits) / visits);
+    }
+}
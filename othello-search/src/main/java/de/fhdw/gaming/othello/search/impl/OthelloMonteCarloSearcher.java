@@ -0,0 +1,296 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * Runs playouts of a Monte Carlo tree search: selects a path through an {@link OthelloMonteCarloTree} by the UCT
+ * rule, expands the leaf, plays the game out by random moves on bitboards, and adds the result to all nodes of the
+ * path.
+ * <p>
+ * Several searchers may share a tree, each running in its own thread. While a playout is running, every node of its
+ * path counts a virtual loss, which makes the other searchers prefer different paths until the result is known.
+ */
+final class OthelloMonteCarloSearcher {
+
+    /**
+     * The exploration constant of the UCT rule.
+     */
+    private static final double EXPLORATION = Math.sqrt(2.0);
+    /**
+     * The half points of a win.
+     */
+    private static final int WIN = 2;
+    /**
+     * The half points of a draw.
+     */
+    private static final int DRAW = 1;
+    /**
+     * The half points of a loss.
+     */
+    private static final int LOSS = 0;
+    /**
+     * The number of lost playouts a node counts while a playout through it is running, if other searchers share the
+     * tree.
+     */
+    static final int VIRTUAL_LOSS = 1;
+    /**
+     * The maximum length of a path through the tree, including the root. Every move fills a square, and there is at
+     * most one pass between two moves.
+     */
+    private static final int MAXIMUM_PATH_LENGTH = 2 * OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE + 2;
+
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * The tree.
+     */
+    private final OthelloMonteCarloTree tree;
+    /**
+     * The fields occupied by the player to move at the root.
+     */
+    private final long rootPlayer;
+    /**
+     * The fields occupied by the opponent at the root.
+     */
+    private final long rootOpponent;
+    /**
+     * The nodes of the current path, starting with the root.
+     */
+    private final int[] path;
+    /**
+     * The number of lost playouts a node counts while a playout through it is running.
+     */
+    private final int virtualLoss;
+    /**
+     * The state of the xorshift random number generator choosing the moves of the playouts. Never zero.
+     */
+    private long random;
+    /**
+     * The number of playouts run.
+     */
+    private long playouts;
+    /**
+     * The length of the longest path through the tree, not counting the root.
+     */
+    private int maximumDepth;
+
+    /**
+     * Creates a searcher.
+     *
+     * @param board        The geometry of the board.
+     * @param tree         The tree. Its root has to represent the root position.
+     * @param rootPlayer   The fields occupied by the player to move at the root.
+     * @param rootOpponent The fields occupied by the opponent at the root.
+     * @param seed         The seed of the random moves.
+     * @param virtualLoss  The number of lost playouts a node counts while a playout through it is running. Should be
+     *                     {@link #VIRTUAL_LOSS} if other searchers share the tree and zero otherwise.
+     */
+    OthelloMonteCarloSearcher(final OthelloBitBoard board, final OthelloMonteCarloTree tree, final long rootPlayer,
+            final long rootOpponent, final long seed, final int virtualLoss) {
+        this.board = board;
+        this.tree = tree;
+        this.rootPlayer = rootPlayer;
+        this.rootOpponent = rootOpponent;
+        this.path = new int[OthelloMonteCarloSearcher.MAXIMUM_PATH_LENGTH];
+        this.random = seed == 0L ? 1L : seed;
+        this.virtualLoss = virtualLoss;
+    }
+
+    /**
+     * Runs one playout.
+     */
+    void playout() {
+        long player = this.rootPlayer;
+        long opponent = this.rootOpponent;
+        int node = OthelloMonteCarloTree.ROOT;
+        int length = 0;
+        this.path[length++] = node;
+        while (this.tree.isExpanded(node) && this.tree.getChildCount(node) > 0) {
+            node = this.select(node);
+            final int move = this.tree.getMove(node);
+            if (move == OthelloBitBoard.PASS) {
+                final long newPlayer = opponent;
+                opponent = player;
+                player = newPlayer;
+            } else {
+                final long flipped = this.board.flips(player, opponent, move);
+                final long newPlayer = opponent & ~flipped;
+                opponent = player | flipped | 1L << move;
+                player = newPlayer;
+            }
+            if (this.virtualLoss != 0) {
+                this.tree.update(node, OthelloMonteCarloSearcher.LOSS, this.virtualLoss);
+            }
+            this.path[length++] = node;
+        }
+
+        final int result;
+        if (this.tree.isExpanded(node)) {
+            // the game is over
+            result = OthelloMonteCarloSearcher.halfPoints(player, opponent);
+        } else {
+            final long legal = this.board.legalMoves(player, opponent);
+            final boolean over = legal == 0L && this.board.legalMoves(opponent, player) == 0L;
+            // a leaf is only expanded once it has been visited (besides the virtual loss of this playout), which
+            // keeps rarely visited nodes out of the arena
+            if ((node == OthelloMonteCarloTree.ROOT
+                    || this.tree.getVisits(node) > this.virtualLoss)
+                    && this.tree.expand(node, legal, over) && !over) {
+                node = this.tree.getFirstChild(node) + this.nextInt(this.tree.getChildCount(node));
+                final int move = this.tree.getMove(node);
+                if (move == OthelloBitBoard.PASS) {
+                    final long newPlayer = opponent;
+                    opponent = player;
+                    player = newPlayer;
+                } else {
+                    final long flipped = this.board.flips(player, opponent, move);
+                    final long newPlayer = opponent & ~flipped;
+                    opponent = player | flipped | 1L << move;
+                    player = newPlayer;
+                }
+                if (this.virtualLoss != 0) {
+                    this.tree.update(node, OthelloMonteCarloSearcher.LOSS, this.virtualLoss);
+                }
+                this.path[length++] = node;
+            }
+            result = this.rollout(player, opponent);
+        }
+
+        // the player who moved into the last node is the opponent of the player to move there
+        int halfPoints = OthelloMonteCarloSearcher.WIN - result;
+        for (int index = length - 1; index > 0; --index) {
+            this.tree.update(this.path[index], halfPoints, 1 - this.virtualLoss);
+            halfPoints = OthelloMonteCarloSearcher.WIN - halfPoints;
+        }
+        this.tree.update(OthelloMonteCarloTree.ROOT, halfPoints, 1);
+        ++this.playouts;
+        this.maximumDepth = Math.max(this.maximumDepth, length - 1);
+    }
+
+    /**
+     * Selects the child of an expanded node by the UCT rule. Children without playouts, including running ones, are
+     * selected first.
+     *
+     * @param node The node.
+     */
+    private int select(final int node) {
+        final int first = this.tree.getFirstChild(node);
+        final int end = first + this.tree.getChildCount(node);
+        final double logVisits = Math.log(Math.max(1, this.tree.getVisits(node)));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < end; ++child) {
+            final long statistics = this.tree.getStatistics(child);
+            final int visits = OthelloMonteCarloTree.visits(statistics);
+            if (visits == 0) {
+                return child;
+            }
+            final double value = OthelloMonteCarloTree.wins(statistics) / (2.0 * visits)
+                    + OthelloMonteCarloSearcher.EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays a game out by random moves.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @return The half points won by the player to move.
+     */
+    private int rollout(final long player, final long opponent) {
+        long current = player;
+        long other = opponent;
+        boolean swapped = false;
+        while (true) {
+            long legal = this.board.legalMoves(current, other);
+            if (legal == 0L) {
+                if (this.board.legalMoves(other, current) == 0L) {
+                    break;
+                }
+                final long newOther = current;
+                current = other;
+                other = newOther;
+            } else {
+                for (int skip = this.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                    legal &= legal - 1L;
+                }
+                final int square = Long.numberOfTrailingZeros(legal);
+                final long flipped = this.board.flips(current, other, square);
+                final long newOther = current | flipped | 1L << square;
+                current = other & ~flipped;
+                other = newOther;
+            }
+            swapped = !swapped;
+        }
+        return swapped ? OthelloMonteCarloSearcher.halfPoints(other, current)
+                : OthelloMonteCarloSearcher.halfPoints(current, other);
+    }
+
+    /**
+     * Returns the half points won by a player at the end of the game.
+     *
+     * @param player   The fields occupied by the player.
+     * @param opponent The fields occupied by the opponent.
+     */
+    private static int halfPoints(final long player, final long opponent) {
+        final int difference = OthelloEndgameSolver.discDifference(player, opponent);
+        if (difference > 0) {
+            return OthelloMonteCarloSearcher.WIN;
+        } else if (difference < 0) {
+            return OthelloMonteCarloSearcher.LOSS;
+        } else {
+            return OthelloMonteCarloSearcher.DRAW;
+        }
+    }
+
+    /**
+     * Returns a random number between zero (inclusive) and a bound (exclusive).
+     *
+     * @param bound The bound. Must be positive.
+     */
+    private int nextInt(final int bound) {
+        this.random ^= this.random << 13;
+        this.random ^= this.random >>> 7;
+        this.random ^= this.random << 17;
+        return (int) (((this.random >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns the number of playouts run.
+     */
+    long getPlayouts() {
+        return this.playouts;
+    }
+
+    /**
+     * Returns the length of the longest path through the tree, not counting the root.
+     */
+    int getMaximumDepth() {
+        return this.maximumDepth;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * The nodes of a Monte Carlo search tree, stored as parallel arrays ("struct of arrays") without any per-node objects.
+ * <p>
+ * A node is an index into the arrays. The children of a node are allocated together as a contiguous block when the
+ * node is expanded, so that a node only stores the index of its first child and the number of its children. Nodes do
+ * not store their positions; a searcher replays the moves from the root while descending. The wins of a node are
+ * counted in half points (a win counts two, a draw one) from the point of view of the player who made the move
+ * leading to the node. Every edge of the tree is a move of the other player: a player who has to skip gets a single
+ * child whose move is {@link OthelloBitBoard#PASS}.
+ * <p>
+ * When the arena is full, no further nodes are expanded, but the search may go on with playouts from the leaves.
+ * <p>
+ * Several threads may search the same tree. The number of playouts and the wins of a node are packed into a single
+ * atomic counter, so that they are always updated and read together. Expansion is lock-free: a thread claims an
+ * unexpanded node by a compare-and-set of its first child, allocates the block of children by a compare-and-set of
+ * the size, and publishes the children by a volatile write of the first child. Other threads treat a node being
+ * expanded as a leaf. Only {@link #clear()} and {@link #copySubtree(OthelloMonteCarloTree, int)} must not run
+ * concurrently with other methods.
+ * <p>
+ * A tree remembers the position of its root, so that it can be kept from one move to the next: the node of the new
+ * position is looked up by {@link #findNode(OthelloBitBoard, long, long)} and its subtree is copied to the root of
+ * another arena by {@link #copySubtree(OthelloMonteCarloTree, int)}, leaving all unreachable nodes behind.
+ */
+final class OthelloMonteCarloTree {
+
+    /**
+     * The index of the root node.
+     */
+    static final int ROOT = 0;
+    /**
+     * The first child of a node which has not been expanded yet.
+     */
+    static final int UNEXPANDED = -1;
+    /**
+     * The first child of a node which is being expanded by some thread.
+     */
+    private static final int EXPANDING = -2;
+    /**
+     * The number of bits the wins are shifted by in the packed statistics.
+     */
+    private static final int WINS_SHIFT = 32;
+
+    /**
+     * The index of the first child of each node, {@link #UNEXPANDED}, or {@link #EXPANDING}. An expanded node without
+     * children is a position at the end of the game.
+     */
+    private final AtomicIntegerArray firstChild;
+    /**
+     * The number of children of each node.
+     */
+    private final byte[] childCount;
+    /**
+     * The move leading to each node, or {@link OthelloBitBoard#PASS}.
+     */
+    private final byte[] move;
+    /**
+     * The statistics of each node: the half points won through the node by the player who made the move leading to it
+     * in the upper 32 bits, and the number of playouts through the node in the lower 32 bits.
+     */
+    private final AtomicLongArray statistics;
+    /**
+     * The number of nodes in use.
+     */
+    private final AtomicInteger size;
+    /**
+     * The geometry of the board in the position of the root, or {@code null} if the position is unknown.
+     */
+    private OthelloBitBoard rootBoard;
+    /**
+     * The fields occupied by the player to move in the position of the root.
+     */
+    private long rootPlayer;
+    /**
+     * The fields occupied by the opponent in the position of the root.
+     */
+    private long rootOpponent;
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param capacity The maximum number of nodes.
+     */
+    OthelloMonteCarloTree(final int capacity) {
+        this.firstChild = new AtomicIntegerArray(capacity);
+        this.childCount = new byte[capacity];
+        this.move = new byte[capacity];
+        this.statistics = new AtomicLongArray(capacity);
+        this.size = new AtomicInteger();
+        this.clear();
+    }
+
+    /**
+     * Removes all nodes but an unexpanded root without statistics. Only the root is initialised, as nodes are always
+     * initialised when they are allocated.
+     */
+    void clear() {
+        this.rootBoard = null;
+        this.size.set(1);
+        this.firstChild.set(OthelloMonteCarloTree.ROOT, OthelloMonteCarloTree.UNEXPANDED);
+        this.childCount[OthelloMonteCarloTree.ROOT] = 0;
+        this.move[OthelloMonteCarloTree.ROOT] = OthelloBitBoard.PASS;
+        this.statistics.set(OthelloMonteCarloTree.ROOT, 0L);
+    }
+
+    /**
+     * Sets the position of the root.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    void setRootPosition(final OthelloBitBoard board, final long player, final long opponent) {
+        this.rootBoard = board;
+        this.rootPlayer = player;
+        this.rootOpponent = opponent;
+    }
+
+    /**
+     * Returns the node of a position which can be reached from the root by the moves stored in the tree, or
+     * {@link #UNEXPANDED} if there is none or the position of the root is unknown.
+     * <p>
+     * As fields never become empty again, only the nodes whose occupied fields are also occupied in the position need
+     * to be visited.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    int findNode(final OthelloBitBoard board, final long player, final long opponent) {
+        if (this.rootBoard != board) {
+            return OthelloMonteCarloTree.UNEXPANDED;
+        }
+        return this.findNode(OthelloMonteCarloTree.ROOT, this.rootPlayer, this.rootOpponent, player, opponent);
+    }
+
+    /**
+     * Returns the node of a position in the subtree of a node, or {@link #UNEXPANDED} if there is none.
+     *
+     * @param node           The node.
+     * @param player         The fields occupied by the player to move in the position of the node.
+     * @param opponent       The fields occupied by the opponent in the position of the node.
+     * @param targetPlayer   The fields occupied by the player to move in the position searched for.
+     * @param targetOpponent The fields occupied by the opponent in the position searched for.
+     */
+    private int findNode(final int node, final long player, final long opponent, final long targetPlayer,
+            final long targetOpponent) {
+        if (player == targetPlayer && opponent == targetOpponent) {
+            return node;
+        }
+        if (((player | opponent) & ~(targetPlayer | targetOpponent)) != 0L || !this.isExpanded(node)) {
+            return OthelloMonteCarloTree.UNEXPANDED;
+        }
+        final int first = this.firstChild.get(node);
+        for (int child = first; child < first + this.childCount[node]; ++child) {
+            final int move = this.move[child];
+            final int found;
+            if (move == OthelloBitBoard.PASS) {
+                found = this.findNode(child, opponent, player, targetPlayer, targetOpponent);
+            } else {
+                final long flipped = this.rootBoard.flips(player, opponent, move);
+                found = this.findNode(
+                        child,
+                        opponent & ~flipped,
+                        player | flipped | 1L << move,
+                        targetPlayer,
+                        targetOpponent);
+            }
+            if (found != OthelloMonteCarloTree.UNEXPANDED) {
+                return found;
+            }
+        }
+        return OthelloMonteCarloTree.UNEXPANDED;
+    }
+
+    /**
+     * Replaces this tree by a copy of the subtree of a node of another tree. The node becomes the root, and the
+     * blocks of children are stored in breadth-first order. The position of the root is not copied.
+     * <p>
+     * The copy runs in time linear in the size of the subtree: the nodes of this tree still to be scanned store the
+     * first child in the other tree, which is replaced by the first child in this tree when the children are copied.
+     *
+     * @param source The other tree. Must have at most the capacity of this tree.
+     * @param node   The node of the other tree.
+     */
+    void copySubtree(final OthelloMonteCarloTree source, final int node) {
+        this.clear();
+        this.firstChild.set(OthelloMonteCarloTree.ROOT, source.firstChild.get(node));
+        this.childCount[OthelloMonteCarloTree.ROOT] = source.childCount[node];
+        this.statistics.set(OthelloMonteCarloTree.ROOT, source.statistics.get(node));
+        int size = 1;
+        for (int scan = 0; scan < size; ++scan) {
+            final int sourceFirst = this.firstChild.get(scan);
+            if (sourceFirst < 0) {
+                continue;
+            }
+            final int count = this.childCount[scan];
+            for (int child = 0; child < count; ++child) {
+                final int sourceChild = sourceFirst + child;
+                this.firstChild.set(size + child, source.firstChild.get(sourceChild));
+                this.childCount[size + child] = source.childCount[sourceChild];
+                this.move[size + child] = source.move[sourceChild];
+                this.statistics.set(size + child, source.statistics.get(sourceChild));
+            }
+            this.firstChild.set(scan, size);
+            size += count;
+        }
+        this.size.set(size);
+    }
+
+    /**
+     * Returns the maximum number of nodes.
+     */
+    int getCapacity() {
+        return this.firstChild.length();
+    }
+
+    /**
+     * Returns the number of nodes in use.
+     */
+    int getSize() {
+        return this.size.get();
+    }
+
+    /**
+     * Expands a node by allocating its children.
+     *
+     * @param node  The node.
+     * @param legal The legal moves in the position of the node. Zero if the player to move has to skip.
+     * @param over  {@code true} if the game is over in the position of the node.
+     * @return {@code true} if the node has been expanded, {@code false} if another thread is expanding or has expanded
+     *         it, or if the arena is full.
+     */
+    boolean expand(final int node, final long legal, final boolean over) {
+        if (!this.firstChild.compareAndSet(node, OthelloMonteCarloTree.UNEXPANDED, OthelloMonteCarloTree.EXPANDING)) {
+            return false;
+        }
+        final int count = over ? 0 : Math.max(1, Long.bitCount(legal));
+        int first;
+        do {
+            first = this.size.get();
+            if (first + count > this.firstChild.length()) {
+                this.firstChild.set(node, OthelloMonteCarloTree.UNEXPANDED);
+                return false;
+            }
+        } while (!this.size.compareAndSet(first, first + count));
+
+        long remaining = legal;
+        for (int child = first; child < first + count; ++child) {
+            this.firstChild.lazySet(child, OthelloMonteCarloTree.UNEXPANDED);
+            this.childCount[child] = 0;
+            this.statistics.lazySet(child, 0L);
+            if (remaining == 0L) {
+                this.move[child] = OthelloBitBoard.PASS;
+            } else {
+                this.move[child] = (byte) Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1L;
+            }
+        }
+        this.childCount[node] = (byte) count;
+        // the volatile write publishes the children to all threads reading the first child
+        this.firstChild.set(node, first);
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if a node has been expanded.
+     *
+     * @param node The node.
+     */
+    boolean isExpanded(final int node) {
+        return this.firstChild.get(node) >= 0;
+    }
+
+    /**
+     * Returns the index of the first child of an expanded node.
+     *
+     * @param node The node.
+     */
+    int getFirstChild(final int node) {
+        return this.firstChild.get(node);
+    }
+
+    /**
+     * Returns the number of children of a node.
+     *
+     * @param node The node.
+     */
+    int getChildCount(final int node) {
+        return this.childCount[node];
+    }
+
+    /**
+     * Returns the move leading to a node, or {@link OthelloBitBoard#PASS}.
+     *
+     * @param node The node.
+     */
+    int getMove(final int node) {
+        return this.move[node];
+    }
+
+    /**
+     * Returns the statistics of a node, to be decoded by {@link #visits(long)} and {@link #wins(long)}.
+     *
+     * @param node The node.
+     */
+    long getStatistics(final int node) {
+        return this.statistics.get(node);
+    }
+
+    /**
+     * Returns the number of playouts through a node.
+     *
+     * @param node The node.
+     */
+    int getVisits(final int node) {
+        return OthelloMonteCarloTree.visits(this.statistics.get(node));
+    }
+
+    /**
+     * Returns the half points won through a node by the player who made the move leading to it.
+     *
+     * @param node The node.
+     */
+    int getWins(final int node) {
+        return OthelloMonteCarloTree.wins(this.statistics.get(node));
+    }
+
+    /**
+     * Adds to the statistics of a node in a single atomic step.
+     *
+     * @param node       The node.
+     * @param halfPoints The half points won by the player who made the move leading to the node.
+     * @param visits     The number of playouts. May be negative to take back virtual losses, but the number of
+     *                   playouts of the node must not become negative.
+     */
+    void update(final int node, final int halfPoints, final int visits) {
+        this.statistics.addAndGet(node, ((long) halfPoints << OthelloMonteCarloTree.WINS_SHIFT) + visits);
+    }
+
+    /**
+     * Decodes the number of playouts from the statistics of a node.
+     *
+     * @param statistics The statistics.
+     */
+    static int visits(final long statistics) {
+        return (int) statistics;
+    }
+
+    /**
+     * Decodes the half points won from the statistics of a node.
+     *
+     * @param statistics The statistics.
+     */
+    static int wins(final long statistics) {
+        return (int) (statistics >>> OthelloMonteCarloTree.WINS_SHIFT);
+    }
+
+    /**
+     * Returns the child of a node with the most playouts, or {@link #UNEXPANDED} if the node has no children.
+     *
+     * @param node The node.
+     */
+    int getMostVisitedChild(final int node) {
+        int best = OthelloMonteCarloTree.UNEXPANDED;
+        if (this.isExpanded(node)) {
+            final int first = this.firstChild.get(node);
+            int bestVisits = -1;
+            for (int child = first; child < first + this.childCount[node]; ++child) {
+                final int visits = this.getVisits(child);
+                if (visits > bestVisits) {
+                    best = child;
+                    bestVisits = visits;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.Arrays;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
+
+/**
+ * Orders the moves of a node for the alpha-beta search of a single thread.
+ * <p>
+ * The move stored in the transposition table comes first, followed by the killer moves of the ply, i.e. the last two
+ * moves which caused a cutoff at the same distance from the root. All other moves are sorted by the history table,
+ * which rewards moves causing cutoffs anywhere in the tree, and moves with equal history by the weights of
+ * {@link OthelloWeightTable}: corners first, the squares next to the corners last.
+ */
+final class OthelloMoveOrdering {
+
+    /**
+     * The largest number of plies from the root. Every ply either fills a square or passes, and two passes in a row end
+     * the game.
+     */
+    static final int MAXIMUM_PLY = 2 * OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE;
+
+    /**
+     * The number of killer moves kept per ply.
+     */
+    private static final int KILLERS = 2;
+    /**
+     * The factor by which a history point outweighs the whole range of square weights.
+     */
+    private static final long HISTORY_FACTOR = 256L;
+
+    /**
+     * The static weight of each square.
+     */
+    private final int[] priors;
+    /**
+     * The killer moves by ply, the most recent first.
+     */
+    private final int[][] killers;
+    /**
+     * The history score of each square.
+     */
+    private final long[] history;
+    /**
+     * The ordered moves of each ply, so that ordering does not allocate memory.
+     */
+    private final int[][] moves;
+    /**
+     * The sort keys of the moves of each ply.
+     */
+    private final long[][] keys;
+
+    /**
+     * Creates a move ordering for a board.
+     *
+     * @param board The geometry of the board.
+     */
+    OthelloMoveOrdering(final OthelloBitBoard board) {
+        final int squares = OthelloBitBoard.STRIDE * OthelloBitBoard.STRIDE;
+        this.priors = OthelloWeightTable.forSize(board.getSize()).toSquareWeights();
+        this.killers = new int[OthelloMoveOrdering.MAXIMUM_PLY][OthelloMoveOrdering.KILLERS];
+        for (final int[] killersOfPly : this.killers) {
+            Arrays.fill(killersOfPly, OthelloBitBoard.PASS);
+        }
+        this.history = new long[squares];
+        this.moves = new int[OthelloMoveOrdering.MAXIMUM_PLY][squares];
+        this.keys = new long[OthelloMoveOrdering.MAXIMUM_PLY][squares];
+    }
+
+    /**
+     * Orders the legal moves of a node.
+     *
+     * @param legal     The legal moves. Must not be empty.
+     * @param tableMove The move stored in the transposition table, or {@link OthelloBitBoard#PASS}.
+     * @param ply       The distance of the node from the root.
+     * @return The moves in search order. The array is reused for the next node at the same ply, and only the first
+     *         {@code Long.bitCount(legal)} entries are valid.
+     */
+    int[] order(final long legal, final int tableMove, final int ply) {
+        final int[] ordered = this.moves[ply];
+        final long[] sortKeys = this.keys[ply];
+        long remaining = legal;
+        int count = 0;
+        if (tableMove >= 0 && (remaining & 1L << tableMove) != 0L) {
+            ordered[count++] = tableMove;
+            remaining &= ~(1L << tableMove);
+        }
+        for (final int killer : this.killers[ply]) {
+            if (killer >= 0 && (remaining & 1L << killer) != 0L) {
+                ordered[count++] = killer;
+                remaining &= ~(1L << killer);
+            }
+        }
+
+        // insertion sort by descending key, as there are only a few moves
+        final int sorted = count;
+        while (remaining != 0L) {
+            final int move = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1L;
+            final long key = this.history[move] * OthelloMoveOrdering.HISTORY_FACTOR + this.priors[move];
+            int index = count++;
+            while (index > sorted && sortKeys[index - 1] < key) {
+                ordered[index] = ordered[index - 1];
+                sortKeys[index] = sortKeys[index - 1];
+                --index;
+            }
+            ordered[index] = move;
+            sortKeys[index] = key;
+        }
+        return ordered;
+    }
+
+    /**
+     * Records that a move caused a cutoff.
+     *
+     * @param move  The move.
+     * @param ply   The distance of the node from the root.
+     * @param depth The remaining depth of the node. Cutoffs far from the leaves save more work and count more.
+     */
+    void recordCutoff(final int move, final int ply, final int depth) {
+        final int[] killersOfPly = this.killers[ply];
+        if (killersOfPly[0] != move) {
+            killersOfPly[1] = killersOfPly[0];
+            killersOfPly[0] = move;
+        }
+        this.history[move] += (long) depth * depth;
+    }
+}
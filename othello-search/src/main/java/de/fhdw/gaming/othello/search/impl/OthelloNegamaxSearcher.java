@@ -0,0 +1,612 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluator;
+import de.fhdw.gaming.othello.search.OthelloProbCut;
+import de.fhdw.gaming.othello.search.OthelloProbCutParameters;
+
+/**
+ * Runs an iterative deepening principal variation search (NegaScout) in negamax form on a single thread.
+ * <p>
+ * The first move of a node is searched with the full window, all other moves with a null window which merely proves
+ * that they are not better; only if that proof fails is the move searched again with the full window. Each iteration
+ * starts with an aspiration window around the score of the previous one, which is widened if the score falls outside.
+ * Moves are tried in the order given by {@link OthelloMoveOrdering}. An {@link OthelloIncrementalEvaluator} is told
+ * about every move made and taken back, so that it evaluates the leaves without looking at the whole board.
+ * <p>
+ * With {@link OthelloProbCutParameters Multi-ProbCut parameters}, a node is pruned before its moves are searched if
+ * a shallow search predicts with high confidence that the deep search would fail high or low.
+ * <p>
+ * A searcher is used for exactly one search. Several searchers may run concurrently on the same position; they
+ * communicate only through the shared {@link OthelloTranspositionTable} and the shared stop flag.
+ */
+final class OthelloNegamaxSearcher {
+
+    /**
+     * A score larger than any score a search can return.
+     */
+    static final int INFINITY = 2 * OthelloEvaluator.WIN_SCORE;
+
+    /**
+     * The number of nodes between two checks of the stop flag and the clock (minus one).
+     */
+    private static final long CHECK_MASK = 1023L;
+    /**
+     * The initial half width of the aspiration window.
+     */
+    private static final int ASPIRATION_WINDOW = 32;
+
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * The evaluator used at the leaves.
+     */
+    private final OthelloEvaluator evaluator;
+    /**
+     * The evaluation following the moves of this searcher if the evaluator is an {@link OthelloIncrementalEvaluator},
+     * or {@code null}.
+     */
+    private final OthelloIncrementalEvaluation incremental;
+    /**
+     * The shared transposition table.
+     */
+    private final OthelloTranspositionTable table;
+    /**
+     * The {@link OthelloTranspositionTable#salt(OthelloEvaluator) salt} XOR-ed into the hashes of the positions.
+     */
+    private final long salt;
+    /**
+     * The shared flag which stops all threads of the search.
+     */
+    private final AtomicBoolean stop;
+    /**
+     * The value of {@link System#nanoTime()} at which the search started.
+     */
+    private final long startTime;
+    /**
+     * The value of {@link System#nanoTime()} at which the search has to stop.
+     */
+    private final long deadline;
+    /**
+     * The source of the perturbation of the root move order, or {@code null} for the main thread.
+     */
+    private final Random perturbation;
+    /**
+     * The move ordering of this searcher, learning from the cutoffs found.
+     */
+    private final OthelloMoveOrdering ordering;
+    /**
+     * The parameters of the selective search.
+     */
+    private final OthelloProbCutParameters probCut;
+
+    /**
+     * The number of positions visited.
+     */
+    private long nodes;
+    /**
+     * The number of successful transposition table lookups.
+     */
+    private long transpositionHits;
+    /**
+     * The number of moves searched again with the full window after their null-window search failed high.
+     */
+    private long researches;
+    /**
+     * The number of root searches which failed high on the aspiration window.
+     */
+    private int aspirationFailHighs;
+    /**
+     * The number of root searches which failed low on the aspiration window.
+     */
+    private int aspirationFailLows;
+    /**
+     * {@code true} if the current iteration has been aborted.
+     */
+    private boolean aborted;
+    /**
+     * The best move of the deepest completed iteration, or {@link OthelloBitBoard#PASS}.
+     */
+    private int bestMove;
+    /**
+     * The score of the deepest completed iteration.
+     */
+    private int bestScore;
+    /**
+     * The deepest completed iteration.
+     */
+    private int completedDepth;
+
+    /**
+     * Creates a searcher.
+     *
+     * @param board     The geometry of the board.
+     * @param evaluator The evaluator used at the leaves.
+     * @param table     The shared transposition table.
+     * @param salt      The {@link OthelloTranspositionTable#salt(OthelloEvaluator) salt} XOR-ed into the hashes of the
+     *                  positions, or zero if the table is not shared with searches by other evaluators.
+     * @param stop      The shared flag which stops all threads of the search.
+     * @param startTime The value of {@link System#nanoTime()} at which the search started.
+     * @param deadline  The value of {@link System#nanoTime()} at which the search has to stop.
+     * @param helper    The index of the helper thread, or zero for the main thread. Helpers search the root moves
+     *                  in a perturbed order, so that they do not merely repeat the work of the main thread.
+     * @param probCut   The parameters of the selective search.
+     */
+    OthelloNegamaxSearcher(final OthelloBitBoard board, final OthelloEvaluator evaluator,
+            final OthelloTranspositionTable table, final long salt, final AtomicBoolean stop, final long startTime,
+            final long deadline, final int helper, final OthelloProbCutParameters probCut) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.incremental = evaluator instanceof OthelloIncrementalEvaluator
+                ? ((OthelloIncrementalEvaluator) evaluator).newEvaluation(board)
+                : null;
+        this.table = table;
+        this.salt = salt;
+        this.stop = stop;
+        this.startTime = startTime;
+        this.deadline = deadline;
+        this.perturbation = helper == 0 ? null : new Random(helper);
+        this.ordering = new OthelloMoveOrdering(board);
+        this.probCut = probCut;
+        this.bestMove = OthelloBitBoard.PASS;
+    }
+
+    /**
+     * Deepens the search iteratively until the maximum depth is reached, the search reaches the end of the game, or the
+     * search is stopped.
+     *
+     * @param player       The fields occupied by the player to move.
+     * @param opponent     The fields occupied by the opponent.
+     * @param firstDepth   The depth of the first iteration.
+     * @param maximumDepth The depth of the last iteration.
+     * @param mainThread   {@code true} if this searcher decides when the search ends. The main thread does not start
+     *                     an iteration once half of the time is used up, and it stops all helpers when it is done.
+     */
+    void iterativeDeepening(final long player, final long opponent, final int firstDepth, final int maximumDepth,
+            final boolean mainThread) {
+        final int empties = Long.bitCount(this.board.emptySquares(player, opponent));
+        if (this.incremental != null) {
+            this.incremental.setUp(player, opponent);
+        }
+        for (int depth = firstDepth; depth <= maximumDepth && !this.stop.get(); ++depth) {
+            this.searchIteration(player, opponent, depth);
+            if (this.aborted) {
+                break;
+            }
+            // a proven score of a shallower iteration proves the outcome, but not necessarily the disc differential
+            if (mainThread && (depth >= empties
+                    || System.nanoTime() - this.startTime > (this.deadline - this.startTime) / 2)) {
+                break;
+            }
+        }
+        if (mainThread) {
+            this.stop.set(true);
+        }
+    }
+
+    /**
+     * Runs one iteration, starting with an aspiration window around the score of the previous iteration. Updates the
+     * best move and score unless the search is aborted.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param depth    The depth of the iteration.
+     */
+    private void searchIteration(final long player, final long opponent, final int depth) {
+        int window = OthelloNegamaxSearcher.ASPIRATION_WINDOW;
+        int alpha = -OthelloNegamaxSearcher.INFINITY;
+        int beta = OthelloNegamaxSearcher.INFINITY;
+        if (this.completedDepth > 0 && Math.abs(this.bestScore) < OthelloEvaluator.WIN_SCORE) {
+            alpha = this.bestScore - window;
+            beta = this.bestScore + window;
+        }
+        while (true) {
+            final int score = this.searchRoot(player, opponent, depth, alpha, beta);
+            if (this.aborted) {
+                return;
+            }
+            window *= 2;
+            if (score <= alpha) {
+                ++this.aspirationFailLows;
+                alpha = Math.max(-OthelloNegamaxSearcher.INFINITY, score - window);
+            } else if (score >= beta) {
+                ++this.aspirationFailHighs;
+                beta = Math.min(OthelloNegamaxSearcher.INFINITY, score + window);
+            } else {
+                this.bestScore = score;
+                this.completedDepth = depth;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Searches all moves at the root of the tree. Updates the best move if the score lies within the window and the
+     * search is not aborted.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param depth    The depth of the iteration.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @return The score of the root. Only a bound if it does not lie within the window.
+     */
+    private int searchRoot(final long player, final long opponent, final int depth, final int alpha,
+            final int beta) {
+        final int[] moves = this.orderRootMoves(player, opponent);
+        int localAlpha = alpha;
+        int bestScore = -OthelloNegamaxSearcher.INFINITY;
+        int iterationBestMove = moves[0];
+        for (final int move : moves) {
+            final int score = this.searchMove(player, opponent, move, depth, 0, localAlpha, beta, move == moves[0]);
+            if (this.aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                iterationBestMove = move;
+                if (score > localAlpha) {
+                    localAlpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        this.table.store(
+                this.hash(player, opponent),
+                depth,
+                OthelloNegamaxSearcher.bound(bestScore, alpha, beta),
+                bestScore,
+                iterationBestMove);
+        if (bestScore > alpha && bestScore < beta) {
+            this.bestMove = iterationBestMove;
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches a move by principal variation search: the first move of a node is searched with the full window, the
+     * others with a null window and, if they turn out to be better, once more with the full window.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param move     The move.
+     * @param depth    The remaining depth of the node.
+     * @param ply      The distance of the node from the root.
+     * @param alpha    The lower bound of the window of the node.
+     * @param beta     The upper bound of the window of the node.
+     * @param first    {@code true} if this is the first move searched at the node.
+     * @return The score of the move from the point of view of the player to move.
+     */
+    private int searchMove(final long player, final long opponent, final int move, final int depth, final int ply,
+            final int alpha, final int beta, final boolean first) {
+        final long flipped = this.board.flips(player, opponent, move);
+        final long newPlayer = opponent & ~flipped;
+        final long newOpponent = player | flipped | 1L << move;
+        if (this.incremental != null) {
+            this.incremental.makeMove(move, flipped);
+        }
+        int score;
+        if (first) {
+            score = -this.negamax(newPlayer, newOpponent, depth - 1, ply + 1, -beta, -alpha);
+        } else {
+            score = -this.negamax(newPlayer, newOpponent, depth - 1, ply + 1, -alpha - 1, -alpha);
+            if (score > alpha && score < beta && beta - alpha > 1 && !this.aborted) {
+                ++this.researches;
+                score = -this.negamax(newPlayer, newOpponent, depth - 1, ply + 1, -beta, -score);
+            }
+        }
+        if (this.incremental != null) {
+            this.incremental.unmakeMove(move, flipped);
+        }
+        return score;
+    }
+
+    /**
+     * Searches the position after the player to move has passed.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param depth    The remaining depth of the node.
+     * @param ply      The distance of the node from the root.
+     * @param alpha    The lower bound of the window of the node.
+     * @param beta     The upper bound of the window of the node.
+     * @return The score of the node from the point of view of the player to move.
+     */
+    private int searchPass(final long player, final long opponent, final int depth, final int ply, final int alpha,
+            final int beta) {
+        if (this.incremental != null) {
+            this.incremental.makeMove(OthelloBitBoard.PASS, 0L);
+        }
+        final int score = -this.negamax(opponent, player, depth, ply + 1, -beta, -alpha);
+        if (this.incremental != null) {
+            this.incremental.unmakeMove(OthelloBitBoard.PASS, 0L);
+        }
+        return score;
+    }
+
+    /**
+     * Returns the legal moves at the root, starting with the best move known so far and followed by the other moves in
+     * the order of {@link OthelloMoveOrdering}. Helper threads shuffle the remaining moves.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    private int[] orderRootMoves(final long player, final long opponent) {
+        final long legal = this.board.legalMoves(player, opponent);
+        final int known = this.bestMove != OthelloBitBoard.PASS ? this.bestMove
+                : OthelloTranspositionTable.move(this.table.probe(this.hash(player, opponent)));
+        final int[] moves = Arrays.copyOf(this.ordering.order(legal, known, 0), Long.bitCount(legal));
+        final int first = known >= 0 && (legal & 1L << known) != 0L ? 1 : 0;
+        if (this.perturbation != null) {
+            for (int index = moves.length - 1; index > first; --index) {
+                final int other = first + this.perturbation.nextInt(index - first + 1);
+                final int move = moves[index];
+                moves[index] = moves[other];
+                moves[other] = move;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Searches a position below the root.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param depth    The remaining depth.
+     * @param ply      The distance from the root.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @return The score from the point of view of the player to move. Meaningless if the search has been aborted.
+     */
+    private int negamax(final long player, final long opponent, final int depth, final int ply, final int alpha,
+            final int beta) {
+        if ((++this.nodes & OthelloNegamaxSearcher.CHECK_MASK) == 0L && this.shouldStop()) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return 0;
+        }
+
+        final long legal = this.board.legalMoves(player, opponent);
+        if (legal == 0L) {
+            if (this.board.legalMoves(opponent, player) == 0L) {
+                return OthelloNegamaxSearcher.finalScore(player, opponent);
+            }
+            return this.searchPass(player, opponent, depth, ply, alpha, beta);
+        }
+        if (depth <= 0) {
+            return this.incremental != null ? this.incremental.evaluate(player, opponent)
+                    : this.evaluator.evaluate(this.board, player, opponent);
+        }
+
+        final long hash = this.hash(player, opponent);
+        final long entry = this.table.probe(hash);
+        int tableMove = OthelloBitBoard.PASS;
+        if (entry != OthelloTranspositionTable.MISS) {
+            ++this.transpositionHits;
+            tableMove = OthelloTranspositionTable.move(entry);
+            if (OthelloTranspositionTable.depth(entry) >= depth) {
+                final int score = OthelloTranspositionTable.score(entry);
+                final int bound = OthelloTranspositionTable.bound(entry);
+                if (bound == OthelloTranspositionTable.BOUND_EXACT
+                        || bound == OthelloTranspositionTable.BOUND_LOWER && score >= beta
+                        || bound == OthelloTranspositionTable.BOUND_UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        final List<OthelloProbCut> cuts = this.probCut.getCuts(depth);
+        if (!cuts.isEmpty() && alpha > -OthelloEvaluator.WIN_SCORE && beta < OthelloEvaluator.WIN_SCORE) {
+            final int prediction = this.probCut(player, opponent, ply, alpha, beta, cuts);
+            if (this.aborted) {
+                return 0;
+            } else if (prediction > 0) {
+                return beta;
+            } else if (prediction < 0) {
+                return alpha;
+            }
+        }
+
+        final int[] moves = this.ordering.order(legal, tableMove, ply);
+        final int moveCount = Long.bitCount(legal);
+        int localAlpha = alpha;
+        int bestScore = -OthelloNegamaxSearcher.INFINITY;
+        int bestMoveHere = moves[0];
+        for (int index = 0; index < moveCount; ++index) {
+            final int move = moves[index];
+            final int score = this.searchMove(player, opponent, move, depth, ply, localAlpha, beta, index == 0);
+            if (this.aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMoveHere = move;
+                if (score > localAlpha) {
+                    localAlpha = score;
+                    if (score >= beta) {
+                        this.ordering.recordCutoff(move, ply, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        this.table.store(hash, depth, OthelloNegamaxSearcher.bound(bestScore, alpha, beta), bestScore, bestMoveHere);
+        return bestScore;
+    }
+
+    /**
+     * Tries to prune a node by shallow null-window searches around the bounds of the window, translated by the
+     * ProbCut checks into bounds for the shallow search.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param ply      The distance from the root.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @param cuts     The ProbCut checks for the remaining depth of the node.
+     * @return A positive number if the node is predicted to fail high, a negative number if it is predicted to fail
+     *         low, and zero if it has to be searched.
+     */
+    private int probCut(final long player, final long opponent, final int ply, final int alpha, final int beta,
+            final List<OthelloProbCut> cuts) {
+        final double threshold = this.probCut.getThreshold();
+        for (int index = 0; index < cuts.size(); ++index) {
+            final OthelloProbCut cut = cuts.get(index);
+            final int upper = cut.getShallowLowerBound(beta, threshold);
+            if (upper < OthelloEvaluator.WIN_SCORE
+                    && this.negamax(player, opponent, cut.getShallowDepth(), ply, upper - 1, upper) >= upper) {
+                return 1;
+            }
+            final int lower = cut.getShallowUpperBound(alpha, threshold);
+            if (!this.aborted && lower > -OthelloEvaluator.WIN_SCORE
+                    && this.negamax(player, opponent, cut.getShallowDepth(), ply, lower, lower + 1) <= lower) {
+                return -1;
+            }
+            if (this.aborted) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the hash of a position in the transposition table.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    private long hash(final long player, final long opponent) {
+        return this.board.hash(player, opponent) ^ this.salt;
+    }
+
+    /**
+     * Returns the kind of bound a score represents.
+     *
+     * @param score The score returned by the search of a node.
+     * @param alpha The lower bound of the window the node was searched with.
+     * @param beta  The upper bound of the window the node was searched with.
+     * @return One of {@link OthelloTranspositionTable#BOUND_LOWER}, {@link OthelloTranspositionTable#BOUND_UPPER}, and
+     *         {@link OthelloTranspositionTable#BOUND_EXACT}.
+     */
+    private static int bound(final int score, final int alpha, final int beta) {
+        if (score >= beta) {
+            return OthelloTranspositionTable.BOUND_LOWER;
+        } else if (score > alpha) {
+            return OthelloTranspositionTable.BOUND_EXACT;
+        } else {
+            return OthelloTranspositionTable.BOUND_UPPER;
+        }
+    }
+
+    /**
+     * Checks whether the search has to stop, and tells the other threads if so.
+     */
+    private boolean shouldStop() {
+        if (this.stop.get()) {
+            return true;
+        }
+        if (System.nanoTime() - this.deadline > 0L) {
+            this.stop.set(true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the score of a position at the end of the game.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    static int finalScore(final long player, final long opponent) {
+        return OthelloEndgameSolver.toEngineScore(OthelloEndgameSolver.discDifference(player, opponent));
+    }
+
+    /**
+     * Returns the number of positions visited.
+     */
+    long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Returns the number of successful transposition table lookups.
+     */
+    long getTranspositionHits() {
+        return this.transpositionHits;
+    }
+
+    /**
+     * Returns the number of moves searched again with the full window after their null-window search failed high.
+     */
+    long getResearches() {
+        return this.researches;
+    }
+
+    /**
+     * Returns the number of root searches which failed high on the aspiration window.
+     */
+    int getAspirationFailHighs() {
+        return this.aspirationFailHighs;
+    }
+
+    /**
+     * Returns the number of root searches which failed low on the aspiration window.
+     */
+    int getAspirationFailLows() {
+        return this.aspirationFailLows;
+    }
+
+    /**
+     * Returns the best move of the deepest completed iteration, or {@link OthelloBitBoard#PASS}.
+     */
+    int getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * Returns the score of the deepest completed iteration.
+     */
+    int getBestScore() {
+        return this.bestScore;
+    }
+
+    /**
+     * Returns the deepest completed iteration, or zero if none has been completed.
+     */
+    int getCompletedDepth() {
+        return this.completedDepth;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+
+/**
+ * A search of a predicted position running in the background while the opponent is thinking.
+ */
+final class OthelloPonderSearch implements Callable<OthelloSearchResult> {
+
+    /**
+     * The time in milliseconds between two requests to abort the search. The request is repeated, as it is lost if
+     * the search has not registered itself with the engine yet.
+     */
+    private static final long ABORT_INTERVAL_MILLIS = 1L;
+
+    /**
+     * The engine running the search.
+     */
+    private final OthelloSearchEngine engine;
+    /**
+     * The ID of the game.
+     */
+    private final int gameId;
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * The fields occupied by the player to move in the predicted position.
+     */
+    private final long player;
+    /**
+     * The fields occupied by the opponent in the predicted position.
+     */
+    private final long opponent;
+    /**
+     * The evaluator used for the search, if not the one of the engine.
+     */
+    private final Optional<OthelloEvaluator> evaluator;
+    /**
+     * Set when the result is no longer needed.
+     */
+    private final AtomicBoolean cancelled;
+    /**
+     * Set when the search has finished.
+     */
+    private final AtomicBoolean finished;
+    /**
+     * Run when the search has finished. Set by {@link #start(ExecutorService, Runnable)}.
+     */
+    private Runnable whenFinished;
+    /**
+     * The future of the search. Set by {@link #start(ExecutorService, Runnable)}.
+     */
+    private Future<OthelloSearchResult> future;
+
+    /**
+     * Creates a search of a predicted position.
+     *
+     * @param engine    The engine running the search.
+     * @param gameId    The ID of the game.
+     * @param board     The geometry of the board.
+     * @param player    The fields occupied by the player to move in the predicted position.
+     * @param opponent  The fields occupied by the opponent in the predicted position.
+     * @param evaluator The evaluator used for the search, if not the one of the engine.
+     */
+    OthelloPonderSearch(final OthelloSearchEngine engine, final int gameId, final OthelloBitBoard board,
+            final long player, final long opponent, final Optional<OthelloEvaluator> evaluator) {
+        this.engine = engine;
+        this.gameId = gameId;
+        this.board = board;
+        this.player = player;
+        this.opponent = opponent;
+        this.evaluator = evaluator;
+        this.cancelled = new AtomicBoolean();
+        this.finished = new AtomicBoolean();
+    }
+
+    /**
+     * Starts the search.
+     *
+     * @param executor     The executor running the search.
+     * @param whenFinished Run by the search when it has finished.
+     */
+    void start(final ExecutorService executor, final Runnable whenFinished) {
+        this.whenFinished = whenFinished;
+        this.future = executor.submit(this);
+    }
+
+    @Override
+    public OthelloSearchResult call() {
+        try {
+            if (this.cancelled.get()) {
+                return null;
+            }
+            return this.evaluator.isPresent()
+                    ? this.engine.search(this.gameId, this.board, this.player, this.opponent, this.evaluator.get())
+                    : this.engine.search(this.gameId, this.board, this.player, this.opponent);
+        } finally {
+            this.finished.set(true);
+            this.whenFinished.run();
+        }
+    }
+
+    /**
+     * Returns {@code true} if this search is for the given position and evaluator and has not been cancelled.
+     *
+     * @param actualBoard     The geometry of the board.
+     * @param actualPlayer    The fields occupied by the player to move.
+     * @param actualOpponent  The fields occupied by the opponent.
+     * @param actualEvaluator The evaluator to search with, if not the one of the engine.
+     */
+    boolean isFor(final OthelloBitBoard actualBoard, final long actualPlayer, final long actualOpponent,
+            final Optional<OthelloEvaluator> actualEvaluator) {
+        return !this.cancelled.get() && this.board == actualBoard && this.player == actualPlayer
+                && this.opponent == actualOpponent && this.evaluator.equals(actualEvaluator);
+    }
+
+    /**
+     * Returns {@code true} if the search has finished. Unlike {@link #isFinished()}, its result is available then.
+     */
+    boolean isDone() {
+        return this.future.isDone();
+    }
+
+    /**
+     * Returns {@code true} if the search has finished, which may be just before its result is available. The search
+     * has run its {@code whenFinished} action by then or is about to.
+     */
+    boolean isFinished() {
+        return this.finished.get();
+    }
+
+    /**
+     * Marks the result as no longer needed and asks the engine to abort the search, without waiting for it.
+     */
+    void cancel() {
+        this.cancelled.set(true);
+        this.engine.abortRequested(this.gameId);
+    }
+
+    /**
+     * Waits until the search has finished.
+     *
+     * @return The result of the search, or an empty {@link Optional} if the search has been cancelled.
+     */
+    Optional<OthelloSearchResult> await() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    final OthelloSearchResult result = this.future.get();
+                    return this.cancelled.get() ? Optional.empty() : Optional.ofNullable(result);
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    throw new IllegalStateException("The background search failed.", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Cancels the search and waits until it has finished, so that the engine is free to search the game again.
+     */
+    void stop() {
+        this.cancel();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                this.future.get(OthelloPonderSearch.ABORT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                break;
+            } catch (final TimeoutException e) {
+                this.engine.abortRequested(this.gameId);
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            } catch (final ExecutionException e) {
+                // the result is discarded anyway
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
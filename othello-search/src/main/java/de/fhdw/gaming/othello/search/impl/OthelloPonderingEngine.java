@@ -0,0 +1,318 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+
+/**
+ * Implements {@link OthelloSearchEngine} by another engine which keeps thinking while the opponent is.
+ * <p>
+ * After a move has been found, the position after that move and the predicted reply of the opponent is searched by a
+ * background thread. The reply is the one predicted by the other engine, or else the one leaving the fewest moves.
+ * When the next search of the game is requested for the predicted position while the background search is running,
+ * it is awaited and its result returned. For any other position or evaluator, the background search is aborted and
+ * its result discarded. A background search which has finished is dropped, so that nothing is kept for games which
+ * have ended, and the position is searched again, starting from everything the other engine has kept from it.
+ * <p>
+ * Background searches stop on {@link #abortRequested(int)} of their game and when their computation time is up, but
+ * not on {@link #reset()}, as other games may still be played. Their threads are daemon threads, which end when they
+ * have been idle for a minute or when their searches have finished after a reset. The other engine must allow
+ * searches of different games to run concurrently.
+ */
+public final class OthelloPonderingEngine implements OthelloSearchEngine {
+
+    /**
+     * The number used for naming the next background thread.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * The engine running the searches.
+     */
+    private final OthelloSearchEngine engine;
+    /**
+     * The background searches by game ID. A search is put here once it has started, and removes itself when it has
+     * finished.
+     */
+    private final Map<Integer, OthelloPonderSearch> ponderSearches;
+    /**
+     * The abort flags of the running searches by game ID.
+     */
+    private final Map<Integer, AtomicBoolean> abortFlags;
+    /**
+     * The number of searches of a predicted position.
+     */
+    private final AtomicLong ponderHits;
+    /**
+     * The number of background searches which have been discarded.
+     */
+    private final AtomicLong ponderMisses;
+    /**
+     * The executor running the background searches. Created on first use, and shut down on {@link #reset()}. Guarded
+     * by this engine, so that no search is started by an executor being shut down.
+     */
+    private ExecutorService ponderers;
+
+    /**
+     * Creates a pondering engine.
+     *
+     * @param engine The engine running the searches.
+     */
+    public OthelloPonderingEngine(final OthelloSearchEngine engine) {
+        this.engine = engine;
+        this.ponderSearches = new ConcurrentHashMap<>();
+        this.abortFlags = new ConcurrentHashMap<>();
+        this.ponderHits = new AtomicLong();
+        this.ponderMisses = new AtomicLong();
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent) {
+        return this.search(gameId, board, player, opponent, Optional.empty());
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final OthelloEvaluator evaluator) {
+        return this.search(gameId, board, player, opponent, Optional.of(evaluator));
+    }
+
+    @Override
+    public void abortRequested(final int gameId) {
+        final AtomicBoolean aborted = this.abortFlags.get(gameId);
+        if (aborted != null) {
+            aborted.set(true);
+        }
+        final OthelloPonderSearch ponderSearch = this.ponderSearches.get(gameId);
+        if (ponderSearch != null) {
+            ponderSearch.cancel();
+        }
+        this.engine.abortRequested(gameId);
+    }
+
+    @Override
+    public void reset() {
+        // the running background searches finish on their own, and their threads end afterwards
+        synchronized (this) {
+            if (this.ponderers != null) {
+                this.ponderers.shutdown();
+                this.ponderers = null;
+            }
+        }
+        this.engine.reset();
+    }
+
+    /**
+     * Returns the number of searches of a position which had been predicted and searched in the background.
+     */
+    public long getPonderHits() {
+        return this.ponderHits.get();
+    }
+
+    /**
+     * Returns the number of background searches which have been discarded because the position had been predicted
+     * wrongly or the game had been aborted.
+     */
+    public long getPonderMisses() {
+        return this.ponderMisses.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloPonderingEngine[hits=%d, misses=%d, engine=%s]",
+                this.ponderHits.get(),
+                this.ponderMisses.get(),
+                this.engine);
+    }
+
+    /**
+     * Searches a position, continuing the background search if it had been predicted, and starts the background
+     * search of the position predicted next.
+     *
+     * @param gameId    The ID of the game the position belongs to.
+     * @param board     The geometry of the board.
+     * @param player    The fields occupied by the player to move.
+     * @param opponent  The fields occupied by the opponent.
+     * @param evaluator The evaluator the other engine uses for this search, if not its own.
+     * @return The result of the search.
+     */
+    private OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final Optional<OthelloEvaluator> evaluator) {
+        final AtomicBoolean aborted = new AtomicBoolean();
+        this.abortFlags.put(gameId, aborted);
+        try {
+            Optional<OthelloSearchResult> result = Optional.empty();
+            final OthelloPonderSearch ponderSearch = this.ponderSearches.remove(gameId);
+            if (ponderSearch != null) {
+                if (ponderSearch.isFor(board, player, opponent, evaluator)) {
+                    this.ponderHits.incrementAndGet();
+                    if (ponderSearch.isDone()) {
+                        ponderSearch.await();
+                    } else {
+                        result = ponderSearch.await();
+                    }
+                } else {
+                    this.ponderMisses.incrementAndGet();
+                    ponderSearch.stop();
+                }
+            }
+            if (result.isEmpty()) {
+                result = Optional.of(
+                        evaluator.isPresent() ? this.engine.search(gameId, board, player, opponent, evaluator.get())
+                                : this.engine.search(gameId, board, player, opponent));
+            }
+            if (!aborted.get()) {
+                this.startPondering(gameId, board, player, opponent, evaluator, aborted, result.get());
+            }
+            return result.get();
+        } finally {
+            this.abortFlags.remove(gameId, aborted);
+        }
+    }
+
+    /**
+     * Starts the background search of the position after a move and the predicted reply, unless the game is over.
+     *
+     * @param gameId    The ID of the game.
+     * @param board     The geometry of the board.
+     * @param player    The fields occupied by the player to move.
+     * @param opponent  The fields occupied by the opponent.
+     * @param evaluator The evaluator the position has been searched with, if not the one of the other engine.
+     * @param aborted   Set when the game is aborted.
+     * @param result    The result of the search of the position.
+     */
+    private void startPondering(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final Optional<OthelloEvaluator> evaluator, final AtomicBoolean aborted,
+            final OthelloSearchResult result) {
+        // the position after the move, with the opponent to move
+        final long flipped = result.isPass() ? 0L : board.flips(player, opponent, result.getBestMove());
+        final long replying = opponent & ~flipped;
+        final long waiting = result.isPass() ? player : player | flipped | 1L << result.getBestMove();
+        final long replies = board.legalMoves(replying, waiting);
+        if (replies == 0L && board.legalMoves(waiting, replying) == 0L) {
+            return;
+        }
+
+        final OptionalInt predictedReply = result.getPredictedReply();
+        final int reply = predictedReply.isPresent()
+                && OthelloPonderingEngine.isLegal(predictedReply.getAsInt(), replies)
+                        ? predictedReply.getAsInt()
+                        : OthelloPonderingEngine.predictReply(board, replying, waiting, replies);
+        final long replyFlipped = reply == OthelloBitBoard.PASS ? 0L : board.flips(replying, waiting, reply);
+        final long nextPlayer = waiting & ~replyFlipped;
+        final long nextOpponent = reply == OthelloBitBoard.PASS ? replying : replying | replyFlipped | 1L << reply;
+        if (board.legalMoves(nextPlayer, nextOpponent) == 0L && board.legalMoves(nextOpponent, nextPlayer) == 0L) {
+            return;
+        }
+
+        final OthelloPonderSearch ponderSearch = new OthelloPonderSearch(
+                this.engine,
+                gameId,
+                board,
+                nextPlayer,
+                nextOpponent,
+                evaluator);
+        final Runnable unpublish = () -> this.ponderSearches.remove(gameId, ponderSearch);
+        synchronized (this) {
+            ponderSearch.start(this.getPonderers(), unpublish);
+        }
+        final OthelloPonderSearch previous = this.ponderSearches.put(gameId, ponderSearch);
+        if (previous != null) {
+            // another search of the same game has finished in the meantime
+            previous.stop();
+        }
+        if (ponderSearch.isFinished()) {
+            // the search has finished before it could remove itself
+            unpublish.run();
+        }
+        if (aborted.get()) {
+            // the game has been aborted before the search could be found
+            ponderSearch.cancel();
+        }
+    }
+
+    /**
+     * Returns {@code true} if a move is legal.
+     *
+     * @param move  The move, or {@link OthelloBitBoard#PASS}.
+     * @param legal The legal moves.
+     */
+    private static boolean isLegal(final int move, final long legal) {
+        return move == OthelloBitBoard.PASS ? legal == 0L : (legal >>> move & 1L) != 0L;
+    }
+
+    /**
+     * Predicts the reply of the opponent as the move leaving the fewest moves to the player, if the engine has not
+     * predicted any.
+     *
+     * @param board    The geometry of the board.
+     * @param replying The fields occupied by the opponent, who is to move.
+     * @param waiting  The fields occupied by the player.
+     * @param replies  The legal moves of the opponent.
+     * @return The reply, or {@link OthelloBitBoard#PASS} if the opponent has to skip.
+     */
+    private static int predictReply(final OthelloBitBoard board, final long replying, final long waiting,
+            final long replies) {
+        int bestReply = OthelloBitBoard.PASS;
+        int fewestMoves = Integer.MAX_VALUE;
+        for (long remaining = replies; remaining != 0L; remaining &= remaining - 1L) {
+            final int reply = Long.numberOfTrailingZeros(remaining);
+            final long flipped = board.flips(replying, waiting, reply);
+            final int moves = Long.bitCount(board.legalMoves(waiting & ~flipped, replying | flipped | 1L << reply));
+            if (moves < fewestMoves) {
+                bestReply = reply;
+                fewestMoves = moves;
+            }
+        }
+        return bestReply;
+    }
+
+    /**
+     * Returns the executor running the background searches, creating it if necessary.
+     */
+    private synchronized ExecutorService getPonderers() {
+        if (this.ponderers == null) {
+            final ThreadFactory threadFactory = (final Runnable runnable) -> {
+                final Thread thread = new Thread(
+                        runnable,
+                        "othello-ponder-" + OthelloPonderingEngine.THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.ponderers = Executors.newCachedThreadPool(threadFactory);
+        }
+        return this.ponderers;
+    }
+}
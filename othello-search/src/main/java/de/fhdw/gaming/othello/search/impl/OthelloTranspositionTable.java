@@ -0,0 +1,295 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.Arrays;
+import java.util.OptionalInt;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+
+/**
+ * A lock-free transposition table shared by all threads of a search engine.
+ * <p>
+ * Each entry consists of two {@code long}s: the key XOR-ed with the data, and the data itself. A reader recomputes the
+ * key from both words, so an entry which has been torn by concurrent writers simply does not match and is treated as a
+ * miss. No locks or atomic operations are needed.
+ * <p>
+ * The table is organised in buckets of two entries. The first entry of a bucket keeps the deepest result of the
+ * current search, the second one is always replaced.
+ * <p>
+ * Searches evaluating by different evaluators may share a table if each XORs the {@link #salt(OthelloEvaluator) salt}
+ * of its evaluator into the hashes, which keeps their entries apart.
+ * <p>
+ * The data word is laid out as follows:
+ * <ul>
+ * <li>bits 0-31: the score,</li>
+ * <li>bits 32-39: the remaining depth,</li>
+ * <li>bits 40-41: the {@link #BOUND_LOWER bound},</li>
+ * <li>bits 42-48: the best move plus one (zero if unknown),</li>
+ * <li>bits 49-56: the generation of the search which stored the entry.</li>
+ * </ul>
+ */
+public final class OthelloTranspositionTable {
+
+    /**
+     * The score is a lower bound of the true value.
+     */
+    public static final int BOUND_LOWER = 1;
+    /**
+     * The score is an upper bound of the true value.
+     */
+    public static final int BOUND_UPPER = 2;
+    /**
+     * The score is the true value.
+     */
+    public static final int BOUND_EXACT = BOUND_LOWER | BOUND_UPPER;
+    /**
+     * The data returned by {@link #probe(long)} if there is no entry.
+     */
+    public static final long MISS = 0L;
+
+    /**
+     * The multiplier spreading the hash code of an evaluator over the bits of a salt.
+     */
+    private static final long SALT_MULTIPLIER = 0xD6E8FEB86659FD93L;
+    /**
+     * The number of {@code long}s per entry.
+     */
+    private static final int ENTRY_LENGTH = 2;
+    /**
+     * The number of {@code long}s per bucket.
+     */
+    private static final int BUCKET_LENGTH = 2 * OthelloTranspositionTable.ENTRY_LENGTH;
+    /**
+     * The mask for a byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * The entries.
+     */
+    private final long[] entries;
+    /**
+     * The mask selecting a bucket from a hash.
+     */
+    private final int bucketMask;
+    /**
+     * The generation of the current search.
+     */
+    private volatile int generation;
+
+    /**
+     * Creates a transposition table.
+     *
+     * @param bits The binary logarithm of the number of entries.
+     */
+    public OthelloTranspositionTable(final int bits) {
+        this.entries = new long[(1 << bits) * OthelloTranspositionTable.ENTRY_LENGTH];
+        this.bucketMask = (1 << bits - 1) - 1;
+    }
+
+    /**
+     * Computes the salt of an evaluator. Equal evaluators have the same salt.
+     *
+     * @param evaluator The evaluator.
+     * @return The salt.
+     */
+    public static long salt(final OthelloEvaluator evaluator) {
+        return evaluator.hashCode() * OthelloTranspositionTable.SALT_MULTIPLIER;
+    }
+
+    /**
+     * Starts a new search, so that entries of older searches are preferably replaced.
+     */
+    public void newSearch() {
+        this.generation = this.generation + 1 & OthelloTranspositionTable.BYTE_MASK;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(this.entries, 0L);
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param hash The hash of the position.
+     * @return The data of the entry, or {@link #MISS}.
+     */
+    public long probe(final long hash) {
+        final int bucket = this.bucketIndex(hash);
+        for (int index = bucket; index < bucket + OthelloTranspositionTable.BUCKET_LENGTH;
+                index += OthelloTranspositionTable.ENTRY_LENGTH) {
+            final long data = this.entries[index + 1];
+            if ((this.entries[index] ^ data) == hash && data != OthelloTranspositionTable.MISS) {
+                return data;
+            }
+        }
+        return OthelloTranspositionTable.MISS;
+    }
+
+    /**
+     * Looks up the best reply to a move. The reply is only returned if it is legal, as a different position may have
+     * stored it.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player making the move.
+     * @param opponent The fields occupied by the opponent.
+     * @param move     The move, or {@link OthelloBitBoard#PASS}.
+     * @return The best reply stored, or {@link OthelloBitBoard#PASS} if the opponent has to skip. Empty if no legal
+     *         reply is stored.
+     */
+    public OptionalInt probeReply(final OthelloBitBoard board, final long player, final long opponent,
+            final int move) {
+        return this.probeReply(board, player, opponent, move, 0L);
+    }
+
+    /**
+     * Looks up the best reply to a move stored by a search with a salt.
+     *
+     * @param board    The geometry of the board.
+     * @param player   The fields occupied by the player making the move.
+     * @param opponent The fields occupied by the opponent.
+     * @param move     The move, or {@link OthelloBitBoard#PASS}.
+     * @param salt     The {@link #salt(OthelloEvaluator) salt} XOR-ed into the hashes by the search.
+     * @return The best reply stored, or {@link OthelloBitBoard#PASS} if the opponent has to skip. Empty if no legal
+     *         reply is stored.
+     */
+    public OptionalInt probeReply(final OthelloBitBoard board, final long player, final long opponent,
+            final int move, final long salt) {
+        long nextPlayer = opponent;
+        long nextOpponent = player;
+        if (move != OthelloBitBoard.PASS) {
+            final long flipped = board.flips(player, opponent, move);
+            nextPlayer = opponent & ~flipped;
+            nextOpponent = player | flipped | 1L << move;
+        }
+        final long legal = board.legalMoves(nextPlayer, nextOpponent);
+        if (legal == 0L) {
+            return OptionalInt.of(OthelloBitBoard.PASS);
+        }
+        final int reply = OthelloTranspositionTable
+                .move(this.probe(board.hash(nextPlayer, nextOpponent) ^ salt));
+        if (reply < 0 || (legal >>> reply & 1L) == 0L) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(reply);
+    }
+
+    /**
+     * Stores the result of a search.
+     *
+     * @param hash  The hash of the position.
+     * @param depth The remaining depth of the search.
+     * @param bound The kind of bound the score represents.
+     * @param score The score.
+     * @param move  The best move, or a negative value if unknown.
+     */
+    public void store(final long hash, final int depth, final int bound, final int score, final int move) {
+        final int currentGeneration = this.generation;
+        final long data = score & 0xFFFFFFFFL
+                | (long) Math.min(depth, OthelloTranspositionTable.BYTE_MASK) << 32
+                | (long) bound << 40
+                | (long) (move + 1) << 42
+                | (long) currentGeneration << 49;
+        final int bucket = this.bucketIndex(hash);
+        final long deepData = this.entries[bucket + 1];
+        final boolean deepSameKey = (this.entries[bucket] ^ deepData) == hash;
+        if (deepData == OthelloTranspositionTable.MISS || deepSameKey
+                || OthelloTranspositionTable.depth(deepData) <= depth
+                || OthelloTranspositionTable.generation(deepData) != currentGeneration) {
+            if (!deepSameKey || move >= 0 || OthelloTranspositionTable.move(deepData) < 0) {
+                this.write(bucket, hash, data);
+            } else {
+                this.write(bucket, hash, data | (long) (OthelloTranspositionTable.move(deepData) + 1) << 42);
+            }
+        } else {
+            this.write(bucket + OthelloTranspositionTable.ENTRY_LENGTH, hash, data);
+        }
+    }
+
+    /**
+     * Writes an entry.
+     *
+     * @param index The index of the entry.
+     * @param hash  The hash of the position.
+     * @param data  The data.
+     */
+    private void write(final int index, final long hash, final long data) {
+        this.entries[index] = hash ^ data;
+        this.entries[index + 1] = data;
+    }
+
+    /**
+     * Returns the index of the first entry of the bucket of a hash.
+     *
+     * @param hash The hash.
+     */
+    private int bucketIndex(final long hash) {
+        return ((int) hash & this.bucketMask) * OthelloTranspositionTable.BUCKET_LENGTH;
+    }
+
+    /**
+     * Returns the score of an entry.
+     *
+     * @param data The data of the entry.
+     */
+    public static int score(final long data) {
+        return (int) data;
+    }
+
+    /**
+     * Returns the remaining depth of an entry.
+     *
+     * @param data The data of the entry.
+     */
+    public static int depth(final long data) {
+        return (int) (data >>> 32) & OthelloTranspositionTable.BYTE_MASK;
+    }
+
+    /**
+     * Returns the bound of an entry.
+     *
+     * @param data The data of the entry.
+     */
+    public static int bound(final long data) {
+        return (int) (data >>> 40) & OthelloTranspositionTable.BOUND_EXACT;
+    }
+
+    /**
+     * Returns the best move of an entry, or a negative value if unknown.
+     *
+     * @param data The data of the entry.
+     */
+    public static int move(final long data) {
+        return ((int) (data >>> 42) & 0x7F) - 1;
+    }
+
+    /**
+     * Returns the generation of an entry.
+     *
+     * @param data The data of the entry.
+     */
+    private static int generation(final long data) {
+        return (int) (data >>> 49) & OthelloTranspositionTable.BYTE_MASK;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.OthelloSearchStatistics;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+
+/**
+ * Implements {@link OthelloSearchEngine} by an iterative deepening search whose iterations are parallelized according
+ * to the "Young Brothers Wait Concept".
+ * <p>
+ * Each iteration is a {@link OthelloYoungBrothersWaitTask} run on a dedicated {@link ForkJoinPool}, so that the search
+ * neither competes with nor is blocked by other users of the common pool. Each search leases its threads from an
+ * {@link OthelloThreadBudget} and runs on a pool whose parallelism is the number of threads granted, as the
+ * parallelism of a pool cannot be changed; the pools are created on first use.
+ * <p>
+ * In contrast to {@link OthelloLazySmpEngine}, no transposition table is used and the move order depends on the
+ * position only. Hence, the best move and the score of an iteration are identical to those of a sequential search to
+ * the same depth, regardless of the number of threads.
+ */
+public final class OthelloYoungBrothersWaitEngine implements OthelloSearchEngine {
+
+    /**
+     * The remaining depth below which the siblings of a node are searched sequentially. Splitting closer to the leaves
+     * costs more in task management than it gains in parallelism.
+     */
+    private static final int SPLIT_DEPTH = 4;
+
+    /**
+     * The number used for naming the next worker thread.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * The evaluator used at the leaves unless a search brings its own.
+     */
+    private final OthelloEvaluator evaluator;
+    /**
+     * The maximum parallelism of the fork/join pools.
+     */
+    private final int threadCount;
+    /**
+     * The budget the threads of a search are leased from.
+     */
+    private final OthelloThreadBudget threadBudget;
+    /**
+     * The computation time per move in milliseconds.
+     */
+    private final long searchTimeMillis;
+    /**
+     * The maximum depth of the iterative deepening.
+     */
+    private final int maximumDepth;
+    /**
+     * The stop flags of the running searches by game ID.
+     */
+    private final Map<Integer, AtomicBoolean> stopFlags;
+    /**
+     * The fork/join pools running the tasks, indexed by their parallelism. Created on first use.
+     */
+    private final ForkJoinPool[] pools;
+
+    /**
+     * Creates a "Young Brothers Wait" engine leasing its threads from the {@link OthelloThreadBudget#getShared()
+     * shared} budget.
+     *
+     * @param evaluator        The evaluator used at the leaves.
+     * @param threadCount      The maximum parallelism of the fork/join pools.
+     * @param searchTimeMillis The computation time per move in milliseconds.
+     * @param maximumDepth     The maximum depth of the iterative deepening.
+     */
+    public OthelloYoungBrothersWaitEngine(final OthelloEvaluator evaluator, final int threadCount,
+            final long searchTimeMillis, final int maximumDepth) {
+        this(evaluator, threadCount, searchTimeMillis, maximumDepth, OthelloThreadBudget.getShared());
+    }
+
+    /**
+     * Creates a "Young Brothers Wait" engine.
+     *
+     * @param evaluator        The evaluator used at the leaves.
+     * @param threadCount      The maximum parallelism of the fork/join pools.
+     * @param searchTimeMillis The computation time per move in milliseconds.
+     * @param maximumDepth     The maximum depth of the iterative deepening.
+     * @param threadBudget     The budget the threads of a search are leased from.
+     */
+    public OthelloYoungBrothersWaitEngine(final OthelloEvaluator evaluator, final int threadCount,
+            final long searchTimeMillis, final int maximumDepth, final OthelloThreadBudget threadBudget) {
+        this.evaluator = evaluator;
+        this.threadCount = threadCount;
+        this.threadBudget = threadBudget;
+        this.searchTimeMillis = searchTimeMillis;
+        this.maximumDepth = maximumDepth;
+        this.stopFlags = new ConcurrentHashMap<>();
+        this.pools = new ForkJoinPool[threadCount + 1];
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent) {
+        return this.search(gameId, board, player, opponent, this.evaluator);
+    }
+
+    @Override
+    public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+            final long opponent, final OthelloEvaluator searchEvaluator) {
+        final long startTime = System.nanoTime();
+        final long legal = board.legalMoves(player, opponent);
+        if (legal == 0L) {
+            return new OthelloSearchResult(OthelloBitBoard.PASS, 0, OthelloSearchStatistics.EMPTY);
+        }
+        if (Long.bitCount(legal) == 1) {
+            return new OthelloSearchResult(Long.numberOfTrailingZeros(legal), 0, OthelloSearchStatistics.EMPTY);
+        }
+
+        final AtomicBoolean stop = new AtomicBoolean();
+        this.stopFlags.put(gameId, stop);
+        try (OthelloThreadBudget.Lease lease = this.threadBudget.acquire(this.threadCount)) {
+            final ForkJoinPool pool = this.getPool(lease.getThreadCount());
+            final long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(this.searchTimeMillis);
+            final int empties = Long.bitCount(board.emptySquares(player, opponent));
+            final int lastDepth = Math.min(this.maximumDepth, empties);
+            int bestMove = Long.numberOfTrailingZeros(legal);
+            int bestScore = 0;
+            int completedDepth = 0;
+            long nodes = 0L;
+            for (int depth = 1; depth <= lastDepth; ++depth) {
+                final OthelloYoungBrothersWaitSearch search = new OthelloYoungBrothersWaitSearch(
+                        board,
+                        searchEvaluator,
+                        OthelloYoungBrothersWaitEngine.SPLIT_DEPTH,
+                        stop,
+                        deadline);
+                final OthelloYoungBrothersWaitTask root = new OthelloYoungBrothersWaitTask(
+                        search,
+                        player,
+                        opponent,
+                        depth,
+                        -OthelloNegamaxSearcher.INFINITY,
+                        OthelloNegamaxSearcher.INFINITY,
+                        true,
+                        null);
+                final int score = pool.invoke(root);
+                nodes += search.getNodes();
+                if (search.isStopped()) {
+                    break;
+                }
+                bestMove = root.getBestMove();
+                bestScore = score;
+                completedDepth = depth;
+                // the next iteration would take several times as long as all iterations so far
+                if (System.nanoTime() - startTime > (deadline - startTime) / 2) {
+                    break;
+                }
+            }
+
+            final OthelloSearchStatistics statistics = new OthelloSearchStatistics(
+                    completedDepth,
+                    nodes,
+                    0L,
+                    System.nanoTime() - startTime,
+                    lease.getThreadCount());
+            return new OthelloSearchResult(bestMove, bestScore, statistics);
+        } finally {
+            this.stopFlags.remove(gameId, stop);
+        }
+    }
+
+    @Override
+    public void abortRequested(final int gameId) {
+        final AtomicBoolean stop = this.stopFlags.get(gameId);
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    @Override
+    public void reset() {
+        // nothing is kept between searches
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloYoungBrothersWaitEngine[threads=%d, searchTime=%d ms, evaluator=%s]",
+                this.threadCount,
+                this.searchTimeMillis,
+                this.evaluator);
+    }
+
+    /**
+     * Returns the fork/join pool of a parallelism, creating it if necessary. Idle workers of a pool terminate after a
+     * while, so pools which are rarely used do not keep their threads.
+     *
+     * @param parallelism The parallelism.
+     */
+    private synchronized ForkJoinPool getPool(final int parallelism) {
+        if (this.pools[parallelism] == null) {
+            final ForkJoinWorkerThreadFactory threadFactory = (final ForkJoinPool forkJoinPool) -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+                        .newThread(forkJoinPool);
+                thread.setName(
+                        "othello-search-worker-" + OthelloYoungBrothersWaitEngine.THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.pools[parallelism] = new ForkJoinPool(parallelism, threadFactory, null, false);
+        }
+        return this.pools[parallelism];
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+
+/**
+ * Holds the state shared by all {@link OthelloYoungBrothersWaitTask tasks} of one iteration of a parallel search.
+ * <p>
+ * The move order depends on nothing but the position, so that a parallel and a sequential search visit the moves in
+ * the same order and therefore choose the same best move.
+ */
+final class OthelloYoungBrothersWaitSearch {
+
+    /**
+     * The remaining depth below which the moves are searched in the order of their squares instead of being sorted by
+     * the evaluation of the resulting positions.
+     */
+    private static final int SORTING_DEPTH = 3;
+
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * The evaluator used at the leaves and for ordering the moves.
+     */
+    private final OthelloEvaluator evaluator;
+    /**
+     * The remaining depth below which the siblings of a node are searched sequentially.
+     */
+    private final int splitDepth;
+    /**
+     * The shared flag which stops all tasks of the search.
+     */
+    private final AtomicBoolean stop;
+    /**
+     * The value of {@link System#nanoTime()} at which the search has to stop.
+     */
+    private final long deadline;
+    /**
+     * The number of positions visited by all tasks.
+     */
+    private final LongAdder nodes;
+
+    /**
+     * Creates the shared state of a search.
+     *
+     * @param board      The geometry of the board.
+     * @param evaluator  The evaluator used at the leaves and for ordering the moves.
+     * @param splitDepth The remaining depth below which the siblings of a node are searched sequentially.
+     * @param stop       The shared flag which stops all tasks of the search.
+     * @param deadline   The value of {@link System#nanoTime()} at which the search has to stop.
+     */
+    OthelloYoungBrothersWaitSearch(final OthelloBitBoard board, final OthelloEvaluator evaluator, final int splitDepth,
+            final AtomicBoolean stop, final long deadline) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.splitDepth = splitDepth;
+        this.stop = stop;
+        this.deadline = deadline;
+        this.nodes = new LongAdder();
+    }
+
+    /**
+     * Returns the geometry of the board.
+     */
+    OthelloBitBoard getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Returns the evaluator used at the leaves.
+     */
+    OthelloEvaluator getEvaluator() {
+        return this.evaluator;
+    }
+
+    /**
+     * Returns the remaining depth below which the siblings of a node are searched sequentially.
+     */
+    int getSplitDepth() {
+        return this.splitDepth;
+    }
+
+    /**
+     * Returns the number of positions visited by all tasks so far.
+     */
+    long getNodes() {
+        return this.nodes.sum();
+    }
+
+    /**
+     * Adds to the number of positions visited.
+     *
+     * @param count The number of positions visited by a task.
+     */
+    void addNodes(final long count) {
+        this.nodes.add(count);
+    }
+
+    /**
+     * Returns whether the search has been stopped, stopping it if the deadline has passed.
+     */
+    boolean shouldStop() {
+        if (this.stop.get()) {
+            return true;
+        }
+        if (System.nanoTime() - this.deadline > 0L) {
+            this.stop.set(true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the search has been stopped.
+     */
+    boolean isStopped() {
+        return this.stop.get();
+    }
+
+    /**
+     * Returns the legal moves of a position in the order they are to be searched. Near the leaves, the moves are
+     * ordered by their squares. Otherwise, they are sorted by the evaluation of the resulting position, ties being
+     * broken by the squares.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param legal    The legal moves. Must not be empty.
+     * @param depth    The remaining depth.
+     * @return The squares of the moves.
+     */
+    int[] orderMoves(final long player, final long opponent, final long legal, final int depth) {
+        final int[] moves = new int[Long.bitCount(legal)];
+        long remaining = legal;
+        for (int i = 0; i < moves.length; ++i) {
+            moves[i] = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1L;
+        }
+        if (depth < OthelloYoungBrothersWaitSearch.SORTING_DEPTH) {
+            return moves;
+        }
+
+        // the evaluation is from the view of the opponent, so smaller keys are better moves
+        final int[] keys = new int[moves.length];
+        for (int i = 0; i < moves.length; ++i) {
+            final long flipped = this.board.flips(player, opponent, moves[i]);
+            final int key = this.evaluator
+                    .evaluate(this.board, opponent & ~flipped, player | flipped | 1L << moves[i]);
+            final int move = moves[i];
+            int j = i;
+            while (j > 0 && keys[j - 1] > key) {
+                keys[j] = keys[j - 1];
+                moves[j] = moves[j - 1];
+                --j;
+            }
+            keys[j] = key;
+            moves[j] = move;
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import java.util.concurrent.RecursiveTask;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * Searches a position by a fail-hard alpha-beta search in negamax form, splitting according to the "Young Brothers
+ * Wait Concept": the first child of a node is searched before its younger siblings, which are then searched in
+ * parallel using the bound established by the first child.
+ * <p>
+ * A fail-hard alpha-beta search returns the minimax value clamped to its window, no matter in which order or with
+ * which narrower windows the children are searched. Together with the position-only move order of
+ * {@link OthelloYoungBrothersWaitSearch#orderMoves(long, long, long, int)}, this makes the parallel search return
+ * exactly the same score and best move as the sequential one.
+ * <p>
+ * If a younger brother fails high, the remaining brothers of the node are not needed any more. Those which have not
+ * started yet are cancelled, and those already running are {@link #cutOff() cut off}: every task checks whether it or
+ * one of the tasks it has been forked by has been cut off before each move, and returns at once if so. Its result is
+ * arbitrary then, but it is discarded by the node which caused the cutoff.
+ */
+final class OthelloYoungBrothersWaitTask extends RecursiveTask<Integer> {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of nodes between two checks of the clock (minus one).
+     */
+    private static final long CHECK_MASK = 1023L;
+
+    /**
+     * The shared state of the search.
+     */
+    private final transient OthelloYoungBrothersWaitSearch search;
+    /**
+     * The fields occupied by the player to move.
+     */
+    private final long player;
+    /**
+     * The fields occupied by the opponent.
+     */
+    private final long opponent;
+    /**
+     * The remaining depth.
+     */
+    private final int depth;
+    /**
+     * The lower bound of the window.
+     */
+    private final int alpha;
+    /**
+     * The upper bound of the window.
+     */
+    private final int beta;
+    /**
+     * Whether this task searches the root, i.e. has to determine the best move.
+     */
+    private final boolean root;
+    /**
+     * The task which has forked this task, or {@code null} for the root task.
+     */
+    private final transient OthelloYoungBrothersWaitTask parent;
+
+    /**
+     * Set if the result of this task is not needed any more since a brother has caused a cutoff.
+     */
+    private volatile boolean cutOff;
+    /**
+     * The number of positions visited by this task.
+     */
+    private long nodes;
+    /**
+     * The best move if this task searches the root.
+     */
+    private int bestMove;
+
+    /**
+     * Creates a task.
+     *
+     * @param search   The shared state of the search.
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param depth    The remaining depth.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @param root     Whether this task searches the root, i.e. has to determine the best move.
+     * @param parent   The task which forks this task, or {@code null} for the root task.
+     */
+    OthelloYoungBrothersWaitTask(final OthelloYoungBrothersWaitSearch search, final long player, final long opponent,
+            final int depth, final int alpha, final int beta, final boolean root,
+            final OthelloYoungBrothersWaitTask parent) {
+        this.search = search;
+        this.parent = parent;
+        this.player = player;
+        this.opponent = opponent;
+        this.depth = depth;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.root = root;
+        this.bestMove = OthelloBitBoard.PASS;
+    }
+
+    /**
+     * Returns the best move found if this task searched the root.
+     */
+    int getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * Cuts this task off, i.e. makes it and all tasks forked by it return as soon as possible.
+     */
+    void cutOff() {
+        this.cutOff = true;
+    }
+
+    /**
+     * Returns whether this task or one of the tasks it has been forked by has been cut off.
+     */
+    boolean isCutOff() {
+        for (OthelloYoungBrothersWaitTask task = this; task != null; task = task.parent) {
+            if (task.cutOff) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected Integer compute() {
+        try {
+            if (this.root) {
+                return this.searchRoot();
+            }
+            return this.split(this.player, this.opponent, this.depth, this.alpha, this.beta);
+        } finally {
+            this.search.addNodes(this.nodes);
+        }
+    }
+
+    /**
+     * Searches the root. The root has to have a legal move. Of several moves with the best score, the first one in the
+     * move order is chosen, just as a sequential search does.
+     *
+     * @return The score of the root.
+     */
+    private int searchRoot() {
+        ++this.nodes;
+        final OthelloBitBoard board = this.search.getBoard();
+        final int[] moves = this.search
+                .orderMoves(this.player, this.opponent, board.legalMoves(this.player, this.opponent), this.depth);
+
+        this.bestMove = moves[0];
+        int best = -this.searchChild(moves[0], this.depth - 1, -this.beta, -this.alpha);
+        if (moves.length == 1 || best >= this.beta) {
+            return best;
+        }
+
+        final OthelloYoungBrothersWaitTask[] brothers = this
+                .createBrothers(this.player, this.opponent, moves, this.depth, Math.max(this.alpha, best), this.beta);
+        OthelloYoungBrothersWaitTask.forkYoungerBrothers(brothers);
+        for (int i = 1; i < moves.length; ++i) {
+            final int score = -(i == 1 ? brothers[i].invoke() : brothers[i].join());
+            if (score > best) {
+                best = score;
+                this.bestMove = moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches a node, splitting it if it is far enough from the leaves.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param depth    The remaining depth.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @return The score of the position clamped to the window, or an arbitrary value if the search has been stopped or
+     *         this task has been cut off.
+     */
+    private int split(final long player, final long opponent, final int depth, final int alpha, final int beta) {
+        if (depth < this.search.getSplitDepth()) {
+            return this.alphaBeta(player, opponent, depth, alpha, beta);
+        }
+        ++this.nodes;
+        if (this.search.shouldStop() || this.isCutOff()) {
+            return 0;
+        }
+
+        final OthelloBitBoard board = this.search.getBoard();
+        final long legal = board.legalMoves(player, opponent);
+        if (legal == 0L) {
+            if (board.legalMoves(opponent, player) == 0L) {
+                return Math.max(alpha, Math.min(beta, OthelloNegamaxSearcher.finalScore(player, opponent)));
+            }
+            return -this.split(opponent, player, depth, -beta, -alpha);
+        }
+
+        final int[] moves = this.search.orderMoves(player, opponent, legal, depth);
+        final long flipped = board.flips(player, opponent, moves[0]);
+        final int eldest = -this
+                .split(opponent & ~flipped, player | flipped | 1L << moves[0], depth - 1, -beta, -alpha);
+        if (eldest >= beta) {
+            return beta;
+        }
+        final int bound = Math.max(alpha, eldest);
+        if (moves.length == 1 || this.isCutOff()) {
+            return bound;
+        }
+
+        final OthelloYoungBrothersWaitTask[] brothers = this
+                .createBrothers(player, opponent, moves, depth, bound, beta);
+        OthelloYoungBrothersWaitTask.forkYoungerBrothers(brothers);
+        int best = bound;
+        for (int i = 1; i < brothers.length; ++i) {
+            final int score = -(i == 1 ? brothers[i].invoke() : brothers[i].join());
+            if (score >= beta) {
+                // the remaining brothers are not needed any more, whether they have started or not
+                for (int j = i + 1; j < brothers.length; ++j) {
+                    brothers[j].cutOff();
+                    brothers[j].cancel(false);
+                }
+                for (int j = i + 1; j < brothers.length; ++j) {
+                    brothers[j].quietlyJoin();
+                }
+                return beta;
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    /**
+     * Searches a child of the root, splitting it if it is far enough from the leaves.
+     *
+     * @param move  The move leading to the child.
+     * @param depth The remaining depth of the child.
+     * @param alpha The lower bound of the window of the child.
+     * @param beta  The upper bound of the window of the child.
+     * @return The score of the child clamped to the window.
+     */
+    private int searchChild(final int move, final int depth, final int alpha, final int beta) {
+        final long flipped = this.search.getBoard().flips(this.player, this.opponent, move);
+        return this.split(this.opponent & ~flipped, this.player | flipped | 1L << move, depth, alpha, beta);
+    }
+
+    /**
+     * Forks all tasks but the first one, which is to be run by the current thread. The tasks are forked in reverse
+     * order, so that the current thread, which takes its own tasks from the top of its queue, finds the next one to
+     * join first.
+     *
+     * @param brothers The tasks searching all children of a node but the first one. The first entry is {@code null}.
+     */
+    private static void forkYoungerBrothers(final OthelloYoungBrothersWaitTask[] brothers) {
+        for (int i = brothers.length - 1; i > 1; --i) {
+            brothers[i].fork();
+        }
+    }
+
+    /**
+     * Creates the tasks searching all children of a node but the first one.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param moves    The moves of the node in search order.
+     * @param depth    The remaining depth of the node.
+     * @param alpha    The lower bound of the window of the node.
+     * @param beta     The upper bound of the window of the node.
+     * @return The tasks, indexed like the moves. The first entry is {@code null}.
+     */
+    private OthelloYoungBrothersWaitTask[] createBrothers(final long player, final long opponent, final int[] moves,
+            final int depth, final int alpha, final int beta) {
+        final OthelloBitBoard board = this.search.getBoard();
+        final OthelloYoungBrothersWaitTask[] brothers = new OthelloYoungBrothersWaitTask[moves.length];
+        for (int i = 1; i < moves.length; ++i) {
+            final long flipped = board.flips(player, opponent, moves[i]);
+            brothers[i] = new OthelloYoungBrothersWaitTask(
+                    this.search,
+                    opponent & ~flipped,
+                    player | flipped | 1L << moves[i],
+                    depth - 1,
+                    -beta,
+                    -alpha,
+                    false,
+                    this);
+        }
+        return brothers;
+    }
+
+    /**
+     * Searches a node sequentially.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param depth    The remaining depth.
+     * @param alpha    The lower bound of the window.
+     * @param beta     The upper bound of the window.
+     * @return The score of the position clamped to the window, or an arbitrary value if the search has been stopped or
+     *         this task has been cut off.
+     */
+    int alphaBeta(final long player, final long opponent, final int depth, final int alpha, final int beta) {
+        if ((++this.nodes & OthelloYoungBrothersWaitTask.CHECK_MASK) == 0L ? this.search.shouldStop()
+                : this.search.isStopped()) {
+            return 0;
+        }
+
+        final OthelloBitBoard board = this.search.getBoard();
+        final long legal = board.legalMoves(player, opponent);
+        if (legal == 0L) {
+            if (board.legalMoves(opponent, player) == 0L) {
+                return Math.max(alpha, Math.min(beta, OthelloNegamaxSearcher.finalScore(player, opponent)));
+            }
+            return -this.alphaBeta(opponent, player, depth, -beta, -alpha);
+        }
+        if (depth <= 0) {
+            return Math.max(alpha, Math.min(beta, this.search.getEvaluator().evaluate(board, player, opponent)));
+        }
+
+        int bound = alpha;
+        for (final int move : this.search.orderMoves(player, opponent, legal, depth)) {
+            if (this.isCutOff()) {
+                return 0;
+            }
+            final long flipped = board.flips(player, opponent, move);
+            final int score = -this
+                    .alphaBeta(opponent & ~flipped, player | flipped | 1L << move, depth - 1, -beta, -bound);
+            if (score >= beta) {
+                return beta;
+            }
+            bound = Math.max(bound, score);
+        }
+        return bound;
+    }
+}
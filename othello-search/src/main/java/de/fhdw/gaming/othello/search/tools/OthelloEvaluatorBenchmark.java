@@ -0,0 +1,266 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloNetworkEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloPatternEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
+
+/**
+ * Measures the number of evaluations per second of the evaluators on an 8x8 board.
+ * <p>
+ * Every evaluator evaluates all positions of reproducible random games from scratch. Evaluators which can follow the
+ * moves of a search are measured a second time that way: the moves of each game are made one after the other, each
+ * position is evaluated, and finally all moves are taken back, as a search would do. The time of the updates is
+ * included in the time of the evaluations.
+ * <p>
+ * Usage: {@code OthelloEvaluatorBenchmark [millisPerEvaluator [games]]}.
+ */
+public final class OthelloEvaluatorBenchmark {
+
+    /**
+     * The default time each evaluator is measured in milliseconds.
+     */
+    private static final long DEFAULT_MILLIS = 2000L;
+    /**
+     * The default number of games.
+     */
+    private static final int DEFAULT_GAMES = 1000;
+
+    /**
+     * Prevents instantiation.
+     */
+    private OthelloEvaluatorBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The time each evaluator is measured in milliseconds and the number of games. All arguments are
+     *             optional.
+     */
+    public static void main(final String[] args) {
+        final long millis = args.length > 0 ? Long.parseLong(args[0]) : OthelloEvaluatorBenchmark.DEFAULT_MILLIS;
+        final int gameCount = args.length > 1 ? Integer.parseInt(args[1]) : OthelloEvaluatorBenchmark.DEFAULT_GAMES;
+
+        final OthelloBitBoard board = OthelloBitBoard.forSize(OthelloBitBoard.MAXIMUM_SIZE);
+        final Games games = new Games(board, gameCount);
+        final Map<String, OthelloEvaluator> evaluators = new LinkedHashMap<>();
+        evaluators.put(
+                "weight table",
+                new OthelloSquareWeightEvaluator(
+                        OthelloWeightTable.forSize(OthelloBitBoard.MAXIMUM_SIZE).toSquareWeights(),
+                        0));
+        evaluators.put("pattern", new OthelloPatternEvaluator());
+        evaluators.put("network", new OthelloNetworkEvaluator());
+
+        for (final Map.Entry<String, OthelloEvaluator> entry : evaluators.entrySet()) {
+            final OthelloEvaluator evaluator = entry.getValue();
+            OthelloEvaluatorBenchmark.report(
+                    entry.getKey() + " (from scratch)",
+                    millis,
+                    () -> OthelloEvaluatorBenchmark.evaluateFromScratch(board, evaluator, games));
+            if (evaluator instanceof OthelloIncrementalEvaluator) {
+                final OthelloIncrementalEvaluation evaluation = ((OthelloIncrementalEvaluator) evaluator)
+                        .newEvaluation(board);
+                OthelloEvaluatorBenchmark.report(
+                        entry.getKey() + " (incremental)",
+                        millis,
+                        () -> OthelloEvaluatorBenchmark.evaluateIncrementally(board, evaluation, games));
+            }
+        }
+    }
+
+    /**
+     * Repeats a pass over the games for some time and prints the number of evaluations per second.
+     *
+     * @param name   The name of the measurement.
+     * @param millis The time in milliseconds.
+     * @param pass   A pass over the games, returning the number of evaluations and the sum of the evaluations.
+     */
+    static void report(final String name, final long millis, final Pass pass) {
+        // the first pass warms up the code
+        long checksum = pass.run()[1];
+        final long startTime = System.nanoTime();
+        final long endTime = startTime + TimeUnit.MILLISECONDS.toNanos(millis);
+        long evaluations = 0L;
+        long now;
+        do {
+            final long[] result = pass.run();
+            evaluations += result[0];
+            checksum += result[1];
+            now = System.nanoTime();
+        } while (now < endTime);
+        System.out.printf(
+                "%-28s evaluations/s=%,14d  (checksum %d)%n",
+                name,
+                (long) (evaluations * 1e9 / (now - startTime)),
+                checksum);
+    }
+
+    /**
+     * Evaluates all positions of the games from scratch.
+     *
+     * @param board     The geometry of the board.
+     * @param evaluator The evaluator.
+     * @param games     The games.
+     * @return The number of evaluations and the sum of the evaluations.
+     */
+    private static long[] evaluateFromScratch(final OthelloBitBoard board, final OthelloEvaluator evaluator,
+            final Games games) {
+        long sum = 0L;
+        for (int ply = 0; ply < games.plyCount; ++ply) {
+            sum += evaluator.evaluate(board, games.players[ply], games.opponents[ply]);
+        }
+        return new long[] { games.plyCount, sum };
+    }
+
+    /**
+     * Evaluates all positions of the games while following their moves.
+     *
+     * @param board      The geometry of the board.
+     * @param evaluation The evaluation following the moves.
+     * @param games      The games.
+     * @return The number of evaluations and the sum of the evaluations.
+     */
+    private static long[] evaluateIncrementally(final OthelloBitBoard board,
+            final OthelloIncrementalEvaluation evaluation, final Games games) {
+        long sum = 0L;
+        for (int game = 0; game < games.gameCount; ++game) {
+            evaluation.setUp(board.getInitialSquares(true), board.getInitialSquares(false));
+            final int first = games.gameStarts[game];
+            final int last = games.gameStarts[game + 1];
+            for (int ply = first; ply < last; ++ply) {
+                evaluation.makeMove(games.moves[ply], games.flips[ply]);
+                sum += evaluation.evaluate(games.players[ply], games.opponents[ply]);
+            }
+            for (int ply = last - 1; ply >= first; --ply) {
+                evaluation.unmakeMove(games.moves[ply], games.flips[ply]);
+            }
+        }
+        return new long[] { games.plyCount, sum };
+    }
+
+    /**
+     * A pass over the games.
+     */
+    @FunctionalInterface
+    interface Pass {
+
+        /**
+         * Runs the pass.
+         *
+         * @return The number of evaluations and the sum of the evaluations.
+         */
+        long[] run();
+    }
+
+    /**
+     * Reproducible random games, stored ply by ply.
+     */
+    static final class Games {
+
+        /**
+         * The number of games.
+         */
+        private final int gameCount;
+        /**
+         * The number of plies of all games.
+         */
+        private final int plyCount;
+        /**
+         * The number of the first ply of each game, followed by the number of plies.
+         */
+        private final int[] gameStarts;
+        /**
+         * The field of the move of each ply, or {@link OthelloBitBoard#PASS}.
+         */
+        private final int[] moves;
+        /**
+         * The fields flipped by the move of each ply.
+         */
+        private final long[] flips;
+        /**
+         * The fields of the player to move after each ply.
+         */
+        private final long[] players;
+        /**
+         * The fields of the opponent after each ply.
+         */
+        private final long[] opponents;
+
+        /**
+         * Plays random games.
+         *
+         * @param board     The geometry of the board.
+         * @param gameCount The number of games.
+         */
+        Games(final OthelloBitBoard board, final int gameCount) {
+            final Random random = new Random(gameCount);
+            final int maximumPlies = 2 * board.getSize() * board.getSize();
+            this.gameCount = gameCount;
+            this.gameStarts = new int[gameCount + 1];
+            this.moves = new int[gameCount * maximumPlies];
+            this.flips = new long[this.moves.length];
+            this.players = new long[this.moves.length];
+            this.opponents = new long[this.moves.length];
+            int ply = 0;
+            for (int game = 0; game < gameCount; ++game) {
+                this.gameStarts[game] = ply;
+                long player = board.getInitialSquares(true);
+                long opponent = board.getInitialSquares(false);
+                while (true) {
+                    long legal = board.legalMoves(player, opponent);
+                    if (legal == 0L && board.legalMoves(opponent, player) == 0L) {
+                        break;
+                    }
+                    int square = OthelloBitBoard.PASS;
+                    long flipped = 0L;
+                    if (legal != 0L) {
+                        for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                            legal &= legal - 1L;
+                        }
+                        square = Long.numberOfTrailingZeros(legal);
+                        flipped = board.flips(player, opponent, square);
+                    }
+                    final long newPlayer = square == OthelloBitBoard.PASS ? opponent : opponent & ~flipped;
+                    opponent = square == OthelloBitBoard.PASS ? player : player | flipped | 1L << square;
+                    player = newPlayer;
+                    this.moves[ply] = square;
+                    this.flips[ply] = flipped;
+                    this.players[ply] = player;
+                    this.opponents[ply] = opponent;
+                    ++ply;
+                }
+            }
+            this.gameStarts[gameCount] = ply;
+            this.plyCount = ply;
+        }
+    }
+}
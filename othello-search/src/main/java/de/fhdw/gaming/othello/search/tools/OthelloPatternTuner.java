@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.tools;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import de.fhdw.gaming.othello.search.OthelloPositionFile;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+import de.fhdw.gaming.othello.search.evaluation.OthelloPatternEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloPatternTrainer;
+import de.fhdw.gaming.othello.search.evaluation.OthelloPatternWeights;
+
+/**
+ * Tunes the weights of the {@link OthelloPatternEvaluator} to the outcomes of games.
+ * <p>
+ * Usage: {@code OthelloPatternTuner positionFile weightFile [epochs [batchSize [learningRate [threads]]]]}. The
+ * positions are read from a file in the format of {@link OthelloPositionFile}, the training starts with the
+ * {@link OthelloPatternWeights#getDefault() default weights}, and the tuned weights are written to the weight file,
+ * from which evaluators of later runs load them if the system property
+ * {@value OthelloPatternWeights#WEIGHTS_FILE_PROPERTY} names it. The error and the number of positions trained on per
+ * second are reported after every pass over the positions.
+ */
+public final class OthelloPatternTuner {
+
+    /**
+     * The default number of passes over the positions.
+     */
+    private static final int DEFAULT_EPOCHS = 10;
+    /**
+     * The default number of positions per batch.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 16384;
+    /**
+     * The default fraction of the average error by which the weights are corrected.
+     */
+    private static final float DEFAULT_LEARNING_RATE = 0.02f;
+    /**
+     * The seed of the order of the batches, which makes runs reproducible.
+     */
+    private static final long SEED = 47L;
+
+    /**
+     * Prevents instantiation.
+     */
+    private OthelloPatternTuner() {
+    }
+
+    /**
+     * Runs the tuner.
+     *
+     * @param args The position file, the weight file, the number of passes over the positions, the number of positions
+     *             per batch, the learning rate and the number of threads. All arguments but the files are optional.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                    "Usage: OthelloPatternTuner positionFile weightFile [epochs [batchSize [learningRate [threads]]]]");
+        }
+        final int epochs = args.length > 2 ? Integer.parseInt(args[2]) : OthelloPatternTuner.DEFAULT_EPOCHS;
+        final int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : OthelloPatternTuner.DEFAULT_BATCH_SIZE;
+        final float learningRate = args.length > 4 ? Float.parseFloat(args[4])
+                : OthelloPatternTuner.DEFAULT_LEARNING_RATE;
+        // nothing else runs in this process, so all threads may go to a single loop
+        final OthelloThreadBudget threadBudget = new OthelloThreadBudget(
+                OthelloThreadBudget.getShared().getThreadCount());
+        final int threads = args.length > 5 ? Integer.parseInt(args[5]) : threadBudget.getThreadCount();
+
+        final OthelloPositionFile positions = OthelloPositionFile.map(Paths.get(args[0]));
+        final OthelloPatternTrainer trainer = new OthelloPatternTrainer(
+                OthelloPatternWeights.getDefault(),
+                threads,
+                threadBudget);
+        System.out.printf(
+                "%d positions, initial mean squared error %.3f%n",
+                positions.getPositionCount(),
+                trainer.getMeanSquaredError(positions));
+        final Random random = new Random(OthelloPatternTuner.SEED);
+        for (int epoch = 1; epoch <= epochs; ++epoch) {
+            final long startTime = System.nanoTime();
+            final double error = trainer.trainEpoch(positions, batchSize, learningRate, random);
+            final double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.printf(
+                    "epoch %d: mean squared error %.3f, %.0f positions/s%n",
+                    epoch,
+                    error,
+                    positions.getPositionCount() / seconds);
+        }
+        trainer.getWeights().write(Paths.get(args[1]));
+        System.out.printf("final mean squared error %.3f%n", trainer.getMeanSquaredError(positions));
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloProbCut;
+import de.fhdw.gaming.othello.search.OthelloProbCutParameters;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
+
+/**
+ * Fits the parameters of a Multi-ProbCut search to an evaluator.
+ * <p>
+ * For every position of a corpus, full-width searches of all depths up to a maximum depth are run. For every deep
+ * depth, the results of the search of half that depth are mapped to the results of the deep search by linear
+ * regression; the standard deviation of the residuals measures how reliable the prediction is.
+ * <p>
+ * Usage: {@code OthelloProbCutFitter [positions [maximumDepth [threshold [outputFile]]]]}. The corpus consists of
+ * positions of reproducible self-play games on an 8x8 board, starting with random openings and continued by a
+ * shallow search. The evaluator is an {@link OthelloSquareWeightEvaluator} with the weights of
+ * {@link OthelloWeightTable}, so the parameters written suit engines evaluating by it only. The strategies evaluate
+ * by evaluators of their own, so ProbCut stays off unless a strategy enables it with parameters fitted to its
+ * evaluator by {@link #fit(OthelloBitBoard, OthelloEvaluator, List, int, double)}. Without an output file, the
+ * parameters are written to standard output in the format of {@link OthelloProbCutParameters#read(Path)}.
+ */
+public final class OthelloProbCutFitter {
+
+    /**
+     * The default number of positions.
+     */
+    private static final int DEFAULT_POSITIONS = 200;
+    /**
+     * The default maximum depth of the deep searches.
+     */
+    private static final int DEFAULT_MAXIMUM_DEPTH = 8;
+    /**
+     * The default number of standard deviations by which a prediction has to lie outside the window.
+     */
+    private static final double DEFAULT_THRESHOLD = 1.5;
+    /**
+     * The smallest depth of a deep search for which a ProbCut check is fitted.
+     */
+    private static final int MINIMUM_DEEP_DEPTH = 3;
+    /**
+     * The maximum number of random moves opening a self-play game.
+     */
+    private static final int MAXIMUM_OPENING_MOVES = 16;
+    /**
+     * The depth of the searches continuing a self-play game.
+     */
+    private static final int SELF_PLAY_DEPTH = 2;
+
+    /**
+     * Prevents instantiation.
+     */
+    private OthelloProbCutFitter() {
+    }
+
+    /**
+     * Runs the fitter.
+     *
+     * @param args The number of positions, the maximum depth of the deep searches, the threshold, and the output file.
+     *             All arguments are optional.
+     * @throws IOException if the output file cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        final int positionCount = args.length > 0 ? Integer.parseInt(args[0])
+                : OthelloProbCutFitter.DEFAULT_POSITIONS;
+        final int maximumDepth = args.length > 1 ? Integer.parseInt(args[1])
+                : OthelloProbCutFitter.DEFAULT_MAXIMUM_DEPTH;
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2])
+                : OthelloProbCutFitter.DEFAULT_THRESHOLD;
+
+        final OthelloBitBoard board = OthelloBitBoard.forSize(OthelloBitBoard.MAXIMUM_SIZE);
+        final OthelloEvaluator evaluator = new OthelloSquareWeightEvaluator(
+                OthelloWeightTable.forSize(board.getSize()).toSquareWeights(),
+                1);
+        final List<long[]> positions = OthelloProbCutFitter
+                .createSelfPlayPositions(board, evaluator, positionCount, maximumDepth + 1);
+        final OthelloProbCutParameters parameters = OthelloProbCutFitter
+                .fit(board, evaluator, positions, maximumDepth, threshold);
+        if (args.length > 3) {
+            parameters.write(Paths.get(args[3]));
+        } else {
+            parameters.toLines().forEach(System.out::println);
+        }
+    }
+
+    /**
+     * Fits the parameters of a Multi-ProbCut search.
+     *
+     * @param board        The geometry of the board.
+     * @param evaluator    The evaluator.
+     * @param positions    The positions as pairs of the fields of the player to move and the fields of the opponent.
+     *                     Positions whose result is proven by a search, or which have less than two legal moves, are
+     *                     ignored.
+     * @param maximumDepth The maximum depth of the deep searches.
+     * @param threshold    The number of standard deviations by which a prediction has to lie outside the window.
+     * @return The parameters. Contains a check for every deep depth for which a positive correlation has been found.
+     */
+    public static OthelloProbCutParameters fit(final OthelloBitBoard board, final OthelloEvaluator evaluator,
+            final List<long[]> positions, final int maximumDepth, final double threshold) {
+        final List<OthelloSearchEngine> engines = new ArrayList<>(maximumDepth);
+        for (int depth = 1; depth <= maximumDepth; ++depth) {
+            engines.add(
+                    new OthelloDefaultSearchEngineBuilder().changeEvaluator(evaluator).changeMaximumDepth(depth)
+                            .changeSearchTimeMillis(TimeUnit.DAYS.toMillis(1L)).changeEndgameEmpties(0)
+                            .changeTranspositionTableBits(16).build());
+        }
+
+        final List<int[]> scores = new ArrayList<>(positions.size());
+        for (final long[] position : positions) {
+            if (Long.bitCount(board.legalMoves(position[0], position[1])) < 2
+                    || Long.bitCount(board.emptySquares(position[0], position[1])) <= maximumDepth) {
+                continue;
+            }
+            final int[] scoresByDepth = new int[maximumDepth + 1];
+            scoresByDepth[0] = evaluator.evaluate(board, position[0], position[1]);
+            boolean proven = false;
+            for (int depth = 1; depth <= maximumDepth && !proven; ++depth) {
+                final OthelloSearchEngine engine = engines.get(depth - 1);
+                // every search has to start with an empty table, or it would use the results of deeper searches
+                engine.reset();
+                final OthelloSearchResult result = engine.search(0, board, position[0], position[1]);
+                scoresByDepth[depth] = result.getScore();
+                proven = Math.abs(result.getScore()) >= OthelloEvaluator.WIN_SCORE;
+            }
+            if (!proven) {
+                scores.add(scoresByDepth);
+            }
+        }
+
+        final List<OthelloProbCut> cuts = new ArrayList<>();
+        for (int deepDepth = OthelloProbCutFitter.MINIMUM_DEEP_DEPTH; deepDepth <= maximumDepth; ++deepDepth) {
+            final int shallowDepth = deepDepth / 2;
+            final OthelloProbCut cut = OthelloProbCutFitter.regress(scores, deepDepth, shallowDepth);
+            if (cut != null) {
+                System.err.printf(
+                        "depth %2d from %d: slope=%.3f intercept=%8.2f deviation=%8.2f (%d positions)%n",
+                        deepDepth,
+                        shallowDepth,
+                        cut.getSlope(),
+                        cut.getIntercept(),
+                        cut.getDeviation(),
+                        scores.size());
+                cuts.add(cut);
+            }
+        }
+        return new OthelloProbCutParameters(threshold, cuts);
+    }
+
+    /**
+     * Fits a ProbCut check by least squares.
+     *
+     * @param scores       The scores of the positions indexed by search depth.
+     * @param deepDepth    The depth of the search whose result is predicted.
+     * @param shallowDepth The depth of the search predicting the result.
+     * @return The check, or {@code null} if there are too few positions or the results are not positively correlated.
+     */
+    private static OthelloProbCut regress(final List<int[]> scores, final int deepDepth, final int shallowDepth) {
+        final int count = scores.size();
+        if (count < 3) {
+            return null;
+        }
+        double sumShallow = 0.0;
+        double sumDeep = 0.0;
+        for (final int[] scoresByDepth : scores) {
+            sumShallow += scoresByDepth[shallowDepth];
+            sumDeep += scoresByDepth[deepDepth];
+        }
+        final double meanShallow = sumShallow / count;
+        final double meanDeep = sumDeep / count;
+        double covariance = 0.0;
+        double variance = 0.0;
+        for (final int[] scoresByDepth : scores) {
+            final double shallow = scoresByDepth[shallowDepth] - meanShallow;
+            covariance += shallow * (scoresByDepth[deepDepth] - meanDeep);
+            variance += shallow * shallow;
+        }
+        if (variance == 0.0 || covariance <= 0.0) {
+            return null;
+        }
+        final double slope = covariance / variance;
+        final double intercept = meanDeep - slope * meanShallow;
+        double squaredResiduals = 0.0;
+        for (final int[] scoresByDepth : scores) {
+            final double residual = scoresByDepth[deepDepth] - (slope * scoresByDepth[shallowDepth] + intercept);
+            squaredResiduals += residual * residual;
+        }
+        return new OthelloProbCut(deepDepth, shallowDepth, slope, intercept, Math.sqrt(squaredResiduals / (count - 2)));
+    }
+
+    /**
+     * Creates reproducible positions of self-play games. Every game starts with a random number of random moves and is
+     * continued by a shallow search; all positions of the game with enough empty squares are taken.
+     *
+     * @param board          The geometry of the board.
+     * @param evaluator      The evaluator of the searches continuing the games.
+     * @param positionCount  The number of positions.
+     * @param minimumEmpties The smallest number of empty squares of a position.
+     * @return The positions as pairs of the fields of the player to move and the fields of the opponent.
+     */
+    static List<long[]> createSelfPlayPositions(final OthelloBitBoard board, final OthelloEvaluator evaluator,
+            final int positionCount, final int minimumEmpties) {
+        final OthelloSearchEngine engine = new OthelloDefaultSearchEngineBuilder().changeEvaluator(evaluator)
+                .changeMaximumDepth(OthelloProbCutFitter.SELF_PLAY_DEPTH).changeEndgameEmpties(0)
+                .changeTranspositionTableBits(16).build();
+        final Random random = new Random(positionCount);
+        final List<long[]> positions = new ArrayList<>(positionCount);
+        while (positions.size() < positionCount) {
+            long player = board.getInitialSquares(true);
+            long opponent = board.getInitialSquares(false);
+            final int openingMoves = 1 + random.nextInt(OthelloProbCutFitter.MAXIMUM_OPENING_MOVES);
+            int moves = 0;
+            while (positions.size() < positionCount
+                    && Long.bitCount(board.emptySquares(player, opponent)) >= minimumEmpties) {
+                long legal = board.legalMoves(player, opponent);
+                if (legal == 0L) {
+                    if (board.legalMoves(opponent, player) == 0L) {
+                        break;
+                    }
+                    final long newPlayer = opponent;
+                    opponent = player;
+                    player = newPlayer;
+                    continue;
+                }
+                final int square;
+                if (moves < openingMoves) {
+                    for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                        legal &= legal - 1L;
+                    }
+                    square = Long.numberOfTrailingZeros(legal);
+                } else {
+                    positions.add(new long[] { player, opponent });
+                    square = engine.search(0, board, player, opponent).getBestMove();
+                }
+                final long flipped = board.flips(player, opponent, square);
+                final long newPlayer = opponent & ~flipped;
+                opponent = player | flipped | 1L << square;
+                player = newPlayer;
+                ++moves;
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloSearchAlgorithm;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+
+/**
+ * Measures how the number of positions searched per second scales with the number of search threads. For
+ * {@link OthelloSearchAlgorithm#MONTE_CARLO_TREE_SEARCH}, the number of playouts per second is measured.
+ * <p>
+ * Usage: {@code OthelloSearchBenchmark [maximumThreads [searchTimeMillis [positions [algorithm]]]]}, where the
+ * algorithm is one of {@link OthelloSearchAlgorithm}. The positions are midgame positions reached by random (but
+ * reproducible) play from the initial position of an 8x8 board.
+ */
+public final class OthelloSearchBenchmark {
+
+    /**
+     * The number of random moves leading to a benchmark position.
+     */
+    private static final int OPENING_MOVES = 20;
+    /**
+     * The default computation time per position in milliseconds.
+     */
+    private static final long DEFAULT_SEARCH_TIME_MILLIS = 2000L;
+    /**
+     * The default number of positions.
+     */
+    private static final int DEFAULT_POSITIONS = 5;
+
+    /**
+     * Prevents instantiation.
+     */
+    private OthelloSearchBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The maximum number of threads, the computation time per position in milliseconds, the number of
+     *             positions, and the search algorithm. All arguments are optional.
+     */
+    public static void main(final String[] args) {
+        final int maximumThreads = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        final long searchTimeMillis = args.length > 1 ? Long.parseLong(args[1])
+                : OthelloSearchBenchmark.DEFAULT_SEARCH_TIME_MILLIS;
+        final int positionCount = args.length > 2 ? Integer.parseInt(args[2])
+                : OthelloSearchBenchmark.DEFAULT_POSITIONS;
+        final OthelloSearchAlgorithm algorithm = args.length > 3 ? OthelloSearchAlgorithm.valueOf(args[3])
+                : OthelloSearchAlgorithm.LAZY_SMP;
+
+        final OthelloBitBoard board = OthelloBitBoard.forSize(OthelloBitBoard.MAXIMUM_SIZE);
+        final List<long[]> positions = OthelloSearchBenchmark.createPositions(board, positionCount);
+
+        long singleThreadedNodesPerSecond = 0L;
+        for (int threads = 1; threads <= maximumThreads; threads = threads < maximumThreads
+                ? Math.min(2 * threads, maximumThreads) : threads + 1) {
+            final OthelloSearchEngine engine = new OthelloDefaultSearchEngineBuilder()
+                    .changeEvaluator(new OthelloSquareWeightEvaluator(new int[board.getSize() * board.getSize()], 2))
+                    .changeThreadCount(threads).changeSearchTimeMillis(searchTimeMillis).changeAlgorithm(algorithm)
+                    // the searches run one at a time, each with all threads
+                    .changeThreadBudget(new OthelloThreadBudget(threads)).build();
+            long nodes = 0L;
+            long elapsedNanos = 0L;
+            int depth = 0;
+            for (final long[] position : positions) {
+                engine.reset();
+                final OthelloSearchResult result = engine.search(0, board, position[0], position[1]);
+                nodes += result.getStatistics().getNodes();
+                elapsedNanos += result.getStatistics().getElapsedNanos();
+                depth += result.getStatistics().getDepth();
+            }
+            final long nodesPerSecond = (long) (nodes * 1e9 / Math.max(1L, elapsedNanos));
+            if (threads == 1) {
+                singleThreadedNodesPerSecond = nodesPerSecond;
+            }
+            System.out.printf(
+                    "threads=%2d  %s/s=%,12d  speedup=%5.2f  average depth=%5.2f%n",
+                    threads,
+                    algorithm == OthelloSearchAlgorithm.MONTE_CARLO_TREE_SEARCH ? "playouts" : "nodes",
+                    nodesPerSecond,
+                    nodesPerSecond / (double) Math.max(1L, singleThreadedNodesPerSecond),
+                    depth / (double) positions.size());
+        }
+    }
+
+    /**
+     * Creates reproducible midgame positions.
+     *
+     * @param board         The geometry of the board.
+     * @param positionCount The number of positions.
+     * @return The positions as pairs of the fields of the player to move and the fields of the opponent.
+     */
+    static List<long[]> createPositions(final OthelloBitBoard board, final int positionCount) {
+        final Random random = new Random(positionCount);
+        final List<long[]> positions = new ArrayList<>(positionCount);
+        while (positions.size() < positionCount) {
+            long player = board.getInitialSquares(true);
+            long opponent = board.getInitialSquares(false);
+            int moves = 0;
+            while (moves < OthelloSearchBenchmark.OPENING_MOVES) {
+                long legal = board.legalMoves(player, opponent);
+                if (legal == 0L) {
+                    break;
+                }
+                for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                    legal &= legal - 1L;
+                }
+                final int square = Long.numberOfTrailingZeros(legal);
+                final long flipped = board.flips(player, opponent, square);
+                final long newPlayer = opponent & ~flipped;
+                opponent = player | flipped | 1L << square;
+                player = newPlayer;
+                ++moves;
+            }
+            if (moves == OthelloSearchBenchmark.OPENING_MOVES) {
+                positions.add(new long[] { player, opponent });
+            }
+        }
+        return positions;
+    }
+}
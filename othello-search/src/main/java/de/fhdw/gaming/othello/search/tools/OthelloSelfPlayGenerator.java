@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.tools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloGameWriter;
+import de.fhdw.gaming.othello.search.OthelloPositionWriter;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+import de.fhdw.gaming.othello.search.evaluation.OthelloPatternEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
+
+/**
+ * Generates games of two search engines playing against each other, for tuning evaluations and building opening
+ * books.
+ * <p>
+ * The games are played on {@link OthelloBitBoard bit boards} only, without any game or board objects. Each game
+ * starts with a random number of random moves and is continued by the engines, the first engine playing the first
+ * player. The random choices of a game depend on the seed and the number of the game only, and each game gets new
+ * engines, so the games are reproducible regardless of the number of threads. The games are played in parallel, one
+ * game per thread, and are appended to a file of an {@link OthelloGameWriter}; optionally, the positions reached by
+ * the engines are appended to a file of an {@link OthelloPositionWriter} together with the results of their games.
+ * <p>
+ * Usage: {@code OthelloSelfPlayGenerator gameFile games [positionFile [firstPlayer [secondPlayer [threads [seed]]]]]}.
+ * A position file of {@code -} means that no positions are written. A player is given as the evaluator
+ * ({@code pattern} or {@code squares}) and the search depth separated by a colon, e.g. {@code pattern:4}. The games
+ * are played on an 8x8 board, and the numbers of games and positions per second are reported at the end.
+ */
+public final class OthelloSelfPlayGenerator {
+
+    /**
+     * The default player.
+     */
+    private static final String DEFAULT_PLAYER = "pattern:2";
+    /**
+     * The default seed.
+     */
+    private static final long DEFAULT_SEED = 48L;
+    /**
+     * The smallest number of random moves opening a game.
+     */
+    private static final int MINIMUM_OPENING_MOVES = 4;
+    /**
+     * The largest number of random moves opening a game.
+     */
+    private static final int MAXIMUM_OPENING_MOVES = 16;
+    /**
+     * The number of empty squares from which on the engines play perfectly, so that the results are exact as soon as
+     * the engines can solve the rest of the game.
+     */
+    private static final int ENDGAME_EMPTIES = 10;
+    /**
+     * The binary logarithm of the number of transposition table entries of an engine. Each game gets new engines, so
+     * the tables have to be small.
+     */
+    private static final int TRANSPOSITION_TABLE_BITS = 14;
+    /**
+     * The odd multiplier spreading the numbers of the games over the seeds of their random choices.
+     */
+    private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The geometry of the board.
+     */
+    private final OthelloBitBoard board;
+    /**
+     * Creates the engine of the first player of a game.
+     */
+    private final Supplier<OthelloSearchEngine> firstEngines;
+    /**
+     * Creates the engine of the second player of a game.
+     */
+    private final Supplier<OthelloSearchEngine> secondEngines;
+    /**
+     * The smallest number of random moves opening a game.
+     */
+    private final int minimumOpeningMoves;
+    /**
+     * The largest number of random moves opening a game.
+     */
+    private final int maximumOpeningMoves;
+
+    /**
+     * Creates a generator.
+     *
+     * @param board               The geometry of the board.
+     * @param firstEngines        Creates the engine of the first player of a game. The engine must not depend on
+     *                            anything but the position if the games are to be reproducible.
+     * @param secondEngines       Creates the engine of the second player of a game.
+     * @param minimumOpeningMoves The smallest number of random moves opening a game.
+     * @param maximumOpeningMoves The largest number of random moves opening a game.
+     */
+    public OthelloSelfPlayGenerator(final OthelloBitBoard board, final Supplier<OthelloSearchEngine> firstEngines,
+            final Supplier<OthelloSearchEngine> secondEngines, final int minimumOpeningMoves,
+            final int maximumOpeningMoves) {
+        if (minimumOpeningMoves < 0 || maximumOpeningMoves < minimumOpeningMoves) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Invalid range of opening moves from %d to %d.",
+                            minimumOpeningMoves,
+                            maximumOpeningMoves));
+        }
+        this.board = board;
+        this.firstEngines = firstEngines;
+        this.secondEngines = secondEngines;
+        this.minimumOpeningMoves = minimumOpeningMoves;
+        this.maximumOpeningMoves = maximumOpeningMoves;
+    }
+
+    /**
+     * Runs the generator.
+     *
+     * @param args The game file, the number of games, the position file, the first and the second player, the number
+     *             of threads and the seed. All arguments but the game file and the number of games are optional.
+     * @throws IOException if a file cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                    "Usage: OthelloSelfPlayGenerator gameFile games "
+                            + "[positionFile [firstPlayer [secondPlayer [threads [seed]]]]]");
+        }
+        final int gameCount = Integer.parseInt(args[1]);
+        final String positionFile = args.length > 2 ? args[2] : "-";
+        final String firstPlayer = args.length > 3 ? args[3] : OthelloSelfPlayGenerator.DEFAULT_PLAYER;
+        final String secondPlayer = args.length > 4 ? args[4] : firstPlayer;
+        // nothing else runs in this process, so all threads may go to a single loop
+        final OthelloThreadBudget threadBudget = new OthelloThreadBudget(
+                OthelloThreadBudget.getShared().getThreadCount());
+        final int threads = args.length > 5 ? Integer.parseInt(args[5]) : threadBudget.getThreadCount();
+        final long seed = args.length > 6 ? Long.parseLong(args[6]) : OthelloSelfPlayGenerator.DEFAULT_SEED;
+
+        final OthelloBitBoard board = OthelloBitBoard.forSize(OthelloBitBoard.MAXIMUM_SIZE);
+        final OthelloSelfPlayGenerator generator = new OthelloSelfPlayGenerator(
+                board,
+                OthelloSelfPlayGenerator.createEngines(firstPlayer),
+                OthelloSelfPlayGenerator.createEngines(secondPlayer),
+                OthelloSelfPlayGenerator.MINIMUM_OPENING_MOVES,
+                OthelloSelfPlayGenerator.MAXIMUM_OPENING_MOVES);
+        final long startTime = System.nanoTime();
+        final long positionCount;
+        try (OthelloGameWriter games = new OthelloGameWriter(Paths.get(args[0]));
+                OthelloPositionWriter positions = positionFile.equals("-") ? null
+                        : new OthelloPositionWriter(Paths.get(positionFile))) {
+            positionCount = generator
+                    .generate(gameCount, seed, threads, threadBudget, games, Optional.ofNullable(positions));
+        }
+        final double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf(
+                "%d games, %d positions in %.1f s: %.1f games/s, %.0f positions/s%n",
+                gameCount,
+                positionCount,
+                seconds,
+                gameCount / seconds,
+                positionCount / seconds);
+    }
+
+    /**
+     * Plays games in parallel and appends them to files.
+     *
+     * @param gameCount    The number of games.
+     * @param seed         The seed of the random choices.
+     * @param threadCount  The number of threads playing in parallel.
+     * @param threadBudget The budget the threads are leased from.
+     * @param games        The writer the games are appended to.
+     * @param positions    The writer the positions reached by the engines are appended to, if any.
+     * @return The number of positions reached by the engines, which is the number of positions appended if there is a
+     *         position writer.
+     * @throws IOException if a file cannot be written.
+     */
+    public long generate(final int gameCount, final long seed, final int threadCount,
+            final OthelloThreadBudget threadBudget, final OthelloGameWriter games,
+            final Optional<OthelloPositionWriter> positions) throws IOException {
+        final LongAdder positionCount = new LongAdder();
+        try {
+            threadBudget.forEach(gameCount, threadCount, (final int game) -> {
+                try {
+                    positionCount.add(this.play(game, seed, games, positions));
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+        games.flush();
+        if (positions.isPresent()) {
+            positions.get().flush();
+        }
+        return positionCount.sum();
+    }
+
+    /**
+     * Plays a game and appends it to the files.
+     *
+     * @param game      The number of the game, used as the game ID of the searches.
+     * @param seed      The seed of the random choices of all games.
+     * @param games     The writer the game is appended to.
+     * @param positions The writer the positions reached by the engines are appended to, if any.
+     * @return The number of positions reached by the engines.
+     * @throws IOException if a file cannot be written.
+     */
+    private int play(final int game, final long seed, final OthelloGameWriter games,
+            final Optional<OthelloPositionWriter> positions) throws IOException {
+        final Random random = new Random(seed ^ game * OthelloSelfPlayGenerator.SEED_MULTIPLIER);
+        final OthelloSearchEngine[] engines = { this.firstEngines.get(), this.secondEngines.get() };
+        final int openingMoves = this.minimumOpeningMoves
+                + random.nextInt(this.maximumOpeningMoves - this.minimumOpeningMoves + 1);
+        final int squareCount = this.board.getSize() * this.board.getSize();
+        final int[] moves = new int[squareCount];
+        // the positions reached by the engines as triples of player, opponent and the side of the player
+        final long[] reached = new long[3 * squareCount];
+        int moveCount = 0;
+        int reachedCount = 0;
+        int side = 0;
+        long player = this.board.getInitialSquares(true);
+        long opponent = this.board.getInitialSquares(false);
+        while (true) {
+            long legal = this.board.legalMoves(player, opponent);
+            if (legal == 0L) {
+                if (this.board.legalMoves(opponent, player) == 0L) {
+                    break;
+                }
+                final long newPlayer = opponent;
+                opponent = player;
+                player = newPlayer;
+                side = 1 - side;
+                continue;
+            }
+            final int square;
+            if (moveCount < openingMoves) {
+                for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                    legal &= legal - 1L;
+                }
+                square = Long.numberOfTrailingZeros(legal);
+            } else {
+                reached[3 * reachedCount] = player;
+                reached[3 * reachedCount + 1] = opponent;
+                reached[3 * reachedCount + 2] = side;
+                ++reachedCount;
+                square = engines[side].search(game, this.board, player, opponent).getBestMove();
+            }
+            final long flipped = this.board.flips(player, opponent, square);
+            final long newPlayer = opponent & ~flipped;
+            opponent = player | flipped | 1L << square;
+            player = newPlayer;
+            side = 1 - side;
+            moves[moveCount++] = square;
+        }
+
+        final int difference = Long.bitCount(player) - Long.bitCount(opponent);
+        final int result = side == 0 ? difference : -difference;
+        games.append(this.board.getSize(), moves, moveCount, result);
+        if (positions.isPresent()) {
+            for (int position = 0; position < reachedCount; ++position) {
+                positions.get().append(
+                        reached[3 * position],
+                        reached[3 * position + 1],
+                        reached[3 * position + 2] == 0L ? result : -result);
+            }
+        }
+        return reachedCount;
+    }
+
+    /**
+     * Returns a supplier of new engines for a player.
+     *
+     * @param player The evaluator ({@code pattern} or {@code squares}) and the search depth separated by a colon.
+     * @throws IllegalArgumentException if the player is invalid.
+     */
+    private static Supplier<OthelloSearchEngine> createEngines(final String player) throws IllegalArgumentException {
+        final String[] parts = player.split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException(String.format("Invalid player '%s'.", player));
+        }
+        final OthelloEvaluator evaluator;
+        if (parts[0].equals("pattern")) {
+            evaluator = new OthelloPatternEvaluator();
+        } else if (parts[0].equals("squares")) {
+            evaluator = new OthelloSquareWeightEvaluator(
+                    OthelloWeightTable.forSize(OthelloBitBoard.MAXIMUM_SIZE).toSquareWeights(),
+                    1);
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown evaluator '%s'.", parts[0]));
+        }
+        final int depth = Integer.parseInt(parts[1]);
+        return () -> new OthelloDefaultSearchEngineBuilder().changeEvaluator(evaluator).changeThreadCount(1)
+                .changeMaximumDepth(depth).changeSearchTimeMillis(TimeUnit.DAYS.toMillis(1L))
+                .changeEndgameEmpties(OthelloSelfPlayGenerator.ENDGAME_EMPTIES)
+                .changeTranspositionTableBits(OthelloSelfPlayGenerator.TRANSPOSITION_TABLE_BITS)
+                .changeEvaluationCacheBits(0).build();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.core.domain.OthelloPosition;
+
+/**
+ * Tests {@link OthelloBitBoard}.
+ */
+class OthelloBitBoardTest {
+
+    /**
+     * Tests {@link OthelloBitBoard#supports(int)} and {@link OthelloBitBoard#forSize(int)}.
+     */
+    @Test
+    void testSupportedSizes() {
+        assertThat(OthelloBitBoard.supports(4), is(equalTo(true)));
+        assertThat(OthelloBitBoard.supports(6), is(equalTo(true)));
+        assertThat(OthelloBitBoard.supports(8), is(equalTo(true)));
+        assertThat(OthelloBitBoard.supports(5), is(equalTo(false)));
+        assertThat(OthelloBitBoard.supports(10), is(equalTo(false)));
+        assertThat(OthelloBitBoard.supports(0), is(equalTo(false)));
+        assertThat(OthelloBitBoard.forSize(6).getSize(), is(equalTo(6)));
+        assertThrows(IllegalArgumentException.class, () -> OthelloBitBoard.forSize(10));
+    }
+
+    /**
+     * Tests the conversion between squares and positions.
+     */
+    @Test
+    void testSquares() {
+        assertThat(OthelloBitBoard.square(OthelloPosition.of(2, 5)), is(equalTo(21)));
+        assertThat(OthelloBitBoard.toPosition(21), is(equalTo(OthelloPosition.of(2, 5))));
+        assertThat(OthelloBitBoard.forSize(4).getValidSquares(), is(equalTo(0x0F0F0F0FL)));
+    }
+
+    /**
+     * Tests {@link OthelloBitBoard#legalMoves(long, long)} in the initial position.
+     */
+    @Test
+    void testInitialLegalMoves() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(8);
+        final long black = board.getInitialSquares(true);
+        final long white = board.getInitialSquares(false);
+        final long expected = 1L << OthelloBitBoard.square(2, 3) | 1L << OthelloBitBoard.square(3, 2)
+                | 1L << OthelloBitBoard.square(4, 5) | 1L << OthelloBitBoard.square(5, 4);
+        assertThat(board.legalMoves(black, white), is(equalTo(expected)));
+    }
+
+    /**
+     * Tests {@link OthelloBitBoard#legalMoves(long, long)} on a board smaller than 8x8, where lines must not wrap
+     * around into the unused columns.
+     */
+    @Test
+    void testLegalMovesSmallBoard() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(4);
+        final long black = board.getInitialSquares(true);
+        final long white = board.getInitialSquares(false);
+        final long expected = 1L << OthelloBitBoard.square(0, 1) | 1L << OthelloBitBoard.square(1, 0)
+                | 1L << OthelloBitBoard.square(2, 3) | 1L << OthelloBitBoard.square(3, 2);
+        assertThat(board.legalMoves(black, white), is(equalTo(expected)));
+    }
+
+    /**
+     * Tests {@link OthelloBitBoard#flips(long, long, int)} with lines in several directions.
+     */
+    @Test
+    void testFlips() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(8);
+        final long player = 1L << OthelloBitBoard.square(0, 0) | 1L << OthelloBitBoard.square(0, 4);
+        final long opponent = 1L << OthelloBitBoard.square(1, 1) | 1L << OthelloBitBoard.square(0, 3)
+                | 1L << OthelloBitBoard.square(1, 2);
+        final int square = OthelloBitBoard.square(0, 2);
+        assertThat(
+                board.flips(player, opponent, square),
+                is(equalTo(1L << OthelloBitBoard.square(0, 3))));
+        assertThat(board.flips(player, opponent, OthelloBitBoard.square(2, 2)), is(equalTo(1L << 9)));
+        assertThat(board.flips(player, opponent, OthelloBitBoard.square(7, 7)), is(equalTo(0L)));
+    }
+
+    /**
+     * Tests the corners, edges and neighbours of a board smaller than 8x8.
+     */
+    @Test
+    void testCornersEdgesAndNeighbours() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(6);
+        assertThat(Long.bitCount(board.getCornerSquares()), is(equalTo(4)));
+        assertThat((board.getCornerSquares() >>> OthelloBitBoard.square(5, 5) & 1L), is(equalTo(1L)));
+        assertThat(Long.bitCount(board.getEdgeSquares()), is(equalTo(16)));
+        assertThat(board.getEdgeSquares() & board.getCornerSquares(), is(equalTo(0L)));
+
+        final long corner = 1L << OthelloBitBoard.square(0, 5);
+        final long expected = 1L << OthelloBitBoard.square(0, 4) | 1L << OthelloBitBoard.square(1, 4)
+                | 1L << OthelloBitBoard.square(1, 5);
+        assertThat(board.neighbours(corner), is(equalTo(expected)));
+    }
+
+    /**
+     * Tests that the same position hashes differently on boards of different sizes.
+     */
+    @Test
+    void testHashTellsSizesApart() {
+        final OthelloBitBoard small = OthelloBitBoard.forSize(6);
+        final OthelloBitBoard large = OthelloBitBoard.forSize(8);
+        final long black = small.getInitialSquares(true);
+        final long white = small.getInitialSquares(false);
+        assertThat(small.hash(black, white), is(equalTo(small.hash(black, white))));
+        assertThat(small.hash(black, white) == large.hash(black, white), is(equalTo(false)));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.evaluation.OthelloCachingEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloPatternEvaluator;
+
+/**
+ * Tests {@link OthelloEvaluationCache}.
+ */
+class OthelloEvaluationCacheTest {
+
+    /**
+     * Tests storing and looking up evaluations, and counting the lookups.
+     */
+    @Test
+    void testProbe() {
+        final OthelloEvaluationCache cache = new OthelloEvaluationCache(10);
+        final OthelloBitBoard board = OthelloBitBoard.forSize(8);
+        final long key = OthelloEvaluationCache.key(board, 1L, 2L);
+        assertThat(cache.probe(key), is(equalTo(OthelloEvaluationCache.MISS)));
+        cache.store(key, -17);
+        assertThat(cache.probe(key), is(equalTo(-17L)));
+        cache.store(key, 0);
+        assertThat(cache.probe(key), is(equalTo(0L)));
+        assertThat(
+                cache.probe(OthelloEvaluationCache.key(OthelloBitBoard.forSize(6), 1L, 2L)),
+                is(equalTo(OthelloEvaluationCache.MISS)));
+        assertThat(cache.getHits(), is(equalTo(2L)));
+        assertThat(cache.getMisses(), is(equalTo(2L)));
+
+        cache.clear();
+        assertThat(cache.probe(key), is(equalTo(OthelloEvaluationCache.MISS)));
+        assertThat(cache.getSize(), is(equalTo(1024)));
+        assertThrows(IllegalArgumentException.class, () -> new OthelloEvaluationCache(0));
+    }
+
+    /**
+     * Tests that a caching evaluator returns the evaluations of the evaluator it caches, both from scratch and
+     * incrementally.
+     */
+    @Test
+    void testCachingEvaluator() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(8);
+        final OthelloPatternEvaluator evaluator = new OthelloPatternEvaluator();
+        final OthelloCachingEvaluator caching = new OthelloCachingEvaluator(evaluator, new OthelloEvaluationCache(4));
+        final OthelloIncrementalEvaluation evaluation = caching.newEvaluation(board);
+        final Random random = new Random(31);
+        for (int game = 0; game < 20; ++game) {
+            long player = board.getInitialSquares(true);
+            long opponent = board.getInitialSquares(false);
+            evaluation.setUp(player, opponent);
+            while (true) {
+                final int expected = evaluator.evaluate(board, player, opponent);
+                assertThat(caching.evaluate(board, player, opponent), is(equalTo(expected)));
+                assertThat(evaluation.evaluate(player, opponent), is(equalTo(expected)));
+                long legal = board.legalMoves(player, opponent);
+                if (legal == 0L) {
+                    break;
+                }
+                for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                    legal &= legal - 1L;
+                }
+                final int move = Long.numberOfTrailingZeros(legal);
+                final long flipped = board.flips(player, opponent, move);
+                evaluation.makeMove(move, flipped);
+                final long newPlayer = opponent & ~flipped;
+                opponent = player | flipped | 1L << move;
+                player = newPlayer;
+            }
+        }
+        assertThat(caching.getCache().getHits() > 0L, is(equalTo(true)));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OthelloGameWriter} and {@link OthelloGameReader}.
+ */
+class OthelloGameWriterTest {
+
+    /**
+     * Tests that appended games are read back unchanged, including those of a second run appending to the file.
+     *
+     * @throws IOException if the temporary file cannot be used.
+     */
+    @Test
+    void testAppendAndRead() throws IOException {
+        final int[] moves = { 19, 18, 17, 63, 0 };
+        final Path file = Files.createTempFile("games", ".bin");
+        try {
+            try (OthelloGameWriter writer = new OthelloGameWriter(file)) {
+                writer.append(8, moves, 5, -12);
+                writer.append(6, moves, 0, 0);
+            }
+            try (OthelloGameWriter writer = new OthelloGameWriter(file)) {
+                writer.append(4, moves, 2, 16);
+                assertThrows(IllegalArgumentException.class, () -> writer.append(8, moves, 5, 65));
+                assertThrows(IllegalArgumentException.class, () -> writer.append(9, moves, 5, 0));
+            }
+            assertThat(Files.size(file), is(equalTo(3L * 3L + 5L + 0L + 2L)));
+
+            try (OthelloGameReader reader = new OthelloGameReader(file)) {
+                assertThat(reader.next(), is(equalTo(true)));
+                assertThat(reader.getSize(), is(equalTo(8)));
+                assertThat(reader.getMoveCount(), is(equalTo(5)));
+                for (int move = 0; move < 5; ++move) {
+                    assertThat(reader.getMove(move), is(equalTo(moves[move])));
+                }
+                assertThat(reader.getResult(), is(equalTo(-12)));
+                assertThat(reader.next(), is(equalTo(true)));
+                assertThat(reader.getSize(), is(equalTo(6)));
+                assertThat(reader.getMoveCount(), is(equalTo(0)));
+                assertThat(reader.getResult(), is(equalTo(0)));
+                assertThat(reader.next(), is(equalTo(true)));
+                assertThat(reader.getSize(), is(equalTo(4)));
+                assertThat(reader.getMove(1), is(equalTo(18)));
+                assertThat(reader.getResult(), is(equalTo(16)));
+                assertThat(reader.next(), is(equalTo(false)));
+            }
+
+            Files.write(file, new byte[] { 8, 3, 19 });
+            try (OthelloGameReader reader = new OthelloGameReader(file)) {
+                assertThrows(IllegalArgumentException.class, reader::next);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OthelloPositionFile} and {@link OthelloPositionWriter}.
+ */
+class OthelloPositionFileTest {
+
+    /**
+     * Tests that appended positions are read back unchanged, including those of a second run appending to the file.
+     *
+     * @throws IOException if the temporary file cannot be used.
+     */
+    @Test
+    void testAppendAndMap() throws IOException {
+        final Random random = new Random(5);
+        final long[][] positions = new long[100][];
+        for (int position = 0; position < positions.length; ++position) {
+            final long player = random.nextLong();
+            positions[position] = new long[] { player, random.nextLong() & ~player, random.nextInt(129) - 64 };
+        }
+        final Path file = Files.createTempFile("positions", ".bin");
+        try {
+            for (int run = 0; run < 2; ++run) {
+                try (OthelloPositionWriter writer = new OthelloPositionWriter(file)) {
+                    for (int position = run * 50; position < (run + 1) * 50; ++position) {
+                        writer.append(positions[position][0], positions[position][1], (int) positions[position][2]);
+                    }
+                }
+            }
+            assertThat(Files.size(file), is(equalTo(100L * OthelloPositionFile.RECORD_LENGTH)));
+
+            final OthelloPositionFile positionFile = OthelloPositionFile.map(file);
+            assertThat(positionFile.getPositionCount(), is(equalTo(100L)));
+            for (int position = 0; position < positions.length; ++position) {
+                assertThat(positionFile.getPlayer(position), is(equalTo(positions[position][0])));
+                assertThat(positionFile.getOpponent(position), is(equalTo(positions[position][1])));
+                assertThat((long) positionFile.getResult(position), is(equalTo(positions[position][2])));
+            }
+            assertThrows(IllegalArgumentException.class, () -> positionFile.getPlayer(100L));
+
+            try (OthelloPositionWriter writer = new OthelloPositionWriter(file)) {
+                assertThrows(IllegalArgumentException.class, () -> writer.append(0L, 0L, 128));
+            }
+            Files.write(file, new byte[] { 1, 2, 3 });
+            assertThrows(IllegalArgumentException.class, () -> OthelloPositionFile.map(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
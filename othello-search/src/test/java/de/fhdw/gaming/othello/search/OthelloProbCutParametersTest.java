@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OthelloProbCutParameters} and {@link OthelloProbCut}.
+ */
+class OthelloProbCutParametersTest {
+
+    /**
+     * Tests that the checks are grouped by depth.
+     */
+    @Test
+    void testCutsByDepth() {
+        final OthelloProbCut first = new OthelloProbCut(4, 2, 1.1, 2.0, 20.0);
+        final OthelloProbCut second = new OthelloProbCut(6, 3, 1.2, -4.0, 22.0);
+        final OthelloProbCut third = new OthelloProbCut(6, 2, 1.3, 0.0, 30.0);
+        final OthelloProbCutParameters parameters = new OthelloProbCutParameters(1.5, List.of(second, first, third));
+        assertThat(parameters.isEnabled(), is(equalTo(true)));
+        assertThat(parameters.getCuts(4), is(equalTo(List.of(first))));
+        assertThat(parameters.getCuts(5), is(equalTo(List.of())));
+        assertThat(parameters.getCuts(6), is(equalTo(List.of(second, third))));
+        assertThat(parameters.getCuts(7), is(equalTo(List.of())));
+        assertThat(parameters.getCuts(), is(equalTo(List.of(first, second, third))));
+        assertThat(OthelloProbCutParameters.DISABLED.isEnabled(), is(equalTo(false)));
+        assertThat(OthelloProbCutParameters.DISABLED.getCuts(4), is(equalTo(List.of())));
+    }
+
+    /**
+     * Tests the bounds of the shallow search.
+     */
+    @Test
+    void testShallowBounds() {
+        final OthelloProbCut cut = new OthelloProbCut(4, 2, 2.0, 10.0, 5.0);
+        // 2 * 49 + 10 >= 100 + 1.5 * 5 > 2 * 48 + 10
+        assertThat(cut.getShallowLowerBound(100, 1.5), is(equalTo(49)));
+        // 2 * -57 + 10 <= -96 - 1.5 * 5 < 2 * -56 + 10
+        assertThat(cut.getShallowUpperBound(-96, 1.5), is(equalTo(-57)));
+    }
+
+    /**
+     * Tests that parameters are written and read without loss.
+     *
+     * @throws IOException if the temporary file cannot be used.
+     */
+    @Test
+    void testWriteAndRead() throws IOException {
+        final OthelloProbCutParameters parameters = new OthelloProbCutParameters(
+                1.75,
+                List.of(
+                        new OthelloProbCut(3, 1, 1.0569238040941096, 1.59, 20.17),
+                        new OthelloProbCut(8, 4, 1.12, -3.3, 26.5)));
+        final Path file = Files.createTempFile("probcut", ".txt");
+        try {
+            parameters.write(file);
+            assertThat(OthelloProbCutParameters.read(file), is(equalTo(parameters)));
+
+            Files.write(file, List.of("threshold 1.5", "cut 3 3 1.0 0.0 10.0"), StandardCharsets.UTF_8);
+            assertThrows(IllegalArgumentException.class, () -> OthelloProbCutParameters.read(file));
+            Files.write(file, List.of("cut 3 1 1.0 0.0"), StandardCharsets.UTF_8);
+            assertThrows(IllegalArgumentException.class, () -> OthelloProbCutParameters.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OthelloThreadBudget}.
+ */
+class OthelloThreadBudgetTest {
+
+    /**
+     * Tests that the threads are divided fairly between leases held at the same time.
+     */
+    @Test
+    void testFairShares() {
+        final OthelloThreadBudget budget = new OthelloThreadBudget(8);
+        try (OthelloThreadBudget.Lease first = budget.acquire(8)) {
+            assertThat(first.getThreadCount(), is(equalTo(8)));
+            try (OthelloThreadBudget.Lease second = budget.acquire(8)) {
+                // nothing is left, but the calling thread is always granted
+                assertThat(second.getThreadCount(), is(equalTo(1)));
+                assertThat(budget.getUsedThreads(), is(equalTo(9)));
+            }
+        }
+        assertThat(budget.getUsedThreads(), is(equalTo(0)));
+
+        try (OthelloThreadBudget.Lease first = budget.acquire(3)) {
+            assertThat(first.getThreadCount(), is(equalTo(3)));
+            try (OthelloThreadBudget.Lease second = budget.acquire(8)) {
+                assertThat(second.getThreadCount(), is(equalTo(4)));
+                try (OthelloThreadBudget.Lease third = budget.acquire(8)) {
+                    assertThat(third.getThreadCount(), is(equalTo(1)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a search running alone is not granted more than its share of the searches expected at the same time.
+     */
+    @Test
+    void testExpectedSearches() {
+        final OthelloThreadBudget budget = new OthelloThreadBudget(8, 2);
+        try (OthelloThreadBudget.Lease first = budget.acquire(8)) {
+            assertThat(first.getThreadCount(), is(equalTo(4)));
+            try (OthelloThreadBudget.Lease second = budget.acquire(8)) {
+                assertThat(second.getThreadCount(), is(equalTo(4)));
+                try (OthelloThreadBudget.Lease third = budget.acquire(8)) {
+                    assertThat(third.getThreadCount(), is(equalTo(1)));
+                }
+            }
+        }
+        assertThat(budget.getUsedThreads(), is(equalTo(0)));
+    }
+
+    /**
+     * Tests that searches acquiring their leases concurrently are granted equal shares, whichever comes first.
+     *
+     * @throws Exception if a search fails or the test is interrupted.
+     */
+    @Test
+    void testConcurrentLeases() throws Exception {
+        final int searchCount = 4;
+        final OthelloThreadBudget budget = new OthelloThreadBudget(12, searchCount);
+        final AtomicIntegerArray granted = new AtomicIntegerArray(searchCount);
+        final CyclicBarrier start = new CyclicBarrier(searchCount);
+        final CountDownLatch acquired = new CountDownLatch(searchCount);
+        final List<Thread> searches = new ArrayList<>(searchCount);
+        final List<Throwable> failures = new ArrayList<>();
+        for (int search = 0; search < searchCount; ++search) {
+            final int index = search;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    try (OthelloThreadBudget.Lease lease = budget.acquire(12)) {
+                        granted.set(index, lease.getThreadCount());
+                        // keep the lease until all searches hold theirs
+                        acquired.countDown();
+                        acquired.await();
+                    }
+                } catch (final Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            searches.add(thread);
+        }
+        for (final Thread thread : searches) {
+            thread.join();
+        }
+
+        assertThat(failures.isEmpty(), is(equalTo(true)));
+        for (int search = 0; search < searchCount; ++search) {
+            assertThat(granted.get(search), is(equalTo(3)));
+        }
+        assertThat(budget.getUsedThreads(), is(equalTo(0)));
+    }
+
+    /**
+     * Tests that releasing a lease returns its threads to the budget once only.
+     */
+    @Test
+    void testRelease() {
+        final OthelloThreadBudget budget = new OthelloThreadBudget(4);
+        final OthelloThreadBudget.Lease lease = budget.acquire(2);
+        assertThat(budget.getUsedThreads(), is(equalTo(2)));
+        lease.close();
+        lease.close();
+        assertThat(budget.getUsedThreads(), is(equalTo(0)));
+        try (OthelloThreadBudget.Lease other = budget.acquire(4)) {
+            assertThat(other.getThreadCount(), is(equalTo(4)));
+        }
+    }
+
+    /**
+     * Tests that invalid thread counts are rejected.
+     */
+    @Test
+    void testInvalidThreadCounts() {
+        assertThrows(IllegalArgumentException.class, () -> new OthelloThreadBudget(0));
+        assertThrows(IllegalArgumentException.class, () -> new OthelloThreadBudget(2).acquire(0));
+        assertThrows(IllegalArgumentException.class, () -> new OthelloThreadBudget(2, 0));
+    }
+
+    /**
+     * Tests that the parallel loop performs the action exactly once per number and returns the threads afterwards.
+     */
+    @Test
+    void testForEach() {
+        final OthelloThreadBudget budget = new OthelloThreadBudget(4);
+        final AtomicIntegerArray visits = new AtomicIntegerArray(1000);
+        budget.forEach(visits.length(), 4, visits::incrementAndGet);
+        for (int i = 0; i < visits.length(); ++i) {
+            assertThat(visits.get(i), is(equalTo(1)));
+        }
+        assertThat(budget.getUsedThreads(), is(equalTo(0)));
+    }
+
+    /**
+     * Tests that a failure of the action is rethrown by the parallel loop.
+     */
+    @Test
+    void testForEachFailure() {
+        final OthelloThreadBudget budget = new OthelloThreadBudget(4);
+        final IllegalArgumentException failure = new IllegalArgumentException("failed");
+        final IllegalArgumentException thrown = assertThrows(
+                IllegalArgumentException.class,
+                () -> budget.forEach(100, 4, (final int i) -> {
+                    if (i == 57) {
+                        throw failure;
+                    }
+                }));
+        assertThat(thrown, is(sameInstance(failure)));
+        assertThat(budget.getUsedThreads(), is(equalTo(0)));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OthelloTreeArena}.
+ */
+class OthelloTreeArenaTest {
+
+    /**
+     * Tests that children are linked to their parents and siblings, and that the arrays grow as needed.
+     */
+    @Test
+    void testAddChildren() {
+        final OthelloTreeArena tree = new OthelloTreeArena(2);
+        final int first = tree.addChild(OthelloTreeArena.ROOT, 0);
+        final int second = tree.addChild(OthelloTreeArena.ROOT, 1);
+        final int grandchild = tree.addChild(first, OthelloTreeArena.PASS);
+        tree.setScore(grandchild, 42);
+
+        assertThat(tree.size(), is(equalTo(4)));
+        assertThat(tree.getParent(OthelloTreeArena.ROOT), is(equalTo(OthelloTreeArena.NONE)));
+        assertThat(tree.getFirstChild(OthelloTreeArena.ROOT), is(equalTo(first)));
+        assertThat(tree.getNextSibling(first), is(equalTo(second)));
+        assertThat(tree.getNextSibling(second), is(equalTo(OthelloTreeArena.NONE)));
+        assertThat(tree.getParent(second), is(equalTo(OthelloTreeArena.ROOT)));
+        assertThat(tree.getMove(second), is(equalTo(1)));
+        assertThat(tree.getFirstChild(first), is(equalTo(grandchild)));
+        assertThat(tree.getFirstChild(second), is(equalTo(OthelloTreeArena.NONE)));
+        assertThat(tree.getParent(grandchild), is(equalTo(first)));
+        assertThat(tree.getMove(grandchild), is(equalTo(OthelloTreeArena.PASS)));
+        assertThat(tree.getScore(grandchild), is(equalTo(42)));
+    }
+
+    /**
+     * Tests that the children of a node have to be added consecutively.
+     */
+    @Test
+    void testChildrenAreConsecutive() {
+        final OthelloTreeArena tree = new OthelloTreeArena();
+        final int first = tree.addChild(OthelloTreeArena.ROOT, 0);
+        tree.addChild(first, 0);
+        assertThrows(IllegalStateException.class, () -> tree.addChild(OthelloTreeArena.ROOT, 1));
+        assertThrows(IllegalArgumentException.class, () -> tree.getScore(tree.size()));
+    }
+
+    /**
+     * Tests that clearing leaves a fresh root.
+     */
+    @Test
+    void testClear() {
+        final OthelloTreeArena tree = new OthelloTreeArena();
+        tree.setScore(OthelloTreeArena.ROOT, 7);
+        final int child = tree.addChild(OthelloTreeArena.ROOT, 3);
+        tree.clear();
+
+        assertThat(tree.size(), is(equalTo(1)));
+        assertThat(tree.getScore(OthelloTreeArena.ROOT), is(equalTo(0)));
+        assertThat(tree.getFirstChild(OthelloTreeArena.ROOT), is(equalTo(OthelloTreeArena.NONE)));
+        assertThat(tree.addChild(OthelloTreeArena.ROOT, 5), is(equalTo(child)));
+        assertThat(tree.getMove(child), is(equalTo(5)));
+    }
+
+    /**
+     * Tests the minimax backup of a tree with leaves at different depths and equally good children.
+     */
+    @Test
+    void testBackUp() {
+        final OthelloTreeArena tree = new OthelloTreeArena();
+        final int a = tree.addChild(OthelloTreeArena.ROOT, 0);
+        final int b = tree.addChild(OthelloTreeArena.ROOT, 1);
+        final int c = tree.addChild(OthelloTreeArena.ROOT, 2);
+        final int a1 = tree.addChild(a, 0);
+        final int a2 = tree.addChild(a, 1);
+        final int b1 = tree.addChild(b, 0);
+        final int b2 = tree.addChild(b, 1);
+        final int c1 = tree.addChild(c, OthelloTreeArena.PASS);
+        final int b21 = tree.addChild(b2, 0);
+        final int b22 = tree.addChild(b2, 1);
+        tree.setScore(a1, 3);
+        tree.setScore(a2, 5);
+        tree.setScore(b1, 8);
+        tree.setScore(b21, 2);
+        tree.setScore(b22, 9);
+        tree.setScore(c1, 9);
+
+        // b2 = max(2, 9) = 9, b = min(8, 9) = 8, c = 9, a = min(3, 5) = 3
+        assertThat(tree.backUp(true), is(equalTo(c)));
+        assertThat(tree.getScore(OthelloTreeArena.ROOT), is(equalTo(9)));
+        assertThat(tree.getScore(a), is(equalTo(3)));
+        assertThat(tree.getScore(b), is(equalTo(8)));
+        assertThat(tree.getScore(b2), is(equalTo(9)));
+        assertThat(tree.getDepth(b22), is(equalTo(3)));
+
+        // b2 = min(2, 9) = 2, b = max(8, 2) = 8, c = 9, a = max(3, 5) = 5
+        assertThat(tree.backUp(false), is(equalTo(a)));
+        assertThat(tree.getScore(OthelloTreeArena.ROOT), is(equalTo(5)));
+        assertThat(tree.getScore(b2), is(equalTo(2)));
+        assertThat(tree.getFirstChild(b2), is(equalTo(b21)));
+        assertThat(tree.getNextSibling(b21), is(equalTo(b22)));
+
+        // the first of several equally good children is preferred
+        tree.setScore(a2, 8);
+        tree.setScore(c1, 8);
+        assertThat(tree.backUp(false), is(equalTo(a)));
+        tree.setScore(a2, 3);
+        tree.setScore(b21, 8);
+        assertThat(tree.backUp(true), is(equalTo(b)));
+        assertThat(tree.getScore(OthelloTreeArena.ROOT), is(equalTo(8)));
+    }
+
+    /**
+     * Tests that the backup of a tree consisting of the root only finds no best child.
+     */
+    @Test
+    void testBackUpOfLeaf() {
+        final OthelloTreeArena tree = new OthelloTreeArena();
+        tree.setScore(OthelloTreeArena.ROOT, 4);
+        assertThat(tree.backUp(true), is(equalTo(OthelloTreeArena.NONE)));
+        assertThat(tree.getScore(OthelloTreeArena.ROOT), is(equalTo(4)));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OthelloGamePhase}.
+ */
+class OthelloGamePhaseTest {
+
+    /**
+     * Tests the phases and shares at and between the anchors.
+     */
+    @Test
+    void testPhases() {
+        final OthelloGamePhase phase = new OthelloGamePhase(64, 5);
+        assertThat(phase.getLowerPhase(0), is(equalTo(0)));
+        assertThat(phase.getUpperShare(0), is(equalTo(0)));
+        assertThat(phase.getLowerPhase(16), is(equalTo(1)));
+        assertThat(phase.getUpperShare(16), is(equalTo(0)));
+        assertThat(phase.getLowerPhase(24), is(equalTo(1)));
+        assertThat(phase.getUpperPhase(24), is(equalTo(2)));
+        assertThat(phase.getUpperShare(24), is(equalTo(OthelloGamePhase.SHARE_SCALE / 2)));
+        assertThat(phase.getLowerPhase(64), is(equalTo(4)));
+        assertThat(phase.getUpperPhase(64), is(equalTo(4)));
+
+        final OthelloGamePhase single = new OthelloGamePhase(16, 1);
+        assertThat(single.getLowerPhase(9), is(equalTo(0)));
+        assertThat(single.getUpperPhase(9), is(equalTo(0)));
+
+        assertThrows(IllegalArgumentException.class, () -> new OthelloGamePhase(64, 0));
+    }
+
+    /**
+     * Tests that interpolated values change smoothly and symmetrically.
+     */
+    @Test
+    void testInterpolate() {
+        final OthelloGamePhase phase = new OthelloGamePhase(100, 3);
+        assertThat(phase.interpolate(0, 10, 90), is(equalTo(10)));
+        assertThat(phase.interpolate(25, 10, 90), is(equalTo(50)));
+        assertThat(phase.interpolate(25, -10, -90), is(equalTo(-50)));
+        int previous = phase.interpolate(0, 0, 1000);
+        for (int empties = 1; empties < 50; ++empties) {
+            final int value = phase.interpolate(empties, 0, 1000);
+            assertThat(value > previous, is(equalTo(true)));
+            previous = value;
+        }
+    }
+}
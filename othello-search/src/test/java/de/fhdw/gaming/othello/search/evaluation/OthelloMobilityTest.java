@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * Tests {@link OthelloMobility}.
+ */
+class OthelloMobilityTest {
+
+    /**
+     * Tests the terms of the initial position.
+     */
+    @Test
+    void testInitialPosition() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(8);
+        final long black = board.getInitialSquares(true);
+        final long white = board.getInitialSquares(false);
+        assertThat(OthelloMobility.mobility(board, black, white), is(equalTo(4)));
+        assertThat(OthelloMobility.weightedMobility(board, board.legalMoves(black, white), 3, 1), is(equalTo(4)));
+        // the empty fields around the two white tokens
+        assertThat(OthelloMobility.potentialMobility(board, black, white), is(equalTo(10)));
+        assertThat(OthelloMobility.frontier(board, black, white), is(equalTo(black)));
+    }
+
+    /**
+     * Tests the weights of moves on corners and edges.
+     */
+    @Test
+    void testWeightedMobility() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(8);
+        final long moves = 1L << OthelloBitBoard.square(0, 0) | 1L << OthelloBitBoard.square(0, 3)
+                | 1L << OthelloBitBoard.square(3, 3);
+        assertThat(OthelloMobility.weightedMobility(board, moves, 0, 0), is(equalTo(3)));
+        assertThat(OthelloMobility.weightedMobility(board, moves, 10, 0), is(equalTo(13)));
+        assertThat(OthelloMobility.weightedMobility(board, moves, 10, 2), is(equalTo(15)));
+    }
+
+    /**
+     * Tests that the empty neighbours are counted per token, as by walking the neighbours of each token.
+     */
+    @Test
+    void testEmptyNeighbours() {
+        final Random random = new Random(41);
+        for (final int size : new int[] { 4, 6, 8 }) {
+            final OthelloBitBoard board = OthelloBitBoard.forSize(size);
+            for (int test = 0; test < 200; ++test) {
+                final long player = random.nextLong() & board.getValidSquares();
+                final long opponent = random.nextLong() & board.getValidSquares() & ~player;
+                final long empty = board.emptySquares(player, opponent);
+                int expected = 0;
+                for (int row = 0; row < size; ++row) {
+                    for (int column = 0; column < size; ++column) {
+                        if ((player >>> OthelloBitBoard.square(row, column) & 1L) != 0L) {
+                            expected += OthelloMobilityTest.countEmptyNeighbours(size, empty, row, column);
+                        }
+                    }
+                }
+                assertThat(OthelloMobility.emptyNeighbours(board, player, opponent), is(equalTo(expected)));
+            }
+        }
+    }
+
+    /**
+     * Counts the empty fields adjacent to a field.
+     *
+     * @param size   The number of rows (and columns).
+     * @param empty  The empty fields.
+     * @param row    The row of the field.
+     * @param column The column of the field.
+     */
+    private static int countEmptyNeighbours(final int size, final long empty, final int row, final int column) {
+        int count = 0;
+        for (int rowDelta = -1; rowDelta <= 1; ++rowDelta) {
+            for (int columnDelta = -1; columnDelta <= 1; ++columnDelta) {
+                final int neighbourRow = row + rowDelta;
+                final int neighbourColumn = column + columnDelta;
+                if ((rowDelta != 0 || columnDelta != 0) && neighbourRow >= 0 && neighbourRow < size
+                        && neighbourColumn >= 0 && neighbourColumn < size
+                        && (empty >>> OthelloBitBoard.square(neighbourRow, neighbourColumn) & 1L) != 0L) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+}
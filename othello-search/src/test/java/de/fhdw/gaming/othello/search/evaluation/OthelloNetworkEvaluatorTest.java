@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+
+/**
+ * Tests {@link OthelloNetworkEvaluator} and {@link OthelloNetworkWeights}.
+ */
+class OthelloNetworkEvaluatorTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests that the default network evaluates like the weight table plus one point per token, up to the limit of the
+     * hidden units.
+     */
+    @Test
+    void testDefaultWeights() {
+        final OthelloNetworkEvaluator evaluator = new OthelloNetworkEvaluator();
+        final int[] weights = OthelloWeightTable.forSize(8).toSquareWeights();
+        final Random random = new Random(11);
+        for (int test = 0; test < 1000; ++test) {
+            final long player = random.nextLong();
+            final long opponent = random.nextLong() & ~player;
+            int expected = 0;
+            for (int square = 0; square < weights.length; ++square) {
+                if ((player >>> square & 1L) != 0L) {
+                    expected += weights[square] + 1;
+                } else if ((opponent >>> square & 1L) != 0L) {
+                    expected -= weights[square] + 1;
+                }
+            }
+            final int limit = OthelloNetworkWeights.ACTIVATION_LIMIT / OthelloNetworkWeights.HIDDEN_SCALE;
+            assertThat(
+                    evaluator.evaluate(OthelloNetworkEvaluatorTest.BOARD, player, opponent),
+                    is(equalTo(Math.max(-limit, Math.min(limit, expected)))));
+        }
+    }
+
+    /**
+     * Tests that the incremental evaluation equals the evaluation from scratch while moves are made and taken back in
+     * random games, including passes, for a network with random weights.
+     */
+    @Test
+    void testIncrementalUpdates() {
+        final Random random = new Random(13);
+        final OthelloNetworkEvaluator evaluator = new OthelloNetworkEvaluator(
+                OthelloNetworkEvaluatorTest.createRandomWeights(random));
+        final OthelloIncrementalEvaluation evaluation = evaluator.newEvaluation(OthelloNetworkEvaluatorTest.BOARD);
+        for (int game = 0; game < 50; ++game) {
+            long player = OthelloNetworkEvaluatorTest.BOARD.getInitialSquares(true);
+            long opponent = OthelloNetworkEvaluatorTest.BOARD.getInitialSquares(false);
+            evaluation.setUp(player, opponent);
+            final int[] moves = new int[128];
+            final long[] flips = new long[128];
+            final long[] players = new long[128];
+            final long[] opponents = new long[128];
+            int ply = 0;
+            while (true) {
+                assertThat(
+                        evaluation.evaluate(player, opponent),
+                        is(equalTo(evaluator.evaluate(OthelloNetworkEvaluatorTest.BOARD, player, opponent))));
+                long legal = OthelloNetworkEvaluatorTest.BOARD.legalMoves(player, opponent);
+                if (legal == 0L && OthelloNetworkEvaluatorTest.BOARD.legalMoves(opponent, player) == 0L) {
+                    break;
+                }
+                int move = OthelloBitBoard.PASS;
+                long flipped = 0L;
+                if (legal != 0L) {
+                    for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                        legal &= legal - 1L;
+                    }
+                    move = Long.numberOfTrailingZeros(legal);
+                    flipped = OthelloNetworkEvaluatorTest.BOARD.flips(player, opponent, move);
+                }
+                evaluation.makeMove(move, flipped);
+                moves[ply] = move;
+                flips[ply] = flipped;
+                players[ply] = player;
+                opponents[ply] = opponent;
+                ++ply;
+                final long newPlayer = opponent & ~flipped;
+                opponent = move == OthelloBitBoard.PASS ? player : player | flipped | 1L << move;
+                player = newPlayer;
+            }
+
+            while (ply > 0) {
+                --ply;
+                evaluation.unmakeMove(moves[ply], flips[ply]);
+                assertThat(
+                        evaluation.evaluate(players[ply], opponents[ply]),
+                        is(equalTo(
+                                evaluator.evaluate(OthelloNetworkEvaluatorTest.BOARD, players[ply], opponents[ply]))));
+            }
+        }
+    }
+
+    /**
+     * Tests that weights are written and read without loss.
+     *
+     * @throws IOException if the temporary file cannot be used.
+     */
+    @Test
+    void testWriteAndRead() throws IOException {
+        final OthelloNetworkWeights weights = OthelloNetworkEvaluatorTest.createRandomWeights(new Random(17));
+        final Path file = Files.createTempFile("network", ".bin");
+        try {
+            weights.write(file);
+            final OthelloNetworkWeights read = OthelloNetworkWeights.read(file);
+            assertThat(read.getInputWeights(), is(equalTo(weights.getInputWeights())));
+            assertThat(read.getHiddenBiases(), is(equalTo(weights.getHiddenBiases())));
+            assertThat(read.getOutputWeights(), is(equalTo(weights.getOutputWeights())));
+            assertThat(read.getOutputBias(), is(equalTo(weights.getOutputBias())));
+
+            Files.write(file, new byte[] { 'O', 'N', 'N', 'W', 0, 0, 0, 1, 0, 0, 0, 16 });
+            assertThrows(IllegalArgumentException.class, () -> OthelloNetworkWeights.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Creates random weights whose hidden units are clipped at either end of their range in some positions.
+     *
+     * @param random The source of the weights.
+     */
+    private static OthelloNetworkWeights createRandomWeights(final Random random) {
+        final short[] inputWeights = new short[OthelloNetworkWeights.INPUT_COUNT * OthelloNetworkWeights.HIDDEN_SIZE];
+        for (int weight = 0; weight < inputWeights.length; ++weight) {
+            inputWeights[weight] = (short) (random.nextInt(401) - 200);
+        }
+        final short[] hiddenBiases = new short[OthelloNetworkWeights.HIDDEN_SIZE];
+        final short[] outputWeights = new short[OthelloNetworkWeights.HIDDEN_SIZE];
+        for (int unit = 0; unit < OthelloNetworkWeights.HIDDEN_SIZE; ++unit) {
+            hiddenBiases[unit] = (short) (random.nextInt(1001) - 500);
+            outputWeights[unit] = (short) (random.nextInt(201) - 100);
+        }
+        return new OthelloNetworkWeights(inputWeights, hiddenBiases, outputWeights, random.nextInt(1000));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloIncrementalEvaluation;
+
+/**
+ * Tests {@link OthelloPatternEvaluator}.
+ */
+class OthelloPatternEvaluatorTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests the number of patterns and that every field is covered.
+     */
+    @Test
+    void testPatterns() {
+        assertThat(OthelloPatterns.getInstanceCount(), is(equalTo(46)));
+        for (int square = 0; square < OthelloPatterns.SQUARE_COUNT; ++square) {
+            assertThat(OthelloPatterns.getCoverage(square) > 0, is(equalTo(true)));
+        }
+    }
+
+    /**
+     * Tests that the symmetric initial position is evaluated as even and that the evaluation is antisymmetric.
+     */
+    @Test
+    void testSymmetry() {
+        final OthelloPatternEvaluator evaluator = new OthelloPatternEvaluator();
+        final long black = OthelloPatternEvaluatorTest.BOARD.getInitialSquares(true);
+        final long white = OthelloPatternEvaluatorTest.BOARD.getInitialSquares(false);
+        assertThat(evaluator.evaluate(OthelloPatternEvaluatorTest.BOARD, black, white), is(equalTo(0)));
+
+        final Random random = new Random(3);
+        for (int test = 0; test < 1000; ++test) {
+            final long player = random.nextLong();
+            final long opponent = random.nextLong() & ~player;
+            assertThat(
+                    evaluator.evaluate(OthelloPatternEvaluatorTest.BOARD, player, opponent),
+                    is(equalTo(-evaluator.evaluate(OthelloPatternEvaluatorTest.BOARD, opponent, player))));
+        }
+    }
+
+    /**
+     * Tests that the incremental evaluation equals the evaluation from scratch while moves are made and taken back in
+     * random games, including passes.
+     */
+    @Test
+    void testIncrementalUpdates() {
+        final OthelloPatternEvaluator evaluator = new OthelloPatternEvaluator();
+        final OthelloIncrementalEvaluation evaluation = evaluator.newEvaluation(OthelloPatternEvaluatorTest.BOARD);
+        final Random random = new Random(5);
+        for (int game = 0; game < 50; ++game) {
+            long player = OthelloPatternEvaluatorTest.BOARD.getInitialSquares(true);
+            long opponent = OthelloPatternEvaluatorTest.BOARD.getInitialSquares(false);
+            evaluation.setUp(player, opponent);
+            final int[] moves = new int[128];
+            final long[] flips = new long[128];
+            final long[] players = new long[128];
+            final long[] opponents = new long[128];
+            int ply = 0;
+            while (true) {
+                assertThat(
+                        evaluation.evaluate(player, opponent),
+                        is(equalTo(evaluator.evaluate(OthelloPatternEvaluatorTest.BOARD, player, opponent))));
+                long legal = OthelloPatternEvaluatorTest.BOARD.legalMoves(player, opponent);
+                if (legal == 0L && OthelloPatternEvaluatorTest.BOARD.legalMoves(opponent, player) == 0L) {
+                    break;
+                }
+                int move = OthelloBitBoard.PASS;
+                long flipped = 0L;
+                if (legal != 0L) {
+                    for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                        legal &= legal - 1L;
+                    }
+                    move = Long.numberOfTrailingZeros(legal);
+                    flipped = OthelloPatternEvaluatorTest.BOARD.flips(player, opponent, move);
+                }
+                evaluation.makeMove(move, flipped);
+                moves[ply] = move;
+                flips[ply] = flipped;
+                players[ply] = player;
+                opponents[ply] = opponent;
+                ++ply;
+                final long newPlayer = opponent & ~flipped;
+                opponent = move == OthelloBitBoard.PASS ? player : player | flipped | 1L << move;
+                player = newPlayer;
+            }
+
+            while (ply > 0) {
+                --ply;
+                evaluation.unmakeMove(moves[ply], flips[ply]);
+                assertThat(
+                        evaluation.evaluate(players[ply], opponents[ply]),
+                        is(equalTo(
+                                evaluator.evaluate(OthelloPatternEvaluatorTest.BOARD, players[ply], opponents[ply]))));
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloPositionFile;
+import de.fhdw.gaming.othello.search.OthelloPositionWriter;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+
+/**
+ * Tests {@link OthelloPatternTrainer} and the weight files of {@link OthelloPatternWeights}.
+ */
+class OthelloPatternTrainerTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests that weights are written and read without loss.
+     *
+     * @throws IOException if the temporary file cannot be used.
+     */
+    @Test
+    void testWriteAndRead() throws IOException {
+        final OthelloPatternWeights weights = OthelloPatternWeights.getDefault();
+        final Path file = Files.createTempFile("weights", ".bin");
+        try {
+            weights.write(file);
+            final OthelloPatternWeights read = OthelloPatternWeights.read(file);
+            assertThat(read.getPhaseCount(), is(equalTo(weights.getPhaseCount())));
+            for (int phase = 0; phase < weights.getPhaseCount(); ++phase) {
+                for (int type = 0; type < OthelloPatterns.TYPE_COUNT; ++type) {
+                    assertThat(read.getTables(phase)[type], is(equalTo(weights.getTables(phase)[type])));
+                }
+            }
+
+            Files.write(file, new byte[] { 'O', 'P', 'T', 'W', 0, 0, 0, 2 });
+            assertThrows(IllegalArgumentException.class, () -> OthelloPatternWeights.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that training on positions whose results depend on their corners and tokens reduces the error of the
+     * evaluation, and that the trained evaluation stays antisymmetric.
+     *
+     * @throws IOException if the temporary file cannot be used.
+     */
+    @Test
+    void testTraining() throws IOException {
+        final Path file = Files.createTempFile("positions", ".bin");
+        try {
+            final Random random = new Random(7);
+            final long corners = OthelloPatternTrainerTest.BOARD.getCornerSquares();
+            try (OthelloPositionWriter writer = new OthelloPositionWriter(file)) {
+                for (int position = 0; position < 4000; ++position) {
+                    final long player = random.nextLong() & random.nextLong();
+                    final long opponent = random.nextLong() & random.nextLong() & ~player;
+                    final int result = 8 * (Long.bitCount(player & corners) - Long.bitCount(opponent & corners))
+                            + (Long.bitCount(player) - Long.bitCount(opponent)) / 2;
+                    writer.append(player, opponent, Math.max(-64, Math.min(64, result)));
+                }
+            }
+            final OthelloPositionFile positions = OthelloPositionFile.map(file);
+            final OthelloPatternTrainer trainer = new OthelloPatternTrainer(
+                    OthelloPatternWeights.getDefault(),
+                    2,
+                    new OthelloThreadBudget(2));
+            final double initialError = trainer.getMeanSquaredError(positions);
+            for (int epoch = 0; epoch < 5; ++epoch) {
+                trainer.trainEpoch(positions, 256, 0.05f, random);
+            }
+            assertThat(trainer.getMeanSquaredError(positions), is(lessThan(initialError / 4.0)));
+
+            final OthelloPatternEvaluator evaluator = new OthelloPatternEvaluator(trainer.getWeights());
+            for (int test = 0; test < 100; ++test) {
+                final long player = random.nextLong();
+                final long opponent = random.nextLong() & ~player;
+                assertThat(
+                        evaluator.evaluate(OthelloPatternTrainerTest.BOARD, player, opponent),
+                        is(equalTo(-evaluator.evaluate(OthelloPatternTrainerTest.BOARD, opponent, player))));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.evaluation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.core.domain.OthelloPosition;
+
+/**
+ * Tests {@link OthelloWeightTable}.
+ */
+class OthelloWeightTableTest {
+
+    /**
+     * The classic weight table of an 8x8 board.
+     */
+    private static final int[][] CLASSIC_WEIGHTS = {
+            { 100, -30, 6, 2, 2, 6, -30, 100 },
+            { -30, -50, 0, 0, 0, 0, -50, -30 },
+            { 6, 0, 0, 0, 0, 0, 0, 6 },
+            { 2, 0, 0, 3, 3, 0, 0, 2 },
+            { 2, 0, 0, 3, 3, 0, 0, 2 },
+            { 6, 0, 0, 0, 0, 0, 0, 6 },
+            { -30, -50, 0, 0, 0, 0, -50, -30 },
+            { 100, -30, 6, 2, 2, 6, -30, 100 } };
+
+    /**
+     * Tests that the table of an 8x8 board is the classic weight table.
+     */
+    @Test
+    void testClassicWeights() {
+        final OthelloWeightTable table = OthelloWeightTable.forSize(8);
+        for (int row = 0; row < 8; ++row) {
+            for (int column = 0; column < 8; ++column) {
+                assertThat(
+                        table.getWeight(row, column),
+                        is(equalTo(OthelloWeightTableTest.CLASSIC_WEIGHTS[row][column])));
+            }
+        }
+        assertThat(table.getWeight(OthelloPosition.of(6, 1)), is(equalTo(-50)));
+        assertThat(table.toSquareWeights()[7 * 8 + 2], is(equalTo(6)));
+    }
+
+    /**
+     * Tests the tables of other sizes.
+     */
+    @Test
+    void testOtherSizes() {
+        final OthelloWeightTable small = OthelloWeightTable.forSize(4);
+        assertThat(small.getWeight(0, 0), is(equalTo(100)));
+        assertThat(small.getWeight(0, 2), is(equalTo(-30)));
+        assertThat(small.getWeight(2, 1), is(equalTo(-50)));
+
+        final OthelloWeightTable large = OthelloWeightTable.forSize(16);
+        assertThat(large.getSize(), is(equalTo(16)));
+        assertThat(large.getWeight(15, 15), is(equalTo(100)));
+        assertThat(large.getWeight(14, 14), is(equalTo(-50)));
+        assertThat(large.getWeight(15, 13), is(equalTo(6)));
+        assertThat(large.getWeight(0, 7), is(equalTo(2)));
+        assertThat(large.getWeight(7, 8), is(equalTo(3)));
+        assertThat(large.getWeight(6, 7), is(equalTo(0)));
+        assertThrows(IllegalStateException.class, large::toSquareWeights);
+    }
+
+    /**
+     * Tests that tables are generated once per size, and that invalid sizes are rejected.
+     */
+    @Test
+    void testForSize() {
+        assertThat(OthelloWeightTable.forSize(10), is(sameInstance(OthelloWeightTable.forSize(10))));
+        assertThrows(IllegalArgumentException.class, () -> OthelloWeightTable.forSize(2));
+        assertThrows(IllegalArgumentException.class, () -> OthelloWeightTable.forSize(7));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchOutcome;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+
+/**
+ * Tests {@link OthelloEndgameSolver} and {@link OthelloEndgameSolvingEngine}.
+ */
+class OthelloEndgameSolverTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests that positions with few empty squares, which are solved by dedicated code, are solved exactly.
+     */
+    @Test
+    void testSolvesFewEmpties() {
+        final Random random = new Random(17);
+        for (int game = 0; game < 200; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 59 + game % 4);
+            OthelloEndgameSolverTest.assertSolved(position);
+        }
+    }
+
+    /**
+     * Tests that positions with more empty squares are solved exactly.
+     */
+    @Test
+    void testSolvesEndgames() {
+        final Random random = new Random(19);
+        for (int game = 0; game < 20; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 53 + game % 3);
+            OthelloEndgameSolverTest.assertSolved(position);
+        }
+    }
+
+    /**
+     * Tests that a search with the window (-1, 1) determines whether the player to move wins, draws or loses, and
+     * that it names a move achieving a win or a draw, but no move for a loss, where all moves fail low.
+     */
+    @Test
+    void testSolvesWinLossDraw() {
+        final Random random = new Random(29);
+        for (int game = 0; game < 20; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 52 + game % 3);
+            final OthelloEndgameSolver solver = new OthelloEndgameSolver(
+                    OthelloEndgameSolverTest.BOARD,
+                    new OthelloTranspositionTable(16),
+                    new AtomicBoolean(),
+                    System.nanoTime() + TimeUnit.HOURS.toNanos(1L));
+            final int expected = OthelloLazySmpEngineTest.solve(position[0], position[1]);
+            assertThat(
+                    Integer.signum(solver.solveRoot(position[0], position[1], -1, 1)),
+                    is(equalTo(Integer.signum(expected))));
+
+            final int move = solver.getBestMove();
+            if (expected < 0) {
+                assertThat(move, is(equalTo(OthelloBitBoard.PASS)));
+            } else {
+                final long flipped = OthelloEndgameSolverTest.BOARD.flips(position[0], position[1], move);
+                assertThat(
+                        Integer.signum(
+                                -OthelloLazySmpEngineTest
+                                        .solve(position[1] & ~flipped, position[0] | flipped | 1L << move)),
+                        is(equalTo(Integer.signum(expected))));
+            }
+        }
+    }
+
+    /**
+     * Tests that the engine solves endgames below its threshold.
+     */
+    @Test
+    void testEngineSolvesEndgames() {
+        final OthelloEndgameSolvingEngine engine = new OthelloEndgameSolvingEngine(
+                new OthelloLazySmpEngine(new OthelloSquareWeightEvaluator(new int[64], 1), 1, 1L, 1, 10),
+                12,
+                TimeUnit.MINUTES.toMillis(10L),
+                16);
+        final Random random = new Random(23);
+        for (int game = 0; game < 10; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 54);
+            if (Long.bitCount(OthelloEndgameSolverTest.BOARD.legalMoves(position[0], position[1])) > 1) {
+                final OthelloSearchResult result = engine
+                        .search(game, OthelloEndgameSolverTest.BOARD, position[0], position[1]);
+                final int expected = OthelloLazySmpEngineTest.solve(position[0], position[1]);
+                assertThat(result.getStatistics().getDepth(), is(equalTo(10)));
+                assertThat(result.getScore(), is(equalTo(expected)));
+                assertThat(
+                        result.getStatistics().getOutcome(),
+                        is(equalTo(Optional.of(OthelloSearchOutcome.of(expected)))));
+                assertThat(
+                        result.getStatistics().getDiscDifference(),
+                        is(equalTo(OptionalInt.of(expected - Integer.signum(expected) * OthelloEvaluator.WIN_SCORE))));
+            }
+        }
+    }
+
+    /**
+     * Asserts that the solver computes the score of a position and a move achieving it.
+     *
+     * @param position The fields of the player to move and the fields of the opponent.
+     */
+    private static void assertSolved(final long[] position) {
+        final OthelloEndgameSolver solver = new OthelloEndgameSolver(
+                OthelloEndgameSolverTest.BOARD,
+                new OthelloTranspositionTable(16),
+                new AtomicBoolean(),
+                System.nanoTime() + TimeUnit.HOURS.toNanos(1L));
+        final int score = solver.solveRoot(
+                position[0],
+                position[1],
+                -OthelloNegamaxSearcher.INFINITY,
+                OthelloNegamaxSearcher.INFINITY);
+        final int expected = OthelloLazySmpEngineTest.solve(position[0], position[1]);
+        assertThat(OthelloEndgameSolver.toEngineScore(score), is(equalTo(expected)));
+
+        final int move = solver.getBestMove();
+        final long flipped = OthelloEndgameSolverTest.BOARD.flips(position[0], position[1], move);
+        assertThat(
+                -OthelloLazySmpEngineTest.solve(position[1] & ~flipped, position[0] | flipped | 1L << move),
+                is(equalTo(expected)));
+    }
+}
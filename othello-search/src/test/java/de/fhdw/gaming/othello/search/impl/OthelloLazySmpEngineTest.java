@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluationCache;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloProbCut;
+import de.fhdw.gaming.othello.search.OthelloProbCutParameters;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.evaluation.OthelloCachingEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloPatternEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+
+/**
+ * Tests {@link OthelloLazySmpEngine}.
+ */
+class OthelloLazySmpEngineTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+    /**
+     * A simple evaluator.
+     */
+    private static final OthelloEvaluator EVALUATOR = new OthelloSquareWeightEvaluator(new int[64], 1);
+
+    /**
+     * Tests that a player without active fields skips.
+     */
+    @Test
+    void testPass() {
+        final OthelloLazySmpEngine engine = new OthelloLazySmpEngine(OthelloLazySmpEngineTest.EVALUATOR, 1, 100L, 64,
+                10);
+        final OthelloSearchResult result = engine.search(1, OthelloLazySmpEngineTest.BOARD, 1L, 0L);
+        assertThat(result.isPass(), is(equalTo(true)));
+    }
+
+    /**
+     * Tests that the selective search prunes only with confidence: ProbCut checks with a huge deviation never prune,
+     * while exact predictions prune many nodes.
+     */
+    @Test
+    void testProbCut() {
+        final OthelloProbCutParameters reluctant = new OthelloProbCutParameters(
+                2.0,
+                List.of(new OthelloProbCut(3, 1, 1.0, 0.0, 1e7), new OthelloProbCut(5, 2, 1.0, 0.0, 1e7)));
+        final OthelloProbCutParameters eager = new OthelloProbCutParameters(
+                0.0,
+                List.of(new OthelloProbCut(3, 1, 1.0, 0.0, 0.0), new OthelloProbCut(5, 2, 1.0, 0.0, 0.0)));
+        final Random random = new Random(11);
+        for (int game = 0; game < 10; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 24);
+            final OthelloSearchResult fullWidth = new OthelloLazySmpEngine(OthelloLazySmpEngineTest.EVALUATOR, 1,
+                    60000L, 6, 16).search(game, OthelloLazySmpEngineTest.BOARD, position[0], position[1]);
+            final OthelloSearchResult reluctantResult = new OthelloLazySmpEngine(OthelloLazySmpEngineTest.EVALUATOR,
+                    1, 60000L, 6, 16, reluctant).search(game, OthelloLazySmpEngineTest.BOARD, position[0], position[1]);
+            final OthelloSearchResult eagerResult = new OthelloLazySmpEngine(OthelloLazySmpEngineTest.EVALUATOR, 1,
+                    60000L, 6, 16, eager).search(game, OthelloLazySmpEngineTest.BOARD, position[0], position[1]);
+            assertThat(reluctantResult.getScore(), is(equalTo(fullWidth.getScore())));
+            assertThat(reluctantResult.getBestMove(), is(equalTo(fullWidth.getBestMove())));
+            assertThat(
+                    eagerResult.getStatistics().getNodes() < fullWidth.getStatistics().getNodes(),
+                    is(equalTo(true)));
+        }
+    }
+
+    /**
+     * Tests that endgames are solved exactly, both sequentially and in parallel.
+     */
+    @Test
+    void testSolvesEndgames() {
+        final Random random = new Random(7);
+        for (int game = 0; game < 10; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 54);
+            final int expected = OthelloLazySmpEngineTest.solve(position[0], position[1]);
+            for (final int threads : new int[] { 1, 3 }) {
+                final OthelloLazySmpEngine engine = new OthelloLazySmpEngine(OthelloLazySmpEngineTest.EVALUATOR,
+                        threads, 60000L, 64, 16);
+                final OthelloSearchResult result = engine.search(
+                        game,
+                        OthelloLazySmpEngineTest.BOARD,
+                        position[0],
+                        position[1]);
+                assertThat(result.isPass(), is(not(equalTo(true))));
+                if (Long.bitCount(OthelloLazySmpEngineTest.BOARD.legalMoves(position[0], position[1])) > 1) {
+                    assertThat(result.getScore(), is(equalTo(expected)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that neither following the moves by an incremental evaluation nor caching the evaluations changes the
+     * result of a search.
+     */
+    @Test
+    void testIncrementalEvaluation() {
+        final OthelloPatternEvaluator incremental = new OthelloPatternEvaluator();
+        final OthelloEvaluator stateless = incremental::evaluate;
+        final Random random = new Random(13);
+        for (int game = 0; game < 10; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 20 + game);
+            final OthelloSearchResult expected = new OthelloLazySmpEngine(stateless, 1, 60000L, 5, 16)
+                    .search(game, OthelloLazySmpEngineTest.BOARD, position[0], position[1]);
+            final OthelloSearchResult actual = new OthelloLazySmpEngine(incremental, 1, 60000L, 5, 16)
+                    .search(game, OthelloLazySmpEngineTest.BOARD, position[0], position[1]);
+            assertThat(actual.getScore(), is(equalTo(expected.getScore())));
+            assertThat(actual.getBestMove(), is(equalTo(expected.getBestMove())));
+            assertThat(actual.getStatistics().getNodes(), is(equalTo(expected.getStatistics().getNodes())));
+
+            final OthelloSearchResult cached = new OthelloLazySmpEngine(
+                    new OthelloCachingEvaluator(incremental, new OthelloEvaluationCache(12)),
+                    1,
+                    60000L,
+                    5,
+                    16).search(game, OthelloLazySmpEngineTest.BOARD, position[0], position[1]);
+            assertThat(cached.getScore(), is(equalTo(expected.getScore())));
+            assertThat(cached.getBestMove(), is(equalTo(expected.getBestMove())));
+        }
+    }
+
+    /**
+     * Plays random moves from the initial position until a given number of tokens is on the board and the player to
+     * move has an active field.
+     *
+     * @param random The source of randomness.
+     * @param tokens The number of tokens.
+     * @return The fields of the player to move and the fields of the opponent.
+     */
+    static long[] playRandomly(final Random random, final int tokens) {
+        while (true) {
+            long player = OthelloLazySmpEngineTest.BOARD.getInitialSquares(true);
+            long opponent = OthelloLazySmpEngineTest.BOARD.getInitialSquares(false);
+            while (Long.bitCount(player | opponent) < tokens) {
+                long legal = OthelloLazySmpEngineTest.BOARD.legalMoves(player, opponent);
+                if (legal != 0L) {
+                    for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                        legal &= legal - 1L;
+                    }
+                    final int square = Long.numberOfTrailingZeros(legal);
+                    final long flipped = OthelloLazySmpEngineTest.BOARD.flips(player, opponent, square);
+                    player |= flipped | 1L << square;
+                    opponent &= ~flipped;
+                } else if (OthelloLazySmpEngineTest.BOARD.legalMoves(opponent, player) == 0L) {
+                    break;
+                }
+                final long swap = player;
+                player = opponent;
+                opponent = swap;
+            }
+            if (OthelloLazySmpEngineTest.BOARD.legalMoves(player, opponent) != 0L) {
+                return new long[] { player, opponent };
+            }
+        }
+    }
+
+    /**
+     * Computes the final score of a position by a plain minimax search to the end of the game.
+     *
+     * @param player   The fields of the player to move.
+     * @param opponent The fields of the opponent.
+     * @return The score as computed by {@link OthelloNegamaxSearcher#finalScore(long, long)}.
+     */
+    static int solve(final long player, final long opponent) {
+        long legal = OthelloLazySmpEngineTest.BOARD.legalMoves(player, opponent);
+        if (legal == 0L) {
+            if (OthelloLazySmpEngineTest.BOARD.legalMoves(opponent, player) == 0L) {
+                return OthelloNegamaxSearcher.finalScore(player, opponent);
+            }
+            return -OthelloLazySmpEngineTest.solve(opponent, player);
+        }
+        int best = -OthelloNegamaxSearcher.INFINITY;
+        while (legal != 0L) {
+            final int square = Long.numberOfTrailingZeros(legal);
+            legal &= legal - 1L;
+            final long flipped = OthelloLazySmpEngineTest.BOARD.flips(player, opponent, square);
+            best = Math.max(
+                    best,
+                    -OthelloLazySmpEngineTest.solve(opponent & ~flipped, player | flipped | 1L << square));
+        }
+        return best;
+    }
+}
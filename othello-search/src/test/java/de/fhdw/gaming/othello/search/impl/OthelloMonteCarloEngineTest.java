@@ -0,0 +1,301 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+
+/**
+ * Tests {@link OthelloMonteCarloEngine} and {@link OthelloMonteCarloTree}.
+ */
+class OthelloMonteCarloEngineTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests that a player without active fields skips.
+     */
+    @Test
+    void testPass() {
+        final OthelloMonteCarloEngine engine = new OthelloMonteCarloEngine(1, 100L, 1024);
+        final OthelloSearchResult result = engine.search(1, OthelloMonteCarloEngineTest.BOARD, 1L, 0L);
+        assertThat(result.isPass(), is(equalTo(true)));
+    }
+
+    /**
+     * Tests that the children of a node are allocated as a block and that nothing is allocated beyond the capacity.
+     */
+    @Test
+    void testTree() {
+        final OthelloMonteCarloTree tree = new OthelloMonteCarloTree(4);
+        assertThat(tree.expand(OthelloMonteCarloTree.ROOT, 0b10110L, false), is(equalTo(true)));
+        assertThat(tree.getFirstChild(OthelloMonteCarloTree.ROOT), is(equalTo(1)));
+        assertThat(tree.getChildCount(OthelloMonteCarloTree.ROOT), is(equalTo(3)));
+        assertThat(tree.getMove(1), is(equalTo(1)));
+        assertThat(tree.getMove(2), is(equalTo(2)));
+        assertThat(tree.getMove(3), is(equalTo(4)));
+        assertThat(tree.expand(1, 0L, false), is(equalTo(false)));
+        assertThat(tree.isExpanded(1), is(equalTo(false)));
+
+        tree.update(2, 2, 1);
+        tree.update(3, 0, 3);
+        tree.update(3, 1, -1);
+        assertThat(tree.getMostVisitedChild(OthelloMonteCarloTree.ROOT), is(equalTo(3)));
+        assertThat(tree.getVisits(3), is(equalTo(2)));
+        assertThat(tree.getWins(3), is(equalTo(1)));
+        assertThat(tree.expand(OthelloMonteCarloTree.ROOT, 0b1L, false), is(equalTo(false)));
+
+        tree.clear();
+        assertThat(tree.getSize(), is(equalTo(1)));
+        assertThat(tree.expand(OthelloMonteCarloTree.ROOT, 0L, false), is(equalTo(true)));
+        assertThat(tree.getMove(1), is(equalTo(OthelloBitBoard.PASS)));
+    }
+
+    /**
+     * Tests that no playout is lost and no virtual loss is left behind when several threads search the same tree.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    void testTreeParallelism() throws InterruptedException {
+        final int threadCount = 4;
+        final int playouts = 5000;
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(37), 20);
+        final OthelloMonteCarloTree tree = new OthelloMonteCarloTree(1 << 16);
+        final List<Thread> threads = new ArrayList<>();
+        for (int thread = 0; thread < threadCount; ++thread) {
+            final OthelloMonteCarloSearcher searcher = new OthelloMonteCarloSearcher(
+                    OthelloMonteCarloEngineTest.BOARD,
+                    tree,
+                    position[0],
+                    position[1],
+                    thread + 1L,
+                    OthelloMonteCarloSearcher.VIRTUAL_LOSS);
+            threads.add(new Thread(() -> {
+                for (int playout = 0; playout < playouts; ++playout) {
+                    searcher.playout();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(tree.getVisits(OthelloMonteCarloTree.ROOT), is(equalTo(threadCount * playouts)));
+        int childVisits = 0;
+        int childWins = 0;
+        final int first = tree.getFirstChild(OthelloMonteCarloTree.ROOT);
+        for (int child = first; child < first + tree.getChildCount(OthelloMonteCarloTree.ROOT); ++child) {
+            childVisits += tree.getVisits(child);
+            childWins += tree.getWins(child);
+        }
+        assertThat(childVisits, is(equalTo(threadCount * playouts)));
+        // every playout gives two half points to the two players together
+        assertThat(childWins + tree.getWins(OthelloMonteCarloTree.ROOT), is(equalTo(2 * threadCount * playouts)));
+    }
+
+    /**
+     * Tests that the node of a later position is found in a tree and that its subtree is copied with all statistics,
+     * so that a search can continue from it.
+     */
+    @Test
+    void testCopySubtree() {
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(41), 20);
+        final OthelloMonteCarloTree tree = new OthelloMonteCarloTree(1 << 16);
+        tree.setRootPosition(OthelloMonteCarloEngineTest.BOARD, position[0], position[1]);
+        final OthelloMonteCarloSearcher searcher = new OthelloMonteCarloSearcher(
+                OthelloMonteCarloEngineTest.BOARD,
+                tree,
+                position[0],
+                position[1],
+                1L,
+                0);
+        for (int playout = 0; playout < 20000; ++playout) {
+            searcher.playout();
+        }
+        assertThat(
+                tree.findNode(OthelloMonteCarloEngineTest.BOARD, position[0], position[1]),
+                is(equalTo(OthelloMonteCarloTree.ROOT)));
+        assertThat(
+                tree.findNode(OthelloMonteCarloEngineTest.BOARD, position[1], position[0]),
+                is(equalTo(OthelloMonteCarloTree.UNEXPANDED)));
+
+        // play the most visited move of each side
+        final int child = tree.getMostVisitedChild(OthelloMonteCarloTree.ROOT);
+        final int grandchild = tree.getMostVisitedChild(child);
+        final long[] next = OthelloMonteCarloEngineTest.play(position[0], position[1], tree.getMove(child));
+        final long[] later = OthelloMonteCarloEngineTest.play(next[0], next[1], tree.getMove(grandchild));
+        assertThat(tree.findNode(OthelloMonteCarloEngineTest.BOARD, later[0], later[1]), is(equalTo(grandchild)));
+
+        final OthelloMonteCarloTree copy = new OthelloMonteCarloTree(1 << 16);
+        copy.copySubtree(tree, grandchild);
+        assertThat(copy.getVisits(OthelloMonteCarloTree.ROOT), is(equalTo(tree.getVisits(grandchild))));
+        assertThat(copy.getSize(), is(equalTo(OthelloMonteCarloEngineTest.countNodes(tree, grandchild))));
+        assertThat(
+                OthelloMonteCarloEngineTest.countNodes(copy, OthelloMonteCarloTree.ROOT),
+                is(equalTo(copy.getSize())));
+        final int first = copy.getFirstChild(OthelloMonteCarloTree.ROOT);
+        final int sourceFirst = tree.getFirstChild(grandchild);
+        for (int index = 0; index < copy.getChildCount(OthelloMonteCarloTree.ROOT); ++index) {
+            assertThat(copy.getMove(first + index), is(equalTo(tree.getMove(sourceFirst + index))));
+            assertThat(copy.getStatistics(first + index), is(equalTo(tree.getStatistics(sourceFirst + index))));
+        }
+
+        final int inherited = copy.getVisits(OthelloMonteCarloTree.ROOT);
+        final OthelloMonteCarloSearcher continued = new OthelloMonteCarloSearcher(
+                OthelloMonteCarloEngineTest.BOARD,
+                copy,
+                later[0],
+                later[1],
+                2L,
+                0);
+        for (int playout = 0; playout < 1000; ++playout) {
+            continued.playout();
+        }
+        assertThat(copy.getVisits(OthelloMonteCarloTree.ROOT), is(equalTo(inherited + 1000)));
+    }
+
+    /**
+     * Tests that the engine keeps searching a game over several moves, continuing its tree.
+     */
+    @Test
+    void testTreeReuse() {
+        final OthelloMonteCarloEngine engine = new OthelloMonteCarloEngine(1, 20L, 1 << 12);
+        long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(43), 4);
+        for (int move = 0; move < 40 && !OthelloMonteCarloEngineTest.isOver(position); ++move) {
+            final OthelloSearchResult result = engine.search(
+                    1,
+                    OthelloMonteCarloEngineTest.BOARD,
+                    position[0],
+                    position[1]);
+            final long legal = OthelloMonteCarloEngineTest.BOARD.legalMoves(position[0], position[1]);
+            if (legal == 0L) {
+                assertThat(result.isPass(), is(equalTo(true)));
+                position = new long[] { position[1], position[0] };
+            } else {
+                assertThat(legal >>> result.getBestMove() & 1L, is(equalTo(1L)));
+                position = OthelloMonteCarloEngineTest.play(position[0], position[1], result.getBestMove());
+            }
+        }
+        engine.reset();
+    }
+
+    /**
+     * Tests that the search finds a winning move in endgames where not every move wins, both sequentially and in
+     * parallel.
+     */
+    @Test
+    void testFindsWinningMoves() {
+        final Random random = new Random(31);
+        int positions = 0;
+        while (positions < 10) {
+            final OthelloMonteCarloEngine engine = new OthelloMonteCarloEngine(1 + positions % 2 * 2, 200L, 1 << 16);
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 57);
+            final long player = position[0];
+            final long opponent = position[1];
+            if (OthelloLazySmpEngineTest.solve(player, opponent) <= 0
+                    || OthelloMonteCarloEngineTest.countWinningMoves(player, opponent) == Long
+                            .bitCount(OthelloMonteCarloEngineTest.BOARD.legalMoves(player, opponent))) {
+                continue;
+            }
+            ++positions;
+            final int move = engine.search(positions, OthelloMonteCarloEngineTest.BOARD, player, opponent)
+                    .getBestMove();
+            final long flipped = OthelloMonteCarloEngineTest.BOARD.flips(player, opponent, move);
+            assertThat(
+                    -OthelloLazySmpEngineTest.solve(opponent & ~flipped, player | flipped | 1L << move) > 0,
+                    is(equalTo(true)));
+        }
+    }
+
+    /**
+     * Plays a move and returns the fields occupied by the player to move and by the opponent afterwards.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     * @param move     The move, or {@link OthelloBitBoard#PASS}.
+     */
+    private static long[] play(final long player, final long opponent, final int move) {
+        if (move == OthelloBitBoard.PASS) {
+            return new long[] { opponent, player };
+        }
+        final long flipped = OthelloMonteCarloEngineTest.BOARD.flips(player, opponent, move);
+        return new long[] { opponent & ~flipped, player | flipped | 1L << move };
+    }
+
+    /**
+     * Returns {@code true} if neither player can move.
+     *
+     * @param position The fields occupied by the player to move and by the opponent.
+     */
+    private static boolean isOver(final long[] position) {
+        return OthelloMonteCarloEngineTest.BOARD.legalMoves(position[0], position[1]) == 0L
+                && OthelloMonteCarloEngineTest.BOARD.legalMoves(position[1], position[0]) == 0L;
+    }
+
+    /**
+     * Returns the number of nodes in the subtree of a node.
+     *
+     * @param tree The tree.
+     * @param node The node.
+     */
+    private static int countNodes(final OthelloMonteCarloTree tree, final int node) {
+        int count = 1;
+        if (tree.isExpanded(node)) {
+            final int first = tree.getFirstChild(node);
+            for (int child = first; child < first + tree.getChildCount(node); ++child) {
+                count += OthelloMonteCarloEngineTest.countNodes(tree, child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of legal moves which win the game.
+     *
+     * @param player   The fields occupied by the player to move.
+     * @param opponent The fields occupied by the opponent.
+     */
+    private static int countWinningMoves(final long player, final long opponent) {
+        int count = 0;
+        for (long legal = OthelloMonteCarloEngineTest.BOARD.legalMoves(player, opponent); legal != 0L;
+                legal &= legal - 1L) {
+            final int move = Long.numberOfTrailingZeros(legal);
+            final long flipped = OthelloMonteCarloEngineTest.BOARD.flips(player, opponent, move);
+            if (-OthelloLazySmpEngineTest.solve(opponent & ~flipped, player | flipped | 1L << move) > 0) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * Tests {@link OthelloMoveOrdering}.
+ */
+class OthelloMoveOrderingTest {
+
+    /**
+     * The squares used by the tests: a corner, an X-square, a C-square, and an edge square.
+     */
+    private static final int CORNER = OthelloBitBoard.square(0, 0);
+    /**
+     * The X-square next to {@link #CORNER}.
+     */
+    private static final int X_SQUARE = OthelloBitBoard.square(1, 1);
+    /**
+     * A C-square next to {@link #CORNER}.
+     */
+    private static final int C_SQUARE = OthelloBitBoard.square(0, 1);
+    /**
+     * An edge square.
+     */
+    private static final int EDGE = OthelloBitBoard.square(0, 2);
+
+    /**
+     * Tests that without any knowledge the square weights decide.
+     */
+    @Test
+    void testSquareWeights() {
+        final OthelloMoveOrdering ordering = new OthelloMoveOrdering(OthelloBitBoard.forSize(8));
+        assertThat(
+                OthelloMoveOrderingTest.order(ordering, OthelloBitBoard.PASS, 3),
+                is(equalTo(
+                        new int[] { OthelloMoveOrderingTest.CORNER, OthelloMoveOrderingTest.EDGE,
+                            OthelloMoveOrderingTest.C_SQUARE, OthelloMoveOrderingTest.X_SQUARE })));
+    }
+
+    /**
+     * Tests that the move of the transposition table comes first, followed by the killer moves and the moves with a
+     * history.
+     */
+    @Test
+    void testTableMoveKillersAndHistory() {
+        final OthelloMoveOrdering ordering = new OthelloMoveOrdering(OthelloBitBoard.forSize(8));
+        ordering.recordCutoff(OthelloMoveOrderingTest.X_SQUARE, 3, 5);
+        ordering.recordCutoff(OthelloMoveOrderingTest.C_SQUARE, 4, 1);
+        assertThat(
+                OthelloMoveOrderingTest.order(ordering, OthelloMoveOrderingTest.EDGE, 3),
+                is(equalTo(
+                        new int[] { OthelloMoveOrderingTest.EDGE, OthelloMoveOrderingTest.X_SQUARE,
+                            OthelloMoveOrderingTest.C_SQUARE, OthelloMoveOrderingTest.CORNER })));
+    }
+
+    /**
+     * Tests that the square weights adapt to the board size.
+     */
+    @Test
+    void testSmallBoard() {
+        final OthelloMoveOrdering ordering = new OthelloMoveOrdering(OthelloBitBoard.forSize(4));
+        final long legal = 1L << OthelloBitBoard.square(0, 1) | 1L << OthelloBitBoard.square(3, 3);
+        assertThat(ordering.order(legal, OthelloBitBoard.PASS, 0)[0], is(equalTo(OthelloBitBoard.square(3, 3))));
+    }
+
+    /**
+     * Orders the four test squares.
+     *
+     * @param ordering  The move ordering.
+     * @param tableMove The move of the transposition table.
+     * @param ply       The ply.
+     * @return The ordered squares.
+     */
+    private static int[] order(final OthelloMoveOrdering ordering, final int tableMove, final int ply) {
+        final long legal = 1L << OthelloMoveOrderingTest.CORNER | 1L << OthelloMoveOrderingTest.X_SQUARE
+                | 1L << OthelloMoveOrderingTest.C_SQUARE | 1L << OthelloMoveOrderingTest.EDGE;
+        return Arrays.copyOf(ordering.order(legal, tableMove, ply), Long.bitCount(legal));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloProbCutParameters;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+
+/**
+ * Tests {@link OthelloNegamaxSearcher}.
+ */
+class OthelloNegamaxSearcherTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+    /**
+     * The score the evaluators of the aspiration tests add for the player to move, so that the score of the root
+     * swings by twice that amount from one iteration to the next.
+     */
+    private static final int TEMPO = 500;
+
+    /**
+     * Tests that moves whose null-window search fails high are searched again with the full window, and that the score
+     * equals the one of a search without any pruning.
+     */
+    @Test
+    void testPrincipalVariationResearch() {
+        final OthelloEvaluator evaluator = OthelloNegamaxSearcherTest.randomWeights(new Random(23), 100);
+        final Random random = new Random(29);
+        long researches = 0L;
+        for (int game = 0; game < 6; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 12 + 4 * game);
+            final OthelloNegamaxSearcher searcher = OthelloNegamaxSearcherTest.createSearcher(evaluator);
+            searcher.iterativeDeepening(position[0], position[1], 5, 5, false);
+            assertThat(searcher.getCompletedDepth(), is(equalTo(5)));
+            assertThat(searcher.getAspirationFailHighs() + searcher.getAspirationFailLows(), is(equalTo(0)));
+            assertThat(
+                    searcher.getBestScore(),
+                    is(equalTo(OthelloYoungBrothersWaitEngineTest.minimax(evaluator, position[0], position[1], 5))));
+            researches += searcher.getResearches();
+        }
+        assertThat(researches, is(greaterThan(0L)));
+    }
+
+    /**
+     * Tests that an iteration whose score rises far above the score of the previous iteration fails high on the
+     * aspiration window, and that the score of the widened search equals the one of a full-window search.
+     */
+    @Test
+    void testAspirationFailHigh() {
+        // the previous iteration has an odd depth and ends with the opponent to move, so its score is low
+        final OthelloEvaluator evaluator = OthelloNegamaxSearcherTest.withTempo(OthelloNegamaxSearcherTest.TEMPO);
+        final Random random = new Random(31);
+        for (int game = 0; game < 4; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 12 + 4 * game);
+            final OthelloNegamaxSearcher searcher = OthelloNegamaxSearcherTest.createSearcher(evaluator);
+            searcher.iterativeDeepening(position[0], position[1], 3, 4, false);
+            assertThat(searcher.getAspirationFailHighs(), is(greaterThan(0)));
+            assertThat(searcher.getAspirationFailLows(), is(equalTo(0)));
+            OthelloNegamaxSearcherTest.assertFullWindowScore(evaluator, position, searcher);
+        }
+    }
+
+    /**
+     * Tests that an iteration whose score drops far below the score of the previous iteration fails low on the
+     * aspiration window, and that the score of the widened search equals the one of a full-window search.
+     */
+    @Test
+    void testAspirationFailLow() {
+        // the previous iteration has an odd depth and ends with the opponent to move, so its score is high
+        final OthelloEvaluator evaluator = OthelloNegamaxSearcherTest.withTempo(-OthelloNegamaxSearcherTest.TEMPO);
+        final Random random = new Random(37);
+        for (int game = 0; game < 4; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 12 + 4 * game);
+            final OthelloNegamaxSearcher searcher = OthelloNegamaxSearcherTest.createSearcher(evaluator);
+            searcher.iterativeDeepening(position[0], position[1], 3, 4, false);
+            assertThat(searcher.getAspirationFailLows(), is(greaterThan(0)));
+            assertThat(searcher.getAspirationFailHighs(), is(equalTo(0)));
+            OthelloNegamaxSearcherTest.assertFullWindowScore(evaluator, position, searcher);
+        }
+    }
+
+    /**
+     * Asserts that the score of a completed search equals the one of a single search with the full window at the same
+     * depth, and the one of a search without any pruning.
+     *
+     * @param evaluator The evaluator.
+     * @param position  The fields of the player to move and the fields of the opponent.
+     * @param searcher  The completed searcher.
+     */
+    private static void assertFullWindowScore(final OthelloEvaluator evaluator, final long[] position,
+            final OthelloNegamaxSearcher searcher) {
+        final int depth = searcher.getCompletedDepth();
+        final OthelloNegamaxSearcher fullWindow = OthelloNegamaxSearcherTest.createSearcher(evaluator);
+        fullWindow.iterativeDeepening(position[0], position[1], depth, depth, false);
+        assertThat(fullWindow.getCompletedDepth(), is(equalTo(depth)));
+        assertThat(searcher.getBestScore(), is(equalTo(fullWindow.getBestScore())));
+        assertThat(
+                searcher.getBestScore(),
+                is(equalTo(OthelloYoungBrothersWaitEngineTest.minimax(evaluator, position[0], position[1], depth))));
+    }
+
+    /**
+     * Creates a searcher without time limit and without selective search.
+     *
+     * @param evaluator The evaluator.
+     */
+    private static OthelloNegamaxSearcher createSearcher(final OthelloEvaluator evaluator) {
+        final long startTime = System.nanoTime();
+        return new OthelloNegamaxSearcher(
+                OthelloNegamaxSearcherTest.BOARD,
+                evaluator,
+                new OthelloTranspositionTable(16),
+                0L,
+                new AtomicBoolean(),
+                startTime,
+                startTime + TimeUnit.HOURS.toNanos(1L),
+                0,
+                OthelloProbCutParameters.DISABLED);
+    }
+
+    /**
+     * Creates an evaluator by random square weights.
+     *
+     * @param random        The source of the weights.
+     * @param maximumWeight The largest absolute value of a weight.
+     */
+    private static OthelloEvaluator randomWeights(final Random random, final int maximumWeight) {
+        final int[] weights = new int[64];
+        for (int square = 0; square < weights.length; ++square) {
+            weights[square] = random.nextInt(2 * maximumWeight + 1) - maximumWeight;
+        }
+        return new OthelloSquareWeightEvaluator(weights, 1);
+    }
+
+    /**
+     * Creates an evaluator by small random square weights which adds a fixed score for the player to move. As the
+     * player to move at the leaves alternates with the depth, so does the sign of the score of the root.
+     *
+     * @param tempo The score added for the player to move.
+     */
+    private static OthelloEvaluator withTempo(final int tempo) {
+        final OthelloEvaluator weights = OthelloNegamaxSearcherTest.randomWeights(new Random(41), 3);
+        return (final OthelloBitBoard board, final long player, final long opponent) -> tempo
+                + weights.evaluate(board, player, opponent);
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.OthelloSearchStatistics;
+
+/**
+ * Tests {@link OthelloPonderingEngine}.
+ */
+class OthelloPonderingEngineTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+    /**
+     * The computation time of the searches in milliseconds.
+     */
+    private static final long SEARCH_TIME_MILLIS = 200L;
+
+    /**
+     * Tests that the search of the predicted position is continued.
+     */
+    @Test
+    void testHit() {
+        final PredictableEngine predictable = new PredictableEngine();
+        final OthelloPonderingEngine engine = new OthelloPonderingEngine(predictable);
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(47), 20);
+        final OthelloSearchResult result = engine.search(
+                1,
+                OthelloPonderingEngineTest.BOARD,
+                position[0],
+                position[1]);
+        final long[] next = OthelloPonderingEngineTest.play(position, result.getBestMove());
+        final long[] predicted = OthelloPonderingEngineTest.play(next, result.getPredictedReply().getAsInt());
+
+        engine.search(1, OthelloPonderingEngineTest.BOARD, predicted[0], predicted[1]);
+        assertThat(engine.getPonderHits(), is(equalTo(1L)));
+        assertThat(engine.getPonderMisses(), is(equalTo(0L)));
+        // the second search has been run in the background, and the one after it has just started
+        assertThat(predictable.completedSearches.get(), is(equalTo(2)));
+        assertThat(predictable.abortedSearches.get(), is(equalTo(0)));
+        engine.reset();
+    }
+
+    /**
+     * Tests that the search of the predicted position is aborted if the opponent replies differently.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    void testMiss() throws InterruptedException {
+        final PredictableEngine predictable = new PredictableEngine();
+        final OthelloPonderingEngine engine = new OthelloPonderingEngine(predictable);
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(53), 20);
+        final OthelloSearchResult result = engine.search(
+                1,
+                OthelloPonderingEngineTest.BOARD,
+                position[0],
+                position[1]);
+        final long[] next = OthelloPonderingEngineTest.play(position, result.getBestMove());
+        final long replies = OthelloPonderingEngineTest.BOARD.legalMoves(next[0], next[1]);
+        // the highest reply is not the predicted one, as there are several
+        assertThat(Long.bitCount(replies) > 1, is(equalTo(true)));
+        final long[] actual = OthelloPonderingEngineTest.play(next, 63 - Long.numberOfLeadingZeros(replies));
+
+        // give the background search time to start
+        Thread.sleep(OthelloPonderingEngineTest.SEARCH_TIME_MILLIS / 4);
+        engine.search(1, OthelloPonderingEngineTest.BOARD, actual[0], actual[1]);
+        assertThat(engine.getPonderHits(), is(equalTo(0L)));
+        assertThat(engine.getPonderMisses(), is(equalTo(1L)));
+        assertThat(predictable.completedSearches.get(), is(equalTo(2)));
+        assertThat(predictable.abortedSearches.get(), is(equalTo(1)));
+        engine.reset();
+    }
+
+    /**
+     * Tests that the search of the predicted position is aborted if the position is to be searched with another
+     * evaluator.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    void testMissOnOtherEvaluator() throws InterruptedException {
+        final PredictableEngine predictable = new PredictableEngine();
+        final OthelloPonderingEngine engine = new OthelloPonderingEngine(predictable);
+        final OthelloEvaluator mobility = (final OthelloBitBoard board, final long player, final long opponent) -> Long
+                .bitCount(board.legalMoves(player, opponent));
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(61), 20);
+        final OthelloSearchResult result = engine.search(
+                1,
+                OthelloPonderingEngineTest.BOARD,
+                position[0],
+                position[1],
+                mobility);
+        final long[] next = OthelloPonderingEngineTest.play(position, result.getBestMove());
+        final long[] predicted = OthelloPonderingEngineTest.play(next, result.getPredictedReply().getAsInt());
+
+        // give the background search time to start
+        Thread.sleep(OthelloPonderingEngineTest.SEARCH_TIME_MILLIS / 4);
+        engine.search(1, OthelloPonderingEngineTest.BOARD, predicted[0], predicted[1]);
+        assertThat(engine.getPonderHits(), is(equalTo(0L)));
+        assertThat(engine.getPonderMisses(), is(equalTo(1L)));
+        assertThat(predictable.evaluatedSearches.get(), is(equalTo(2)));
+        engine.reset();
+    }
+
+    /**
+     * Tests that a background search which has finished is dropped, so that nothing is kept for the game.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    void testFinished() throws InterruptedException {
+        final PredictableEngine predictable = new PredictableEngine();
+        final OthelloPonderingEngine engine = new OthelloPonderingEngine(predictable);
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(47), 20);
+        final OthelloSearchResult result = engine.search(
+                1,
+                OthelloPonderingEngineTest.BOARD,
+                position[0],
+                position[1]);
+        final long[] next = OthelloPonderingEngineTest.play(position, result.getBestMove());
+        final long[] predicted = OthelloPonderingEngineTest.play(next, result.getPredictedReply().getAsInt());
+
+        // give the background search time to finish
+        Thread.sleep(OthelloPonderingEngineTest.SEARCH_TIME_MILLIS * 2);
+        assertThat(predictable.completedSearches.get(), is(equalTo(2)));
+        engine.search(1, OthelloPonderingEngineTest.BOARD, predicted[0], predicted[1]);
+        assertThat(engine.getPonderHits(), is(equalTo(0L)));
+        assertThat(engine.getPonderMisses(), is(equalTo(0L)));
+        assertThat(predictable.completedSearches.get(), is(equalTo(3)));
+        engine.reset();
+    }
+
+    /**
+     * Tests that an aborted game is not searched in the background any longer, that a reset leaves the background
+     * searches of other games alone, and that no background thread survives them after a reset.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    void testAbortAndReset() throws InterruptedException {
+        final PredictableEngine predictable = new PredictableEngine();
+        final OthelloPonderingEngine engine = new OthelloPonderingEngine(predictable);
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(59), 20);
+        engine.search(1, OthelloPonderingEngineTest.BOARD, position[0], position[1]);
+        // give the background search time to start
+        Thread.sleep(OthelloPonderingEngineTest.SEARCH_TIME_MILLIS / 4);
+        engine.abortRequested(1);
+        engine.search(2, OthelloPonderingEngineTest.BOARD, position[0], position[1]);
+        engine.reset();
+        assertThat(predictable.resets.get(), is(equalTo(1)));
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (OthelloPonderingEngineTest.countPonderThreads() > 0 && System.nanoTime() - deadline < 0L) {
+            Thread.sleep(10L);
+        }
+        assertThat(OthelloPonderingEngineTest.countPonderThreads(), is(equalTo(0)));
+        // the background search of the second game has used up its computation time despite the reset
+        assertThat(predictable.completedSearches.get(), is(equalTo(3)));
+        assertThat(predictable.abortedSearches.get(), is(equalTo(1)));
+    }
+
+    /**
+     * Plays a move and returns the fields occupied by the player to move and by the opponent afterwards.
+     *
+     * @param position The fields occupied by the player to move and by the opponent.
+     * @param move     The move, or {@link OthelloBitBoard#PASS}.
+     */
+    private static long[] play(final long[] position, final int move) {
+        if (move == OthelloBitBoard.PASS) {
+            return new long[] { position[1], position[0] };
+        }
+        final long flipped = OthelloPonderingEngineTest.BOARD.flips(position[0], position[1], move);
+        return new long[] { position[1] & ~flipped, position[0] | flipped | 1L << move };
+    }
+
+    /**
+     * Returns the number of live background threads of pondering engines.
+     */
+    private static int countPonderThreads() {
+        int count = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("othello-ponder-") && thread.isAlive()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A search engine which uses up its computation time unless aborted, and always plays and predicts the lowest
+     * legal move.
+     */
+    private static final class PredictableEngine implements OthelloSearchEngine {
+
+        /**
+         * The stop flags of the running searches by game ID.
+         */
+        private final Map<Integer, AtomicBoolean> stopFlags = new ConcurrentHashMap<>();
+        /**
+         * The number of searches which have used up their computation time.
+         */
+        private final AtomicInteger completedSearches = new AtomicInteger();
+        /**
+         * The number of searches which have been aborted.
+         */
+        private final AtomicInteger abortedSearches = new AtomicInteger();
+        /**
+         * The number of searches which have been given an evaluator.
+         */
+        private final AtomicInteger evaluatedSearches = new AtomicInteger();
+        /**
+         * The number of resets.
+         */
+        private final AtomicInteger resets = new AtomicInteger();
+
+        @Override
+        public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+                final long opponent) {
+            final AtomicBoolean stop = new AtomicBoolean();
+            this.stopFlags.put(gameId, stop);
+            try {
+                final long deadline = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(OthelloPonderingEngineTest.SEARCH_TIME_MILLIS);
+                while (!stop.get() && System.nanoTime() - deadline < 0L) {
+                    Thread.sleep(1L);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.stopFlags.remove(gameId, stop);
+            }
+            (stop.get() ? this.abortedSearches : this.completedSearches).incrementAndGet();
+
+            final long legal = board.legalMoves(player, opponent);
+            final int move = legal == 0L ? OthelloBitBoard.PASS : Long.numberOfTrailingZeros(legal);
+            final long[] next = OthelloPonderingEngineTest.play(new long[] { player, opponent }, move);
+            final long replies = board.legalMoves(next[0], next[1]);
+            return new OthelloSearchResult(
+                    move,
+                    0,
+                    OthelloSearchStatistics.EMPTY,
+                    OptionalInt.of(replies == 0L ? OthelloBitBoard.PASS : Long.numberOfTrailingZeros(replies)));
+        }
+
+        @Override
+        public OthelloSearchResult search(final int gameId, final OthelloBitBoard board, final long player,
+                final long opponent, final OthelloEvaluator evaluator) {
+            this.evaluatedSearches.incrementAndGet();
+            return this.search(gameId, board, player, opponent);
+        }
+
+        @Override
+        public void abortRequested(final int gameId) {
+            final AtomicBoolean stop = this.stopFlags.get(gameId);
+            if (stop != null) {
+                stop.set(true);
+            }
+        }
+
+        @Override
+        public void reset() {
+            this.resets.incrementAndGet();
+        }
+    }
+}
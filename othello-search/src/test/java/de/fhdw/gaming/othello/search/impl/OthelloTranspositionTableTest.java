@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.OptionalInt;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+
+/**
+ * Tests {@link OthelloTranspositionTable}.
+ */
+class OthelloTranspositionTableTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests that a stored entry can be read back.
+     */
+    @Test
+    void testStoreAndProbe() {
+        final OthelloTranspositionTable table = new OthelloTranspositionTable(10);
+        final long hash = OthelloTranspositionTableTest.BOARD.hash(0x1234L, 0x5678L);
+        table.store(hash, 7, OthelloTranspositionTable.BOUND_LOWER, -1000064, 42);
+
+        final long data = table.probe(hash);
+        assertThat(data, is(not(equalTo(OthelloTranspositionTable.MISS))));
+        assertThat(OthelloTranspositionTable.score(data), is(equalTo(-1000064)));
+        assertThat(OthelloTranspositionTable.depth(data), is(equalTo(7)));
+        assertThat(OthelloTranspositionTable.bound(data), is(equalTo(OthelloTranspositionTable.BOUND_LOWER)));
+        assertThat(OthelloTranspositionTable.move(data), is(equalTo(42)));
+    }
+
+    /**
+     * Tests that unknown positions and cleared tables miss.
+     */
+    @Test
+    void testMiss() {
+        final OthelloTranspositionTable table = new OthelloTranspositionTable(10);
+        final long hash = OthelloTranspositionTableTest.BOARD.hash(0x1234L, 0x5678L);
+        assertThat(table.probe(hash), is(equalTo(OthelloTranspositionTable.MISS)));
+
+        table.store(hash, 3, OthelloTranspositionTable.BOUND_EXACT, 5, -1);
+        assertThat(table.probe(OthelloTranspositionTableTest.BOARD.hash(0x5678L, 0x1234L)),
+                is(equalTo(OthelloTranspositionTable.MISS)));
+        assertThat(OthelloTranspositionTable.move(table.probe(hash)), is(equalTo(-1)));
+
+        table.clear();
+        assertThat(table.probe(hash), is(equalTo(OthelloTranspositionTable.MISS)));
+    }
+
+    /**
+     * Tests that a shallow result does not displace a deep one of the same search.
+     */
+    @Test
+    void testDepthPreferred() {
+        final OthelloTranspositionTable table = new OthelloTranspositionTable(1);
+        final long deep = OthelloTranspositionTableTest.BOARD.hash(1L, 2L);
+        final long shallow = OthelloTranspositionTableTest.BOARD.hash(3L, 4L);
+        table.store(deep, 9, OthelloTranspositionTable.BOUND_EXACT, 1, 1);
+        table.store(shallow, 2, OthelloTranspositionTable.BOUND_EXACT, 2, 2);
+
+        assertThat(OthelloTranspositionTable.depth(table.probe(deep)), is(equalTo(9)));
+        assertThat(OthelloTranspositionTable.depth(table.probe(shallow)), is(equalTo(2)));
+    }
+
+    /**
+     * Tests that the best reply to a move is only returned if it is legal.
+     */
+    @Test
+    void testProbeReply() {
+        final OthelloBitBoard board = OthelloBitBoard.forSize(8);
+        final OthelloTranspositionTable table = new OthelloTranspositionTable(10);
+        final long player = board.getInitialSquares(true);
+        final long opponent = board.getInitialSquares(false);
+        final int move = Long.numberOfTrailingZeros(board.legalMoves(player, opponent));
+        assertThat(table.probeReply(board, player, opponent, move), is(equalTo(OptionalInt.empty())));
+
+        final long flipped = board.flips(player, opponent, move);
+        final long replying = opponent & ~flipped;
+        final long waiting = player | flipped | 1L << move;
+        final int reply = Long.numberOfTrailingZeros(board.legalMoves(replying, waiting));
+        final long hash = board.hash(replying, waiting);
+        table.store(hash, 1, OthelloTranspositionTable.BOUND_EXACT, 0, reply);
+        assertThat(table.probeReply(board, player, opponent, move), is(equalTo(OptionalInt.of(reply))));
+
+        table.store(hash, 2, OthelloTranspositionTable.BOUND_EXACT, 0, 0);
+        assertThat(table.probeReply(board, player, opponent, move), is(equalTo(OptionalInt.empty())));
+
+        // the opponent has no legal move
+        assertThat(
+                table.probeReply(board, 1L, 2L, OthelloBitBoard.PASS),
+                is(equalTo(OptionalInt.of(OthelloBitBoard.PASS))));
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloProbCutParameters;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+
+/**
+ * Tests {@link OthelloYoungBrothersWaitEngine}.
+ */
+class OthelloYoungBrothersWaitEngineTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+    /**
+     * A simple evaluator which often evaluates different positions equally.
+     */
+    private static final OthelloEvaluator EVALUATOR = new OthelloSquareWeightEvaluator(new int[64], 1);
+
+    /**
+     * Tests that a player without active fields skips.
+     */
+    @Test
+    void testPass() {
+        final OthelloYoungBrothersWaitEngine engine = new OthelloYoungBrothersWaitEngine(
+                OthelloYoungBrothersWaitEngineTest.EVALUATOR,
+                2,
+                100L,
+                64);
+        final OthelloSearchResult result = engine.search(1, OthelloYoungBrothersWaitEngineTest.BOARD, 1L, 0L);
+        assertThat(result.isPass(), is(equalTo(true)));
+    }
+
+    /**
+     * Tests that the parallel search finds the same move and score as a sequential search to the same depth.
+     */
+    @Test
+    void testIdenticalToSequentialSearch() {
+        final Random random = new Random(11);
+        final OthelloYoungBrothersWaitEngine engine = new OthelloYoungBrothersWaitEngine(
+                OthelloYoungBrothersWaitEngineTest.EVALUATOR,
+                4,
+                TimeUnit.MINUTES.toMillis(10L),
+                6);
+        for (int game = 0; game < 8; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 12 + 4 * game);
+            if (Long.bitCount(OthelloYoungBrothersWaitEngineTest.BOARD.legalMoves(position[0], position[1])) < 2) {
+                continue;
+            }
+            final OthelloSearchResult result = engine
+                    .search(game, OthelloYoungBrothersWaitEngineTest.BOARD, position[0], position[1]);
+            assertThat(result.getStatistics().getDepth(), is(equalTo(6)));
+            final int[] expected = OthelloYoungBrothersWaitEngineTest.searchSequentially(position[0], position[1], 6);
+            assertThat(result.getBestMove(), is(equalTo(expected[0])));
+            assertThat(result.getScore(), is(equalTo(expected[1])));
+        }
+    }
+
+    /**
+     * Tests that the parallel search finds the same score as the principal variation search of
+     * {@link OthelloNegamaxSearcher} to the same depth, and the same move unless several moves are best.
+     */
+    @Test
+    void testIdenticalToNegamaxSearcher() {
+        final Random random = new Random(19);
+        final int[] weights = new int[64];
+        for (int square = 0; square < weights.length; ++square) {
+            weights[square] = random.nextInt(201) - 100;
+        }
+        final OthelloEvaluator evaluator = new OthelloSquareWeightEvaluator(weights, 3);
+        final OthelloYoungBrothersWaitEngine engine = new OthelloYoungBrothersWaitEngine(
+                evaluator,
+                4,
+                TimeUnit.MINUTES.toMillis(10L),
+                6);
+        for (int game = 0; game < 8; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 12 + 4 * game);
+            final long legal = OthelloYoungBrothersWaitEngineTest.BOARD.legalMoves(position[0], position[1]);
+            if (Long.bitCount(legal) < 2) {
+                continue;
+            }
+            final OthelloSearchResult result = engine
+                    .search(game, OthelloYoungBrothersWaitEngineTest.BOARD, position[0], position[1]);
+            assertThat(result.getStatistics().getDepth(), is(equalTo(6)));
+
+            final long startTime = System.nanoTime();
+            final OthelloNegamaxSearcher searcher = new OthelloNegamaxSearcher(
+                    OthelloYoungBrothersWaitEngineTest.BOARD,
+                    evaluator,
+                    new OthelloTranspositionTable(16),
+                    0L,
+                    new AtomicBoolean(),
+                    startTime,
+                    startTime + TimeUnit.HOURS.toNanos(1L),
+                    0,
+                    OthelloProbCutParameters.DISABLED);
+            searcher.iterativeDeepening(position[0], position[1], 1, 6, false);
+            assertThat(searcher.getCompletedDepth(), is(equalTo(6)));
+            assertThat(result.getScore(), is(equalTo(searcher.getBestScore())));
+
+            int bestMoves = 0;
+            for (long remaining = legal; remaining != 0L; remaining &= remaining - 1L) {
+                final int move = Long.numberOfTrailingZeros(remaining);
+                final long flipped = OthelloYoungBrothersWaitEngineTest.BOARD.flips(position[0], position[1], move);
+                final int score = -OthelloYoungBrothersWaitEngineTest.minimax(
+                        evaluator,
+                        position[1] & ~flipped,
+                        position[0] | flipped | 1L << move,
+                        5);
+                if (score == result.getScore()) {
+                    ++bestMoves;
+                }
+            }
+            if (bestMoves == 1) {
+                assertThat(result.getBestMove(), is(equalTo(searcher.getBestMove())));
+            }
+        }
+    }
+
+    /**
+     * Tests that a task which is cut off while it is running returns at once, together with all tasks it has forked:
+     * hardly any position is evaluated after the cutoff, while the whole search evaluates many more.
+     */
+    @Test
+    void testCutOffStopsRunningTasks() {
+        final long[] position = OthelloLazySmpEngineTest.playRandomly(new Random(17), 20);
+        final int cutOffEvaluation = 1000;
+        final int allEvaluations = OthelloYoungBrothersWaitEngineTest
+                .countEvaluations(position[0], position[1], Integer.MAX_VALUE);
+        assertThat(allEvaluations, is(greaterThan(20 * cutOffEvaluation)));
+        assertThat(
+                OthelloYoungBrothersWaitEngineTest.countEvaluations(position[0], position[1], cutOffEvaluation),
+                is(lessThan(cutOffEvaluation + 100)));
+    }
+
+    /**
+     * Tests that the score of the sequential search is the minimax value.
+     */
+    @Test
+    void testSequentialSearchComputesMinimax() {
+        final Random random = new Random(13);
+        for (int game = 0; game < 8; ++game) {
+            final long[] position = OthelloLazySmpEngineTest.playRandomly(random, 10 + 6 * game);
+            for (int depth = 1; depth <= 3; ++depth) {
+                assertThat(
+                        OthelloYoungBrothersWaitEngineTest.searchSequentially(position[0], position[1], depth)[1],
+                        is(equalTo(OthelloYoungBrothersWaitEngineTest.minimax(position[0], position[1], depth))));
+            }
+        }
+    }
+
+    /**
+     * Searches a position by a task splitting close to the leaves on a pool of two threads, cutting the task off after
+     * some evaluations.
+     *
+     * @param player           The fields of the player to move.
+     * @param opponent         The fields of the opponent.
+     * @param cutOffEvaluation The number of the evaluation after which the task is cut off.
+     * @return The number of evaluations.
+     */
+    private static int countEvaluations(final long player, final long opponent, final int cutOffEvaluation) {
+        final AtomicInteger evaluations = new AtomicInteger();
+        final AtomicReference<OthelloYoungBrothersWaitTask> task = new AtomicReference<>();
+        final OthelloEvaluator evaluator = (final OthelloBitBoard board, final long first, final long second) -> {
+            if (evaluations.incrementAndGet() == cutOffEvaluation) {
+                task.get().cutOff();
+            }
+            return OthelloYoungBrothersWaitEngineTest.EVALUATOR.evaluate(board, first, second);
+        };
+        final OthelloYoungBrothersWaitSearch search = new OthelloYoungBrothersWaitSearch(
+                OthelloYoungBrothersWaitEngineTest.BOARD,
+                evaluator,
+                2,
+                new AtomicBoolean(),
+                System.nanoTime() + TimeUnit.HOURS.toNanos(1L));
+        task.set(
+                new OthelloYoungBrothersWaitTask(
+                        search,
+                        player,
+                        opponent,
+                        7,
+                        -OthelloNegamaxSearcher.INFINITY,
+                        OthelloNegamaxSearcher.INFINITY,
+                        false,
+                        null));
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            pool.invoke(task.get());
+        } finally {
+            pool.shutdown();
+        }
+        return evaluations.get();
+    }
+
+    /**
+     * Searches a position sequentially, choosing the first of several best moves in search order.
+     *
+     * @param player   The fields of the player to move.
+     * @param opponent The fields of the opponent.
+     * @param depth    The depth.
+     * @return The best move and the score.
+     */
+    private static int[] searchSequentially(final long player, final long opponent, final int depth) {
+        final OthelloYoungBrothersWaitSearch search = new OthelloYoungBrothersWaitSearch(
+                OthelloYoungBrothersWaitEngineTest.BOARD,
+                OthelloYoungBrothersWaitEngineTest.EVALUATOR,
+                Integer.MAX_VALUE,
+                new AtomicBoolean(),
+                System.nanoTime() + TimeUnit.HOURS.toNanos(1L));
+        final OthelloYoungBrothersWaitTask task = new OthelloYoungBrothersWaitTask(
+                search,
+                player,
+                opponent,
+                depth,
+                -OthelloNegamaxSearcher.INFINITY,
+                OthelloNegamaxSearcher.INFINITY,
+                false,
+                null);
+        final int[] moves = search.orderMoves(
+                player,
+                opponent,
+                OthelloYoungBrothersWaitEngineTest.BOARD.legalMoves(player, opponent),
+                depth);
+        int bestMove = OthelloBitBoard.PASS;
+        int best = -OthelloNegamaxSearcher.INFINITY;
+        for (final int move : moves) {
+            final long flipped = OthelloYoungBrothersWaitEngineTest.BOARD.flips(player, opponent, move);
+            final int score = -task.alphaBeta(
+                    opponent & ~flipped,
+                    player | flipped | 1L << move,
+                    depth - 1,
+                    -OthelloNegamaxSearcher.INFINITY,
+                    -best);
+            if (score > best) {
+                best = score;
+                bestMove = move;
+            }
+        }
+        return new int[] { bestMove, best };
+    }
+
+    /**
+     * Computes the minimax value of a position without any pruning.
+     *
+     * @param player   The fields of the player to move.
+     * @param opponent The fields of the opponent.
+     * @param depth    The depth.
+     * @return The minimax value.
+     */
+    private static int minimax(final long player, final long opponent, final int depth) {
+        return OthelloYoungBrothersWaitEngineTest
+                .minimax(OthelloYoungBrothersWaitEngineTest.EVALUATOR, player, opponent, depth);
+    }
+
+    /**
+     * Computes the minimax value of a position without any pruning.
+     *
+     * @param evaluator The evaluator.
+     * @param player    The fields of the player to move.
+     * @param opponent  The fields of the opponent.
+     * @param depth     The depth.
+     * @return The minimax value.
+     */
+    static int minimax(final OthelloEvaluator evaluator, final long player, final long opponent,
+            final int depth) {
+        long legal = OthelloYoungBrothersWaitEngineTest.BOARD.legalMoves(player, opponent);
+        if (legal == 0L) {
+            if (OthelloYoungBrothersWaitEngineTest.BOARD.legalMoves(opponent, player) == 0L) {
+                return OthelloNegamaxSearcher.finalScore(player, opponent);
+            }
+            return -OthelloYoungBrothersWaitEngineTest.minimax(evaluator, opponent, player, depth);
+        }
+        if (depth <= 0) {
+            return evaluator.evaluate(OthelloYoungBrothersWaitEngineTest.BOARD, player, opponent);
+        }
+        int best = -OthelloNegamaxSearcher.INFINITY;
+        while (legal != 0L) {
+            final int square = Long.numberOfTrailingZeros(legal);
+            legal &= legal - 1L;
+            final long flipped = OthelloYoungBrothersWaitEngineTest.BOARD.flips(player, opponent, square);
+            best = Math.max(
+                    best,
+                    -OthelloYoungBrothersWaitEngineTest
+                            .minimax(evaluator, opponent & ~flipped, player | flipped | 1L << square, depth - 1));
+        }
+        return best;
+    }
+}
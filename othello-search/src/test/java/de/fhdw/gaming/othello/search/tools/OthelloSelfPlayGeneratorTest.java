@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-search.
+ *
+ * Othello-search is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-search is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-search.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.search.tools;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloGameReader;
+import de.fhdw.gaming.othello.search.OthelloGameWriter;
+import de.fhdw.gaming.othello.search.OthelloPositionFile;
+import de.fhdw.gaming.othello.search.OthelloPositionWriter;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+
+/**
+ * Tests {@link OthelloSelfPlayGenerator}.
+ */
+class OthelloSelfPlayGeneratorTest {
+
+    /**
+     * The geometry of a 6x6 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(6);
+
+    /**
+     * Tests that the games are legal, end when neither player can move, have the recorded results, and do not depend
+     * on the number of threads, and that every position reached by an engine is written.
+     *
+     * @throws IOException if the temporary files cannot be used.
+     */
+    @Test
+    void testGenerate() throws IOException {
+        final Supplier<OthelloSearchEngine> engines = () -> new OthelloDefaultSearchEngineBuilder()
+                .changeEvaluator((board, player, opponent) -> Long.bitCount(board.legalMoves(player, opponent)))
+                .changeThreadCount(1).changeMaximumDepth(2).changeEndgameEmpties(0).changeSearchTimeMillis(100000L)
+                .changeTranspositionTableBits(10).build();
+        final OthelloSelfPlayGenerator generator = new OthelloSelfPlayGenerator(
+                OthelloSelfPlayGeneratorTest.BOARD,
+                engines,
+                engines,
+                2,
+                6);
+        final Set<String> gamesByThreads = new HashSet<>();
+        for (int threads = 1; threads <= 2; ++threads) {
+            final Path gameFile = Files.createTempFile("games", ".bin");
+            final Path positionFile = Files.createTempFile("positions", ".bin");
+            try {
+                final long positionCount;
+                try (OthelloGameWriter games = new OthelloGameWriter(gameFile);
+                        OthelloPositionWriter positions = new OthelloPositionWriter(positionFile)) {
+                    positionCount = generator
+                            .generate(20, 3L, threads, new OthelloThreadBudget(2), games, Optional.of(positions));
+                }
+                assertThat(OthelloPositionFile.map(positionFile).getPositionCount(), is(equalTo(positionCount)));
+                gamesByThreads.add(OthelloSelfPlayGeneratorTest.replayAll(gameFile));
+            } finally {
+                Files.delete(gameFile);
+                Files.delete(positionFile);
+            }
+        }
+        assertThat(gamesByThreads.size(), is(equalTo(1)));
+    }
+
+    /**
+     * Replays all games of a file, checking the moves and results.
+     *
+     * @param file The file.
+     * @return The games as the results followed by the moves, sorted, as the games of different threads are appended
+     *         in any order.
+     * @throws IOException if the file cannot be read.
+     */
+    private static String replayAll(final Path file) throws IOException {
+        final OthelloBitBoard board = OthelloSelfPlayGeneratorTest.BOARD;
+        final SortedSet<String> games = new TreeSet<>();
+        int gameCount = 0;
+        try (OthelloGameReader reader = new OthelloGameReader(file)) {
+            while (reader.next()) {
+                ++gameCount;
+                assertThat(reader.getSize(), is(equalTo(6)));
+                final StringBuilder game = new StringBuilder().append(reader.getResult());
+                long player = board.getInitialSquares(true);
+                long opponent = board.getInitialSquares(false);
+                boolean firstToMove = true;
+                for (int move = 0; move < reader.getMoveCount(); ++move) {
+                    if (board.legalMoves(player, opponent) == 0L) {
+                        final long newPlayer = opponent;
+                        opponent = player;
+                        player = newPlayer;
+                        firstToMove = !firstToMove;
+                    }
+                    final int square = reader.getMove(move);
+                    assertThat((board.legalMoves(player, opponent) >>> square & 1L) == 1L, is(equalTo(true)));
+                    final long flipped = board.flips(player, opponent, square);
+                    final long newPlayer = opponent & ~flipped;
+                    opponent = player | flipped | 1L << square;
+                    player = newPlayer;
+                    firstToMove = !firstToMove;
+                    game.append(' ').append(square);
+                }
+                assertThat(board.legalMoves(player, opponent), is(equalTo(0L)));
+                assertThat(board.legalMoves(opponent, player), is(equalTo(0L)));
+                final int difference = Long.bitCount(player) - Long.bitCount(opponent);
+                assertThat(reader.getResult(), is(equalTo(firstToMove ? difference : -difference)));
+                games.add(game.toString());
+            }
+        }
+        assertThat(gameCount, is(equalTo(20)));
+        return String.join("\n", games);
+    }
+}
@@ -35,6 +35,8 @@ import de.fhdw.gaming.othello.core.domain.OthelloState;
 import de.fhdw.gaming.othello.core.domain.OthelloStrategy;
 import de.fhdw.gaming.othello.core.moves.OthelloMove;
 import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+import de.fhdw.gaming.othello.search.OthelloTreeArena;
 
 /**
  * Implements {@link OthelloStrategy}.
@@ -48,6 +50,11 @@ public final class OthelloMinMaxStrategy implements OthelloStrategy {
      */
     private final OthelloMoveFactory moveFactory;
 
+    /**
+     * The search tree of each thread computing a move, which is reused from one move to the next.
+     */
+    private final ThreadLocal<OthelloTreeArena> searchTree = ThreadLocal.withInitial(OthelloTreeArena::new);
+
     /**
      * Creates an {@link OthelloMyStrategy}.
      *
@@ -140,7 +147,7 @@ public final class OthelloMinMaxStrategy implements OthelloStrategy {
 //        }
 
 //        final long startTime = System.nanoTime();
-        final FieldIntTuple besttuple = this.minmax(state, usingBlackTokens, activeFields, this.DEPTHOFTREE);
+        final OthelloPosition bestposition = this.minmax(state, usingBlackTokens, activeFields, this.DEPTHOFTREE);
 //        final long endTime = System.nanoTime();
 //        final long duration = (endTime - startTime);
 //        System.out.println(duration / 1000000000);// division to get Seconds
@@ -151,7 +158,6 @@ public final class OthelloMinMaxStrategy implements OthelloStrategy {
 //        System.out.println(besttuple.getValue());
 //        System.out.println(this.Temperature);
 
-        final OthelloPosition bestposition = besttuple.getField().getPosition();
 //        final OthelloPosition bestposition = this.calculate(activeFields, usingBlackTokens, state);
         return Optional.of(this.moveFactory.createPlaceTokenMove(usingBlackTokens, bestposition));
     }
@@ -185,81 +191,87 @@ public final class OthelloMinMaxStrategy implements OthelloStrategy {
     }
 
     /**
-     * Builds a one layer deep tree with the board you give it as root and all possible boards one move into the future
-     * as children.
-     *
-     * Dosen't understand skipmoves correctly , the current if else is just a temporary fix
+     * Adds all positions one move into the future of a position as children of its node. If the player to move has to
+     * skip, a single child with the same board is added instead.
      *
-     * @param board
-     * @param usingBlackTokens
-     * @param activeFields
-     * @return
+     * @param tree             the search tree
+     * @param node             the node of the position
+     * @param board            the board of the position
+     * @param usingBlackTokens if it is black to move in the position
+     * @param activeFields     list of active fields in the position
+     * @param layer            list to append the boards of the children to, in the order of the children
      * @throws GameException
      */
-
-    private Node<FieldIntTuple> growTree(final OthelloField field, final boolean usingBlackTokens,
-            final List<OthelloField> activeFields) throws GameException {
-        final Node<FieldIntTuple> rootpos = new Node<>(new FieldIntTuple(0, field));
-        OthelloField workfield = null;
+    private void growTree(final OthelloTreeArena tree, final int node, final OthelloBoard board,
+            final boolean usingBlackTokens, final List<OthelloField> activeFields, final List<OthelloBoard> layer)
+            throws GameException {
         if (activeFields.isEmpty()) {
-            rootpos.addChild(new Node<>(new FieldIntTuple(0, field)));
+            tree.addChild(node, OthelloTreeArena.PASS);
+            layer.add(board);
         }
 
         for (int i = 0; i < activeFields.size(); i++) {
-            this.workboard = field.getBoard().deepCopy();
-            workfield = this.setup(this.workboard, usingBlackTokens).get(i);
-
-            workfield.placeToken(usingBlackTokens);
-            rootpos.addChild(new Node<>(new FieldIntTuple(0, workfield)));
+            final OthelloBoard workboard = board.deepCopy();
+            this.setup(workboard, usingBlackTokens).get(i).placeToken(usingBlackTokens);
+            tree.addChild(node, i);
+            layer.add(workboard);
         }
-
-        return rootpos;
     }
 
-    private Node<FieldIntTuple> evaluateLowestLayer(final Node<FieldIntTuple> rootnode) {
-        rootnode.getLowestLayer().parallelStream()
-                .forEach(node -> node.getData().setValue(this.evaluateBoard(node.getData().getField().getBoard())));
-        return rootnode;
+    /**
+     * Evaluates the lowest layer of a given tree using evaluateBoard, and assigns the values to the nodes in the lowest
+     * layer.
+     *
+     * @param tree   the search tree
+     * @param leaves the boards of the lowest layer, whose nodes are the last ones of the tree
+     */
+    private void evaluateLowestLayer(final OthelloTreeArena tree, final List<OthelloBoard> leaves) {
+        final int firstLeaf = tree.size() - leaves.size();
+        final OthelloThreadBudget budget = OthelloThreadBudget.getShared();
+        budget.forEach(
+                leaves.size(),
+                budget.getThreadCount(),
+                (final int i) -> tree.setScore(firstLeaf + i, this.evaluateBoard(leaves.get(i))));
     }
 
     /**
      * Builds tree of a specified depth with the board you give it as root and all possible boards that could arise
-     * through legal moves within the specified depth as children.
+     * through legal moves within the specified depth as children. The tree is built layer by layer, so the nodes of a
+     * layer directly follow the nodes of the layer above, and only the boards of the current layer are kept.
      *
+     * @param tree             the search tree to fill, which is cleared first
      * @param board            board to use as the root of the Tree
      * @param usingBlackTokens if it is black to move in the root board
      * @param activeFields     list of active fields in the root board
      * @param depth            how far to look into the future
-     * @return
+     * @return the boards of the lowest layer, in the order of its nodes
      * @throws GameException
      */
-    private Node<FieldIntTuple> buildTree(final OthelloBoard board, final boolean usingBlackTokens,
-            final List<OthelloField> activeFields, final Integer depth) throws GameException {
-        final Node<
-                FieldIntTuple> outTree = this.growTree(board.getFields().get(0).get(0), usingBlackTokens, activeFields);
+    private List<OthelloBoard> buildTree(final OthelloTreeArena tree, final OthelloBoard board,
+            final boolean usingBlackTokens, final List<OthelloField> activeFields, final Integer depth)
+            throws GameException {
+        tree.clear();
+        List<OthelloBoard> layer = new ArrayList<>();
+        this.growTree(tree, OthelloTreeArena.ROOT, board, usingBlackTokens, activeFields, layer);
+        int firstOfLayer = OthelloTreeArena.ROOT + 1;
         boolean currentUsingBlackTokens = usingBlackTokens;
         for (int i = 0; i < depth; i++) {
             currentUsingBlackTokens = !currentUsingBlackTokens;
-            for (final Node<FieldIntTuple> node : outTree.getLowestLayer()) { // sadly i don't think i can replace this
-                                                                              // for loop
-                                                                              // with a parallel stream because it uses
-                                                                              // an outside
-                                                                              // variable that is not final. but perhaps
-                                                                              // this could
-                                                                              // be circumvented by having current using
-                                                                              // black tokens
-                                                                              // be a final list of alternating true and
-                                                                              // false booleans (as many as depth is)
-                node.addChildren(
-                        this.growTree(
-                                node.getData().getField(),
-                                currentUsingBlackTokens,
-                                this.setup(node.getData().getField().getBoard(), currentUsingBlackTokens))
-                                .getChildren());
+            final List<OthelloBoard> nextLayer = new ArrayList<>();
+            final int firstOfNextLayer = tree.size();
+            for (int j = 0; j < layer.size(); j++) {
+                this.growTree(
+                        tree,
+                        firstOfLayer + j,
+                        layer.get(j),
+                        currentUsingBlackTokens,
+                        this.setup(layer.get(j), currentUsingBlackTokens),
+                        nextLayer);
             }
-
+            layer = nextLayer;
+            firstOfLayer = firstOfNextLayer;
         }
-        return outTree;
+        return layer;
     }
 
     /**
@@ -307,95 +319,28 @@ public final class OthelloMinMaxStrategy implements OthelloStrategy {
     }
 
     /**
-     * Should remove the lowest layer and propagate its values up the tree acording to minmax. probably sometimes throws
-     * "index 0 out of range for length 0" because compare sometimes gets passed an empty List as group
-     *
-     * @param rootnode
-     * @param usingBlackTokens
-     * @return
-     * @throws Exception
-     */
-    private Node<FieldIntTuple> shrinkTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens) {
-        final boolean currentUsingBlackTokens = usingBlackTokens;
-        final List<List<Node<FieldIntTuple>>> lNodes = rootnode.getOrganizedLowestLayer();
-
-        for (int i = 0; i < lNodes.size(); i++) {
-            if (lNodes.get(i).isEmpty()) {
-                continue;
-            }
-
-            lNodes.get(i).get(0).getParent().setData(
-                    new FieldIntTuple(
-                            this.compare(lNodes.get(i), currentUsingBlackTokens).getValue(),
-                            lNodes.get(i).get(0).getParent().getData().getField()));
-            for (int j = 0; j < lNodes.get(i).size(); j++) {
-                lNodes.get(i).get(j).deleteNode();
-            }
-        }
-        return rootnode;
-    }
-
-    /**
-     * Returns the minimum or the maximum value FieldIntTuple out of the List it is provided. minimum if
-     * usingBlackTokens is false maximum if usingBlackTokens is true
+     * Builds and evaluates the search tree, and returns the position of the best move according to minmax.
      *
-     * @param group
-     * @param usingBlackTokens
-     * @return
-     * @throws Exception
-     */
-    private FieldIntTuple compare(final List<Node<FieldIntTuple>> group, final boolean usingBlackTokens) {
-        if (usingBlackTokens) {
-            return group.parallelStream().max((i, j) -> i.getData().getValue().compareTo(j.getData().getValue())).get()
-                    .getData();
-        } else {
-            return group.parallelStream().min((i, j) -> i.getData().getValue().compareTo(j.getData().getValue())).get()
-                    .getData();
-        }
-    }
-
-    /**
-     * Evaluates which move should be made according to minmax.
-     *
-     * @param rootnode
-     * @param usingBlackTokens
-     * @param depth
-     * @return
-     * @throws Exception
+     * @param state            the current state
+     * @param usingBlackTokens if it is black to move
+     * @param activeFields     list of active fields in the current board, which must not be empty
+     * @param depth            how far to look into the future
+     * @return the position to place a token on
+     * @throws GameException
      */
-    private FieldIntTuple crushTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens,
-            final Integer depth) {
-        boolean currentUsingBlackTokens = usingBlackTokens;
-        Node<FieldIntTuple> currentrootnode = rootnode;
-        for (int i = 0; i < depth; i++) {
-            currentrootnode = this.shrinkTree(currentrootnode, currentUsingBlackTokens);
-            currentUsingBlackTokens = !currentUsingBlackTokens;
-
-        }
-//        return currentrootnode.getLowestLayer();
-        return this.compare(currentrootnode.getChildren(), currentUsingBlackTokens);
-    }
-
-    private FieldIntTuple minmax(final OthelloState state, final boolean usingBlackTokens,
+    private OthelloPosition minmax(final OthelloState state, final boolean usingBlackTokens,
             final List<OthelloField> activeFields, final Integer depth) throws GameException {
+        final OthelloTreeArena tree = this.searchTree.get();
+        this.evaluateLowestLayer(tree, this.buildTree(tree, state.getBoard(), usingBlackTokens, activeFields, depth));
 
-        return this.reccruschTree(
-                this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
+        final int bestChild = this.reccruschTree(
+                tree,
+                OthelloTreeArena.ROOT,
                 usingBlackTokens,
                 depth + 1,
                 -100000,
                 100000);
-//        if (depth % 2 == 0) {
-//            return this.crushTree(
-//                    this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
-//                    usingBlackTokens,
-//                    depth);
-//        } else {
-//            return this.crushTree(
-//                    this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
-//                    !usingBlackTokens,
-//                    depth);
-//        }
+        return activeFields.get(tree.getMove(bestChild)).getPosition();
     }
 
     private boolean isFieldStable(final OthelloField field) {
@@ -447,50 +392,62 @@ public final class OthelloMinMaxStrategy implements OthelloStrategy {
         return true;
     }
 
-    private FieldIntTuple reccruschTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens,
-            final Integer depth, final Integer alpha, final Integer beta) {
-        Integer localAlpha = alpha;
-        Integer localBeta = beta;
-        if (depth <= 0 || rootnode.getChildren().isEmpty()) {
-            return rootnode.getData();
+    /**
+     * Computes the minmax value of a node recursively with alpha beta pruning and assigns it to the node. The leaves
+     * keep the values assigned by evaluateLowestLayer.
+     *
+     * @param tree             the search tree
+     * @param node             the node
+     * @param usingBlackTokens if black is to move in the node
+     * @param depth            the number of layers below the node to take into account
+     * @param alpha            the value black is already assured of
+     * @param beta             the value white is already assured of
+     * @return the child with the best value, or the node itself if it is a leaf
+     */
+    private int reccruschTree(final OthelloTreeArena tree, final int node, final boolean usingBlackTokens,
+            final int depth, final int alpha, final int beta) {
+        int localAlpha = alpha;
+        int localBeta = beta;
+        if (depth <= 0 || tree.getFirstChild(node) == OthelloTreeArena.NONE) {
+            return node;
         }
 
+        int bestChild = node;
+        int child = tree.getFirstChild(node);
         if (usingBlackTokens) {
-            FieldIntTuple bestNode = new FieldIntTuple(-10000000, rootnode.getData().getField());
-            for (final Node<FieldIntTuple> child : rootnode.getChildren()) {
-                final FieldIntTuple currEval = new FieldIntTuple(0, child.getData().getField());
-                currEval.setValue(this.reccruschTree(child, false, depth - 1, localAlpha, localBeta).getValue());
-                if (bestNode.getValue() >= currEval.getValue()) {
-                    bestNode = bestNode;
-                } else {
-                    bestNode = currEval;
+            int bestValue = -10000000;
+            while (child != OthelloTreeArena.NONE) {
+                this.reccruschTree(tree, child, false, depth - 1, localAlpha, localBeta);
+                final int currEval = tree.getScore(child);
+                if (bestValue < currEval) {
+                    bestValue = currEval;
+                    bestChild = child;
                 }
-                localAlpha = Math.max(localAlpha, currEval.getValue());
+                localAlpha = Math.max(localAlpha, currEval);
                 if (localBeta <= localAlpha) {
                     break;
                 }
-
+                child = tree.getNextSibling(child);
             }
-            return bestNode;
+            tree.setScore(node, bestValue);
         } else {
-            FieldIntTuple bestNode = new FieldIntTuple(10000000, rootnode.getData().getField());
-            for (final Node<FieldIntTuple> child : rootnode.getChildren()) {
-                final FieldIntTuple currEval = new FieldIntTuple(0, child.getData().getField());
-                currEval.setValue(this.reccruschTree(child, true, depth - 1, localAlpha, localBeta).getValue());
-
-                if (bestNode.getValue() <= currEval.getValue()) {
-                    bestNode = bestNode;
-                } else {
-                    bestNode = currEval;
+            int bestValue = 10000000;
+            while (child != OthelloTreeArena.NONE) {
+                this.reccruschTree(tree, child, true, depth - 1, localAlpha, localBeta);
+                final int currEval = tree.getScore(child);
+                if (bestValue > currEval) {
+                    bestValue = currEval;
+                    bestChild = child;
                 }
-                localBeta = Math.min(localBeta, currEval.getValue());
+                localBeta = Math.min(localBeta, currEval);
                 if (localBeta <= localAlpha) {
                     break;
                 }
-
+                child = tree.getNextSibling(child);
             }
-            return bestNode;
+            tree.setScore(node, bestValue);
         }
+        return bestChild;
     }
 
     private boolean isWinning(final boolean usingBlackTokens, final int BlackActiveFieldsNum,
@@ -18,9 +18,14 @@
  */
 package de.fhdw.gaming.othello.strategy.examples.MinMaxCombi3;
 
+import java.util.Optional;
+
 import de.fhdw.gaming.othello.core.domain.OthelloStrategy;
 import de.fhdw.gaming.othello.core.domain.factory.OthelloStrategyFactory;
 import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchAlgorithm;
 
 /**
  * Implements {@link OthelloStrategyFactory} by creating an {@link OthelloMinMaxCombi3Strategy}. An object of this class is
@@ -31,6 +36,16 @@ public final class OthelloMinMaxCombi3Factory implements OthelloStrategyFactory
 
     @Override
     public OthelloStrategy create(final OthelloMoveFactory moveFactory) {
-        return new OthelloMinMaxCombi3Strategy(moveFactory);
+        return new OthelloMinMaxCombi3Strategy(
+                moveFactory,
+                Optional.of(
+                        (final OthelloEvaluator evaluator) -> new OthelloDefaultSearchEngineBuilder()
+                                .changeAlgorithm(OthelloSearchAlgorithm.YOUNG_BROTHERS_WAIT)
+                                .changeThreadCount(Runtime.getRuntime().availableProcessors())
+                                .changePondering(true)
+                                // every search brings its own evaluator, so the engine's one is not worth caching
+                                .changeEvaluationCacheBits(0)
+                                .changeEvaluator(evaluator)
+                                .build()));
     }
 }
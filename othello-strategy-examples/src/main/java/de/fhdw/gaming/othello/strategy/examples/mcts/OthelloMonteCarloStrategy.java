@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-strategy-examples.
+ *
+ * Othello-strategy-examples is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-strategy-examples is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-strategy-examples.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.strategy.examples.mcts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import de.fhdw.gaming.core.domain.GameException;
+import de.fhdw.gaming.othello.core.domain.OthelloBoard;
+import de.fhdw.gaming.othello.core.domain.OthelloField;
+import de.fhdw.gaming.othello.core.domain.OthelloFieldState;
+import de.fhdw.gaming.othello.core.domain.OthelloPlayer;
+import de.fhdw.gaming.othello.core.domain.OthelloState;
+import de.fhdw.gaming.othello.core.domain.OthelloStrategy;
+import de.fhdw.gaming.othello.core.moves.OthelloMove;
+import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+
+/**
+ * Implements {@link OthelloStrategy} by a Monte Carlo tree search: as many random games as the computation time allows
+ * are played out from the current position, and the move with the most playouts is chosen.
+ * <p>
+ * Boards larger than 8x8 are not supported by the bitboard search engine. On such boards, the strategy chooses a
+ * random move.
+ */
+public final class OthelloMonteCarloStrategy implements OthelloStrategy {
+
+    /**
+     * The factory for creating Othello moves.
+     */
+    private final OthelloMoveFactory moveFactory;
+    /**
+     * The Monte Carlo tree search engine.
+     */
+    private final OthelloSearchEngine engine;
+
+    /**
+     * Creates an {@link OthelloMonteCarloStrategy}.
+     *
+     * @param moveFactory The factory for creating Othello moves.
+     * @param engine      The Monte Carlo tree search engine.
+     */
+    OthelloMonteCarloStrategy(final OthelloMoveFactory moveFactory, final OthelloSearchEngine engine) {
+        this.moveFactory = moveFactory;
+        this.engine = engine;
+    }
+
+    @Override
+    public Optional<OthelloMove> computeNextMove(final int gameId, final OthelloPlayer player, final OthelloState state)
+            throws GameException {
+        final boolean usingBlackTokens = player.isUsingBlackTokens();
+        final OthelloBoard board = state.getBoard();
+        if (!OthelloBitBoard.supports(board.getSize())) {
+            return Optional.of(this.chooseRandomMove(board, usingBlackTokens));
+        }
+
+        final long black = OthelloBitBoard.squaresBeing(board, OthelloFieldState.BLACK);
+        final long white = OthelloBitBoard.squaresBeing(board, OthelloFieldState.WHITE);
+        final OthelloSearchResult result = this.engine.search(
+                gameId,
+                OthelloBitBoard.forSize(board.getSize()),
+                usingBlackTokens ? black : white,
+                usingBlackTokens ? white : black);
+        if (result.isPass()) {
+            return Optional.of(this.moveFactory.createSkipMove(usingBlackTokens));
+        }
+        return Optional.of(
+                this.moveFactory
+                        .createPlaceTokenMove(usingBlackTokens, OthelloBitBoard.toPosition(result.getBestMove())));
+    }
+
+    @Override
+    public void abortRequested(final int gameId) {
+        this.engine.abortRequested(gameId);
+    }
+
+    @Override
+    public void reset() {
+        this.engine.reset();
+    }
+
+    /**
+     * Chooses a random move.
+     *
+     * @param board            The current board.
+     * @param usingBlackTokens If black is the player to move.
+     */
+    private OthelloMove chooseRandomMove(final OthelloBoard board, final boolean usingBlackTokens) {
+        final List<OthelloField> fields = new ArrayList<>();
+        for (final OthelloField field : board.getFieldsBeing(OthelloFieldState.EMPTY).values()) {
+            if (field.isActive(usingBlackTokens)) {
+                fields.add(field);
+            }
+        }
+        if (fields.isEmpty()) {
+            return this.moveFactory.createSkipMove(usingBlackTokens);
+        }
+        final OthelloField field = fields.get(new Random().nextInt(fields.size()));
+        return this.moveFactory.createPlaceTokenMove(usingBlackTokens, field.getPosition());
+    }
+
+    @Override
+    public String toString() {
+        return OthelloMonteCarloStrategy.class.getSimpleName();
+    }
+}
@@ -34,6 +34,8 @@ import de.fhdw.gaming.othello.core.domain.OthelloState;
 import de.fhdw.gaming.othello.core.domain.OthelloStrategy;
 import de.fhdw.gaming.othello.core.moves.OthelloMove;
 import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+import de.fhdw.gaming.othello.search.OthelloTreeArena;
 
 /**
  * Implements {@link OthelloStrategy}.
@@ -47,6 +49,11 @@ public final class OthelloMinMaxD3Strategy implements OthelloStrategy {
      */
     private final OthelloMoveFactory moveFactory;
 
+    /**
+     * The search tree of each thread computing a move, which is reused from one move to the next.
+     */
+    private final ThreadLocal<OthelloTreeArena> searchTree = ThreadLocal.withInitial(OthelloTreeArena::new);
+
     /**
      * Creates an {@link OthelloMyStrategy}.
      *
@@ -127,13 +134,12 @@ public final class OthelloMinMaxD3Strategy implements OthelloStrategy {
 //            e.printStackTrace();
 //        }
 
-        final FieldIntTuple besttuple = this.minmax(state, usingBlackTokens, activeFields, this.DEPTHOFTREE);
+        final OthelloPosition bestposition = this.minmax(state, usingBlackTokens, activeFields, this.DEPTHOFTREE);
 
 //                this
 //                .crushTree(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, 4), usingBlackTokens, 4);
 
 //        System.out.println(besttuple.getValue());
-        final OthelloPosition bestposition = besttuple.getField().getPosition();
 //        final OthelloPosition bestposition = this.calculate(activeFields, usingBlackTokens, state);
         return Optional.of(this.moveFactory.createPlaceTokenMove(usingBlackTokens, bestposition));
     }
@@ -161,87 +167,93 @@ public final class OthelloMinMaxD3Strategy implements OthelloStrategy {
         // possible to place a suitable token according to the rules of the game.
         // (Of course you can use a traditional for-each loop instead of streams for filtering.)
         final List<OthelloField> activeFields = new ArrayList<>();
-        emptyFields.values().parallelStream().filter((final OthelloField field) -> field.isActive(usingBlackTokens))
+        emptyFields.values().stream().filter((final OthelloField field) -> field.isActive(usingBlackTokens))
                 .forEachOrdered(activeFields::add);
         return activeFields;
     }
 
     /**
-     * Builds a one layer deep tree with the board you give it as root and all possible boards one move into the future
-     * as children.
-     *
-     * Dosen't understand skipmoves correctly , the current if else is just a temporary fix
+     * Adds all positions one move into the future of a position as children of its node. If the player to move has to
+     * skip, a single child with the same board is added instead.
      *
-     * @param board
-     * @param usingBlackTokens
-     * @param activeFields
-     * @return
+     * @param tree             the search tree
+     * @param node             the node of the position
+     * @param board            the board of the position
+     * @param usingBlackTokens if it is black to move in the position
+     * @param activeFields     list of active fields in the position
+     * @param layer            list to append the boards of the children to, in the order of the children
      * @throws GameException
      */
-
-    private Node<FieldIntTuple> growTree(final OthelloField field, final boolean usingBlackTokens,
-            final List<OthelloField> activeFields) throws GameException {
-        final Node<FieldIntTuple> rootpos = new Node<>(new FieldIntTuple(0, field));
-        OthelloField workfield = null;
+    private void growTree(final OthelloTreeArena tree, final int node, final OthelloBoard board,
+            final boolean usingBlackTokens, final List<OthelloField> activeFields, final List<OthelloBoard> layer)
+            throws GameException {
         if (activeFields.isEmpty()) {
-            rootpos.addChild(new Node<>(new FieldIntTuple(0, field)));
+            tree.addChild(node, OthelloTreeArena.PASS);
+            layer.add(board);
         }
 
         for (int i = 0; i < activeFields.size(); i++) {
-            this.workboard = field.getBoard().deepCopy();
-            workfield = this.setup(this.workboard, usingBlackTokens).get(i);
-
-            workfield.placeToken(usingBlackTokens);
-            rootpos.addChild(new Node<>(new FieldIntTuple(0, workfield)));
+            final OthelloBoard workboard = board.deepCopy();
+            this.setup(workboard, usingBlackTokens).get(i).placeToken(usingBlackTokens);
+            tree.addChild(node, i);
+            layer.add(workboard);
         }
-
-        return rootpos;
     }
 
-    private Node<FieldIntTuple> evaluateLowestLayer(final Node<FieldIntTuple> rootnode) {
-        rootnode.getLowestLayer().parallelStream()
-                .forEach(node -> node.getData().setValue(this.evaluateBoard(node.getData().getField().getBoard())));
-        return rootnode;
+    /**
+     * Evaluates the lowest layer of a given tree using evaluateBoard, and assigns the values to the nodes in the lowest
+     * layer.
+     *
+     * @param tree   the search tree
+     * @param leaves the boards of the lowest layer, whose nodes are the last ones of the tree
+     */
+    private void evaluateLowestLayer(final OthelloTreeArena tree, final List<OthelloBoard> leaves) {
+        final int firstLeaf = tree.size() - leaves.size();
+        final OthelloThreadBudget budget = OthelloThreadBudget.getShared();
+        budget.forEach(
+                leaves.size(),
+                budget.getThreadCount(),
+                (final int i) -> tree.setScore(firstLeaf + i, this.evaluateBoard(leaves.get(i))));
     }
 
     /**
      * Builds tree of a specified depth with the board you give it as root and all possible boards that could arise
-     * through legal moves within the specified depth as children.
+     * through legal moves within the specified depth as children. The tree is built layer by layer, so the nodes of a
+     * layer directly follow the nodes of the layer above, and only the boards of the current layer are kept.
      *
+     * @param tree             the search tree to fill, which is cleared first
      * @param board            board to use as the root of the Tree
      * @param usingBlackTokens if it is black to move in the root board
      * @param activeFields     list of active fields in the root board
      * @param depth            how far to look into the future
-     * @return
+     * @return the boards of the lowest layer, in the order of its nodes
      * @throws GameException
      */
-    private Node<FieldIntTuple> buildTree(final OthelloBoard board, final boolean usingBlackTokens,
-            final List<OthelloField> activeFields, final Integer depth) throws GameException {
-        final Node<
-                FieldIntTuple> outTree = this.growTree(board.getFields().get(0).get(0), usingBlackTokens, activeFields);
+    private List<OthelloBoard> buildTree(final OthelloTreeArena tree, final OthelloBoard board,
+            final boolean usingBlackTokens, final List<OthelloField> activeFields, final Integer depth)
+            throws GameException {
+        tree.clear();
+        List<OthelloBoard> layer = new ArrayList<>();
+        this.growTree(tree, OthelloTreeArena.ROOT, board, usingBlackTokens, activeFields, layer);
+        int firstOfLayer = OthelloTreeArena.ROOT + 1;
         boolean currentUsingBlackTokens = usingBlackTokens;
         for (int i = 0; i < depth; i++) {
             currentUsingBlackTokens = !currentUsingBlackTokens;
-            for (final Node<FieldIntTuple> node : outTree.getLowestLayer()) { // sadly i don't think i can replace this
-                                                                              // for loop
-                                                                              // with a parallel stream because it uses
-                                                                              // an outside
-                                                                              // variable that is not final. but perhaps
-                                                                              // this could
-                                                                              // be circumvented by having current using
-                                                                              // black tokens
-                                                                              // be a final list of alternating true and
-                                                                              // false booleans (as many as depth is)
-                node.addChildren(
-                        this.growTree(
-                                node.getData().getField(),
-                                currentUsingBlackTokens,
-                                this.setup(node.getData().getField().getBoard(), currentUsingBlackTokens))
-                                .getChildren());
+            final List<OthelloBoard> nextLayer = new ArrayList<>();
+            final int firstOfNextLayer = tree.size();
+            for (int j = 0; j < layer.size(); j++) {
+                this.growTree(
+                        tree,
+                        firstOfLayer + j,
+                        layer.get(j),
+                        currentUsingBlackTokens,
+                        this.setup(layer.get(j), currentUsingBlackTokens),
+                        nextLayer);
             }
-
+            layer = nextLayer;
+            firstOfLayer = firstOfNextLayer;
         }
-        return outTree;
+        return layer;
     }
 
     /**
@@ -320,126 +332,20 @@ public final class OthelloMinMaxD3Strategy implements OthelloStrategy {
     }
 
     /**
-     * Should remove the lowest layer and propagate its values up the tree acording to minmax. probably sometimes throws
-     * "index 0 out of range for length 0" because compare sometimes gets passed an empty List as group
-     *
-     * @param rootnode
-     * @param usingBlackTokens
-     * @return
-     * @throws Exception
-     */
-    private Node<FieldIntTuple> shrinkTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens) {
-        final boolean currentUsingBlackTokens = usingBlackTokens;
-        final List<List<Node<FieldIntTuple>>> lNodes = rootnode.getOrganizedLowestLayer();
-
-        for (int i = 0; i < lNodes.size(); i++) {
-            if (lNodes.get(i).isEmpty()) {
-                continue;
-            }
-
-            lNodes.get(i).get(0).getParent().setData(
-                    new FieldIntTuple(
-                            this.compare(lNodes.get(i), currentUsingBlackTokens).getValue(),
-                            lNodes.get(i).get(0).getParent().getData().getField()));
-            for (int j = 0; j < lNodes.get(i).size(); j++) {
-                lNodes.get(i).get(j).deleteNode();
-            }
-        }
-
-//        for (int i = 0; i < lNodes.size(); i++) {
-//            if (lNodes.get(i).isEmpty()) {
-//                continue;
-//            }
-//
-//            lNodes.get(i).get(0).getParent().
-//            setData(new FieldIntTuple(this.compare(lNodes.get(i), currentUsingBlackTokens).getValue(),
-//                    lNodes.get(i).get(0).getParent().getData().getField()));
-//            for (int j = 0; j < lNodes.get(i).size(); j++) {
-//                lNodes.get(i).get(j).deleteNode();
-//            }
-//        }
-
-//        for (final List<Node<FieldIntTuple>> lNode : lNodes) {
-//            if (lNode.isEmpty()) {
-//                continue;
-//            }
-//
-//            lNode.get(0).getParent().setData(
-//                    new FieldIntTuple(
-//                            this.compare(lNode, currentUsingBlackTokens).getValue(),
-//                            lNode.get(0).getParent().getData().getField()));
-//            for (final Node<FieldIntTuple> element : lNodes.get(i)) {
-//                element.deleteNode();
-//            }
-//        }
-//        for (final List<Node<FieldIntTuple>> group : rootnode.getOrganizedLowestLayer()) {
-//            currentUsingBlackTokens = !currentUsingBlackTokens;
-//            group.get(0).getParent().setData(this.compare(group, currentUsingBlackTokens));
-//            for (final Node<FieldIntTuple> node : group) {
-//                node.deleteNode();
-//
-//            }
-////            group.parallelStream().forEach(s -> {
-////                s.deleteNode();
-////            });
-//        }
-        return rootnode;
-    }
-
-    /**
-     * Returns the minimum or the maximum value FieldIntTuple out of the List it is provided. minimum if
-     * usingBlackTokens is false maximum if usingBlackTokens is true
-     *
-     * @param group
-     * @param usingBlackTokens
-     * @return
-     * @throws Exception
-     */
-    private FieldIntTuple compare(final List<Node<FieldIntTuple>> group, final boolean usingBlackTokens) {
-        if (usingBlackTokens) {
-            return group.parallelStream().max((i, j) -> i.getData().getValue().compareTo(j.getData().getValue())).get()
-                    .getData();
-        } else {
-            return group.parallelStream().min((i, j) -> i.getData().getValue().compareTo(j.getData().getValue())).get()
-                    .getData();
-        }
-    }
-
-    /**
-     * Evaluates which move should be made according to minmax.
+     * Builds and evaluates the search tree, and returns the position of the best move according to minmax.
      *
-     * @param rootnode
-     * @param usingBlackTokens
-     * @param depth
-     * @return
-     * @throws Exception
+     * @param state            the current state
+     * @param usingBlackTokens if it is black to move
+     * @param activeFields     list of active fields in the current board, which must not be empty
+     * @param depth            how far to look into the future
+     * @return the position to place a token on
+     * @throws GameException
      */
-    private FieldIntTuple crushTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens,
-            final Integer depth) {
-        boolean currentUsingBlackTokens = usingBlackTokens;
-        Node<FieldIntTuple> currentrootnode = rootnode;
-        for (int i = 0; i < depth; i++) {
-            currentrootnode = this.shrinkTree(currentrootnode, currentUsingBlackTokens);
-            currentUsingBlackTokens = !currentUsingBlackTokens;
-
-        }
-//        return currentrootnode.getLowestLayer();
-        return this.compare(currentrootnode.getChildren(), currentUsingBlackTokens);
-    }
-
-    private FieldIntTuple minmax(final OthelloState state, final boolean usingBlackTokens,
+    private OthelloPosition minmax(final OthelloState state, final boolean usingBlackTokens,
             final List<OthelloField> activeFields, final Integer depth) throws GameException {
-        if (depth % 2 == 0) {
-            return this.crushTree(
-                    this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
-                    usingBlackTokens,
-                    depth);
-        } else {
-            return this.crushTree(
-                    this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
-                    !usingBlackTokens,
-                    depth);
-        }
+        final OthelloTreeArena tree = this.searchTree.get();
+        this.evaluateLowestLayer(tree, this.buildTree(tree, state.getBoard(), usingBlackTokens, activeFields, depth));
+        return activeFields.get(tree.getMove(tree.backUp(usingBlackTokens))).getPosition();
     }
 
     private boolean isFieldStable(final OthelloField field) {
@@ -155,7 +155,7 @@ public final class OthelloMinOppMob implements OthelloStrategy {
         // possible to place a suitable token according to the rules of the game.
         // (Of course you can use a traditional for-each loop instead of streams for filtering.)
         final List<OthelloField> activeFields = new ArrayList<>();
-        emptyFields.values().parallelStream().filter((final OthelloField field) -> field.isActive(usingBlackTokens))
+        emptyFields.values().stream().filter((final OthelloField field) -> field.isActive(usingBlackTokens))
                 .forEachOrdered(activeFields::add);
         return activeFields;
     }
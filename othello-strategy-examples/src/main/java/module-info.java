@@ -17,6 +17,7 @@
 module de.fhdw.gaming.othello.strategy.examples {
     requires de.fhdw.gaming.core;
     requires de.fhdw.gaming.othello.core;
+    requires de.fhdw.gaming.othello.search;
 
     provides de.fhdw.gaming.othello.core.domain.factory.OthelloStrategyFactory
             with de.fhdw.gaming.othello.strategy.examples.first.OthelloFirstMoveFoundStrategyFactory,
@@ -27,5 +28,6 @@ module de.fhdw.gaming.othello.strategy.examples {
             de.fhdw.gaming.othello.strategy.examples.MinMaxANG.OthelloMinMaxANGFactory,
             de.fhdw.gaming.othello.strategy.examples.MinMax.OthelloMinMaxFactory,
             de.fhdw.gaming.othello.strategy.examples.MinMaxCombi2.OthelloMinMaxCombi2Factory,
-            de.fhdw.gaming.othello.strategy.examples.MinMaxCombi3.OthelloMinMaxCombi3Factory;
+            de.fhdw.gaming.othello.strategy.examples.MinMaxCombi3.OthelloMinMaxCombi3Factory,
+            de.fhdw.gaming.othello.strategy.examples.mcts.OthelloMonteCarloStrategyFactory;
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-strategy-template.
+ *
+ * Othello-strategy-template is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-strategy-template is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-strategy-template.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.strategy.examples.MinMaxCombi3;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
+
+/**
+ * Tests {@link OthelloMinMaxCombi3Evaluator}.
+ */
+class OthelloMinMaxCombi3EvaluatorTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests that tokens on a row owned from edge to edge are stable and worth more the higher the worth of stable
+     * fields, while tokens in the interior next to empty fields are not.
+     */
+    @Test
+    void testStableFields() {
+        final long row = 0x800FFL;
+        final long opponent = 0x0000001818000000L;
+        final OthelloMinMaxCombi3Evaluator noCorners = new OthelloMinMaxCombi3Evaluator(3, 1);
+        final OthelloMinMaxCombi3Evaluator twoCorners = new OthelloMinMaxCombi3Evaluator(15, 1);
+        assertThat(
+                twoCorners.evaluate(OthelloMinMaxCombi3EvaluatorTest.BOARD, row, opponent),
+                is(greaterThan(noCorners.evaluate(OthelloMinMaxCombi3EvaluatorTest.BOARD, row, opponent))));
+
+        final long inner = 0x180000L;
+        assertThat(
+                twoCorners.evaluate(OthelloMinMaxCombi3EvaluatorTest.BOARD, inner, opponent),
+                is(equalTo(noCorners.evaluate(OthelloMinMaxCombi3EvaluatorTest.BOARD, inner, opponent))));
+    }
+
+    /**
+     * Tests that the evaluation is symmetric: swapping the players negates it.
+     */
+    @Test
+    void testSymmetry() {
+        final OthelloMinMaxCombi3Evaluator evaluator = new OthelloMinMaxCombi3Evaluator(9, 2);
+        final Random random = new Random(5);
+        for (int game = 0; game < 20; ++game) {
+            final long[] position = OthelloMinMaxCombi3EvaluatorTest.playRandomly(random, 10 + game * 2);
+            assertThat(
+                    evaluator.evaluate(OthelloMinMaxCombi3EvaluatorTest.BOARD, position[0], position[1]),
+                    is(equalTo(-evaluator.evaluate(OthelloMinMaxCombi3EvaluatorTest.BOARD, position[1], position[0]))));
+        }
+    }
+
+    /**
+     * Tests that evaluators are equal if they evaluate alike, so that the strategy reuses their search engines.
+     */
+    @Test
+    void testEquality() {
+        assertThat(new OthelloMinMaxCombi3Evaluator(9, 1), is(equalTo(new OthelloMinMaxCombi3Evaluator(9, 1))));
+        assertThat(
+                new OthelloMinMaxCombi3Evaluator(9, 1).hashCode(),
+                is(equalTo(new OthelloMinMaxCombi3Evaluator(9, 1).hashCode())));
+        assertThat(new OthelloMinMaxCombi3Evaluator(9, 1), is(not(equalTo(new OthelloMinMaxCombi3Evaluator(9, 2)))));
+        assertThat(new OthelloMinMaxCombi3Evaluator(9, 1), is(not(equalTo(new OthelloMinMaxCombi3Evaluator(3, 1)))));
+    }
+
+    /**
+     * Tests that the search engine used for 8x8 boards chooses moves by the Combi3 evaluation: at depth one, it plays
+     * the move leading to the best evaluated position, which in some positions differs from the move the plain square
+     * weights would choose.
+     */
+    @Test
+    void testMoveChoiceOnEightByEight() {
+        final OthelloEvaluator squareWeights = new OthelloSquareWeightEvaluator(
+                OthelloWeightTable.forSize(8).toSquareWeights(),
+                1);
+        final Random random = new Random(7);
+        int checked = 0;
+        int differing = 0;
+        for (int game = 0; game < 40; ++game) {
+            final long[] position = OthelloMinMaxCombi3EvaluatorTest.playRandomly(random, 8 + game % 30);
+            final long player = position[0];
+            final long opponent = position[1];
+            final long legal = OthelloMinMaxCombi3EvaluatorTest.BOARD.legalMoves(player, opponent);
+            if (legal == 0L) {
+                continue;
+            }
+            final int ownCorners = Long.bitCount(player & OthelloMinMaxCombi3EvaluatorTest.BOARD.getCornerSquares());
+            final OthelloMinMaxCombi3Evaluator combi = new OthelloMinMaxCombi3Evaluator(3 + ownCorners * 6, 1);
+            final int combiMove = OthelloMinMaxCombi3EvaluatorTest.bestMove(combi, player, opponent);
+            if (combiMove == OthelloBitBoard.PASS) {
+                continue;
+            }
+            final OthelloSearchEngine engine = new OthelloDefaultSearchEngineBuilder().changeMaximumDepth(1)
+                    .changeSearchTimeMillis(60000L).changeEndgameEmpties(0).changeEvaluationCacheBits(0)
+                    .changeTranspositionTableBits(10).changeEvaluator(combi).build();
+            assertThat(
+                    engine.search(game, OthelloMinMaxCombi3EvaluatorTest.BOARD, player, opponent).getBestMove(),
+                    is(equalTo(combiMove)));
+            ++checked;
+            if (OthelloMinMaxCombi3EvaluatorTest.bestMove(squareWeights, player, opponent) != combiMove) {
+                ++differing;
+            }
+        }
+        assertThat(checked, is(greaterThan(10)));
+        assertThat(differing, is(greaterThan(0)));
+    }
+
+    /**
+     * Returns the move leading to the best evaluated position, or {@link OthelloBitBoard#PASS} if that move is not
+     * unique, if there is only one move, or if the opponent would have to skip after any move.
+     *
+     * @param evaluator The evaluator.
+     * @param player    The fields of the player to move.
+     * @param opponent  The fields of the opponent.
+     */
+    private static int bestMove(final OthelloEvaluator evaluator, final long player, final long opponent) {
+        final OthelloBitBoard board = OthelloMinMaxCombi3EvaluatorTest.BOARD;
+        final long legal = board.legalMoves(player, opponent);
+        if (Long.bitCount(legal) < 2) {
+            return OthelloBitBoard.PASS;
+        }
+        int bestMove = OthelloBitBoard.PASS;
+        int bestScore = Integer.MIN_VALUE;
+        boolean unique = false;
+        for (long remaining = legal; remaining != 0L; remaining &= remaining - 1L) {
+            final int move = Long.numberOfTrailingZeros(remaining);
+            final long flipped = board.flips(player, opponent, move);
+            final long newPlayer = opponent & ~flipped;
+            final long newOpponent = player | flipped | 1L << move;
+            if (board.legalMoves(newPlayer, newOpponent) == 0L) {
+                return OthelloBitBoard.PASS;
+            }
+            final int score = -evaluator.evaluate(board, newPlayer, newOpponent);
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                unique = true;
+            } else if (score == bestScore) {
+                unique = false;
+            }
+        }
+        return unique ? bestMove : OthelloBitBoard.PASS;
+    }
+
+    /**
+     * Plays random moves from the initial position.
+     *
+     * @param random The source of the moves.
+     * @param plies  The maximum number of moves.
+     * @return The fields of the player to move and the fields of the opponent.
+     */
+    private static long[] playRandomly(final Random random, final int plies) {
+        final OthelloBitBoard board = OthelloMinMaxCombi3EvaluatorTest.BOARD;
+        long player = board.getInitialSquares(true);
+        long opponent = board.getInitialSquares(false);
+        for (int ply = 0; ply < plies; ++ply) {
+            long legal = board.legalMoves(player, opponent);
+            if (legal == 0L) {
+                break;
+            }
+            for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                legal &= legal - 1L;
+            }
+            final int move = Long.numberOfTrailingZeros(legal);
+            final long flipped = board.flips(player, opponent, move);
+            final long newPlayer = opponent & ~flipped;
+            opponent = player | flipped | 1L << move;
+            player = newPlayer;
+        }
+        return new long[] { player, opponent };
+    }
+}
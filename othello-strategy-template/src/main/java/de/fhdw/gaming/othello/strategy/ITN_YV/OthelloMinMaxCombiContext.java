@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-strategy-template.
+ *
+ * Othello-strategy-template is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-strategy-template is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-strategy-template.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.strategy.ITN_YV;
+
+import de.fhdw.gaming.othello.core.domain.OthelloBoard;
+import de.fhdw.gaming.othello.core.domain.OthelloFieldState;
+import de.fhdw.gaming.othello.search.evaluation.OthelloGamePhase;
+
+/**
+ * The parameters of a single search of {@link OthelloMinMaxCombiStrategy}. They are derived from the position to
+ * search only, i.e. from the number of empty fields and the corners owned, so a search neither depends on the moves
+ * previously computed by the strategy nor on other games computed by the same strategy at the same time. Objects of
+ * this class are immutable.
+ * <p>
+ * The weights of the evaluation depend on the {@link OthelloGamePhase phase} of the position evaluated rather than on
+ * that of the root: early in the game, mobility counts as much as the fields owned; later, the fields owned count
+ * three times as much; at the end, stable fields are no longer rewarded, as all fields end up stable.
+ */
+final class OthelloMinMaxCombiContext {
+
+    /**
+     * The number of empty fields below which the search looks deeper on an 8x8 board. On other boards, it is scaled
+     * by the number of fields, like the phases of the evaluation weights.
+     */
+    static final int ENDGAME_EMPTIES = 15;
+    /**
+     * The number of fields of an 8x8 board, which {@link #ENDGAME_EMPTIES} refers to.
+     */
+    static final int ENDGAME_FIELD_COUNT = 64;
+
+    /**
+     * The coefficient the value of the fields owned is multiplied by, indexed by phase.
+     */
+    private static final int[] FIELD_COEFFICIENTS = { 3, 3, 1 };
+    /**
+     * How valuable a token on a stable field is apart from the corners owned, indexed by phase.
+     */
+    private static final int[] STABLE_WORTHS = { 0, 3, 3 };
+    /**
+     * How much more valuable a token on a stable field is per corner owned by the player to move.
+     */
+    private static final int CORNER_STABLE_WORTH = 6;
+
+    /**
+     * How many layers the search tree will have.
+     */
+    private final int depthOfTree;
+    /**
+     * How much more valuable a token on a stable field is due to the corners owned by the player to move.
+     */
+    private final int cornerStableWorth;
+    /**
+     * The division of the game into the phases of the evaluation weights.
+     */
+    private final OthelloGamePhase phase;
+
+    /**
+     * Creates the context of a position.
+     *
+     * @param fieldCount The number of fields of the board.
+     * @param empties    The number of empty fields of the position.
+     * @param ownCorners The number of corners owned by the player to move.
+     */
+    OthelloMinMaxCombiContext(final int fieldCount, final int empties, final int ownCorners) {
+        this.depthOfTree = empties * OthelloMinMaxCombiContext.ENDGAME_FIELD_COUNT
+                < OthelloMinMaxCombiContext.ENDGAME_EMPTIES * fieldCount ? 5 : 3;
+        this.cornerStableWorth = ownCorners * OthelloMinMaxCombiContext.CORNER_STABLE_WORTH;
+        this.phase = new OthelloGamePhase(fieldCount, OthelloMinMaxCombiContext.FIELD_COEFFICIENTS.length);
+    }
+
+    /**
+     * Creates the context of a board.
+     *
+     * @param board      The board.
+     * @param ownCorners The number of corners owned by the player to move.
+     */
+    static OthelloMinMaxCombiContext of(final OthelloBoard board, final int ownCorners) {
+        return new OthelloMinMaxCombiContext(
+                board.getSize() * board.getSize(),
+                board.getFieldsBeing(OthelloFieldState.EMPTY).size(),
+                ownCorners);
+    }
+
+    /**
+     * Returns how many layers the search tree will have.
+     */
+    int getDepthOfTree() {
+        return this.depthOfTree;
+    }
+
+    /**
+     * Returns how much more valuable a token on a stable field is due to the corners owned by the player to move.
+     */
+    int getCornerStableWorth() {
+        return this.cornerStableWorth;
+    }
+
+    /**
+     * Returns the division of the game into the phases of the evaluation weights.
+     */
+    OthelloGamePhase getPhase() {
+        return this.phase;
+    }
+
+    /**
+     * Returns how valuable a token on a stable field is.
+     *
+     * @param phaseIndex The phase of the evaluation weights.
+     */
+    int getStableWorth(final int phaseIndex) {
+        return OthelloMinMaxCombiContext.STABLE_WORTHS[phaseIndex] + this.cornerStableWorth;
+    }
+
+    /**
+     * Returns the coefficient the value of the fields owned is multiplied by.
+     *
+     * @param phaseIndex The phase of the evaluation weights.
+     */
+    int getFieldCoefficient(final int phaseIndex) {
+        return OthelloMinMaxCombiContext.FIELD_COEFFICIENTS[phaseIndex];
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "OthelloMinMaxCombiContext[depthOfTree=%d, cornerStableWorth=%d, phase=%s]",
+                this.depthOfTree,
+                this.cornerStableWorth,
+                this.phase);
+    }
+}
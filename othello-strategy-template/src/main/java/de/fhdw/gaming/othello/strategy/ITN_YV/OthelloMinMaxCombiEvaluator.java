@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-strategy-template.
+ *
+ * Othello-strategy-template is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-strategy-template is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-strategy-template.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.strategy.ITN_YV;
+
+import java.util.Objects;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloGamePhase;
+import de.fhdw.gaming.othello.search.evaluation.OthelloMobility;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
+
+/**
+ * Implements {@link OthelloEvaluator} by the evaluation of {@link OthelloMinMaxCombiStrategy}, so that the bitboard
+ * search engines play by the same terms as the layered tree: the board weights (with the fields next to an owned corner
+ * worth nothing), the tokens, the penalty for adjacent empty fields, the stable fields weighted by the corners owned at
+ * the root, and the mobility, all interpolated between the phases of the game.
+ * <p>
+ * The evaluation is symmetric, so the player to move takes the part of black. A finished game is evaluated as won or
+ * lost just below {@link OthelloEvaluator#WIN_SCORE}; the search engines never ask for it, as they score finished
+ * games by the tokens themselves. Two evaluators are equal if they evaluate alike.
+ */
+final class OthelloMinMaxCombiEvaluator implements OthelloEvaluator {
+
+    /**
+     * The evaluation of a won game.
+     */
+    static final int WON_SCORE = OthelloEvaluator.WIN_SCORE - 1;
+
+    /**
+     * The row offset of each {@link de.fhdw.gaming.othello.core.domain.OthelloDirection direction}, in the order of
+     * its constants.
+     */
+    private static final int[] ROW_STEPS = { -1, -1, 0, 1, 1, 1, 0, -1 };
+    /**
+     * The column offset of each {@link de.fhdw.gaming.othello.core.domain.OthelloDirection direction}, in the order of
+     * its constants.
+     */
+    private static final int[] COLUMN_STEPS = { 0, 1, 1, 1, 0, -1, -1, -1 };
+
+    /**
+     * The parameters of the search, of which only the phases and the worth of stable fields are used.
+     */
+    private final OthelloMinMaxCombiContext context;
+
+    /**
+     * Creates an evaluator.
+     *
+     * @param context The parameters of the search, whose number of fields has to be the one of the boards evaluated.
+     */
+    OthelloMinMaxCombiEvaluator(final OthelloMinMaxCombiContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public int evaluate(final OthelloBitBoard board, final long player, final long opponent) {
+        final long playerMoves = board.legalMoves(player, opponent);
+        final long opponentMoves = board.legalMoves(opponent, player);
+        final int playerCount = Long.bitCount(player);
+        final int opponentCount = Long.bitCount(opponent);
+        if (playerMoves == 0L && opponentMoves == 0L && playerCount != opponentCount) {
+            return playerCount > opponentCount ? OthelloMinMaxCombiEvaluator.WON_SCORE
+                    : -OthelloMinMaxCombiEvaluator.WON_SCORE;
+        }
+
+        final int mobilityDiff = Long.bitCount(playerMoves) - Long.bitCount(opponentMoves);
+        final int penaltyDiff = OthelloMobility.emptyNeighbours(board, player, opponent)
+                - OthelloMobility.emptyNeighbours(board, opponent, player);
+
+        final OthelloWeightTable weights = OthelloWeightTable.forSize(board.getSize());
+        int stableFieldsDiff = 0;
+        int fieldValueDiff = playerCount - opponentCount - penaltyDiff;
+        for (long remaining = player; remaining != 0L; remaining &= remaining - 1L) {
+            final int square = Long.numberOfTrailingZeros(remaining);
+            if (OthelloMinMaxCombiEvaluator.isStable(board, square, player)) {
+                ++stableFieldsDiff;
+            }
+            fieldValueDiff += OthelloMinMaxCombiEvaluator.getWeight(weights, square, player);
+        }
+        for (long remaining = opponent; remaining != 0L; remaining &= remaining - 1L) {
+            final int square = Long.numberOfTrailingZeros(remaining);
+            if (OthelloMinMaxCombiEvaluator.isStable(board, square, opponent)) {
+                --stableFieldsDiff;
+            }
+            fieldValueDiff -= OthelloMinMaxCombiEvaluator.getWeight(weights, square, opponent);
+        }
+
+        final OthelloGamePhase phase = this.context.getPhase();
+        final int empties = phase.getFieldCount() - playerCount - opponentCount;
+        final int lowerPhase = phase.getLowerPhase(empties);
+        final int upperPhase = phase.getUpperPhase(empties);
+        return phase.interpolate(
+                empties,
+                (fieldValueDiff + stableFieldsDiff * this.context.getStableWorth(lowerPhase))
+                        * this.context.getFieldCoefficient(lowerPhase) + mobilityDiff,
+                (fieldValueDiff + stableFieldsDiff * this.context.getStableWorth(upperPhase))
+                        * this.context.getFieldCoefficient(upperPhase) + mobilityDiff);
+    }
+
+    /**
+     * Returns the weight of a token like {@link OthelloWeightTable#getWeight(de.fhdw.gaming.othello.core.domain.
+     * OthelloBoard, de.fhdw.gaming.othello.core.domain.OthelloPosition, de.fhdw.gaming.othello.core.domain.
+     * OthelloFieldState)}: the fields next to a corner are worth nothing if the corner is owned by the owner of the
+     * token.
+     *
+     * @param weights The weights of the board.
+     * @param square  The field of the token.
+     * @param owner   The fields of the owner of the token.
+     */
+    private static int getWeight(final OthelloWeightTable weights, final int square, final long owner) {
+        final int row = OthelloBitBoard.row(square);
+        final int column = OthelloBitBoard.column(square);
+        final int last = weights.getSize() - 1;
+        final int cornerRow = row <= 1 ? 0 : row >= last - 1 ? last : -1;
+        final int cornerColumn = column <= 1 ? 0 : column >= last - 1 ? last : -1;
+        if (cornerRow >= 0 && cornerColumn >= 0 && (row != cornerRow || column != cornerColumn)
+                && (owner >>> OthelloBitBoard.square(cornerRow, cornerColumn) & 1L) != 0L) {
+            return 0;
+        }
+        return weights.getWeight(row, column);
+    }
+
+    /**
+     * Decides whether a token is stable the way {@link OthelloMinMaxCombiStrategy} does on fields: for every direction
+     * in which the token has a neighbour not owned by its owner, the fields in the opposite direction up to the edge
+     * have to be owned by the owner. As there, the walk in the next direction starts where the previous one ended.
+     *
+     * @param board  The geometry of the board.
+     * @param square The field of the token.
+     * @param owner  The fields of the owner of the token.
+     */
+    private static boolean isStable(final OthelloBitBoard board, final int square, final long owner) {
+        final int size = board.getSize();
+        int row = OthelloBitBoard.row(square);
+        int column = OthelloBitBoard.column(square);
+        final int startRow = row;
+        final int startColumn = column;
+        for (int direction = 0; direction < OthelloBitBoard.DIRECTION_COUNT; ++direction) {
+            final int neighbourRow = startRow + OthelloMinMaxCombiEvaluator.ROW_STEPS[direction];
+            final int neighbourColumn = startColumn + OthelloMinMaxCombiEvaluator.COLUMN_STEPS[direction];
+            if (!OthelloMinMaxCombiEvaluator.isOnBoard(size, neighbourRow, neighbourColumn)
+                    || (owner >>> OthelloBitBoard.square(neighbourRow, neighbourColumn) & 1L) != 0L) {
+                continue;
+            }
+            final int opposite = (direction + OthelloBitBoard.DIRECTION_COUNT / 2) % OthelloBitBoard.DIRECTION_COUNT;
+            final int rowStep = OthelloMinMaxCombiEvaluator.ROW_STEPS[opposite];
+            final int columnStep = OthelloMinMaxCombiEvaluator.COLUMN_STEPS[opposite];
+            while (OthelloMinMaxCombiEvaluator.isOnBoard(size, row + rowStep, column + columnStep)) {
+                if ((owner >>> OthelloBitBoard.square(row + rowStep, column + columnStep) & 1L) == 0L) {
+                    return false;
+                }
+                row += rowStep;
+                column += columnStep;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if a field is on the board.
+     *
+     * @param size   The size of the board.
+     * @param row    The row of the field.
+     * @param column The column of the field.
+     */
+    private static boolean isOnBoard(final int size, final int row, final int column) {
+        return row >= 0 && row < size && column >= 0 && column < size;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof OthelloMinMaxCombiEvaluator) {
+            final OthelloMinMaxCombiContext otherContext = ((OthelloMinMaxCombiEvaluator) obj).context;
+            return this.context.getPhase().getFieldCount() == otherContext.getPhase().getFieldCount()
+                    && this.context.getCornerStableWorth() == otherContext.getCornerStableWorth();
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.context.getPhase().getFieldCount(), this.context.getCornerStableWorth());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OthelloMinMaxCombiEvaluator[context=%s]", this.context);
+    }
+}
@@ -21,6 +21,8 @@ package de.fhdw.gaming.othello.strategy.ITN_YV;
 import de.fhdw.gaming.othello.core.domain.OthelloStrategy;
 import de.fhdw.gaming.othello.core.domain.factory.OthelloStrategyFactory;
 import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
 
 /**
  * Implements {@link OthelloStrategyFactory} by creating an {@link OthelloMinMaxCombiStrategy}. An object of this class is
@@ -31,6 +33,14 @@ public final class OthelloMinMaxCombiFactory implements OthelloStrategyFactory {
 
     @Override
     public OthelloStrategy create(final OthelloMoveFactory moveFactory) {
-        return new OthelloMinMaxCombiStrategy(moveFactory);
+        return new OthelloMinMaxCombiStrategy(
+                moveFactory,
+                (final OthelloEvaluator evaluator) -> new OthelloDefaultSearchEngineBuilder()
+                        .changeThreadCount(Runtime.getRuntime().availableProcessors())
+                        .changePondering(true)
+                        // every search brings its own evaluator, so the engine's one is not worth caching
+                        .changeEvaluationCacheBits(0)
+                        .changeEvaluator(evaluator)
+                        .build());
     }
 }
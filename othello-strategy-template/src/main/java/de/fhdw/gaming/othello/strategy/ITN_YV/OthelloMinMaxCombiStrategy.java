@@ -19,12 +19,11 @@
 package de.fhdw.gaming.othello.strategy.ITN_YV;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
 import de.fhdw.gaming.core.domain.GameException;
 import de.fhdw.gaming.othello.core.domain.OthelloBoard;
@@ -37,6 +36,14 @@ import de.fhdw.gaming.othello.core.domain.OthelloState;
 import de.fhdw.gaming.othello.core.domain.OthelloStrategy;
 import de.fhdw.gaming.othello.core.moves.OthelloMove;
 import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.OthelloSearchResult;
+import de.fhdw.gaming.othello.search.OthelloThreadBudget;
+import de.fhdw.gaming.othello.search.OthelloTreeArena;
+import de.fhdw.gaming.othello.search.evaluation.OthelloGamePhase;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
 
 /**
  * Implements {@link OthelloStrategy}.
@@ -46,41 +53,38 @@ import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
 public final class OthelloMinMaxCombiStrategy implements OthelloStrategy {
 
     /**
-     * How many layers the search tree will have.
+     * The factory for creating Othello moves.
      */
-    private Integer depthOfTree = 3;
+    private final OthelloMoveFactory moveFactory;
 
     /**
-     * provides the strategy with information on how many moves have been played yet. (decreases by 1 with every call of
-     * computeNextMove)
-     */
-    private Integer temperature = 32;
-    /**
-     * Integer denoting how valuable a token on a stable Field (as defined by isFieldStable) is.
-     *
-     */
-    private Integer stableWorth = 3;
-    /**
-     * A coefficient used to emphasize certain aspects of the evaluation. is changed according to temperature
+     * The search tree of each thread computing a move, which is reused from one move to the next.
      */
-    private int fieldCoefficient = 1;
+    private final ThreadLocal<OthelloTreeArena> searchTree = ThreadLocal.withInitial(OthelloTreeArena::new);
+
     /**
-     * maps a value to every field of a 8x8 OthelloBoard. is used for board evaluation
+     * Creates the bitboard search engine using an evaluator. The engine is used for 8x8 boards, other boards are
+     * searched by the layered tree.
      */
-    private static HashMap<OthelloPosition, Integer> boardWeights = initializeBoardWeigths();
+    private final Function<OthelloEvaluator, OthelloSearchEngine> engineFactory;
 
     /**
-     * The factory for creating Othello moves.
+     * The bitboard search engine shared by all games. Each search passes the evaluator of its own context, as the
+     * worth of stable fields depends on the corners owned at the root. Created on first use.
      */
-    private final OthelloMoveFactory moveFactory;
+    private Optional<OthelloSearchEngine> engine;
 
     /**
      * Creates an {@link OthelloMyStrategy}.
      *
-     * @param moveFactory The factory for creating Othello moves.
+     * @param moveFactory   The factory for creating Othello moves.
+     * @param engineFactory Creates a bitboard search engine for 8x8 boards using an evaluator.
      */
-    OthelloMinMaxCombiStrategy(final OthelloMoveFactory moveFactory) {
+    OthelloMinMaxCombiStrategy(final OthelloMoveFactory moveFactory,
+            final Function<OthelloEvaluator, OthelloSearchEngine> engineFactory) {
         this.moveFactory = moveFactory;
+        this.engineFactory = engineFactory;
+        this.engine = Optional.empty();
     }
 
     @Override
@@ -88,123 +92,29 @@ public final class OthelloMinMaxCombiStrategy implements OthelloStrategy {
      * resets the fields of the Strategy. Called before every game in a contest.
      */
     public void reset() {
-        this.depthOfTree = 3;
-        this.temperature = 32;
-        this.stableWorth = 3;
-        this.fieldCoefficient = 1;
-        OthelloMinMaxCombiStrategy.boardWeights = initializeBoardWeigths();
+        this.getCreatedEngine().ifPresent(OthelloSearchEngine::reset);
     }
 
-    /**
-     * Initializes the HashMap used for evaluating the OthelloBoard.
-     *
-     * @return HashMap im Initialzustand
-     */
-    private static HashMap<OthelloPosition, Integer> initializeBoardWeigths() {
-        return new HashMap<>() {
-            /**
-             *
-             */
-            private static final long serialVersionUID = 1L;
-
-            {
-                this.put(OthelloPosition.of(0, 0), 100);
-                this.put(OthelloPosition.of(0, 1), -30);
-                this.put(OthelloPosition.of(0, 2), 6);
-                this.put(OthelloPosition.of(0, 3), 2);
-                this.put(OthelloPosition.of(0, 4), 2);
-                this.put(OthelloPosition.of(0, 5), 6);
-                this.put(OthelloPosition.of(0, 6), -30);
-                this.put(OthelloPosition.of(0, 7), 100);
-                this.put(OthelloPosition.of(1, 0), -30);
-                this.put(OthelloPosition.of(1, 1), -50);
-                this.put(OthelloPosition.of(1, 2), 0);
-                this.put(OthelloPosition.of(1, 3), 0);
-                this.put(OthelloPosition.of(1, 4), 0);
-                this.put(OthelloPosition.of(1, 5), 0);
-                this.put(OthelloPosition.of(1, 6), -50);
-                this.put(OthelloPosition.of(1, 7), -30);
-                this.put(OthelloPosition.of(2, 0), 6);
-                this.put(OthelloPosition.of(2, 1), 0);
-                this.put(OthelloPosition.of(2, 2), 0);
-                this.put(OthelloPosition.of(2, 3), 0);
-                this.put(OthelloPosition.of(2, 4), 0);
-                this.put(OthelloPosition.of(2, 5), 0);
-                this.put(OthelloPosition.of(2, 6), 0);
-                this.put(OthelloPosition.of(2, 7), 6);
-                this.put(OthelloPosition.of(3, 0), 2);
-                this.put(OthelloPosition.of(3, 1), 0);
-                this.put(OthelloPosition.of(3, 2), 0);
-                this.put(OthelloPosition.of(3, 3), 3);
-                this.put(OthelloPosition.of(3, 4), 3);
-                this.put(OthelloPosition.of(3, 5), 0);
-                this.put(OthelloPosition.of(3, 6), 0);
-                this.put(OthelloPosition.of(3, 7), 2);
-                this.put(OthelloPosition.of(4, 0), 2);
-                this.put(OthelloPosition.of(4, 1), 0);
-                this.put(OthelloPosition.of(4, 2), 0);
-                this.put(OthelloPosition.of(4, 3), 3);
-                this.put(OthelloPosition.of(4, 4), 3);
-                this.put(OthelloPosition.of(4, 5), 0);
-                this.put(OthelloPosition.of(4, 6), 0);
-                this.put(OthelloPosition.of(4, 7), 2);
-                this.put(OthelloPosition.of(5, 0), 6);
-                this.put(OthelloPosition.of(5, 1), 0);
-                this.put(OthelloPosition.of(5, 2), 0);
-                this.put(OthelloPosition.of(5, 3), 0);
-                this.put(OthelloPosition.of(5, 4), 0);
-                this.put(OthelloPosition.of(5, 5), 0);
-                this.put(OthelloPosition.of(5, 6), 0);
-                this.put(OthelloPosition.of(5, 7), 6);
-                this.put(OthelloPosition.of(6, 0), -30);
-                this.put(OthelloPosition.of(6, 1), -50);
-                this.put(OthelloPosition.of(6, 2), 0);
-                this.put(OthelloPosition.of(6, 3), 0);
-                this.put(OthelloPosition.of(6, 4), 0);
-                this.put(OthelloPosition.of(6, 5), 0);
-                this.put(OthelloPosition.of(6, 6), -50);
-                this.put(OthelloPosition.of(6, 7), -30);
-                this.put(OthelloPosition.of(7, 0), 100);
-                this.put(OthelloPosition.of(7, 1), -30);
-                this.put(OthelloPosition.of(7, 2), 6);
-                this.put(OthelloPosition.of(7, 3), 2);
-                this.put(OthelloPosition.of(7, 4), 2);
-                this.put(OthelloPosition.of(7, 5), 6);
-                this.put(OthelloPosition.of(7, 6), -30);
-                this.put(OthelloPosition.of(7, 7), 100);
-            }
-        };
+    @Override
+    public void abortRequested(final int gameId) {
+        this.getCreatedEngine().ifPresent((final OthelloSearchEngine created) -> created.abortRequested(gameId));
     }
 
     @Override
     public Optional<OthelloMove> computeNextMove(final int gameId, final OthelloPlayer player, final OthelloState state)
             throws GameException {
-        int ownCorners = 0;
-        this.stableWorth = 3;
-        if (this.temperature < 10) {
-            this.depthOfTree = 5;
-            this.stableWorth = 0;
-
-        }
-        if (this.temperature < 20) {
-            this.fieldCoefficient = 3;
-
-        }
-
-        this.temperature -= 1;
         final boolean usingBlackTokens = player.isUsingBlackTokens();
 
-        Set<OthelloPosition> ownFields = new HashSet<>();
-        final List<OthelloField> activeFields = this.setup(state.getBoard(), usingBlackTokens);
-        if (usingBlackTokens) {
-            ownFields = state.getBoard().getFieldsBeing(OthelloFieldState.BLACK).keySet();
-        } else {
-            ownFields = state.getBoard().getFieldsBeing(OthelloFieldState.WHITE).keySet();
-
+        final OthelloBoard board = state.getBoard();
+        final int ownCorners = this.countOwnCorners(
+                board,
+                usingBlackTokens ? OthelloFieldState.BLACK : OthelloFieldState.WHITE);
+        final OthelloMinMaxCombiContext context = OthelloMinMaxCombiContext.of(board, ownCorners);
+        if (board.getSize() == OthelloBitBoard.MAXIMUM_SIZE) {
+            return Optional.of(this.searchWithEngine(gameId, board, usingBlackTokens, context));
         }
 
-        ownCorners = this.checkOwnCorners(ownFields);
-        this.stableWorth += ownCorners * 6;
+        final List<OthelloField> activeFields = this.setup(state.getBoard(), usingBlackTokens);
 
         // The Othello game forces a player to skip a move if no valid move is possible. So you should check for this
         // situation first.
@@ -212,8 +122,6 @@ public final class OthelloMinMaxCombiStrategy implements OthelloStrategy {
             return Optional.of(this.moveFactory.createSkipMove(usingBlackTokens));
         }
 
-//        final FieldIntTuple besttuple = this.minmax(state, usingBlackTokens, activeFields, this.depthOfTree);
-
 //        System.out.println(besttuple.getValue()); //prints how good the Strategy thinks the current board is.
 
 //        final OthelloPosition bestposition = besttuple.getField().getPosition();
@@ -221,7 +129,53 @@ public final class OthelloMinMaxCombiStrategy implements OthelloStrategy {
         return Optional.of(
                 this.moveFactory.createPlaceTokenMove(
                         usingBlackTokens,
-                        this.minmax(state, usingBlackTokens, activeFields, this.depthOfTree).getField().getPosition()));
+                        this.minmax(state, usingBlackTokens, activeFields, context)));
+    }
+
+    /**
+     * Searches the next move by the bitboard search engine evaluating like the layered tree.
+     *
+     * @param gameId           The ID of the game.
+     * @param board            The current board.
+     * @param usingBlackTokens If black is the player to move.
+     * @param context          The parameters of the search.
+     * @return The move found.
+     */
+    private OthelloMove searchWithEngine(final int gameId, final OthelloBoard board, final boolean usingBlackTokens,
+            final OthelloMinMaxCombiContext context) {
+        final OthelloMinMaxCombiEvaluator evaluator = new OthelloMinMaxCombiEvaluator(context);
+        final long black = OthelloBitBoard.squaresBeing(board, OthelloFieldState.BLACK);
+        final long white = OthelloBitBoard.squaresBeing(board, OthelloFieldState.WHITE);
+        final OthelloSearchResult result = this.getEngine(evaluator).search(
+                gameId,
+                OthelloBitBoard.forSize(board.getSize()),
+                usingBlackTokens ? black : white,
+                usingBlackTokens ? white : black,
+                evaluator);
+        if (result.isPass()) {
+            return this.moveFactory.createSkipMove(usingBlackTokens);
+        }
+        return this.moveFactory
+                .createPlaceTokenMove(usingBlackTokens, OthelloBitBoard.toPosition(result.getBestMove()));
+    }
+
+    /**
+     * Returns the search engine, creating it if necessary.
+     *
+     * @param evaluator The evaluator of the first search, which the engine keeps as its own.
+     */
+    private synchronized OthelloSearchEngine getEngine(final OthelloEvaluator evaluator) {
+        if (this.engine.isEmpty()) {
+            this.engine = Optional.of(this.engineFactory.apply(evaluator));
+        }
+        return this.engine.get();
+    }
+
+    /**
+     * Returns the search engine if it has been created.
+     */
+    private synchronized Optional<OthelloSearchEngine> getCreatedEngine() {
+        return this.engine;
     }
 
     @Override
@@ -253,229 +207,185 @@ public final class OthelloMinMaxCombiStrategy implements OthelloStrategy {
     }
 
     /**
-     * Builds a one layer deep tree with the board you give it as root and all possible boards one move into the future
-     * as children.
-     *
+     * Adds all positions one move into the future of a position as children of its node. If the player to move has to
+     * skip, a single child with the same board is added instead.
      *
-     * @param field
-     * @param usingBlackTokens
-     * @param activeFields
-     * @return
+     * @param tree             the search tree
+     * @param node             the node of the position
+     * @param board            the board of the position
+     * @param usingBlackTokens if it is black to move in the position
+     * @param activeFields     list of active fields in the position
+     * @param layer            list to append the boards of the children to, in the order of the children
      * @throws GameException
      */
-
-    private Node<FieldIntTuple> growTree(final OthelloField field, final boolean usingBlackTokens,
-            final List<OthelloField> activeFields) throws GameException {
-        final Node<FieldIntTuple> rootpos = new Node<>(new FieldIntTuple(0, field));
-        OthelloField workfield = field;
+    private void growTree(final OthelloTreeArena tree, final int node, final OthelloBoard board,
+            final boolean usingBlackTokens, final List<OthelloField> activeFields, final List<OthelloBoard> layer)
+            throws GameException {
         if (activeFields.isEmpty()) {
-            rootpos.addChild(new Node<>(new FieldIntTuple(0, field)));
+            tree.addChild(node, OthelloTreeArena.PASS);
+            layer.add(board);
         }
 
         for (int i = 0; i < activeFields.size(); i++) {
-            final OthelloBoard workboard = field.getBoard().deepCopy();
-            workfield = this.setup(workboard, usingBlackTokens).get(i);
-
-            workfield.placeToken(usingBlackTokens);
-            rootpos.addChild(new Node<>(new FieldIntTuple(0, workfield)));
+            final OthelloBoard workboard = board.deepCopy();
+            this.setup(workboard, usingBlackTokens).get(i).placeToken(usingBlackTokens);
+            tree.addChild(node, i);
+            layer.add(workboard);
         }
-
-        return rootpos;
     }
 
     /**
      * Evaluates the lowest layer of a given tree using evaluateBoard, and assigns the values to the nodes in the lowest
      * layer.
      *
-     * @param rootnode
-     * @return
+     * @param tree    the search tree
+     * @param leaves  the boards of the lowest layer, whose nodes are the last ones of the tree
+     * @param context the parameters of the search
      */
-    private Node<FieldIntTuple> evaluateLowestLayer(final Node<FieldIntTuple> rootnode) {
-        rootnode.getLowestLayer().parallelStream()
-                .forEach(node -> node.getData().setValue(this.evaluateBoard(node.getData().getField().getBoard())));
-        return rootnode;
+    private void evaluateLowestLayer(final OthelloTreeArena tree, final List<OthelloBoard> leaves,
+            final OthelloMinMaxCombiContext context) {
+        final int firstLeaf = tree.size() - leaves.size();
+        final OthelloThreadBudget budget = OthelloThreadBudget.getShared();
+        budget.forEach(
+                leaves.size(),
+                budget.getThreadCount(),
+                (final int i) -> tree.setScore(firstLeaf + i, this.evaluateBoard(leaves.get(i), context)));
     }
 
     /**
      * Builds tree of a specified depth with the board you give it as root and all possible boards that could arise
-     * through legal moves within the specified depth as children.
+     * through legal moves within the specified depth as children. The tree is built layer by layer, so the nodes of a
+     * layer directly follow the nodes of the layer above, and only the boards of the current layer are kept.
      *
+     * @param tree             the search tree to fill, which is cleared first
      * @param board            board to use as the root of the Tree
      * @param usingBlackTokens if it is black to move in the root board
      * @param activeFields     list of active fields in the root board
      * @param depth            how far to look into the future
-     * @return
+     * @return the boards of the lowest layer, in the order of its nodes
      * @throws GameException
      */
-    private Node<FieldIntTuple> buildTree(final OthelloBoard board, final boolean usingBlackTokens,
-            final List<OthelloField> activeFields, final Integer depth) throws GameException {
-        final Node<
-                FieldIntTuple> outTree = this.growTree(board.getFields().get(0).get(0), usingBlackTokens, activeFields);
+    private List<OthelloBoard> buildTree(final OthelloTreeArena tree, final OthelloBoard board,
+            final boolean usingBlackTokens, final List<OthelloField> activeFields, final Integer depth)
+            throws GameException {
+        tree.clear();
+        List<OthelloBoard> layer = new ArrayList<>();
+        this.growTree(tree, OthelloTreeArena.ROOT, board, usingBlackTokens, activeFields, layer);
+        int firstOfLayer = OthelloTreeArena.ROOT + 1;
         boolean currentUsingBlackTokens = usingBlackTokens;
         for (int i = 0; i < depth; i++) {
             currentUsingBlackTokens = !currentUsingBlackTokens;
-            for (final Node<FieldIntTuple> node : outTree.getLowestLayer()) {
-                node.addChildren(
-                        this.growTree(
-                                node.getData().getField(),
-                                currentUsingBlackTokens,
-                                this.setup(node.getData().getField().getBoard(), currentUsingBlackTokens))
-                                .getChildren());
+            final List<OthelloBoard> nextLayer = new ArrayList<>();
+            final int firstOfNextLayer = tree.size();
+            for (int j = 0; j < layer.size(); j++) {
+                this.growTree(
+                        tree,
+                        firstOfLayer + j,
+                        layer.get(j),
+                        currentUsingBlackTokens,
+                        this.setup(layer.get(j), currentUsingBlackTokens),
+                        nextLayer);
             }
-
+            layer = nextLayer;
+            firstOfLayer = firstOfNextLayer;
         }
-        return outTree;
+        return layer;
     }
 
     /**
      * Assigns an Integer Evaluation to a board. Values higher than 0 are good for black,lower values are good for
      * white.
      *
-     * @param board board to be evaluated
+     * @param board   board to be evaluated
+     * @param context the parameters of the search
      * @return
      */
-    private Integer evaluateBoard(final OthelloBoard board) {
+    private Integer evaluateBoard(final OthelloBoard board, final OthelloMinMaxCombiContext context) {
+        if (OthelloBitBoard.supports(board.getSize())) {
+            // boards which fit into bit boards are evaluated like by the search engines, with black to move
+            return new OthelloMinMaxCombiEvaluator(context).evaluate(
+                    OthelloBitBoard.forSize(board.getSize()),
+                    OthelloBitBoard.squaresBeing(board, OthelloFieldState.BLACK),
+                    OthelloBitBoard.squaresBeing(board, OthelloFieldState.WHITE));
+        }
 
+        final OthelloWeightTable weights = OthelloWeightTable.forSize(board.getSize());
         final Set<OthelloPosition> blackFields = board.getFieldsBeing(OthelloFieldState.BLACK).keySet();
         final Set<OthelloPosition> whiteFields = board.getFieldsBeing(OthelloFieldState.WHITE).keySet();
-
         final int blackActiveFieldsNum = this.setup(board, true).size();
         final int whiteActiveFieldsNum = this.setup(board, false).size();
-        int blackFieldsNum = blackFields.size();
-        int whiteFieldsNum = whiteFields.size();
+        final int mobilityDiff = blackActiveFieldsNum - whiteActiveFieldsNum;
+        final int blackFieldsNum = blackFields.size();
+        final int whiteFieldsNum = whiteFields.size();
 
         if (this.isWinning(true, blackActiveFieldsNum, whiteActiveFieldsNum, blackFieldsNum, whiteFieldsNum)) {
-            return 1000000;
+            return OthelloMinMaxCombiEvaluator.WON_SCORE;
         }
         if (this.isWinning(false, blackActiveFieldsNum, whiteActiveFieldsNum, blackFieldsNum, whiteFieldsNum)) {
-            return -1000000;
+            return -OthelloMinMaxCombiEvaluator.WON_SCORE;
         } else {
+            int stableFieldsDiff = 0;
+            int fieldValueDiff = blackFieldsNum - whiteFieldsNum;
             for (final OthelloPosition blackPosition : blackFields) {
                 if (this.isFieldStable(board.getFieldAt(blackPosition))) {
-                    blackFieldsNum += this.stableWorth;
+                    ++stableFieldsDiff;
                 }
-                blackFieldsNum += OthelloMinMaxCombiStrategy.boardWeights.get(blackPosition);
-                blackFieldsNum -= this.getFieldPenalty(board.getFieldAt(blackPosition));
+                fieldValueDiff += weights.getWeight(board, blackPosition, OthelloFieldState.BLACK);
+                fieldValueDiff -= this.getFieldPenalty(board.getFieldAt(blackPosition));
 
             }
             for (final OthelloPosition whitePosition : whiteFields) {
                 if (this.isFieldStable(board.getFieldAt(whitePosition))) {
-                    whiteFieldsNum += this.stableWorth;
+                    --stableFieldsDiff;
                 }
-                whiteFieldsNum += OthelloMinMaxCombiStrategy.boardWeights.get(whitePosition);
-                whiteFieldsNum -= this.getFieldPenalty(board.getFieldAt(whitePosition));
-
-            }
-            return ((blackFieldsNum * this.fieldCoefficient + blackActiveFieldsNum)
-                    - (whiteFieldsNum * this.fieldCoefficient + whiteActiveFieldsNum));
-        }
-
-    }
+                fieldValueDiff -= weights.getWeight(board, whitePosition, OthelloFieldState.WHITE);
+                fieldValueDiff += this.getFieldPenalty(board.getFieldAt(whitePosition));
 
-    /**
-     * Removes the lowest layer and propagates its values up the tree according to minmax. Used by crushTree.
-     *
-     * @param rootnode
-     * @param usingBlackTokens
-     * @return
-     * @throws Exception
-     */
-    private Node<FieldIntTuple> shrinkTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens) {
-        final boolean currentUsingBlackTokens = usingBlackTokens;
-        final List<List<Node<FieldIntTuple>>> lNodes = rootnode.getOrganizedLowestLayer();
-
-        for (int i = 0; i < lNodes.size(); i++) {
-            if (lNodes.get(i).isEmpty()) {
-                continue;
             }
 
-            lNodes.get(i).get(0).getParent().setData(
-                    new FieldIntTuple(
-                            this.compare(lNodes.get(i), currentUsingBlackTokens).getValue(),
-                            lNodes.get(i).get(0).getParent().getData().getField()));
-            for (int j = 0; j < lNodes.get(i).size(); j++) {
-                lNodes.get(i).get(j).deleteNode();
-            }
+            // the phase follows from the number of tokens on the board, so it is right for every leaf of the tree
+            final OthelloGamePhase phase = context.getPhase();
+            final int empties = phase.getFieldCount() - blackFieldsNum - whiteFieldsNum;
+            final int lowerPhase = phase.getLowerPhase(empties);
+            final int upperPhase = phase.getUpperPhase(empties);
+            return phase.interpolate(
+                    empties,
+                    (fieldValueDiff + stableFieldsDiff * context.getStableWorth(lowerPhase))
+                            * context.getFieldCoefficient(lowerPhase) + mobilityDiff,
+                    (fieldValueDiff + stableFieldsDiff * context.getStableWorth(upperPhase))
+                            * context.getFieldCoefficient(upperPhase) + mobilityDiff);
         }
-        return rootnode;
-    }
 
-    /**
-     * Returns the minimum or the maximum value FieldIntTuple out of the List it is provided. minimum if
-     * usingBlackTokens is false maximum if usingBlackTokens is true
-     *
-     * @param group
-     * @param usingBlackTokens
-     * @return
-     * @throws Exception
-     */
-    private FieldIntTuple compare(final List<Node<FieldIntTuple>> group, final boolean usingBlackTokens) {
-        if (usingBlackTokens) {
-            return group.parallelStream().max((i, j) -> i.getData().getValue().compareTo(j.getData().getValue())).get()
-                    .getData();
-        } else {
-            return group.parallelStream().min((i, j) -> i.getData().getValue().compareTo(j.getData().getValue())).get()
-                    .getData();
-        }
     }
 
     /**
-     * Evaluates which move should be made according to minmax for a given GameTree. Iterative approach with worse
-     * performance, only exists for debugging purposes.
+     * Builds and evaluates the search tree, and returns the position of the best move according to minmax.
      *
-     * @param rootnode
-     * @param usingBlackTokens
-     * @param depth
-     * @return
-     * @throws Exception
-     */
-    private FieldIntTuple crushTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens,
-            final Integer depth) {
-        boolean currentUsingBlackTokens = usingBlackTokens;
-        Node<FieldIntTuple> currentrootnode = rootnode;
-        for (int i = 0; i < depth; i++) {
-            currentrootnode = this.shrinkTree(currentrootnode, currentUsingBlackTokens);
-            currentUsingBlackTokens = !currentUsingBlackTokens;
-
-        }
-//        return currentrootnode.getLowestLayer();
-        return this.compare(currentrootnode.getChildren(), currentUsingBlackTokens);
-    }
-
-    /**
-     * Builds a Tree representing the current board and all boards reachable by playing legal moves (up to the specified
-     * depth) and then extracts the best move according to minmax search.
-     *
-     * @param state
-     * @param usingBlackTokens
-     * @param activeFields
-     * @param depth
-     * @return
+     * @param state            the current state
+     * @param usingBlackTokens if it is black to move
+     * @param activeFields     list of active fields in the current board, which must not be empty
+     * @param context          the parameters of the search, giving how far to look into the future
+     * @return the position to place a token on
      * @throws GameException
      */
-    private FieldIntTuple minmax(final OthelloState state, final boolean usingBlackTokens,
-            final List<OthelloField> activeFields, final Integer depth) throws GameException {
+    private OthelloPosition minmax(final OthelloState state, final boolean usingBlackTokens,
+            final List<OthelloField> activeFields, final OthelloMinMaxCombiContext context) throws GameException {
+        final OthelloTreeArena tree = this.searchTree.get();
+        final int depth = context.getDepthOfTree();
+        this.evaluateLowestLayer(
+                tree,
+                this.buildTree(tree, state.getBoard(), usingBlackTokens, activeFields, depth),
+                context);
 
         // enterypoint for using the recursive approach with alpha beta pruning
-        return this.reccruschTree(
-                this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
+        final int bestChild = this.reccruschTree(
+                tree,
+                OthelloTreeArena.ROOT,
                 usingBlackTokens,
                 depth + 1,
                 -100000,
                 100000);
-
-        // enterypoint for using the iterative approach without alpha beta pruning.
-//        if (depth % 2 == 0) {
-//            return this.crushTree(
-//                    this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
-//                    usingBlackTokens,
-//                    depth);
-//        } else {
-//            return this.crushTree(
-//                    this.evaluateLowestLayer(this.buildTree(state.getBoard(), usingBlackTokens, activeFields, depth)),
-//                    !usingBlackTokens,
-//                    depth);
-//        }
+        return activeFields.get(tree.getMove(bestChild)).getPosition();
     }
 
     /**
@@ -537,60 +447,61 @@ public final class OthelloMinMaxCombiStrategy implements OthelloStrategy {
     }
 
     /**
-     * Recursively calculates the best move of a GameTree. (implements alpha beta pruning in contrast to the iterative
-     * implementation)
+     * Computes the minmax value of a node recursively with alpha beta pruning and assigns it to the node. The leaves
+     * keep the values assigned by evaluateLowestLayer.
      *
-     * @param rootnode
-     * @param usingBlackTokens
-     * @param depth
-     * @param alpha
-     * @param beta
-     * @return
+     * @param tree             the search tree
+     * @param node             the node
+     * @param usingBlackTokens if black is to move in the node
+     * @param depth            the number of layers below the node to take into account
+     * @param alpha            the value black is already assured of
+     * @param beta             the value white is already assured of
+     * @return the child with the best value, or the node itself if it is a leaf
      */
-    private FieldIntTuple reccruschTree(final Node<FieldIntTuple> rootnode, final boolean usingBlackTokens,
-            final Integer depth, final Integer alpha, final Integer beta) {
-        Integer localAlpha = alpha;
-        Integer localBeta = beta;
-        if (depth <= 0 || rootnode.getChildren().isEmpty()) {
-            return rootnode.getData();
+    private int reccruschTree(final OthelloTreeArena tree, final int node, final boolean usingBlackTokens,
+            final int depth, final int alpha, final int beta) {
+        int localAlpha = alpha;
+        int localBeta = beta;
+        if (depth <= 0 || tree.getFirstChild(node) == OthelloTreeArena.NONE) {
+            return node;
         }
 
+        int bestChild = node;
+        int child = tree.getFirstChild(node);
         if (usingBlackTokens) {
-            FieldIntTuple bestNode = new FieldIntTuple(-10000000, rootnode.getData().getField());
-            for (final Node<FieldIntTuple> child : rootnode.getChildren()) {
-                final FieldIntTuple currEval = new FieldIntTuple(0, child.getData().getField());
-                currEval.setValue(this.reccruschTree(child, false, depth - 1, localAlpha, localBeta).getValue());
-                if (bestNode.getValue() >= currEval.getValue()) {
-                    // do nothing
-                } else {
-                    bestNode = currEval;
+            int bestValue = -10000000;
+            while (child != OthelloTreeArena.NONE) {
+                this.reccruschTree(tree, child, false, depth - 1, localAlpha, localBeta);
+                final int currEval = tree.getScore(child);
+                if (bestValue < currEval) {
+                    bestValue = currEval;
+                    bestChild = child;
                 }
-                localAlpha = Math.max(localAlpha, currEval.getValue());
+                localAlpha = Math.max(localAlpha, currEval);
                 if (localBeta <= localAlpha) {
                     break;
                 }
-
+                child = tree.getNextSibling(child);
             }
-            return bestNode;
+            tree.setScore(node, bestValue);
         } else {
-            FieldIntTuple bestNode = new FieldIntTuple(10000000, rootnode.getData().getField());
-            for (final Node<FieldIntTuple> child : rootnode.getChildren()) {
-                final FieldIntTuple currEval = new FieldIntTuple(0, child.getData().getField());
-                currEval.setValue(this.reccruschTree(child, true, depth - 1, localAlpha, localBeta).getValue());
-
-                if (bestNode.getValue() <= currEval.getValue()) {
-                    // do nothing
-                } else {
-                    bestNode = currEval;
+            int bestValue = 10000000;
+            while (child != OthelloTreeArena.NONE) {
+                this.reccruschTree(tree, child, true, depth - 1, localAlpha, localBeta);
+                final int currEval = tree.getScore(child);
+                if (bestValue > currEval) {
+                    bestValue = currEval;
+                    bestChild = child;
                 }
-                localBeta = Math.min(localBeta, currEval.getValue());
+                localBeta = Math.min(localBeta, currEval);
                 if (localBeta <= localAlpha) {
                     break;
                 }
-
+                child = tree.getNextSibling(child);
             }
-            return bestNode;
+            tree.setScore(node, bestValue);
         }
+        return bestChild;
     }
 
     /**
@@ -637,39 +548,21 @@ public final class OthelloMinMaxCombiStrategy implements OthelloStrategy {
     }
 
     /**
-     * Updates the map according to the corners occupied by the Strategy and returns the number of corners owned.
+     * Returns the number of corners owned by a player.
      *
-     * @param ownFields
-     * @return
+     * @param board the board
+     * @param state the colour of the tokens of the player
+     * @return the number of corners owned
      */
-    private int checkOwnCorners(final Set<OthelloPosition> ownFields) {
+    private int countOwnCorners(final OthelloBoard board, final OthelloFieldState state) {
+        final int last = board.getSize() - 1;
         int ownCorners = 0;
-        for (final OthelloPosition ownPosition : ownFields) {
-
-            if (ownPosition.equals(OthelloPosition.of(0, 0))) {
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(0, 1), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(1, 0), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(1, 1), 0);
-                ownCorners += 1;
-            }
-            if (ownPosition.equals(OthelloPosition.of(0, 7))) {
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(0, 6), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(1, 7), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(1, 6), 0);
-                ownCorners += 1;
-
-            }
-            if (ownPosition.equals(OthelloPosition.of(7, 0))) {
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(6, 0), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(7, 1), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(1, 6), 0);
-                ownCorners += 1;
-
-            }
-            if (ownPosition.equals(OthelloPosition.of(7, 7))) {
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(7, 6), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(6, 7), 0);
-                OthelloMinMaxCombiStrategy.boardWeights.replace(OthelloPosition.of(6, 6), 0);
+        for (final OthelloPosition corner : List.of(
+                OthelloPosition.of(0, 0),
+                OthelloPosition.of(0, last),
+                OthelloPosition.of(last, 0),
+                OthelloPosition.of(last, last))) {
+            if (board.getFieldAt(corner).getState().equals(state)) {
                 ownCorners += 1;
             }
         }
@@ -18,6 +18,7 @@
 module de.fhdw.gaming.othello.strategy.template {
     requires de.fhdw.gaming.core;
     requires de.fhdw.gaming.othello.core;
+    requires de.fhdw.gaming.othello.search;
 
     provides de.fhdw.gaming.othello.core.domain.factory.OthelloStrategyFactory
             with de.fhdw.gaming.othello.strategy.ITN_YV.OthelloMinMaxCombiFactory;
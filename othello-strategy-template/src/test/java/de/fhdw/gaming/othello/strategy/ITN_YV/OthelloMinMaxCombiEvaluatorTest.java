@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-strategy-template.
+ *
+ * Othello-strategy-template is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-strategy-template is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-strategy-template.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.strategy.ITN_YV;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+import de.fhdw.gaming.othello.search.OthelloSearchEngine;
+import de.fhdw.gaming.othello.search.evaluation.OthelloSquareWeightEvaluator;
+import de.fhdw.gaming.othello.search.evaluation.OthelloWeightTable;
+
+/**
+ * Tests {@link OthelloMinMaxCombiEvaluator}.
+ */
+class OthelloMinMaxCombiEvaluatorTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+
+    /**
+     * Tests that tokens on a row owned from edge to edge are stable and worth more if the player to move at the root
+     * owns corners, while tokens in the interior next to empty fields are not.
+     */
+    @Test
+    void testStableFields() {
+        final long row = 0x800FFL;
+        final long opponent = 0x0000001818000000L;
+        final OthelloMinMaxCombiEvaluator noCorners = new OthelloMinMaxCombiEvaluator(
+                new OthelloMinMaxCombiContext(64, 48, 0));
+        final OthelloMinMaxCombiEvaluator twoCorners = new OthelloMinMaxCombiEvaluator(
+                new OthelloMinMaxCombiContext(64, 48, 2));
+        assertThat(
+                twoCorners.evaluate(OthelloMinMaxCombiEvaluatorTest.BOARD, row, opponent),
+                is(greaterThan(noCorners.evaluate(OthelloMinMaxCombiEvaluatorTest.BOARD, row, opponent))));
+
+        final long inner = 0x180000L;
+        assertThat(
+                twoCorners.evaluate(OthelloMinMaxCombiEvaluatorTest.BOARD, inner, opponent),
+                is(equalTo(noCorners.evaluate(OthelloMinMaxCombiEvaluatorTest.BOARD, inner, opponent))));
+    }
+
+    /**
+     * Tests that the evaluation is symmetric: swapping the players negates it.
+     */
+    @Test
+    void testSymmetry() {
+        final OthelloMinMaxCombiEvaluator evaluator = new OthelloMinMaxCombiEvaluator(
+                new OthelloMinMaxCombiContext(64, 30, 1));
+        final Random random = new Random(5);
+        for (int game = 0; game < 20; ++game) {
+            final long[] position = OthelloMinMaxCombiEvaluatorTest.playRandomly(random, 10 + game * 2);
+            assertThat(
+                    evaluator.evaluate(OthelloMinMaxCombiEvaluatorTest.BOARD, position[0], position[1]),
+                    is(equalTo(-evaluator.evaluate(OthelloMinMaxCombiEvaluatorTest.BOARD, position[1], position[0]))));
+        }
+    }
+
+    /**
+     * Tests that evaluators of contexts which evaluate alike are equal, whatever the depth of the search, so that the
+     * searches of one strategy share what the engine keeps from one search to the next.
+     */
+    @Test
+    void testEquality() {
+        final OthelloMinMaxCombiEvaluator opening = new OthelloMinMaxCombiEvaluator(
+                new OthelloMinMaxCombiContext(64, 50, 1));
+        final OthelloMinMaxCombiEvaluator endgame = new OthelloMinMaxCombiEvaluator(
+                new OthelloMinMaxCombiContext(64, 10, 1));
+        assertThat(opening, is(equalTo(endgame)));
+        assertThat(opening.hashCode(), is(equalTo(endgame.hashCode())));
+        assertThat(
+                opening,
+                is(not(equalTo(new OthelloMinMaxCombiEvaluator(new OthelloMinMaxCombiContext(64, 50, 2))))));
+        assertThat(
+                opening,
+                is(not(equalTo(new OthelloMinMaxCombiEvaluator(new OthelloMinMaxCombiContext(36, 30, 1))))));
+    }
+
+    /**
+     * Tests that the search engine used for 8x8 boards chooses moves by the Combi evaluation: at depth one, it plays
+     * the move leading to the best evaluated position, which in some positions differs from the move the plain square
+     * weights would choose.
+     */
+    @Test
+    void testMoveChoiceOnEightByEight() {
+        final OthelloEvaluator squareWeights = new OthelloSquareWeightEvaluator(
+                OthelloWeightTable.forSize(8).toSquareWeights(),
+                1);
+        final Random random = new Random(7);
+        int checked = 0;
+        int differing = 0;
+        for (int game = 0; game < 40; ++game) {
+            final long[] position = OthelloMinMaxCombiEvaluatorTest.playRandomly(random, 8 + game % 30);
+            final long player = position[0];
+            final long opponent = position[1];
+            final long legal = OthelloMinMaxCombiEvaluatorTest.BOARD.legalMoves(player, opponent);
+            if (legal == 0L) {
+                continue;
+            }
+            final int ownCorners = Long.bitCount(player & OthelloMinMaxCombiEvaluatorTest.BOARD.getCornerSquares());
+            final int empties = Long.bitCount(OthelloMinMaxCombiEvaluatorTest.BOARD.emptySquares(player, opponent));
+            final OthelloMinMaxCombiEvaluator combi = new OthelloMinMaxCombiEvaluator(
+                    new OthelloMinMaxCombiContext(64, empties, ownCorners));
+            final int combiMove = OthelloMinMaxCombiEvaluatorTest.bestMove(combi, player, opponent);
+            if (combiMove == OthelloBitBoard.PASS) {
+                continue;
+            }
+            final OthelloSearchEngine engine = new OthelloDefaultSearchEngineBuilder().changeMaximumDepth(1)
+                    .changeSearchTimeMillis(60000L).changeEndgameEmpties(0).changeEvaluationCacheBits(0)
+                    .changeTranspositionTableBits(10).changeEvaluator(combi).build();
+            assertThat(
+                    engine.search(game, OthelloMinMaxCombiEvaluatorTest.BOARD, player, opponent).getBestMove(),
+                    is(equalTo(combiMove)));
+            ++checked;
+            if (OthelloMinMaxCombiEvaluatorTest.bestMove(squareWeights, player, opponent) != combiMove) {
+                ++differing;
+            }
+        }
+        assertThat(checked, is(greaterThan(10)));
+        assertThat(differing, is(greaterThan(0)));
+    }
+
+    /**
+     * Returns the move leading to the best evaluated position, or {@link OthelloBitBoard#PASS} if that move is not
+     * unique, if there is only one move, or if the opponent would have to skip after any move.
+     *
+     * @param evaluator The evaluator.
+     * @param player    The fields of the player to move.
+     * @param opponent  The fields of the opponent.
+     */
+    private static int bestMove(final OthelloEvaluator evaluator, final long player, final long opponent) {
+        final OthelloBitBoard board = OthelloMinMaxCombiEvaluatorTest.BOARD;
+        final long legal = board.legalMoves(player, opponent);
+        if (Long.bitCount(legal) < 2) {
+            return OthelloBitBoard.PASS;
+        }
+        int bestMove = OthelloBitBoard.PASS;
+        int bestScore = Integer.MIN_VALUE;
+        boolean unique = false;
+        for (long remaining = legal; remaining != 0L; remaining &= remaining - 1L) {
+            final int move = Long.numberOfTrailingZeros(remaining);
+            final long flipped = board.flips(player, opponent, move);
+            final long newPlayer = opponent & ~flipped;
+            final long newOpponent = player | flipped | 1L << move;
+            if (board.legalMoves(newPlayer, newOpponent) == 0L) {
+                return OthelloBitBoard.PASS;
+            }
+            final int score = -evaluator.evaluate(board, newPlayer, newOpponent);
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                unique = true;
+            } else if (score == bestScore) {
+                unique = false;
+            }
+        }
+        return unique ? bestMove : OthelloBitBoard.PASS;
+    }
+
+    /**
+     * Plays random moves from the initial position.
+     *
+     * @param random The source of the moves.
+     * @param plies  The maximum number of moves.
+     * @return The fields of the player to move and the fields of the opponent.
+     */
+    private static long[] playRandomly(final Random random, final int plies) {
+        final OthelloBitBoard board = OthelloMinMaxCombiEvaluatorTest.BOARD;
+        long player = board.getInitialSquares(true);
+        long opponent = board.getInitialSquares(false);
+        for (int ply = 0; ply < plies; ++ply) {
+            long legal = board.legalMoves(player, opponent);
+            if (legal == 0L) {
+                break;
+            }
+            for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; --skip) {
+                legal &= legal - 1L;
+            }
+            final int move = Long.numberOfTrailingZeros(legal);
+            final long flipped = board.flips(player, opponent, move);
+            final long newPlayer = opponent & ~flipped;
+            opponent = player | flipped | 1L << move;
+            player = newPlayer;
+        }
+        return new long[] { player, opponent };
+    }
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright © 2020 Fachhochschule für die Wirtschaft (FHDW) Hannover
+ *
+ * This file is part of othello-strategy-template.
+ *
+ * Othello-strategy-template is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Othello-strategy-template is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with othello-strategy-template.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.fhdw.gaming.othello.strategy.ITN_YV;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.fhdw.gaming.core.domain.GameException;
+import de.fhdw.gaming.core.domain.PlayerState;
+import de.fhdw.gaming.othello.core.domain.OthelloBoard;
+import de.fhdw.gaming.othello.core.domain.OthelloDirection;
+import de.fhdw.gaming.othello.core.domain.OthelloField;
+import de.fhdw.gaming.othello.core.domain.OthelloFieldState;
+import de.fhdw.gaming.othello.core.domain.OthelloPlayer;
+import de.fhdw.gaming.othello.core.domain.OthelloPosition;
+import de.fhdw.gaming.othello.core.domain.OthelloState;
+import de.fhdw.gaming.othello.core.moves.OthelloMove;
+import de.fhdw.gaming.othello.core.moves.factory.OthelloMoveFactory;
+import de.fhdw.gaming.othello.search.OthelloBitBoard;
+import de.fhdw.gaming.othello.search.OthelloDefaultSearchEngineBuilder;
+import de.fhdw.gaming.othello.search.OthelloEvaluator;
+
+/**
+ * Tests {@link OthelloMinMaxCombiStrategy}.
+ */
+class OthelloMinMaxCombiStrategyTest {
+
+    /**
+     * The geometry of an 8x8 board.
+     */
+    private static final OthelloBitBoard BOARD = OthelloBitBoard.forSize(8);
+    /**
+     * The computation time of the searches in milliseconds.
+     */
+    private static final long SEARCH_TIME_MILLIS = 20L;
+    /**
+     * The number of games played at the same time.
+     */
+    private static final int GAME_COUNT = 2;
+
+    /**
+     * Tests that the search looks deeper near the end of the game, at the same share of empty fields on every board.
+     */
+    @Test
+    void testEndgameDepth() {
+        assertThat(new OthelloMinMaxCombiContext(64, 15, 0).getDepthOfTree(), is(equalTo(3)));
+        assertThat(new OthelloMinMaxCombiContext(64, 14, 0).getDepthOfTree(), is(equalTo(5)));
+        assertThat(new OthelloMinMaxCombiContext(36, 9, 0).getDepthOfTree(), is(equalTo(3)));
+        assertThat(new OthelloMinMaxCombiContext(36, 8, 0).getDepthOfTree(), is(equalTo(5)));
+        assertThat(new OthelloMinMaxCombiContext(100, 23, 0).getDepthOfTree(), is(equalTo(5)));
+    }
+
+    /**
+     * Tests that games played at the same time by the same strategy are played to their end by legal moves only, and
+     * share a single search engine.
+     *
+     * @throws Exception if a game fails or the test is interrupted.
+     */
+    @Test
+    void testConcurrentGames() throws Exception {
+        final AtomicInteger createdEngines = new AtomicInteger();
+        final OthelloMinMaxCombiStrategy strategy = new OthelloMinMaxCombiStrategy(
+                new MoveFactoryStub(),
+                (final OthelloEvaluator evaluator) -> {
+                    createdEngines.incrementAndGet();
+                    return new OthelloDefaultSearchEngineBuilder().changeThreadCount(2).changePondering(true)
+                            .changeSearchTimeMillis(OthelloMinMaxCombiStrategyTest.SEARCH_TIME_MILLIS)
+                            .changeEvaluationCacheBits(0).changeTranspositionTableBits(16).changeEvaluator(evaluator)
+                            .build();
+                });
+        final ExecutorService games = Executors.newFixedThreadPool(OthelloMinMaxCombiStrategyTest.GAME_COUNT);
+        try {
+            final List<Future<long[]>> results = new ArrayList<>();
+            for (int game = 1; game <= OthelloMinMaxCombiStrategyTest.GAME_COUNT; ++game) {
+                final int gameId = game;
+                results.add(games.submit(() -> OthelloMinMaxCombiStrategyTest.playGame(strategy, gameId)));
+            }
+            for (final Future<long[]> result : results) {
+                final long[] position = result.get();
+                assertThat(Long.bitCount(position[0] | position[1]) > 4, is(equalTo(true)));
+            }
+        } finally {
+            games.shutdown();
+            strategy.reset();
+        }
+        assertThat(createdEngines.get(), is(equalTo(1)));
+    }
+
+    /**
+     * Plays a game from the initial position to its end, both players using the strategy.
+     *
+     * @param strategy The strategy.
+     * @param gameId   The ID of the game.
+     * @return The fields occupied by black and by white at the end of the game.
+     * @throws GameException if the strategy fails.
+     */
+    private static long[] playGame(final OthelloMinMaxCombiStrategy strategy, final int gameId)
+            throws GameException {
+        final OthelloBitBoard board = OthelloMinMaxCombiStrategyTest.BOARD;
+        long black = board.getInitialSquares(true);
+        long white = board.getInitialSquares(false);
+        boolean blackToMove = true;
+        while (board.legalMoves(black, white) != 0L || board.legalMoves(white, black) != 0L) {
+            final long player = blackToMove ? black : white;
+            final long opponent = blackToMove ? white : black;
+            final MoveStub move = (MoveStub) strategy.computeNextMove(
+                    gameId,
+                    new PlayerStub(blackToMove),
+                    new StateStub(new BoardStub(black, white), blackToMove)).orElseThrow();
+            assertThat(move.isPlacingBlackToken(), is(equalTo(blackToMove)));
+            final long legal = board.legalMoves(player, opponent);
+            if (legal == 0L) {
+                assertThat(move.getSquare(), is(equalTo(OthelloBitBoard.PASS)));
+            } else {
+                assertThat((legal >>> move.getSquare() & 1L) != 0L, is(equalTo(true)));
+                final long flipped = board.flips(player, opponent, move.getSquare());
+                final long newPlayer = player | flipped | 1L << move.getSquare();
+                final long newOpponent = opponent & ~flipped;
+                black = blackToMove ? newPlayer : newOpponent;
+                white = blackToMove ? newOpponent : newPlayer;
+            }
+            blackToMove = !blackToMove;
+        }
+        return new long[] { black, white };
+    }
+
+    /**
+     * A move which only records what it does.
+     */
+    private static final class MoveStub implements OthelloMove {
+
+        /**
+         * Whether a black token is placed.
+         */
+        private final boolean placingBlackToken;
+        /**
+         * The square the token is placed on, or {@link OthelloBitBoard#PASS} if the move is skipped.
+         */
+        private final int square;
+
+        /**
+         * Creates a move.
+         *
+         * @param placingBlackToken Whether a black token is placed.
+         * @param square            The square the token is placed on, or {@link OthelloBitBoard#PASS}.
+         */
+        MoveStub(final boolean placingBlackToken, final int square) {
+            this.placingBlackToken = placingBlackToken;
+            this.square = square;
+        }
+
+        /**
+         * Returns whether a black token is placed.
+         */
+        boolean isPlacingBlackToken() {
+            return this.placingBlackToken;
+        }
+
+        /**
+         * Returns the square the token is placed on, or {@link OthelloBitBoard#PASS} if the move is skipped.
+         */
+        int getSquare() {
+            return this.square;
+        }
+
+        @Override
+        public void applyTo(final OthelloState state, final OthelloPlayer player) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Creates {@link MoveStub}s.
+     */
+    private static final class MoveFactoryStub implements OthelloMoveFactory {
+
+        @Override
+        public OthelloMove createPlaceTokenMove(final boolean placingBlackToken, final OthelloPosition tokenPosition) {
+            return new MoveStub(placingBlackToken, OthelloBitBoard.square(tokenPosition));
+        }
+
+        @Override
+        public OthelloMove createSkipMove(final boolean placingBlackToken) {
+            return new MoveStub(placingBlackToken, OthelloBitBoard.PASS);
+        }
+    }
+
+    /**
+     * An immutable 8x8 board given by the fields occupied by each player, which offers what the strategy searching by
+     * its engine asks for.
+     */
+    private static final class BoardStub implements OthelloBoard {
+
+        /**
+         * The fields occupied by black.
+         */
+        private final long black;
+        /**
+         * The fields occupied by white.
+         */
+        private final long white;
+
+        /**
+         * Creates a board.
+         *
+         * @param black The fields occupied by black.
+         * @param white The fields occupied by white.
+         */
+        BoardStub(final long black, final long white) {
+            this.black = black;
+            this.white = white;
+        }
+
+        @Override
+        public int getSize() {
+            return OthelloMinMaxCombiStrategyTest.BOARD.getSize();
+        }
+
+        @Override
+        public boolean hasFieldAt(final OthelloPosition position) {
+            return position.getRow() >= 0 && position.getRow() < this.getSize() && position.getColumn() >= 0
+                    && position.getColumn() < this.getSize();
+        }
+
+        @Override
+        public OthelloField getFieldAt(final OthelloPosition position) {
+            return new FieldStub(this, position);
+        }
+
+        @Override
+        public List<List<? extends OthelloField>> getFields() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<OthelloPosition, ? extends OthelloField> getFieldsBeing(final OthelloFieldState fieldState) {
+            final Map<OthelloPosition, FieldStub> fields = new LinkedHashMap<>();
+            for (int square = 0; square < this.getSize() * this.getSize(); ++square) {
+                final OthelloPosition position = OthelloBitBoard.toPosition(square);
+                if (this.getStateAt(square).equals(fieldState)) {
+                    fields.put(position, new FieldStub(this, position));
+                }
+            }
+            return fields;
+        }
+
+        @Override
+        public OthelloBoard deepCopy() {
+            return this;
+        }
+
+        /**
+         * Returns the state of a field.
+         *
+         * @param square The square of the field.
+         */
+        OthelloFieldState getStateAt(final int square) {
+            if ((this.black >>> square & 1L) != 0L) {
+                return OthelloFieldState.BLACK;
+            }
+            return (this.white >>> square & 1L) != 0L ? OthelloFieldState.WHITE : OthelloFieldState.EMPTY;
+        }
+    }
+
+    /**
+     * A field of a {@link BoardStub}.
+     */
+    private static final class FieldStub implements OthelloField {
+
+        /**
+         * The board.
+         */
+        private final BoardStub board;
+        /**
+         * The position of the field.
+         */
+        private final OthelloPosition position;
+
+        /**
+         * Creates a field.
+         *
+         * @param board    The board.
+         * @param position The position of the field.
+         */
+        FieldStub(final BoardStub board, final OthelloPosition position) {
+            this.board = board;
+            this.position = position;
+        }
+
+        @Override
+        public OthelloBoard getBoard() {
+            return this.board;
+        }
+
+        @Override
+        public OthelloPosition getPosition() {
+            return this.position;
+        }
+
+        @Override
+        public OthelloFieldState getState() {
+            return this.board.getStateAt(OthelloBitBoard.square(this.position));
+        }
+
+        @Override
+        public boolean hasNeighbour(final OthelloDirection direction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OthelloField getNeighbour(final OthelloDirection direction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isActive(final boolean placingBlackToken) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<? extends OthelloField> getLineOfTokens(final OthelloDirection direction,
+                final OthelloFieldState delimiterState) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void placeToken(final boolean blackToken) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A player of a {@link StateStub}.
+     */
+    private static final class PlayerStub implements OthelloPlayer {
+
+        /**
+         * Whether the player uses black tokens.
+         */
+        private final boolean usingBlackTokens;
+
+        /**
+         * Creates a player.
+         *
+         * @param usingBlackTokens Whether the player uses black tokens.
+         */
+        PlayerStub(final boolean usingBlackTokens) {
+            this.usingBlackTokens = usingBlackTokens;
+        }
+
+        @Override
+        public String getName() {
+            return this.usingBlackTokens ? "Black" : "White";
+        }
+
+        @Override
+        public PlayerState getState() {
+            return PlayerState.PLAYING;
+        }
+
+        @Override
+        public boolean isUsingBlackTokens() {
+            return this.usingBlackTokens;
+        }
+
+        @Override
+        public OthelloPlayer deepCopy(final OthelloState newGameState) {
+            return this;
+        }
+    }
+
+    /**
+     * A state offering the board and the players only.
+     */
+    private static final class StateStub implements OthelloState {
+
+        /**
+         * The board.
+         */
+        private final OthelloBoard board;
+        /**
+         * Whether black is to move.
+         */
+        private final boolean blackToMove;
+
+        /**
+         * Creates a state.
+         *
+         * @param board       The board.
+         * @param blackToMove Whether black is to move.
+         */
+        StateStub(final OthelloBoard board, final boolean blackToMove) {
+            this.board = board;
+            this.blackToMove = blackToMove;
+        }
+
+        @Override
+        public OthelloBoard getBoard() {
+            return this.board;
+        }
+
+        @Override
+        public OthelloPlayer getBlackPlayer() {
+            return new PlayerStub(true);
+        }
+
+        @Override
+        public OthelloPlayer getWhitePlayer() {
+            return new PlayerStub(false);
+        }
+
+        @Override
+        public OthelloPlayer getCurrentPlayer() {
+            return new PlayerStub(this.blackToMove);
+        }
+
+        @Override
+        public void moveCompleted(final boolean skipMove) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getNumberOfConsecutiveSkips() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public OthelloState deepCopy() {
+            return this;
+        }
+
+        @Override
+        public Map<String, OthelloPlayer> getPlayers() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PlayerState getPlayerState(final String playerName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setPlayerState(final String playerName, final PlayerState newState) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<OthelloPlayer> computeNextPlayers() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void nextTurn() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}